@@ -0,0 +1,95 @@
+package com.example.apigateway.config;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * One RestClient per backend, each on its own keep-alive connection pool so a slow backend
+ * cannot take connections away from the others.
+ */
+@Configuration
+public class BackendClientsConfig {
+    @Value("${gateway.backends.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${gateway.backends.read-timeout-ms:10000}")
+    private long readTimeoutMs;
+
+    @Bean
+    public RestClient userServiceClient(@Value("${gateway.backends.user.url}") String url,
+                                        @Value("${gateway.backends.user.max-connections:50}") int maxConnections) {
+        return client(url, maxConnections);
+    }
+
+    @Bean
+    public RestClient flightServiceClient(@Value("${gateway.backends.flight.url}") String url,
+                                          @Value("${gateway.backends.flight.max-connections:100}") int maxConnections) {
+        return client(url, maxConnections);
+    }
+
+    /**
+     * Relays FlightService event streams. The JDK client has no read timeout once the response
+     * has started, so the stream outlives {@code read-timeout-ms}, and closing the body drops the
+     * connection at once, where the pooled client would first read the endless stream to its end.
+     */
+    @Bean
+    public RestClient flightServiceStreamClient(@Value("${gateway.backends.flight.url}") String url) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        // Until the response headers arrive
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return RestClient.builder()
+                .baseUrl(url)
+                .requestFactory(requestFactory)
+                .build();
+    }
+
+    @Bean
+    public RestClient ticketServiceClient(@Value("${gateway.backends.ticket.url}") String url,
+                                          @Value("${gateway.backends.ticket.max-connections:100}") int maxConnections) {
+        return client(url, maxConnections);
+    }
+
+    private RestClient client(String baseUrl, int maxConnections) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .build())
+                .build();
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .build())
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .disableRedirectHandling()
+                .disableAutomaticRetries()
+                .build();
+        return RestClient.builder()
+                .baseUrl(baseUrl)
+                .requestFactory(new HttpComponentsClientHttpRequestFactory(httpClient))
+                .build();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.apigateway.config;
+
+import com.example.apigateway.security.GatewayUser;
+import com.example.apigateway.security.TrustedHeaders;
+import com.example.common.security.TokenDenylist;
+import com.example.common.security.TokenDenylist.Revocations;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestClient;
+
+@Configuration
+public class TokenDenylistConfig {
+    private static final GatewayUser GATEWAY = new GatewayUser(0L, "api-gateway", "ROLE_SERVICE");
+
+    // Backends that trust the gateway's headers rely on revoked sessions having been rejected here
+    @Bean
+    public TokenDenylist tokenDenylist(@Qualifier("userServiceClient") RestClient userServiceClient,
+                                       @Value("${gateway.security.shared-secret:}") String sharedSecret) {
+        return new TokenDenylist(since -> userServiceClient.get()
+                .uri("/api/auth/revocations?since={since}", since.toEpochMilli())
+                .headers(headers -> TrustedHeaders.apply(headers, GATEWAY, sharedSecret))
+                .retrieve()
+                .body(Revocations.class));
+    }
+}
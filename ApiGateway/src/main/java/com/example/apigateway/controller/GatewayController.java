@@ -0,0 +1,44 @@
+package com.example.apigateway.controller;
+
+import com.example.apigateway.dtos.BookingPageDTO;
+import com.example.apigateway.security.GatewayUser;
+import com.example.apigateway.service.BookingPageService;
+import com.example.apigateway.service.ProxyService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+public class GatewayController {
+    private final ProxyService proxyService;
+    private final BookingPageService bookingPageService;
+
+    // Flight, its schedules and the caller's tickets on it, fetched in parallel behind one request
+    @GetMapping("/gateway/booking-page/{flightId}")
+    public ResponseEntity<BookingPageDTO> getBookingPage(
+            @PathVariable Long flightId,
+            @RequestAttribute(name = GatewayUser.REQUEST_ATTRIBUTE, required = false) GatewayUser user,
+            @RequestHeader(name = "Authorization", required = false) String authorization) {
+        return ResponseEntity.ok(bookingPageService.getBookingPage(flightId, user, authorization));
+    }
+
+    @RequestMapping({"/api/**", "/.well-known/**", "/flights/**", "/tickets/**"})
+    public ResponseEntity<byte[]> proxy(HttpServletRequest request, HttpServletResponse response,
+                                        @RequestBody(required = false) byte[] body) {
+        if (proxyService.isEventStream(request)) {
+            // Written to the response as it arrives; there is nothing left to return
+            proxyService.stream(request, response);
+            return null;
+        }
+        return proxyService.forward(request, body);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.apigateway.dtos;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Everything the booking page needs in one response. The parts are passed through as the
+ * backends returned them; {@code myTickets} is null for anonymous callers.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingPageDTO {
+    private JsonNode flight;
+    private JsonNode schedules;
+    private JsonNode myTickets;
+}
@@ -0,0 +1,65 @@
+package com.example.apigateway.security;
+
+import com.example.common.security.TokenDenylist;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Verifies the bearer token once, at the edge. A valid token becomes a {@link GatewayUser}
+ * request attribute; an invalid, expired or revoked one is rejected here with 401 rather than
+ * being passed on for every backend to reject again. Requests without a token pass through.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GatewayAuthenticationFilter extends OncePerRequestFilter {
+    private final JwksKeyLocator jwksKeyLocator;
+    private final TokenDenylist tokenDenylist;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String bearerToken = request.getHeader("Authorization");
+        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
+            Claims claims;
+            try {
+                claims = Jwts.parser()
+                        .keyLocator(jwksKeyLocator)
+                        .build()
+                        .parseSignedClaims(bearerToken.substring(7))
+                        .getPayload();
+            } catch (Exception e) {
+                log.debug("Rejecting invalid access token: {}", e.getMessage());
+                unauthorized(response, "Invalid or expired token");
+                return;
+            }
+            if (tokenDenylist.isRevoked(claims.get("sid", String.class))) {
+                unauthorized(response, "Session has been revoked");
+                return;
+            }
+            Number userId = claims.get("uid", Number.class);
+            request.setAttribute(GatewayUser.REQUEST_ATTRIBUTE, new GatewayUser(
+                    userId != null ? userId.longValue() : null, claims.getSubject(), claims.get("roles", String.class)));
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static void unauthorized(HttpServletResponse response, String message) throws IOException {
+        response.setStatus(HttpStatus.UNAUTHORIZED.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+}
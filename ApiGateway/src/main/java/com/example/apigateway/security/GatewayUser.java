@@ -0,0 +1,10 @@
+package com.example.apigateway.security;
+
+/**
+ * The caller as established from a verified access token.
+ *
+ * @param roles comma-separated authorities, e.g. {@code ROLE_USER}
+ */
+public record GatewayUser(Long id, String username, String roles) {
+    public static final String REQUEST_ATTRIBUTE = "com.example.apigateway.security.GatewayUser";
+}
@@ -0,0 +1,36 @@
+package com.example.apigateway.security;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StringUtils;
+
+import java.util.Locale;
+
+/**
+ * Identity headers the gateway adds to backend requests. Backends configured with the same
+ * shared secret take these instead of verifying the token again; clients can never set them,
+ * since the proxy drops every inbound header with the {@code X-User-}/{@code X-Gateway-} prefix.
+ */
+public final class TrustedHeaders {
+    public static final String USER_ID = "X-User-Id";
+    public static final String USER_NAME = "X-User-Name";
+    public static final String USER_ROLES = "X-User-Roles";
+    public static final String GATEWAY_SECRET = "X-Gateway-Secret";
+
+    private TrustedHeaders() {
+    }
+
+    public static boolean isReserved(String headerName) {
+        String name = headerName.toLowerCase(Locale.ROOT);
+        return name.startsWith("x-user-") || name.startsWith("x-gateway-");
+    }
+
+    public static void apply(HttpHeaders headers, GatewayUser user, String sharedSecret) {
+        if (user == null || !StringUtils.hasText(sharedSecret)) {
+            return;
+        }
+        headers.set(GATEWAY_SECRET, sharedSecret);
+        headers.set(USER_ID, String.valueOf(user.id()));
+        headers.set(USER_NAME, user.username());
+        headers.set(USER_ROLES, user.roles() != null ? user.roles() : "");
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.apigateway.service;
+
+import com.example.apigateway.dtos.BookingPageDTO;
+import com.example.apigateway.security.GatewayUser;
+import com.example.apigateway.security.TrustedHeaders;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Builds the booking page from FlightService and TicketService in parallel, so the browser
+ * makes one round trip instead of one per backend call.
+ */
+@Slf4j
+@Service
+public class BookingPageService {
+    private final RestClient flightServiceClient;
+    private final RestClient ticketServiceClient;
+    private final String sharedSecret;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public BookingPageService(@Qualifier("flightServiceClient") RestClient flightServiceClient,
+                              @Qualifier("ticketServiceClient") RestClient ticketServiceClient,
+                              @Value("${gateway.security.shared-secret:}") String sharedSecret) {
+        this.flightServiceClient = flightServiceClient;
+        this.ticketServiceClient = ticketServiceClient;
+        this.sharedSecret = sharedSecret;
+    }
+
+    public BookingPageDTO getBookingPage(Long flightId, GatewayUser user, String authorization) {
+        CompletableFuture<JsonNode> flight = CompletableFuture.supplyAsync(() -> flightServiceClient.get()
+                .uri("/flights/{id}", flightId)
+                .retrieve()
+                .body(JsonNode.class), executor);
+        CompletableFuture<JsonNode> schedules = CompletableFuture.supplyAsync(() -> flightServiceClient.get()
+                .uri("/flights/{id}/schedules", flightId)
+                .retrieve()
+                .body(JsonNode.class), executor);
+        CompletableFuture<JsonNode> myTickets = user == null
+                ? CompletableFuture.completedFuture(null)
+                : CompletableFuture.supplyAsync(() -> myTicketsOn(flightId, user, authorization), executor);
+
+        try {
+            return new BookingPageDTO(flight.join(), orEmpty(schedules), myTickets.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof HttpClientErrorException.NotFound) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Flight not found");
+            }
+            log.error("Error building booking page for flight {}: {}", flightId, e.getCause().getMessage());
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Flight service unavailable");
+        }
+    }
+
+    // Tickets are a nice-to-have on this page; a TicketService failure leaves them out
+    private JsonNode myTicketsOn(Long flightId, GatewayUser user, String authorization) {
+        try {
+            JsonNode response = ticketServiceClient.get()
+                    .uri("/tickets/my-tickets")
+                    .headers(headers -> {
+                        if (authorization != null) {
+                            headers.set("Authorization", authorization);
+                        }
+                        TrustedHeaders.apply(headers, user, sharedSecret);
+                    })
+                    .retrieve()
+                    .body(JsonNode.class);
+            ArrayNode tickets = JsonNodeFactory.instance.arrayNode();
+            if (response != null) {
+                for (JsonNode ticket : response.path("data")) {
+                    if (ticket.path("flightId").asLong() == flightId) {
+                        tickets.add(ticket);
+                    }
+                }
+            }
+            return tickets;
+        } catch (Exception e) {
+            log.warn("Could not load tickets of user {}: {}", user.id(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static JsonNode orEmpty(CompletableFuture<JsonNode> schedules) {
+        try {
+            return schedules.join();
+        } catch (CompletionException e) {
+            log.warn("Could not load schedules: {}", e.getCause().getMessage());
+            return JsonNodeFactory.instance.arrayNode();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.apigateway.service;
+
+import com.example.apigateway.security.GatewayUser;
+import com.example.apigateway.security.TrustedHeaders;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Forwards a request unchanged to the backend that owns its path, over that backend's pooled
+ * client, and relays the response. Adds the trusted identity headers and the client address.
+ * <p>
+ * Responses are read whole under the backends' read timeout, except FlightService event streams,
+ * which are passed on as they arrive for as long as the client listens.
+ */
+@Service
+public class ProxyService {
+    // Hop-by-hop headers (RFC 9110 section 7.6.1) plus the ones the container recomputes
+    private static final Set<String> UNFORWARDED_HEADERS = Set.of(
+            "connection", "keep-alive", "proxy-authenticate", "proxy-authorization", "te", "trailer",
+            "transfer-encoding", "upgrade", "host", "content-length", "origin", "x-forwarded-for");
+
+    private final Backend userService;
+    private final Backend flightService;
+    private final Backend ticketService;
+    private final RestClient flightServiceStreamClient;
+    private final String sharedSecret;
+
+    public ProxyService(@Qualifier("userServiceClient") RestClient userServiceClient,
+                        @Qualifier("flightServiceClient") RestClient flightServiceClient,
+                        @Qualifier("ticketServiceClient") RestClient ticketServiceClient,
+                        @Qualifier("flightServiceStreamClient") RestClient flightServiceStreamClient,
+                        @Value("${gateway.backends.user.url}") String userServiceUrl,
+                        @Value("${gateway.backends.flight.url}") String flightServiceUrl,
+                        @Value("${gateway.backends.ticket.url}") String ticketServiceUrl,
+                        @Value("${gateway.security.shared-secret:}") String sharedSecret) {
+        this.userService = new Backend(userServiceClient, userServiceUrl);
+        this.flightService = new Backend(flightServiceClient, flightServiceUrl);
+        this.ticketService = new Backend(ticketServiceClient, ticketServiceUrl);
+        this.flightServiceStreamClient = flightServiceStreamClient;
+        this.sharedSecret = sharedSecret;
+    }
+
+    public ResponseEntity<byte[]> forward(HttpServletRequest request, byte[] body) {
+        String path = pathOf(request);
+        Backend backend = backendFor(path);
+        RestClient.RequestBodySpec spec = backend.client().method(HttpMethod.valueOf(request.getMethod()))
+                .uri(uriFor(backend, path, request))
+                .headers(headers -> copyRequestHeaders(request, headers));
+        if (body != null && body.length > 0) {
+            spec.body(body);
+        }
+        return spec.exchange((clientRequest, clientResponse) -> {
+            HttpHeaders headers = responseHeaders(clientResponse.getHeaders());
+            byte[] responseBody = StreamUtils.copyToByteArray(clientResponse.getBody());
+            return ResponseEntity.status(clientResponse.getStatusCode()).headers(headers).body(responseBody);
+        });
+    }
+
+    /**
+     * Whether the request asks FlightService, the only backend serving any, for an event stream.
+     */
+    public boolean isEventStream(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return HttpMethod.GET.matches(request.getMethod()) && backendFor(pathOf(request)) == flightService
+                && accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+    }
+
+    /**
+     * Relays an event stream, writing each chunk to the client as soon as it arrives; returns
+     * when either side closes it. Holds the request thread meanwhile.
+     */
+    public void stream(HttpServletRequest request, HttpServletResponse response) {
+        String path = pathOf(request);
+        try {
+            flightServiceStreamClient.get()
+                    .uri(uriFor(flightService, path, request))
+                    .headers(headers -> copyRequestHeaders(request, headers))
+                    .exchange((clientRequest, clientResponse) -> {
+                        response.setStatus(clientResponse.getStatusCode().value());
+                        responseHeaders(clientResponse.getHeaders()).forEach((name, values) ->
+                                values.forEach(value -> response.addHeader(name, value)));
+                        // Closing the body first ends the backend stream without reading it to the end
+                        try (InputStream in = clientResponse.getBody()) {
+                            OutputStream out = response.getOutputStream();
+                            byte[] buffer = new byte[8192];
+                            for (int read; (read = in.read(buffer)) != -1; ) {
+                                out.write(buffer, 0, read);
+                                out.flush();
+                            }
+                        }
+                        return null;
+                    });
+        } catch (ResourceAccessException e) {
+            // The client went away, or the backend did mid-stream; either way the stream is over
+            if (!response.isCommitted()) {
+                throw e;
+            }
+        }
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static URI uriFor(Backend backend, String path, HttpServletRequest request) {
+        String query = request.getQueryString();
+        // Path and query are forwarded exactly as received, already encoded
+        return URI.create(backend.url() + path + (query != null ? "?" + query : ""));
+    }
+
+    private static HttpHeaders responseHeaders(HttpHeaders received) {
+        HttpHeaders headers = new HttpHeaders();
+        received.forEach((name, values) -> {
+            String lower = name.toLowerCase(Locale.ROOT);
+            // The gateway answers CORS itself
+            if (!UNFORWARDED_HEADERS.contains(lower) && !lower.startsWith("access-control-")) {
+                headers.put(name, values);
+            }
+        });
+        return headers;
+    }
+
+    private Backend backendFor(String path) {
+        if (path.startsWith("/api/") || path.startsWith("/.well-known/")) {
+            return userService;
+        }
+        if (path.equals("/flights") || path.startsWith("/flights/")) {
+            return flightService;
+        }
+        if (path.equals("/tickets") || path.startsWith("/tickets/")) {
+            return ticketService;
+        }
+        throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No backend for " + path);
+    }
+
+    private void copyRequestHeaders(HttpServletRequest request, HttpHeaders headers) {
+        for (String name : Collections.list(request.getHeaderNames())) {
+            if (!UNFORWARDED_HEADERS.contains(name.toLowerCase(Locale.ROOT)) && !TrustedHeaders.isReserved(name)) {
+                headers.put(name, Collections.list(request.getHeaders(name)));
+            }
+        }
+        // The gateway is the edge: whatever a client claims in X-Forwarded-For is replaced, since
+        // backends key rate limits and audit logs on it
+        headers.set("X-Forwarded-For", request.getRemoteAddr());
+        TrustedHeaders.apply(headers, (GatewayUser) request.getAttribute(GatewayUser.REQUEST_ATTRIBUTE), sharedSecret);
+    }
+
+    private record Backend(RestClient client, String url) {
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.apigateway.security;
+
+import com.example.common.security.TokenDenylist;
+import com.example.common.security.TokenDenylist.Revocation;
+import com.example.common.security.TokenDenylist.Revocations;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.client.RestClient;
+
+import java.security.Key;
+import java.security.KeyPair;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GatewayAuthenticationFilterTests {
+
+	private final KeyPair keyPair = Jwts.SIG.RS256.keyPair().build();
+	private GatewayAuthenticationFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		JwksKeyLocator keyLocator = new JwksKeyLocator(RestClient.create()) {
+			@Override
+			protected Key locate(JwsHeader header) {
+				return keyPair.getPublic();
+			}
+		};
+		TokenDenylist tokenDenylist = new TokenDenylist(since -> new Revocations(Instant.now(),
+				List.of(new Revocation("revoked-session", Instant.now().plusSeconds(600)))));
+		tokenDenylist.sync();
+		filter = new GatewayAuthenticationFilter(keyLocator, tokenDenylist);
+	}
+
+	@Test
+	void validTokenBecomesGatewayUser() throws Exception {
+		MockHttpServletRequest request = bearer(token("session", keyPair));
+		MockFilterChain chain = new MockFilterChain();
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+		assertNotNull(chain.getRequest());
+		GatewayUser user = (GatewayUser) request.getAttribute(GatewayUser.REQUEST_ATTRIBUTE);
+		assertEquals(new GatewayUser(42L, "alice", "ROLE_USER,ROLE_ADMIN"), user);
+	}
+
+	@Test
+	void tokenSignedWithAnotherKeyIsRejected() throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockFilterChain chain = new MockFilterChain();
+		filter.doFilter(bearer(token("session", Jwts.SIG.RS256.keyPair().build())), response, chain);
+
+		assertEquals(401, response.getStatus());
+		assertNull(chain.getRequest());
+	}
+
+	@Test
+	void tokenOfRevokedSessionIsRejected() throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockFilterChain chain = new MockFilterChain();
+		filter.doFilter(bearer(token("revoked-session", keyPair)), response, chain);
+
+		assertEquals(401, response.getStatus());
+		assertNull(chain.getRequest());
+	}
+
+	@Test
+	void requestWithoutTokenPassesAnonymously() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/flights");
+		MockFilterChain chain = new MockFilterChain();
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+		assertNotNull(chain.getRequest());
+		assertNull(request.getAttribute(GatewayUser.REQUEST_ATTRIBUTE));
+	}
+
+	private static MockHttpServletRequest bearer(String token) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tickets");
+		request.addHeader("Authorization", "Bearer " + token);
+		return request;
+	}
+
+	private static String token(String sessionId, KeyPair signer) {
+		return Jwts.builder()
+				.subject("alice")
+				.claim("uid", 42)
+				.claim("roles", "ROLE_USER,ROLE_ADMIN")
+				.claim("sid", sessionId)
+				.expiration(new Date(System.currentTimeMillis() + 60_000))
+				.signWith(signer.getPrivate(), Jwts.SIG.RS256)
+				.compact();
+	}
+}
@@ -0,0 +1,43 @@
+package com.example.apigateway.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrustedHeadersTests {
+
+	private static final GatewayUser USER = new GatewayUser(42L, "alice", "ROLE_USER,ROLE_ADMIN");
+
+	@Test
+	void identityAndSecretPrefixesAreReservedInAnyCase() {
+		assertTrue(TrustedHeaders.isReserved("X-User-Id"));
+		assertTrue(TrustedHeaders.isReserved("x-user-roles"));
+		assertTrue(TrustedHeaders.isReserved("X-GATEWAY-SECRET"));
+		assertFalse(TrustedHeaders.isReserved("X-Forwarded-For"));
+		assertFalse(TrustedHeaders.isReserved("Authorization"));
+	}
+
+	@Test
+	void applySetsIdentityAndSecret() {
+		HttpHeaders headers = new HttpHeaders();
+		TrustedHeaders.apply(headers, USER, "secret");
+		assertEquals("secret", headers.getFirst(TrustedHeaders.GATEWAY_SECRET));
+		assertEquals("42", headers.getFirst(TrustedHeaders.USER_ID));
+		assertEquals("alice", headers.getFirst(TrustedHeaders.USER_NAME));
+		assertEquals("ROLE_USER,ROLE_ADMIN", headers.getFirst(TrustedHeaders.USER_ROLES));
+	}
+
+	@Test
+	void nothingIsAddedWithoutUserOrSecret() {
+		HttpHeaders withoutUser = new HttpHeaders();
+		TrustedHeaders.apply(withoutUser, null, "secret");
+		assertTrue(withoutUser.isEmpty());
+
+		HttpHeaders withoutSecret = new HttpHeaders();
+		TrustedHeaders.apply(withoutSecret, USER, "");
+		assertTrue(withoutSecret.isEmpty());
+	}
+}
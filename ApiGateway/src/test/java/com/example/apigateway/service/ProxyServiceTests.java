@@ -0,0 +1,99 @@
+package com.example.apigateway.service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.client.RestClient;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProxyServiceTests {
+	private final CountDownLatch secondEvent = new CountDownLatch(1);
+	private HttpServer backend;
+	private ProxyService proxyService;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		// Sends one event, then the next only once the test has seen the first at the client
+		backend = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		backend.createContext("/flights/schedules/events", exchange -> {
+			exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+			exchange.sendResponseHeaders(200, 0);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write("data: 1\n\n".getBytes(StandardCharsets.UTF_8));
+				out.flush();
+				secondEvent.await(5, TimeUnit.SECONDS);
+				out.write("data: 2\n\n".getBytes(StandardCharsets.UTF_8));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		backend.start();
+		String url = "http://127.0.0.1:" + backend.getAddress().getPort();
+		RestClient streamClient = RestClient.builder().baseUrl(url)
+				.requestFactory(new JdkClientHttpRequestFactory()).build();
+		proxyService = new ProxyService(RestClient.create(url), RestClient.create(url), RestClient.create(url),
+				streamClient, url, url, url, "");
+	}
+
+	@AfterEach
+	void stop() {
+		secondEvent.countDown();
+		backend.stop(0);
+	}
+
+	@Test
+	void eventsReachTheClientAsTheyArrive() throws Exception {
+		MockHttpServletRequest request = eventsRequest();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		assertTrue(proxyService.isEventStream(request));
+
+		Thread relay = Thread.ofVirtual().start(() -> proxyService.stream(request, response));
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!response.getContentAsString().contains("data: 1") && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals("data: 1\n\n", response.getContentAsString());
+		assertTrue(relay.isAlive());
+
+		secondEvent.countDown();
+		relay.join(5_000);
+		assertFalse(relay.isAlive());
+		assertEquals(200, response.getStatus());
+		assertEquals("text/event-stream", response.getHeader("Content-Type"));
+		assertEquals("data: 1\n\ndata: 2\n\n", response.getContentAsString());
+	}
+
+	@Test
+	void onlyFlightEventStreamsAreStreamed() {
+		MockHttpServletRequest flights = new MockHttpServletRequest("GET", "/flights");
+		assertFalse(proxyService.isEventStream(flights));
+
+		MockHttpServletRequest tickets = new MockHttpServletRequest("GET", "/tickets/my-tickets");
+		tickets.addHeader("Accept", "text/event-stream");
+		assertFalse(proxyService.isEventStream(tickets));
+
+		MockHttpServletRequest post = eventsRequest();
+		post.setMethod("POST");
+		assertFalse(proxyService.isEventStream(post));
+	}
+
+	private static MockHttpServletRequest eventsRequest() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/flights/schedules/events");
+		request.setQueryString("ids=1,2");
+		request.addHeader("Accept", "text/event-stream");
+		return request;
+	}
+}
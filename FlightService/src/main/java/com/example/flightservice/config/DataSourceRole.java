@@ -0,0 +1,5 @@
+package com.example.flightservice.config;
+
+public enum DataSourceRole {
+    PRIMARY, REPLICA
+}
@@ -0,0 +1,40 @@
+package com.example.flightservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fare rules, bound from {@code app.fares.*}. A fare is the flight's base price times the
+ * multiplier of its fare bucket (chosen by load factor) times the advance-purchase multiplier
+ * (chosen by days to departure), rounded to whole currency units.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.fares")
+public class FareProperties {
+    // HMAC key for quotes, at least 32 bytes; TicketService must be configured with the same one
+    private String quoteSecret;
+    private Duration quoteTtl = Duration.ofMinutes(5);
+    // Ascending by up-to-load-factor; the first bucket the flight's load factor fits in applies
+    private List<Bucket> buckets = new ArrayList<>();
+    // Descending by min-days; the first step the days to departure reach applies
+    private List<AdvancePurchase> advancePurchase = new ArrayList<>();
+
+    @Data
+    public static class Bucket {
+        private String name;
+        private double upToLoadFactor;
+        private double multiplier = 1.0;
+    }
+
+    @Data
+    public static class AdvancePurchase {
+        private int minDays;
+        private double multiplier = 1.0;
+    }
+}
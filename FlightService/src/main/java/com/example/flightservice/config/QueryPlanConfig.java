@@ -0,0 +1,36 @@
+package com.example.flightservice.config;
+
+import com.example.common.jdbc.QueryPlanVerifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+
+/**
+ * The keyed repository lookups whose plans {@link QueryPlanVerifier} checks at startup.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.query-plan-check.enabled", havingValue = "true")
+public class QueryPlanConfig {
+    private static final Map<String, String> REPOSITORY_QUERIES = Map.of(
+            "FlightRepository.findByFlightNumber",
+            "SELECT * FROM flights WHERE flight_number = 'AI101'",
+            "ScheduleRepository.findByFlightId",
+            "SELECT * FROM schedules WHERE flight_id = 1",
+            "ScheduleRepository.findByFlightIdAndDepartureTimeBetween",
+            "SELECT * FROM schedules WHERE flight_id = 1 AND departure_time >= NOW() AND departure_time <= NOW() + INTERVAL 1 DAY",
+            "SeatInventory.reserve",
+            "SELECT * FROM seat_stripes WHERE flight_id = 1 AND stripe = 0",
+            "FareCalendar.rebuild",
+            "SELECT id, flight_id, departure_time FROM schedules WHERE departure_time >= NOW() AND flight_status <> 'CANCELLED'"
+    );
+
+    @Bean
+    public QueryPlanVerifier queryPlanVerifier(JdbcTemplate jdbcTemplate,
+                                               @Value("${app.query-plan-check.fail-on-full-scan:false}") boolean failOnFullScan) {
+        return new QueryPlanVerifier(jdbcTemplate, REPOSITORY_QUERIES, failOnFullScan);
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.flightservice.config;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+
+/**
+ * Decides whether read-only work may go to the replica. Reads fall back to the primary while the
+ * replica lags beyond {@code max-lag-seconds}, is unreachable, or for a short window after the
+ * same client wrote, so an admin sees their own update immediately.
+ * <p>
+ * The window is kept by the client: once a write commits, the response carries a
+ * {@value #STICKY_COOKIE} cookie with the time until which that client's reads go to the primary,
+ * which every instance honours. Other clients keep reading from the replica.
+ */
+@Component
+public class ReplicaGuard {
+    static final String STICKY_COOKIE = "flight-primary-until";
+    private static final String STICKY_ATTRIBUTE = ReplicaGuard.class.getName() + ".primaryUntil";
+
+    private final boolean replicaEnabled;
+    private final long maxLagSeconds;
+    private final long stickyWindowMillis;
+    private volatile boolean replicaHealthy = true;
+
+    public ReplicaGuard(
+            @Value("${app.datasource.replica.enabled:false}") boolean replicaEnabled,
+            @Value("${app.datasource.replica.max-lag-seconds:5}") long maxLagSeconds,
+            @Value("${app.datasource.replica.sticky-window-ms:5000}") long stickyWindowMillis) {
+        this.replicaEnabled = replicaEnabled;
+        this.maxLagSeconds = maxLagSeconds;
+        this.stickyWindowMillis = stickyWindowMillis;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaHealthy && !stuckToPrimary();
+    }
+
+    /**
+     * Sends the current client's reads to the primary for the sticky window once the current
+     * transaction commits; nothing happens if it rolls back or outside a web request.
+     */
+    public void stickToPrimary() {
+        if (!replicaEnabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            stick();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                stick();
+            }
+        });
+    }
+
+    /**
+     * @param secondsBehind replication delay reported by the replica, or null when it is unknown
+     */
+    public void recordLag(Long secondsBehind) {
+        replicaHealthy = secondsBehind != null && secondsBehind <= maxLagSeconds;
+    }
+
+    public void recordUnavailable() {
+        replicaHealthy = false;
+    }
+
+    public boolean isReplicaHealthy() {
+        return replicaHealthy;
+    }
+
+    private void stick() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)
+                || attributes.getResponse() == null) {
+            return;
+        }
+        long until = System.currentTimeMillis() + stickyWindowMillis;
+        // Reads later in the same request see it too
+        attributes.setAttribute(STICKY_ATTRIBUTE, until, RequestAttributes.SCOPE_REQUEST);
+        HttpServletResponse response = attributes.getResponse();
+        if (!response.isCommitted()) {
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(STICKY_COOKIE, Long.toString(until))
+                    .path("/")
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .maxAge(Duration.ofMillis(stickyWindowMillis).plusSeconds(1).toSeconds())
+                    .build().toString());
+        }
+    }
+
+    private boolean stuckToPrimary() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        if (attributes.getAttribute(STICKY_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Long until
+                && now < until) {
+            return true;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        if (request.getCookies() == null) {
+            return false;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (STICKY_COOKIE.equals(cookie.getName())) {
+                try {
+                    long until = Long.parseLong(cookie.getValue());
+                    // A value further out than one window did not come from us
+                    return now < until && until <= now + stickyWindowMillis;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.flightservice.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@RequiredArgsConstructor
+public class ReplicaLagMonitor {
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final ReplicaGuard replicaGuard;
+    private final String lagQuery;
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:2000}")
+    public void checkLag() {
+        if (!StringUtils.hasText(lagQuery)) {
+            replicaGuard.recordLag(0L);
+            return;
+        }
+        try {
+            List<Map<String, Object>> status = replicaJdbcTemplate.queryForList(lagQuery);
+            if (status.isEmpty()) {
+                // Not configured as a replica (e.g. a local copy), so there is nothing to lag behind
+                replicaGuard.recordLag(0L);
+                return;
+            }
+            Object lag = status.get(0).get("Seconds_Behind_Source");
+            Long secondsBehind = lag instanceof Number number ? number.longValue() : null;
+            replicaGuard.recordLag(secondsBehind);
+            if (!replicaGuard.isReplicaHealthy()) {
+                log.warn("Replica lag is {}s, routing reads to primary", secondsBehind);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Replica lag check failed, routing reads to primary: {}", e.getMessage());
+            replicaGuard.recordUnavailable();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.flightservice.controller;
+
+import com.example.flightservice.dtos.ImportResultDTO;
+import com.example.flightservice.service.BulkFormat;
+import com.example.flightservice.service.CatalogueExporter;
+import com.example.flightservice.service.CatalogueImporter;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// Bulk load and dump of the catalogue; bodies are streamed, so call FlightService directly rather
+// than through the gateway, which buffers them
+@RestController
+@RequestMapping("/flights")
+@AllArgsConstructor
+public class CatalogueTransferController {
+    private final CatalogueImporter catalogueImporter;
+    private final CatalogueExporter catalogueExporter;
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ImportResultDTO> importFlights(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException {
+        return ResponseEntity.ok(catalogueImporter.importFlights(body, BulkFormat.of(contentType)));
+    }
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/schedules/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ImportResultDTO> importSchedules(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException {
+        return ResponseEntity.ok(catalogueImporter.importSchedules(body, BulkFormat.of(contentType)));
+    }
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportFlights(@RequestParam(defaultValue = "ndjson") String format) {
+        BulkFormat bulkFormat = BulkFormat.of(format);
+        return attachment("flights", bulkFormat, output -> catalogueExporter.exportFlights(output, bulkFormat));
+    }
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/schedules/export")
+    public ResponseEntity<StreamingResponseBody> exportSchedules(@RequestParam(defaultValue = "ndjson") String format) {
+        BulkFormat bulkFormat = BulkFormat.of(format);
+        return attachment("schedules", bulkFormat, output -> catalogueExporter.exportSchedules(output, bulkFormat));
+    }
+    private static ResponseEntity<StreamingResponseBody> attachment(String name, BulkFormat format, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(name + "." + format.extension()).build().toString())
+                .body(body);
+    }
+}
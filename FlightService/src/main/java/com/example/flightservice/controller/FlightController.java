@@ -1,13 +1,23 @@
 package com.example.flightservice.controller;
 
+import com.example.flightservice.dtos.CalendarDayDTO;
 import com.example.flightservice.dtos.FlightDTO;
+import com.example.flightservice.dtos.FlightDeletionDTO;
+import com.example.flightservice.dtos.SeatRequestDTO;
 import com.example.flightservice.service.FlightService;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.net.URI;
+import java.time.Duration;
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
@@ -18,17 +28,47 @@ public class FlightController {
     private final FlightService flightService;
     @GetMapping
     public ResponseEntity<List<FlightDTO>> getAllFlights(
-            @RequestParam(required = false) String sort){
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            WebRequest webRequest){
         if(sort==null)
             sort = "asc";
-        List<FlightDTO> getAllFlights = flightService.getAllFlights(sort);
-        return ResponseEntity.ok(getAllFlights);
+        String eTag = flightService.getFlightsETag(sort, from, to);
+        if (webRequest.checkNotModified(eTag)) {
+            return notModified(eTag);
+        }
+        List<FlightDTO> getAllFlights = from != null && to != null
+                ? flightService.getFlightsByRoute(from, to)
+                : flightService.getAllFlights(sort);
+        return withETag(eTag, getAllFlights);
+    }
+    // Low-fare calendar for a route: one entry per day of the month with departures left
+    @GetMapping("/calendar")
+    public ResponseEntity<List<CalendarDayDTO>> getFareCalendar(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(required = false) YearMonth month){
+        if(month==null)
+            month = YearMonth.now();
+        // Fares and seats move with every booking; a short max-age is enough to absorb browsing
+        return flightService.getFareCalendar(from, to, month)
+                .map(days -> ResponseEntity.ok()
+                        .cacheControl(CacheControl.maxAge(Duration.ofSeconds(30)).cachePublic())
+                        .body(days))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "5")
+                        .<List<CalendarDayDTO>>build());
     }
     @GetMapping("/{id}")
-    public ResponseEntity<FlightDTO> getFlightById(@PathVariable Long id){
+    public ResponseEntity<FlightDTO> getFlightById(@PathVariable Long id, WebRequest webRequest){
+        String eTag = flightService.getFlightETag(id);
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return notModified(eTag);
+        }
         FlightDTO flightDTO = flightService.getFlightById(id);
 
-        return ResponseEntity.ok(flightDTO);
+        return withETag(eTag, flightDTO);
     }
     @PreAuthorize("hasRole('ADMIN')")
     @PutMapping("/{id}")
@@ -49,9 +89,38 @@ public class FlightController {
     }
     @PreAuthorize("hasRole('ADMIN')")
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteFlight(@PathVariable Long id){
-        flightService.deleteFlight(id);
+    public ResponseEntity<FlightDeletionDTO> deleteFlight(@PathVariable Long id){
+        // The flight is gone from reads now; its schedules and tickets follow in the background
+        FlightDeletionDTO deletion = flightService.deleteFlight(id);
+        return ResponseEntity.accepted().location(URI.create("/flights/" + id + "/deletion")).body(deletion);
+    }
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/{id}/deletion")
+    public ResponseEntity<FlightDeletionDTO> getFlightDeletion(@PathVariable Long id){
+        return ResponseEntity.ok(flightService.getFlightDeletion(id));
+    }
+    // Seat counts are changed only by TicketService, which calls as ROLE_SERVICE with the shared secret
+    @PreAuthorize("hasRole('SERVICE')")
+    @PostMapping("/{id}/seats/reserve")
+    public ResponseEntity<Void> reserveSeats(@PathVariable Long id, @Valid @RequestBody SeatRequestDTO seatRequest){
+        flightService.reserveSeats(id, seatRequest.getSeats());
         return ResponseEntity.noContent().build();
     }
-
+    @PreAuthorize("hasRole('SERVICE')")
+    @PostMapping("/{id}/seats/release")
+    public ResponseEntity<Void> releaseSeats(@PathVariable Long id, @Valid @RequestBody SeatRequestDTO seatRequest){
+        flightService.releaseSeats(id, seatRequest.getSeats());
+        return ResponseEntity.noContent().build();
+    }
+    private static <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).eTag(eTag).build();
+    }
+    private static <T> ResponseEntity<T> withETag(String eTag, T body) {
+        // no-cache lets browsers keep the body but revalidate it with If-None-Match on every use
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+        if (eTag != null) {
+            builder.eTag(eTag);
+        }
+        return builder.body(body);
+    }
 }
@@ -1,14 +1,28 @@
 package com.example.flightservice.controller;
 
+import com.example.flightservice.dtos.DisruptionDTO;
+import com.example.flightservice.dtos.DisruptionResultDTO;
+import com.example.flightservice.dtos.FareQuoteDTO;
+import com.example.flightservice.dtos.RecurringScheduleDTO;
+import com.example.flightservice.dtos.RecurringScheduleResultDTO;
 import com.example.flightservice.dtos.ScheduleDTO;
+import com.example.flightservice.service.DisruptionService;
+import com.example.flightservice.service.FareQuoteService;
+import com.example.flightservice.service.ScheduleGenerator;
 import com.example.flightservice.service.ScheduleService;
+import com.example.flightservice.service.ScheduleStatusHub;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -18,24 +32,49 @@ import java.util.List;
 @AllArgsConstructor
 public class ScheduleController {
     private final ScheduleService scheduleService;
+    private final FareQuoteService fareQuoteService;
+    private final ScheduleGenerator scheduleGenerator;
+    private final DisruptionService disruptionService;
+    private final ScheduleStatusHub scheduleStatusHub;
     @GetMapping("/{flightId}/schedules")
     public ResponseEntity<List<ScheduleDTO>> getScheduleByFlight(
             @PathVariable Long flightId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)LocalDate endDate
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)LocalDate endDate,
+            WebRequest webRequest
             ){
         if (startDate != null && endDate == null) {
             endDate = startDate;
         } else if (startDate == null && endDate != null) {
             startDate = endDate;
         }
+        String eTag = scheduleService.getSchedulesETag(flightId, startDate, endDate);
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return notModified(eTag);
+        }
         List<ScheduleDTO> scheduleDTOS = scheduleService.getScheduleByFlightId(flightId , startDate , endDate);
-        return ResponseEntity.ok(scheduleDTOS);
+        return withETag(eTag, scheduleDTOS);
     }
     @GetMapping("/schedules/{id}")
-    public ResponseEntity<ScheduleDTO> getScheduleById(@PathVariable Long id ){
+    public ResponseEntity<ScheduleDTO> getScheduleById(@PathVariable Long id, WebRequest webRequest){
+        String eTag = scheduleService.getScheduleETag(id);
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return notModified(eTag);
+        }
         ScheduleDTO scheduleDTO = scheduleService.getScheduleById(id);
-        return ResponseEntity.ok(scheduleDTO);
+        return withETag(eTag, scheduleDTO);
+    }
+    // Pushes status changes of the given schedules instead of having clients poll them
+    @GetMapping(value = "/schedules/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamScheduleStatus(
+            @RequestParam List<Long> ids,
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        return scheduleStatusHub.subscribe(ids, lastEventId);
+    }
+    // Current fare, signed so TicketService can accept it at booking time without calling back
+    @GetMapping("/schedules/{id}/quote")
+    public ResponseEntity<FareQuoteDTO> getFareQuote(@PathVariable Long id) {
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(fareQuoteService.quote(id));
     }
     @PreAuthorize("hasRole('ADMIN')")
     @PostMapping("/schedules")
@@ -43,6 +82,22 @@ public class ScheduleController {
         ScheduleDTO createdSchedule = scheduleService.createSchedule(scheduleDTO);
         return new ResponseEntity<>(createdSchedule, HttpStatus.CREATED);
     }
+    // Expands a weekly pattern server-side; resubmitting it only adds the departures that are missing
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/schedules/recurring")
+    public ResponseEntity<RecurringScheduleResultDTO> createRecurringSchedule(
+            @Valid @RequestBody RecurringScheduleDTO recurringScheduleDTO) {
+        RecurringScheduleResultDTO result = scheduleGenerator.generate(recurringScheduleDTO);
+        return new ResponseEntity<>(result, HttpStatus.CREATED);
+    }
+    // Delays or cancels many departures at once and carries the change over to their tickets
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/schedules/disruptions")
+    public ResponseEntity<DisruptionResultDTO> applyDisruption(
+            @Valid @RequestBody DisruptionDTO disruptionDTO,
+            @RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        return ResponseEntity.ok(disruptionService.applyDisruption(disruptionDTO, authorization));
+    }
     @PreAuthorize("hasRole('ADMIN')")
     @PutMapping("/schedules/{id}")
     public ResponseEntity<ScheduleDTO> updateSchedule(
@@ -57,4 +112,15 @@ public class ScheduleController {
         scheduleService.deleteSchedule(id);
         return ResponseEntity.noContent().build();
     }
+    private static <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).eTag(eTag).build();
+    }
+    private static <T> ResponseEntity<T> withETag(String eTag, T body) {
+        // no-cache lets browsers keep the body but revalidate it with If-None-Match on every use
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+        if (eTag != null) {
+            builder.eTag(eTag);
+        }
+        return builder.body(body);
+    }
 }
@@ -0,0 +1,18 @@
+package com.example.flightservice.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarDayDTO {
+    private LocalDate date;
+    // Lowest current fare over the day's departures that still have seats; null when all are full
+    private Integer minFare;
+    private Integer availableSeats;
+    private Integer departures;
+}
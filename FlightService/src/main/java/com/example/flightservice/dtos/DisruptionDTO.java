@@ -0,0 +1,35 @@
+package com.example.flightservice.dtos;
+
+import com.example.flightservice.models.FlightStatus;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DisruptionDTO {
+    @NotEmpty(message = "Schedule ids are required")
+    @Size(max = 10000, message = "At most 10000 schedules per disruption")
+    private List<Long> scheduleIds;
+    // DELAYED or CANCELLED
+    @NotNull(message = "Flight status is required")
+    private FlightStatus flightStatus;
+    // Added to departure and arrival of DELAYED schedules
+    @Min(value = 0, message = "Delay should not be negative")
+    @Max(value = 24 * 60, message = "Delay should be at most 24 hours")
+    private Integer delayMinutes;
+    private String reason;
+    // Whether TicketService gives cancelled tickets' seats back (default true); not when the flight itself goes
+    private Boolean releaseSeats;
+    // Sending a disruption again with the same id retries its ticket step without changing the schedules twice
+    @Size(max = 64, message = "Disruption id should be at most 64 characters")
+    private String disruptionId;
+}
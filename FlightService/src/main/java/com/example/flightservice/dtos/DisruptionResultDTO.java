@@ -0,0 +1,21 @@
+package com.example.flightservice.dtos;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DisruptionResultDTO {
+    // Send this id with the disruption again to retry its ticket step
+    private String disruptionId;
+    private Integer schedulesUpdated;
+    // True if the schedules had already been changed by an earlier request with the same id
+    private boolean replayed;
+    // TicketService's result (tickets updated or cancelled, seats released, users notified); null if it failed
+    private JsonNode tickets;
+    // Why the tickets were not updated; sending the same disruption again retries them
+    private String ticketError;
+}
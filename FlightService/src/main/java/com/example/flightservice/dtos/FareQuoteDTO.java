@@ -0,0 +1,22 @@
+package com.example.flightservice.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FareQuoteDTO {
+    private Long flightId;
+    private Long scheduleId;
+    private Integer fare;
+    private String fareBucket;
+    private Instant expiresAt;
+    // Random per quote; TicketService accepts each nonce for one booking only
+    private String nonce;
+    // HMAC-SHA256 over flightId, scheduleId, fare, expiresAt and nonce; see FareQuoteSigner
+    private String signature;
+}
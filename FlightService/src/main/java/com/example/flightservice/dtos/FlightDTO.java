@@ -26,6 +26,7 @@ public class FlightDTO {
         @Min(value = 1, message = "Capacity should be greater than 0")
         private Integer capacity;
         private Integer availableSeats;
+        private Long version;
 
 }
 
@@ -0,0 +1,24 @@
+package com.example.flightservice.dtos;
+
+import com.example.flightservice.models.DeletionState;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightDeletionDTO {
+    private Long flightId;
+    private DeletionState state;
+    private Integer schedulesTotal;
+    private Integer schedulesDeleted;
+    private Integer ticketsCancelled;
+    private LocalDateTime requestedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+    // Why the last chunk failed; the job retries it
+    private String lastError;
+}
@@ -0,0 +1,22 @@
+package com.example.flightservice.dtos;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One flight in a bulk import or export; flights are matched on flight number.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonPropertyOrder({"flightNumber", "airlineName", "departureCity", "arrivalCity", "price", "capacity"})
+public class FlightRecordDTO {
+    private String flightNumber;
+    private String airlineName;
+    private String departureCity;
+    private String arrivalCity;
+    private Integer price;
+    private Integer capacity;
+}
@@ -0,0 +1,28 @@
+package com.example.flightservice.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResultDTO {
+    private Long processed;
+    private Long imported;
+    private Long failed;
+    private List<RowError> errors;
+    // Only the first app.bulk.max-reported-errors failures are listed
+    private Boolean errorsTruncated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        // 1-based data row (CSV, not counting the header) or line (NDJSON)
+        private Long row;
+        private String message;
+    }
+}
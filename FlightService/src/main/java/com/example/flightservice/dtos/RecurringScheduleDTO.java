@@ -0,0 +1,38 @@
+package com.example.flightservice.dtos;
+
+import com.example.flightservice.models.FlightStatus;
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringScheduleDTO {
+    @NotNull(message = "Flight id is required")
+    private Long flightId;
+    @NotEmpty(message = "At least one day of the week is required")
+    private Set<DayOfWeek> daysOfWeek;
+    @NotNull(message = "Departure time is required")
+    private LocalTime departureTime;
+    @NotNull(message = "Duration is required")
+    @Min(value = 1, message = "Duration should be at least one minute")
+    @Max(value = 24 * 60, message = "Duration should be at most 24 hours")
+    private Integer durationMinutes;
+    @NotNull(message = "Start date is required")
+    @FutureOrPresent(message = "Start date should not be in the past")
+    private LocalDate startDate;
+    @NotNull(message = "End date is required")
+    private LocalDate endDate;
+    private FlightStatus flightStatus;
+}
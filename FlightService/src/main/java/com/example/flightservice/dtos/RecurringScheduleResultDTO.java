@@ -0,0 +1,15 @@
+package com.example.flightservice.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringScheduleResultDTO {
+    private Long flightId;
+    // Departures the pattern expands to; those that already existed are skipped
+    private Integer requested;
+    private Integer created;
+}
@@ -0,0 +1,24 @@
+package com.example.flightservice.dtos;
+
+import com.example.flightservice.models.FlightStatus;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One departure in a bulk import or export. The flight is referenced by flight number so files
+ * carry over between databases; departures are matched on flight and departure time.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonPropertyOrder({"flightNumber", "departureTime", "arrivalTime", "flightStatus"})
+public class ScheduleRecordDTO {
+    private String flightNumber;
+    private LocalDateTime departureTime;
+    private LocalDateTime arrivalTime;
+    private FlightStatus flightStatus;
+}
@@ -0,0 +1,19 @@
+package com.example.flightservice.dtos;
+
+import com.example.flightservice.models.FlightStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleStatusDTO {
+    private Long scheduleId;
+    private Long flightId;
+    private FlightStatus flightStatus;
+    // Moves with a delay
+    private LocalDateTime departureTime;
+}
@@ -0,0 +1,17 @@
+package com.example.flightservice.dtos;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatRequestDTO {
+    @Min(value = 1, message = "At least one seat is required")
+    // TicketService reserves for a whole batch of queued bookings at once
+    @Max(value = 1000, message = "At most 1000 seats per request")
+    private int seats = 1;
+}
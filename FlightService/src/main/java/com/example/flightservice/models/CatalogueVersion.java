@@ -0,0 +1,29 @@
+package com.example.flightservice.models;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Change counter for a slice of the catalogue ("flights", or "schedules:{flightId}"), bumped on
+ * every write to it so list ETags can be computed without reading the rows themselves.
+ */
+@Data
+@Entity
+@Table(name = "catalogue_versions")
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogueVersion {
+    public static final String FLIGHTS = "flights";
+
+    @Id
+    private String name;
+    private Long version;
+
+    public static String schedulesOf(Long flightId) {
+        return "schedules:" + flightId;
+    }
+}
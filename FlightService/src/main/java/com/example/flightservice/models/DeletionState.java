@@ -0,0 +1,5 @@
+package com.example.flightservice.models;
+
+public enum DeletionState {
+    PENDING, IN_PROGRESS, COMPLETED
+}
@@ -4,10 +4,15 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.SQLRestriction;
+
+import java.time.LocalDateTime;
 
 @Data
 @Entity
 @Table(name = "flights")
+// Tombstoned flights are being deleted in the background and no longer exist as far as reads go
+@SQLRestriction("deleted_at IS NULL")
 @NoArgsConstructor
 @AllArgsConstructor
 public class Flight {
@@ -20,6 +25,12 @@ public class Flight {
     private String arrivalCity;
     private Integer price;
     private Integer capacity;
+    // Written only through SeatInventory's guarded updates, never by a stale entity
+    @Column(updatable = false)
     private Integer availableSeats;
+    @Version
+    private Long version;
+    @Column(insertable = false, updatable = false)
+    private LocalDateTime deletedAt;
 
 }
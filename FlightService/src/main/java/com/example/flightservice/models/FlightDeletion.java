@@ -0,0 +1,34 @@
+package com.example.flightservice.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a flight's background deletion; see FlightDeletionJob. The flight row itself stays
+ * (tombstoned) until all its schedules are gone.
+ */
+@Data
+@Entity
+@Table(name = "flight_deletions")
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightDeletion {
+    @Id
+    private Long flightId;
+    @Enumerated(EnumType.STRING)
+    private DeletionState state;
+    private Integer schedulesTotal;
+    private Integer schedulesDeleted;
+    private Integer ticketsCancelled;
+    private LocalDateTime requestedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+    private String lastError;
+    // Instance working on the job, until lease_until; another instance takes over once it lapses
+    private String leaseOwner;
+    private LocalDateTime leaseUntil;
+}
@@ -23,4 +23,6 @@ public class Schedule{
     private LocalDateTime arrivalTime;
     @Enumerated(EnumType.STRING)
     private FlightStatus flightStatus;
+    @Version
+    private Long version;
 }
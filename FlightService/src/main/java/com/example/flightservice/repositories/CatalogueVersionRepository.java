@@ -0,0 +1,19 @@
+package com.example.flightservice.repositories;
+
+import com.example.flightservice.models.CatalogueVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface CatalogueVersionRepository extends JpaRepository<CatalogueVersion, String> {
+    @Modifying
+    @Query(value = "INSERT INTO catalogue_versions (name, version) VALUES (:name, 1) " +
+            "ON DUPLICATE KEY UPDATE version = version + 1", nativeQuery = true)
+    void increment(@Param("name") String name);
+
+    @Query("SELECT c.version FROM CatalogueVersion c WHERE c.name = :name")
+    Optional<Long> findVersion(@Param("name") String name);
+}
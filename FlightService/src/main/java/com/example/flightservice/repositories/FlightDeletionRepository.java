@@ -0,0 +1,25 @@
+package com.example.flightservice.repositories;
+
+import com.example.flightservice.models.FlightDeletion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface FlightDeletionRepository extends JpaRepository<FlightDeletion, Long> {
+    @Query("SELECT d.flightId FROM FlightDeletion d " +
+            "WHERE d.state <> com.example.flightservice.models.DeletionState.COMPLETED " +
+            "AND (d.leaseUntil IS NULL OR d.leaseUntil < :now) ORDER BY d.requestedAt")
+    List<Long> findClaimable(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE FlightDeletion d SET d.leaseOwner = :owner, d.leaseUntil = :until " +
+            "WHERE d.flightId = :flightId AND d.state <> com.example.flightservice.models.DeletionState.COMPLETED " +
+            "AND (d.leaseUntil IS NULL OR d.leaseUntil < :now OR d.leaseOwner = :owner)")
+    int claim(@Param("flightId") Long flightId, @Param("owner") String owner,
+              @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+}
@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface ScheduleRepository extends JpaRepository<Schedule , Long> {
     List<Schedule> findByFlightId(Long flightId);
@@ -16,4 +17,11 @@ public interface ScheduleRepository extends JpaRepository<Schedule , Long> {
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate
     );
+    @Query("SELECT s.version AS version, s.flight.id AS flightId FROM Schedule s WHERE s.id = :id")
+    Optional<ScheduleVersion> findVersionById(@Param("id") Long id);
+
+    interface ScheduleVersion {
+        Long getVersion();
+        Long getFlightId();
+    }
 }
@@ -0,0 +1,53 @@
+package com.example.flightservice.security;
+
+import com.example.flightservice.config.FareProperties;
+import com.example.flightservice.dtos.FareQuoteDTO;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Signs fare quotes so TicketService can accept the quoted fare without asking FlightService
+ * again. Every quote gets a random nonce, which TicketService lets book only once. The signed
+ * payload is {@code flightId:scheduleId:fare:expiresAt(epoch seconds):nonce}, and TicketService's
+ * FareQuoteVerifier must build it the same way.
+ */
+@Component
+public class FareQuoteSigner {
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private final SecretKeySpec key;
+    private final SecureRandom random = new SecureRandom();
+
+    public FareQuoteSigner(FareProperties properties) {
+        if (!StringUtils.hasText(properties.getQuoteSecret())
+                || properties.getQuoteSecret().getBytes(StandardCharsets.UTF_8).length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("FARE_QUOTE_SECRET (app.fares.quote-secret) must be set to at least "
+                    + MIN_SECRET_BYTES + " bytes");
+        }
+        this.key = new SecretKeySpec(properties.getQuoteSecret().getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    }
+
+    public FareQuoteDTO sign(FareQuoteDTO quote) {
+        byte[] nonce = new byte[16];
+        random.nextBytes(nonce);
+        quote.setNonce(Base64.getUrlEncoder().withoutPadding().encodeToString(nonce));
+        String payload = quote.getFlightId() + ":" + quote.getScheduleId() + ":" + quote.getFare() + ":"
+                + quote.getExpiresAt().getEpochSecond() + ":" + quote.getNonce();
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            quote.setSignature(Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8))));
+            return quote;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign fare quote", e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.flightservice.security;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.SignatureException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigInteger;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Locates token verification keys by kid from UserService's JWKS endpoint. Keys are cached and
+ * refreshed in the background; an unknown kid (a freshly rotated key) triggers an immediate,
+ * rate-limited refetch.
+ */
+@Slf4j
+@Component
+public class JwksKeyLocator extends LocatorAdapter<Key> {
+    private static final long MIN_REFETCH_INTERVAL_MS = 30_000;
+
+    private final RestTemplate restTemplate;
+    private final String jwksUrl;
+    private volatile Map<String, Key> keys = Map.of();
+    private volatile long lastFetch;
+
+    public JwksKeyLocator(RestTemplateBuilder restTemplateBuilder, @Value("${user.service.url}") String userServiceUrl) {
+        this.restTemplate = restTemplateBuilder
+                .connectTimeout(Duration.ofSeconds(2))
+                .readTimeout(Duration.ofSeconds(2))
+                .build();
+        this.jwksUrl = userServiceUrl + "/.well-known/jwks.json";
+    }
+
+    @Override
+    protected Key locate(JwsHeader header) {
+        String keyId = header.getKeyId();
+        Key key = keys.get(keyId);
+        if (key == null && System.currentTimeMillis() - lastFetch > MIN_REFETCH_INTERVAL_MS) {
+            refresh();
+            key = keys.get(keyId);
+        }
+        if (key == null) {
+            throw new SignatureException("Unknown signing key: " + keyId);
+        }
+        return key;
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.jwks.refresh-interval-ms:300000}")
+    public synchronized void refresh() {
+        lastFetch = System.currentTimeMillis();
+        try {
+            JwkSet jwkSet = restTemplate.getForObject(jwksUrl, JwkSet.class);
+            if (jwkSet == null || jwkSet.keys() == null) {
+                return;
+            }
+            Map<String, Key> fetched = new HashMap<>();
+            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+            for (Map<String, String> jwk : jwkSet.keys()) {
+                if ("RSA".equals(jwk.get("kty"))) {
+                    fetched.put(jwk.get("kid"), keyFactory.generatePublic(new RSAPublicKeySpec(
+                            new BigInteger(1, Base64.getUrlDecoder().decode(jwk.get("n"))),
+                            new BigInteger(1, Base64.getUrlDecoder().decode(jwk.get("e"))))));
+                }
+            }
+            keys = Map.copyOf(fetched);
+            log.debug("Loaded {} token verification keys", fetched.size());
+        } catch (Exception e) {
+            log.warn("Could not refresh token verification keys from UserService: {}", e.getMessage());
+        }
+    }
+
+    private record JwkSet(List<Map<String, String>> keys) {
+    }
+}
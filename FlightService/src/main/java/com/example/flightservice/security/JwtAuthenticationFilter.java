@@ -0,0 +1,75 @@
+package com.example.flightservice.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Authenticates requests from the claims of a UserService access token. Verification is local:
+ * the signing keys come from {@link JwksKeyLocator}'s cache. Requests relayed by the API gateway
+ * carrying the shared secret are authenticated from its identity headers instead.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    private final JwksKeyLocator jwksKeyLocator;
+
+    @Value("${app.security.gateway.secret:}")
+    private String gatewaySecret;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (fromGateway(request)) {
+            String roles = request.getHeader("X-User-Roles");
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                    request.getHeader("X-User-Name"), null,
+                    AuthorityUtils.commaSeparatedStringToAuthorityList(roles != null ? roles : "")));
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String bearerToken = request.getHeader("Authorization");
+        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
+            try {
+                Claims claims = Jwts.parser()
+                        .keyLocator(jwksKeyLocator)
+                        .build()
+                        .parseSignedClaims(bearerToken.substring(7))
+                        .getPayload();
+                String roles = claims.get("roles", String.class);
+                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                        claims.getSubject(), null,
+                        AuthorityUtils.commaSeparatedStringToAuthorityList(roles != null ? roles : ""));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            } catch (Exception e) {
+                log.debug("Ignoring invalid access token: {}", e.getMessage());
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private boolean fromGateway(HttpServletRequest request) {
+        String secret = request.getHeader("X-Gateway-Secret");
+        return StringUtils.hasText(gatewaySecret) && secret != null
+                && StringUtils.hasText(request.getHeader("X-User-Name"))
+                && MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8),
+                        gatewaySecret.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.flightservice.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.http.MediaType;
+
+/**
+ * Formats of the bulk import and export endpoints: CSV with a header row, or newline-delimited
+ * JSON. Both are read and written one record at a time.
+ */
+public enum BulkFormat {
+    CSV(new MediaType("text", "csv"), "csv"),
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson");
+
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    BulkFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public static BulkFormat of(MediaType contentType) {
+        for (BulkFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(contentType)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported bulk format: " + contentType + " (use text/csv or application/x-ndjson)");
+    }
+
+    public static BulkFormat of(String name) {
+        for (BulkFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported bulk format: " + name + " (use csv or ndjson)");
+    }
+
+    ObjectReader reader(ObjectMapper objectMapper, Class<?> type) {
+        return this == CSV
+                ? CSV_MAPPER.readerFor(type).with(CsvSchema.emptySchema().withHeader())
+                : objectMapper.readerFor(type);
+    }
+
+    // The response stream belongs to the container, so writers never close it; flushing is left to
+    // the stream's buffer rather than done after every record
+    ObjectWriter writer(ObjectMapper objectMapper, Class<?> type) {
+        ObjectWriter writer = this == CSV
+                ? CSV_MAPPER.writerFor(type).with(CSV_MAPPER.schemaFor(type).withHeader())
+                : objectMapper.writerFor(type).withRootValueSeparator("\n");
+        return writer.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+}
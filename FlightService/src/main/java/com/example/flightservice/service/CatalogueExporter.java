@@ -0,0 +1,80 @@
+package com.example.flightservice.service;
+
+import com.example.flightservice.dtos.FlightRecordDTO;
+import com.example.flightservice.dtos.ScheduleRecordDTO;
+import com.example.flightservice.models.FlightStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Streams the catalogue out as CSV or NDJSON. Rows come from a forward-only, read-only cursor
+ * with MySQL's row-by-row fetch size, and each is written as soon as it is read, so neither the
+ * result set nor the response is ever held in memory.
+ */
+@Service
+public class CatalogueExporter {
+    // Tells MySQL Connector/J to stream the result set instead of buffering it client-side
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    public CatalogueExporter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    public void exportFlights(OutputStream output, BulkFormat format) {
+        export(output, format, FlightRecordDTO.class,
+                "SELECT flight_number, airline_name, departure_city, arrival_city, price, capacity FROM flights " +
+                        "WHERE deleted_at IS NULL ORDER BY id",
+                (rs, rowNum) -> new FlightRecordDTO(rs.getString(1), rs.getString(2), rs.getString(3),
+                        rs.getString(4), (Integer) rs.getObject(5), (Integer) rs.getObject(6)));
+    }
+
+    public void exportSchedules(OutputStream output, BulkFormat format) {
+        export(output, format, ScheduleRecordDTO.class,
+                "SELECT f.flight_number, s.departure_time, s.arrival_time, s.flight_status " +
+                        "FROM schedules s JOIN flights f ON f.id = s.flight_id WHERE f.deleted_at IS NULL ORDER BY s.id",
+                (rs, rowNum) -> new ScheduleRecordDTO(rs.getString(1),
+                        rs.getTimestamp(2) == null ? null : rs.getTimestamp(2).toLocalDateTime(),
+                        rs.getTimestamp(3) == null ? null : rs.getTimestamp(3).toLocalDateTime(),
+                        rs.getString(4) == null ? null : FlightStatus.valueOf(rs.getString(4))));
+    }
+
+    private <T> void export(OutputStream output, BulkFormat format, Class<T> type, String sql, RowMapper<T> rowMapper) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (SequenceWriter writer = format.writer(objectMapper, type).writeValues(output)) {
+                jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(sql,
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(STREAMING_FETCH_SIZE);
+                    return statement;
+                }, rs -> {
+                    try {
+                        writer.write(rowMapper.mapRow(rs, 0));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,304 @@
+package com.example.flightservice.service;
+
+import com.example.flightservice.dtos.FlightRecordDTO;
+import com.example.flightservice.dtos.ImportResultDTO;
+import com.example.flightservice.dtos.ScheduleRecordDTO;
+import com.example.flightservice.dtos.ScheduleStatusDTO;
+import com.example.flightservice.models.CatalogueVersion;
+import com.example.flightservice.models.FlightStatus;
+import com.example.flightservice.repositories.CatalogueVersionRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Streams flights or schedules from CSV or NDJSON into the database. Records are parsed one at a
+ * time, validated, and upserted in batches of {@code app.bulk.batch-size}, each in its own
+ * transaction, so memory does not grow with the input. A batch the database rejects is retried
+ * row by row to find the rows at fault; every rejected row is reported with its row number.
+ * <p>
+ * Flights are matched on flight number. Re-importing an existing flight updates its airline,
+ * route and price but not its capacity, which changes seat availability and goes through
+ * {@code PUT /flights/{id}}. Schedules are matched on flight and departure time; a cancelled
+ * schedule stays cancelled, and status changes are pushed to {@link ScheduleStatusHub} subscribers.
+ */
+@Slf4j
+@Service
+public class CatalogueImporter {
+    private static final String FLIGHT_UPSERT = "INSERT INTO flights " +
+            "(flight_number, airline_name, departure_city, arrival_city, price, capacity, available_seats, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, 0) ON DUPLICATE KEY UPDATE airline_name = VALUES(airline_name), " +
+            "departure_city = VALUES(departure_city), arrival_city = VALUES(arrival_city), price = VALUES(price), " +
+            "version = version + 1";
+    private static final String SCHEDULE_UPSERT = "INSERT INTO schedules " +
+            "(flight_id, departure_time, arrival_time, flight_status, version) VALUES (?, ?, ?, ?, 0) " +
+            // version first: MySQL assigns left to right, so it still compares against the old values
+            "ON DUPLICATE KEY UPDATE version = CASE WHEN arrival_time = VALUES(arrival_time) " +
+            "AND flight_status IN ('CANCELLED', VALUES(flight_status)) THEN version ELSE version + 1 END, " +
+            "arrival_time = VALUES(arrival_time), " +
+            "flight_status = CASE WHEN flight_status = 'CANCELLED' THEN flight_status ELSE VALUES(flight_status) END";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final SeatInventory seatInventory;
+    private final CatalogueVersionRepository catalogueVersionRepository;
+    private final FlightService flightService;
+    private final FareCalendar fareCalendar;
+    private final ScheduleStatusHub scheduleStatusHub;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public CatalogueImporter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper, SeatInventory seatInventory,
+                             CatalogueVersionRepository catalogueVersionRepository, FlightService flightService,
+                             FareCalendar fareCalendar, ScheduleStatusHub scheduleStatusHub,
+                             @Value("${app.bulk.batch-size:1000}") int batchSize,
+                             @Value("${app.bulk.max-reported-errors:1000}") int maxReportedErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.seatInventory = seatInventory;
+        this.catalogueVersionRepository = catalogueVersionRepository;
+        this.flightService = flightService;
+        this.fareCalendar = fareCalendar;
+        this.scheduleStatusHub = scheduleStatusHub;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    private record Row<T>(long number, T value) {
+    }
+
+    private record ScheduleRow(Long id, Long flightId, LocalDateTime departureTime, FlightStatus status, long version) {
+    }
+
+    public ImportResultDTO importFlights(InputStream input, BulkFormat format) throws IOException {
+        Progress progress = new Progress();
+        read(input, format, FlightRecordDTO.class, progress, this::validateFlight, batch -> {
+            List<Row<Object[]>> params = new ArrayList<>(batch.size());
+            for (Row<FlightRecordDTO> row : batch) {
+                FlightRecordDTO flight = row.value();
+                params.add(new Row<>(row.number(), new Object[]{flight.getFlightNumber().trim(), flight.getAirlineName(),
+                        flight.getDepartureCity(), flight.getArrivalCity(), flight.getPrice(), flight.getCapacity(),
+                        flight.getCapacity()}));
+            }
+            write(params, progress, rows -> {
+                jdbcTemplate.batchUpdate(FLIGHT_UPSERT, rows);
+                seatInventory.initializeByFlightNumber(rows.stream().map(row -> (String) row[0]).toList());
+            });
+        });
+        if (progress.imported > 0) {
+            transactionTemplate.executeWithoutResult(status ->
+                    catalogueVersionRepository.increment(CatalogueVersion.FLIGHTS));
+            flightService.reloadCatalogue();
+        }
+        log.info("Imported {} of {} flights ({} failed)", progress.imported, progress.processed, progress.failed);
+        return progress.toResult();
+    }
+
+    public ImportResultDTO importSchedules(InputStream input, BulkFormat format) throws IOException {
+        Progress progress = new Progress();
+        // One entry per flight, not per row, so it stays as small as the catalogue
+        Set<Long> touchedFlights = new HashSet<>();
+        read(input, format, ScheduleRecordDTO.class, progress, this::validateSchedule, batch -> {
+            Map<String, Long> flightIds = flightIds(batch.stream().map(row -> row.value().getFlightNumber().trim()).toList());
+            List<Row<Object[]>> params = new ArrayList<>(batch.size());
+            for (Row<ScheduleRecordDTO> row : batch) {
+                ScheduleRecordDTO schedule = row.value();
+                Long flightId = flightIds.get(schedule.getFlightNumber().trim());
+                if (flightId == null) {
+                    progress.fail(row.number(), "Flight not found with flight number: " + schedule.getFlightNumber());
+                    continue;
+                }
+                FlightStatus status = schedule.getFlightStatus() == null ? FlightStatus.SCHEDULED : schedule.getFlightStatus();
+                params.add(new Row<>(row.number(), new Object[]{flightId, Timestamp.valueOf(schedule.getDepartureTime()),
+                        Timestamp.valueOf(schedule.getArrivalTime()), status.name()}));
+            }
+            write(params, progress, rows -> {
+                Map<Long, ScheduleRow> before = new HashMap<>();
+                existingSchedules(rows).forEach(schedule -> before.put(schedule.id(), schedule));
+                jdbcTemplate.batchUpdate(SCHEDULE_UPSERT, rows);
+                rows.forEach(row -> touchedFlights.add((Long) row[0]));
+                for (ScheduleRow schedule : existingSchedules(rows)) {
+                    ScheduleRow previous = before.get(schedule.id());
+                    if (previous != null && previous.status() != schedule.status()) {
+                        FlightService.afterCommit(() -> scheduleStatusHub.publish(new ScheduleStatusDTO(schedule.id(),
+                                schedule.flightId(), schedule.status(), schedule.departureTime()), schedule.version()));
+                    }
+                }
+            });
+        });
+        if (!touchedFlights.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> touchedFlights.forEach(flightId ->
+                    catalogueVersionRepository.increment(CatalogueVersion.schedulesOf(flightId))));
+            if (fareCalendar.isBuilt()) {
+                fareCalendar.requestRebuild();
+            }
+        }
+        log.info("Imported {} of {} schedules ({} failed)", progress.imported, progress.processed, progress.failed);
+        return progress.toResult();
+    }
+
+    private <T> void read(InputStream input, BulkFormat format, Class<T> type, Progress progress,
+                          Function<T, String> validator, Consumer<List<Row<T>>> batchHandler)
+            throws IOException {
+        List<Row<T>> batch = new ArrayList<>(batchSize);
+        try (MappingIterator<T> records = format.reader(objectMapper, type).readValues(input)) {
+            long rowNumber = 0;
+            while (true) {
+                T record;
+                try {
+                    if (!records.hasNextValue()) {
+                        break;
+                    }
+                    rowNumber++;
+                    progress.processed++;
+                    record = records.nextValue();
+                } catch (JsonMappingException e) {
+                    // A value of the wrong type; the iterator skips to the next record
+                    progress.fail(rowNumber, e.getOriginalMessage());
+                    continue;
+                } catch (JsonProcessingException e) {
+                    // Malformed input: there is no telling where the next record starts
+                    progress.fail(rowNumber, "Unreadable input, import stopped: " + e.getOriginalMessage());
+                    break;
+                }
+                String error = record == null ? "Empty record" : validator.apply(record);
+                if (error != null) {
+                    progress.fail(rowNumber, error);
+                    continue;
+                }
+                batch.add(new Row<>(rowNumber, record));
+                if (batch.size() == batchSize) {
+                    batchHandler.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            batchHandler.accept(batch);
+        }
+    }
+
+    private void write(List<Row<Object[]>> rows, Progress progress, Consumer<List<Object[]>> writer) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> writer.accept(rows.stream().map(Row::value).toList()));
+            progress.imported += rows.size();
+        } catch (DataAccessException e) {
+            for (Row<Object[]> row : rows) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> writer.accept(List.<Object[]>of(row.value())));
+                    progress.imported++;
+                } catch (DataAccessException rowError) {
+                    progress.fail(row.number(), NestedExceptionUtils.getMostSpecificCause(rowError).getMessage());
+                }
+            }
+        }
+    }
+
+    // The schedules the given upsert rows match on flight and departure time
+    private List<ScheduleRow> existingSchedules(List<Object[]> rows) {
+        Object[] args = new Object[rows.size() * 2];
+        for (int i = 0; i < rows.size(); i++) {
+            args[i * 2] = rows.get(i)[0];
+            args[i * 2 + 1] = rows.get(i)[1];
+        }
+        return jdbcTemplate.query("SELECT id, flight_id, departure_time, flight_status, version FROM schedules " +
+                        "WHERE (flight_id, departure_time) IN (" + String.join(", ", Collections.nCopies(rows.size(), "(?, ?)")) + ")",
+                (rs, rowNum) -> new ScheduleRow(rs.getLong(1), rs.getLong(2), rs.getTimestamp(3).toLocalDateTime(),
+                        rs.getString(4) == null ? null : FlightStatus.valueOf(rs.getString(4)), rs.getLong(5)),
+                args);
+    }
+
+    private Map<String, Long> flightIds(List<String> flightNumbers) {
+        List<String> distinct = flightNumbers.stream().distinct().toList();
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT flight_number, id FROM flights WHERE flight_number IN ("
+                        + String.join(", ", Collections.nCopies(distinct.size(), "?")) + ") AND deleted_at IS NULL",
+                rs -> {
+                    ids.put(rs.getString(1), rs.getLong(2));
+                }, distinct.toArray());
+        return ids;
+    }
+
+    private String validateFlight(FlightRecordDTO flight) {
+        if (isBlank(flight.getFlightNumber())) {
+            return "Flight number is required";
+        }
+        if (isBlank(flight.getAirlineName())) {
+            return "Airline name is required";
+        }
+        if (isBlank(flight.getDepartureCity()) || isBlank(flight.getArrivalCity())) {
+            return "Departure and arrival city are required";
+        }
+        if (flight.getPrice() == null || flight.getPrice() < 0) {
+            return "Price is required and should not be negative";
+        }
+        if (flight.getCapacity() == null || flight.getCapacity() < 1) {
+            return "Capacity should be greater than 0";
+        }
+        return null;
+    }
+
+    private String validateSchedule(ScheduleRecordDTO schedule) {
+        if (isBlank(schedule.getFlightNumber())) {
+            return "Flight number is required";
+        }
+        if (schedule.getDepartureTime() == null || schedule.getArrivalTime() == null) {
+            return "Departure and arrival time are required";
+        }
+        if (schedule.getDepartureTime().isAfter(schedule.getArrivalTime())) {
+            return "Departure time should be before arrival time";
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private class Progress {
+        long processed;
+        long imported;
+        long failed;
+        final List<ImportResultDTO.RowError> errors = new ArrayList<>();
+
+        void fail(long row, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ImportResultDTO.RowError(row, message));
+            }
+        }
+
+        ImportResultDTO toResult() {
+            return new ImportResultDTO(processed, imported, failed, errors, failed > errors.size());
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.flightservice.service;
+
+import com.example.flightservice.config.ReplicaGuard;
+import com.example.flightservice.dtos.DisruptionDTO;
+import com.example.flightservice.dtos.DisruptionResultDTO;
+import com.example.flightservice.dtos.ScheduleStatusDTO;
+import com.example.flightservice.models.CatalogueVersion;
+import com.example.flightservice.models.FlightStatus;
+import com.example.flightservice.repositories.CatalogueVersionRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Delays or cancels many departures at once, e.g. for a weather event. The schedules are changed
+ * with one UPDATE per {@code app.disruptions.batch-size} ids in a single transaction; once that
+ * has committed, TicketService is asked to mark or cancel the affected tickets, release their
+ * seats and notify the passengers.
+ * <p>
+ * Each disruption is recorded under its id in the same transaction. Sending it again with that
+ * id leaves the schedules alone and only repeats the ticket step, which skips tickets TicketService
+ * already handled, so a disruption whose ticket step failed can simply be sent again. Cancelled
+ * schedules are never changed by a later delay.
+ */
+@Slf4j
+@Service
+public class DisruptionService {
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogueVersionRepository catalogueVersionRepository;
+    private final ReplicaGuard replicaGuard;
+    private final FareCalendar fareCalendar;
+    private final ScheduleStatusHub scheduleStatusHub;
+    private final TicketServiceClient ticketServiceClient;
+    private final int batchSize;
+
+    public DisruptionService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             CatalogueVersionRepository catalogueVersionRepository, ReplicaGuard replicaGuard,
+                             FareCalendar fareCalendar, ScheduleStatusHub scheduleStatusHub,
+                             TicketServiceClient ticketServiceClient,
+                             @Value("${app.disruptions.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.catalogueVersionRepository = catalogueVersionRepository;
+        this.replicaGuard = replicaGuard;
+        this.fareCalendar = fareCalendar;
+        this.scheduleStatusHub = scheduleStatusHub;
+        this.ticketServiceClient = ticketServiceClient;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    private record ScheduleRow(Long id, Long flightId, LocalDateTime departureTime, FlightStatus status, long version) {
+    }
+
+    private record Applied(List<ScheduleRow> rows, boolean replayed) {
+    }
+
+    public DisruptionResultDTO applyDisruption(DisruptionDTO disruption, String authorization) {
+        FlightStatus status = disruption.getFlightStatus();
+        if (status != FlightStatus.DELAYED && status != FlightStatus.CANCELLED) {
+            throw new IllegalArgumentException("A disruption is either DELAYED or CANCELLED");
+        }
+        int delay = status == FlightStatus.DELAYED && disruption.getDelayMinutes() != null ? disruption.getDelayMinutes() : 0;
+        List<Long> scheduleIds = disruption.getScheduleIds().stream().distinct().toList();
+        String disruptionId = StringUtils.hasText(disruption.getDisruptionId())
+                ? disruption.getDisruptionId() : UUID.randomUUID().toString();
+
+        Applied applied;
+        try {
+            applied = transactionTemplate.execute(tx -> {
+                boolean replayed = !record(disruptionId, status, delay);
+                List<ScheduleRow> rows = new ArrayList<>(scheduleIds.size());
+                for (int from = 0; from < scheduleIds.size(); from += batchSize) {
+                    List<Long> ids = scheduleIds.subList(from, Math.min(scheduleIds.size(), from + batchSize));
+                    String in = String.join(", ", Collections.nCopies(ids.size(), "?"));
+                    if (!replayed) {
+                        List<Object> args = new ArrayList<>(List.of(status.name(), delay, delay));
+                        args.addAll(ids);
+                        jdbcTemplate.update("UPDATE schedules SET flight_status = ?, " +
+                                "departure_time = departure_time + INTERVAL ? MINUTE, " +
+                                "arrival_time = arrival_time + INTERVAL ? MINUTE, version = version + 1 " +
+                                "WHERE id IN (" + in + ") AND flight_status <> 'CANCELLED'", args.toArray());
+                    }
+                    // A delay skips cancelled schedules, so only those now in the disruption's status are affected
+                    List<Object> args = new ArrayList<>(ids);
+                    args.add(status.name());
+                    rows.addAll(jdbcTemplate.query("SELECT id, flight_id, departure_time, flight_status, version FROM schedules " +
+                                    "WHERE id IN (" + in + ") AND flight_status = ?",
+                            (rs, rowNum) -> new ScheduleRow(rs.getLong(1), rs.getLong(2),
+                                    rs.getTimestamp(3).toLocalDateTime(), FlightStatus.valueOf(rs.getString(4)), rs.getLong(5)),
+                            args.toArray()));
+                }
+                if (!replayed) {
+                    Set<Long> flightIds = new HashSet<>();
+                    rows.forEach(row -> flightIds.add(row.flightId()));
+                    flightIds.forEach(flightId -> catalogueVersionRepository.increment(CatalogueVersion.schedulesOf(flightId)));
+                }
+                return new Applied(rows, replayed);
+            });
+        } catch (DuplicateKeyException e) {
+            throw new IllegalArgumentException("The delay moves a departure onto another departure of the same flight");
+        }
+        List<ScheduleRow> updated = applied.rows();
+        if (!applied.replayed()) {
+            replicaGuard.stickToPrimary();
+            updated.forEach(row -> {
+                fareCalendar.scheduleChanged(row.id(), row.flightId(), row.departureTime(), row.status());
+                scheduleStatusHub.publish(new ScheduleStatusDTO(row.id(), row.flightId(), row.status(), row.departureTime()),
+                        row.version());
+            });
+        }
+
+        DisruptionDTO forTickets = new DisruptionDTO(updated.stream().map(ScheduleRow::id).toList(), status,
+                delay, disruption.getReason(), null, disruptionId);
+        JsonNode tickets = null;
+        String ticketError = null;
+        try {
+            tickets = ticketServiceClient.applyDisruption(forTickets, authorization);
+        } catch (Exception e) {
+            ticketError = e.getMessage();
+            log.warn("Schedules of disruption {} updated, but tickets were not: {}", status, e.getMessage());
+        }
+        log.info("Disruption {} ({}) applied to {} schedules{}", disruptionId, status, updated.size(),
+                applied.replayed() ? ", ticket step retried" : "");
+        return new DisruptionResultDTO(disruptionId, updated.size(), applied.replayed(), tickets, ticketError);
+    }
+
+    /**
+     * @return false if a disruption with this id was already applied
+     */
+    private boolean record(String disruptionId, FlightStatus status, int delay) {
+        try {
+            jdbcTemplate.update("INSERT INTO disruptions (disruption_id, flight_status, delay_minutes, applied_at) " +
+                    "VALUES (?, ?, ?, ?)", disruptionId, status.name(), delay, LocalDateTime.now());
+            return true;
+        } catch (DuplicateKeyException e) {
+            Boolean same = jdbcTemplate.queryForObject("SELECT flight_status = ? AND delay_minutes = ? FROM disruptions " +
+                    "WHERE disruption_id = ?", Boolean.class, status.name(), delay, disruptionId);
+            if (!Boolean.TRUE.equals(same)) {
+                throw new IllegalArgumentException("Disruption " + disruptionId + " was already applied with another status or delay");
+            }
+            return false;
+        }
+    }
+}
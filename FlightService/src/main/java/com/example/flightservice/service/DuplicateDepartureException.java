@@ -0,0 +1,13 @@
+package com.example.flightservice.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.LocalDateTime;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class DuplicateDepartureException extends RuntimeException {
+    public DuplicateDepartureException(Long flightId, LocalDateTime departureTime) {
+        super("Flight " + flightId + " already has a departure at " + departureTime);
+    }
+}
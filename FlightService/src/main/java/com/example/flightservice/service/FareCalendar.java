@@ -0,0 +1,396 @@
+package com.example.flightservice.service;
+
+import com.example.flightservice.dtos.CalendarDayDTO;
+import com.example.flightservice.dtos.FlightDTO;
+import com.example.flightservice.models.FlightStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Lowest fare and seats left per route and departure day, kept up to date as flights, schedules
+ * and seat counts change rather than worked out from the schedules on every calendar request.
+ * <p>
+ * Each day keeps the current fare of every schedule departing on it. A change touches only the
+ * days of the schedules involved, whose summaries are recomputed and republished; readers get
+ * the published summaries without locking. Schedules changed through other instances, and fares
+ * moving to the next advance-purchase step at midnight, are picked up by a periodic rebuild.
+ * <p>
+ * A rebuild reads and prices every future schedule into a new calendar without holding the lock
+ * that changes take, then swaps it in; changes made meanwhile are replayed onto it first. Until
+ * the first build has finished there is no calendar, and {@link #days} returns null.
+ */
+@Slf4j
+@Component
+public class FareCalendar {
+    private final JdbcTemplate jdbcTemplate;
+    private final FlightCatalogue flightCatalogue;
+    private final FareEngine fareEngine;
+    private final Object rebuildLock = new Object();
+    private final AtomicBoolean buildRequested = new AtomicBoolean();
+
+    // Changed under this; readers only touch its published summaries
+    private volatile Calendar calendar;
+    // Changes made while a rebuild is reading, to replay onto the new calendar; guarded by this
+    private List<Consumer<Calendar>> changesDuringRebuild;
+
+    public FareCalendar(JdbcTemplate jdbcTemplate, FlightCatalogue flightCatalogue, FareEngine fareEngine) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.flightCatalogue = flightCatalogue;
+        this.fareEngine = fareEngine;
+    }
+
+    private record ScheduleEntry(Long flightId, LocalDateTime departureTime) {
+    }
+
+    private record FlightState(String route, int price, int capacity, int availableSeats, LocalDate pricedOn) {
+    }
+
+    private record DayKey(String route, LocalDate date) {
+    }
+
+    private record Slot(Long flightId, int fare, int availableSeats) {
+    }
+
+    public boolean isBuilt() {
+        return calendar != null;
+    }
+
+    /**
+     * Days of {@code month} on the route that still have departures, in date order; null if the
+     * calendar has not been built yet.
+     */
+    public List<CalendarDayDTO> days(String departureCity, String arrivalCity, YearMonth month) {
+        Calendar current = calendar;
+        if (current == null) {
+            return null;
+        }
+        NavigableMap<LocalDate, CalendarDayDTO> route = current.summaries.get(routeKey(departureCity, arrivalCity));
+        if (route == null) {
+            return List.of();
+        }
+        LocalDate first = month.atDay(1);
+        LocalDate today = LocalDate.now();
+        if (first.isBefore(today)) {
+            first = today;
+        }
+        LocalDate last = month.atEndOfMonth();
+        if (first.isAfter(last)) {
+            return List.of();
+        }
+        return new ArrayList<>(route.subMap(first, true, last, true).values());
+    }
+
+    /**
+     * Starts a {@link #rebuild} on a background thread unless one was already requested, so a
+     * request finding the calendar cold never waits for the full read.
+     */
+    public void requestRebuild() {
+        if (buildRequested.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("fare-calendar-build").start(() -> {
+                try {
+                    rebuild();
+                } catch (Exception e) {
+                    log.warn("Could not build fare calendar: {}", e.getMessage());
+                } finally {
+                    buildRequested.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Reads every future schedule once and replaces the whole calendar. Needs the flight
+     * catalogue; flights missing from it are filled in when it is next reloaded.
+     */
+    @Scheduled(fixedDelayString = "${app.calendar.rebuild-interval-ms:300000}",
+            initialDelayString = "${app.calendar.rebuild-interval-ms:300000}")
+    public void rebuild() {
+        // Fare tables are kept per schedule ever quoted; this is where departed ones go
+        fareEngine.evictDeparted(LocalDateTime.now());
+        if (!flightCatalogue.isLoaded()) {
+            return;
+        }
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                changesDuringRebuild = new ArrayList<>();
+            }
+            try {
+                List<Object[]> rows = futureSchedules("", Timestamp.valueOf(LocalDateTime.now()),
+                        FlightStatus.CANCELLED.name());
+                Calendar rebuilt = new Calendar();
+                rows.forEach(rebuilt::attach);
+                Set<DayKey> touched = new HashSet<>();
+                for (Long flightId : rebuilt.schedulesByFlight.keySet()) {
+                    rebuilt.refreshFlight(flightId, touched);
+                }
+                touched.forEach(rebuilt::publish);
+                synchronized (this) {
+                    changesDuringRebuild.forEach(change -> change.accept(rebuilt));
+                    calendar = rebuilt;
+                }
+                log.debug("Rebuilt fare calendar from {} schedules", rows.size());
+            } finally {
+                synchronized (this) {
+                    changesDuringRebuild = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Re-reads one flight's future schedules, after they were changed in bulk.
+     */
+    public void reloadFlight(Long flightId) {
+        if (!isBuilt()) {
+            return;
+        }
+        List<Object[]> rows = futureSchedules(" AND flight_id = ?", Timestamp.valueOf(LocalDateTime.now()),
+                FlightStatus.CANCELLED.name(), flightId);
+        change(current -> {
+            Set<DayKey> touched = new HashSet<>();
+            for (Long scheduleId : List.copyOf(current.schedulesByFlight.getOrDefault(flightId, Set.of()))) {
+                current.detach(scheduleId, touched);
+            }
+            rows.forEach(current::attach);
+            current.flights.remove(flightId);
+            current.refreshFlight(flightId, touched);
+            touched.forEach(current::publish);
+        });
+    }
+
+    /**
+     * Called after the flight catalogue is reloaded; builds the calendar in the background on the
+     * first load and afterwards re-prices the flights whose fare inputs changed.
+     */
+    public void catalogueReloaded() {
+        if (!isBuilt()) {
+            requestRebuild();
+            return;
+        }
+        change(current -> {
+            Set<DayKey> touched = new HashSet<>();
+            for (Long flightId : List.copyOf(current.schedulesByFlight.keySet())) {
+                current.refreshFlight(flightId, touched);
+            }
+            touched.forEach(current::publish);
+        });
+    }
+
+    /**
+     * Re-prices the flight's schedules if its route, price or seats changed since they were last
+     * priced; called on every seat change, so it is a map lookup when nothing moved.
+     */
+    public void flightChanged(Long flightId) {
+        change(current -> {
+            if (!current.schedulesByFlight.containsKey(flightId)) {
+                return;
+            }
+            Set<DayKey> touched = new HashSet<>();
+            current.refreshFlight(flightId, touched);
+            touched.forEach(current::publish);
+        });
+    }
+
+    public void flightRemoved(Long flightId) {
+        change(current -> {
+            Set<Long> scheduleIds = current.schedulesByFlight.remove(flightId);
+            FlightState state = current.flights.remove(flightId);
+            if (scheduleIds == null) {
+                return;
+            }
+            Set<DayKey> touched = new HashSet<>();
+            for (Long scheduleId : scheduleIds) {
+                ScheduleEntry entry = current.schedules.remove(scheduleId);
+                if (state != null && entry != null) {
+                    current.removeSlot(new DayKey(state.route(), entry.departureTime().toLocalDate()), scheduleId, touched);
+                }
+            }
+            touched.forEach(current::publish);
+        });
+    }
+
+    public void scheduleChanged(Long scheduleId, Long flightId, LocalDateTime departureTime, FlightStatus status) {
+        change(current -> {
+            Set<DayKey> touched = new HashSet<>();
+            current.detach(scheduleId, touched);
+            if (status != FlightStatus.CANCELLED && departureTime != null && departureTime.isAfter(LocalDateTime.now())) {
+                current.schedules.put(scheduleId, new ScheduleEntry(flightId, departureTime));
+                current.schedulesByFlight.computeIfAbsent(flightId, id -> new HashSet<>()).add(scheduleId);
+                FlightState state = current.flights.get(flightId);
+                if (state == null) {
+                    current.refreshFlight(flightId, touched);
+                } else {
+                    current.putSlot(scheduleId, flightId, state, touched);
+                }
+            }
+            touched.forEach(current::publish);
+        });
+    }
+
+    public void scheduleRemoved(Long scheduleId) {
+        change(current -> {
+            Set<DayKey> touched = new HashSet<>();
+            current.detach(scheduleId, touched);
+            touched.forEach(current::publish);
+        });
+    }
+
+    // Applies a change to the live calendar, and to the one being rebuilt once its read is done
+    private synchronized void change(Consumer<Calendar> change) {
+        if (calendar != null) {
+            change.accept(calendar);
+        }
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.add(change);
+        }
+    }
+
+    private List<Object[]> futureSchedules(String condition, Object... args) {
+        return jdbcTemplate.query(
+                "SELECT id, flight_id, departure_time FROM schedules WHERE departure_time >= ? AND flight_status <> ?"
+                        + condition,
+                (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getLong(2), rs.getTimestamp(3).toLocalDateTime()},
+                args);
+    }
+
+    /**
+     * One complete calendar. Its maps are only changed by the thread building it or under the
+     * enclosing {@link FareCalendar}'s lock; only the published summaries are read outside it.
+     */
+    private final class Calendar {
+        private final Map<Long, ScheduleEntry> schedules = new HashMap<>();
+        private final Map<Long, Set<Long>> schedulesByFlight = new HashMap<>();
+        private final Map<Long, FlightState> flights = new HashMap<>();
+        private final Map<DayKey, Map<Long, Slot>> slotsByDay = new HashMap<>();
+        private final Map<String, NavigableMap<LocalDate, CalendarDayDTO>> summaries = new ConcurrentHashMap<>();
+
+        private void attach(Object[] row) {
+            Long scheduleId = (Long) row[0];
+            Long flightId = (Long) row[1];
+            schedules.put(scheduleId, new ScheduleEntry(flightId, (LocalDateTime) row[2]));
+            schedulesByFlight.computeIfAbsent(flightId, id -> new HashSet<>()).add(scheduleId);
+        }
+
+        private void detach(Long scheduleId, Set<DayKey> touched) {
+            ScheduleEntry entry = schedules.remove(scheduleId);
+            if (entry == null) {
+                return;
+            }
+            FlightState state = flights.get(entry.flightId());
+            if (state == null) {
+                state = lastKnownState(entry.flightId());
+            }
+            if (state != null) {
+                removeSlot(new DayKey(state.route(), entry.departureTime().toLocalDate()), scheduleId, touched);
+            }
+            Set<Long> siblings = schedulesByFlight.get(entry.flightId());
+            if (siblings != null) {
+                siblings.remove(scheduleId);
+                if (siblings.isEmpty()) {
+                    schedulesByFlight.remove(entry.flightId());
+                    flights.remove(entry.flightId());
+                }
+            }
+        }
+
+        private void refreshFlight(Long flightId, Set<DayKey> touched) {
+            FlightDTO flight = flightCatalogue.findById(flightId).orElse(null);
+            FlightState previous = flights.get(flightId);
+            FlightState current = flight == null ? null : stateOf(flight, LocalDate.now());
+            if (current != null && current.equals(previous)) {
+                return;
+            }
+            Set<Long> scheduleIds = schedulesByFlight.getOrDefault(flightId, Set.of());
+            if (previous != null && (current == null || !previous.route().equals(current.route()))) {
+                for (Long scheduleId : scheduleIds) {
+                    removeSlot(new DayKey(previous.route(), schedules.get(scheduleId).departureTime().toLocalDate()),
+                            scheduleId, touched);
+                }
+            }
+            if (current == null) {
+                flights.remove(flightId);
+                return;
+            }
+            flights.put(flightId, current);
+            for (Long scheduleId : scheduleIds) {
+                putSlot(scheduleId, flightId, current, touched);
+            }
+        }
+
+        private void putSlot(Long scheduleId, Long flightId, FlightState state, Set<DayKey> touched) {
+            ScheduleEntry entry = schedules.get(scheduleId);
+            FareEngine.Fare fare = fareEngine.fareFor(scheduleId, entry.departureTime(), flightId, state.price(),
+                    state.capacity(), state.availableSeats());
+            DayKey day = new DayKey(state.route(), entry.departureTime().toLocalDate());
+            slotsByDay.computeIfAbsent(day, key -> new HashMap<>())
+                    .put(scheduleId, new Slot(flightId, fare.amount(), state.availableSeats()));
+            touched.add(day);
+        }
+
+        private void removeSlot(DayKey day, Long scheduleId, Set<DayKey> touched) {
+            Map<Long, Slot> slots = slotsByDay.get(day);
+            if (slots != null && slots.remove(scheduleId) != null) {
+                if (slots.isEmpty()) {
+                    slotsByDay.remove(day);
+                }
+                touched.add(day);
+            }
+        }
+
+        // Recomputes one day from its slots; seats are counted once per flight, as schedules share them
+        private void publish(DayKey day) {
+            Map<Long, Slot> slots = slotsByDay.get(day);
+            if (slots == null) {
+                NavigableMap<LocalDate, CalendarDayDTO> route = summaries.get(day.route());
+                if (route != null) {
+                    route.remove(day.date());
+                }
+                return;
+            }
+            Integer minFare = null;
+            Map<Long, Integer> seatsByFlight = new HashMap<>();
+            for (Slot slot : slots.values()) {
+                seatsByFlight.put(slot.flightId(), slot.availableSeats());
+                if (slot.availableSeats() > 0 && (minFare == null || slot.fare() < minFare)) {
+                    minFare = slot.fare();
+                }
+            }
+            int availableSeats = seatsByFlight.values().stream().mapToInt(Integer::intValue).sum();
+            summaries.computeIfAbsent(day.route(), route -> new ConcurrentSkipListMap<>())
+                    .put(day.date(), new CalendarDayDTO(day.date(), minFare, availableSeats, slots.size()));
+        }
+    }
+
+    private FlightState lastKnownState(Long flightId) {
+        return flightCatalogue.findById(flightId).map(flight -> stateOf(flight, LocalDate.now())).orElse(null);
+    }
+
+    private static FlightState stateOf(FlightDTO flight, LocalDate today) {
+        return new FlightState(routeKey(flight.getDepartureCity(), flight.getArrivalCity()),
+                flight.getPrice() == null ? 0 : flight.getPrice(),
+                flight.getCapacity() == null ? 0 : flight.getCapacity(),
+                flight.getAvailableSeats() == null ? 0 : flight.getAvailableSeats(), today);
+    }
+
+    private static String routeKey(String departureCity, String arrivalCity) {
+        return (departureCity + "->" + arrivalCity).toLowerCase();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.flightservice.service;
+
+import com.example.flightservice.config.FareProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Computes fares from precomputed per-schedule tables. A schedule's table holds its fare in every
+ * bucket for today's days to departure, so quoting is two lookups: the flight's current bucket,
+ * which is moved whenever seats are sold or returned, and that bucket's entry in the table.
+ * Tables are rebuilt when the day, the base price or the departure time changes, and dropped
+ * once the schedule has departed.
+ */
+@Component
+public class FareEngine {
+    private final FareProperties properties;
+    private final Map<Long, FareTable> tables = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> bucketByFlight = new ConcurrentHashMap<>();
+
+    public FareEngine(FareProperties properties) {
+        this.properties = properties;
+    }
+
+    public record Fare(int amount, String bucket) {
+    }
+
+    private record FareTable(int basePrice, LocalDateTime departureTime, LocalDate computedOn, int[] fares) {
+    }
+
+    public Fare fareFor(Long scheduleId, LocalDateTime departureTime, Long flightId, int basePrice,
+                        int capacity, int availableSeats) {
+        LocalDate today = LocalDate.now();
+        FareTable table = tables.compute(scheduleId, (id, current) ->
+                current != null && current.basePrice() == basePrice && current.computedOn().equals(today)
+                        && current.departureTime().equals(departureTime)
+                        ? current
+                        : buildTable(basePrice, departureTime, today));
+        int bucket = bucketByFlight.computeIfAbsent(flightId, id -> bucketFor(capacity, availableSeats));
+        return new Fare(table.fares()[bucket], properties.getBuckets().isEmpty()
+                ? "STANDARD" : properties.getBuckets().get(bucket).getName());
+    }
+
+    /**
+     * Moves the flight to the bucket for its new load factor; called on every seat change.
+     */
+    public void seatsChanged(Long flightId, int capacity, int availableSeats) {
+        bucketByFlight.put(flightId, bucketFor(capacity, availableSeats));
+    }
+
+    public void evictSchedule(Long scheduleId) {
+        tables.remove(scheduleId);
+    }
+
+    /**
+     * Drops the tables of schedules that departed before {@code now}; nothing quotes them any more.
+     *
+     * @return how many were dropped
+     */
+    public int evictDeparted(LocalDateTime now) {
+        int before = tables.size();
+        tables.values().removeIf(table -> table.departureTime().isBefore(now));
+        return Math.max(0, before - tables.size());
+    }
+
+    private FareTable buildTable(int basePrice, LocalDateTime departureTime, LocalDate today) {
+        double advance = advancePurchaseMultiplier(ChronoUnit.DAYS.between(today, departureTime.toLocalDate()));
+        List<FareProperties.Bucket> buckets = properties.getBuckets();
+        int[] fares = new int[Math.max(1, buckets.size())];
+        for (int i = 0; i < fares.length; i++) {
+            double multiplier = buckets.isEmpty() ? 1.0 : buckets.get(i).getMultiplier();
+            fares[i] = (int) Math.round(basePrice * multiplier * advance);
+        }
+        return new FareTable(basePrice, departureTime, today, fares);
+    }
+
+    private int bucketFor(int capacity, int availableSeats) {
+        List<FareProperties.Bucket> buckets = properties.getBuckets();
+        double loadFactor = capacity > 0 ? (double) (capacity - availableSeats) / capacity : 1.0;
+        for (int i = 0; i < buckets.size(); i++) {
+            if (loadFactor <= buckets.get(i).getUpToLoadFactor()) {
+                return i;
+            }
+        }
+        return Math.max(0, buckets.size() - 1);
+    }
+
+    private double advancePurchaseMultiplier(long daysToDeparture) {
+        for (FareProperties.AdvancePurchase step : properties.getAdvancePurchase()) {
+            if (daysToDeparture >= step.getMinDays()) {
+                return step.getMultiplier();
+            }
+        }
+        return 1.0;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.flightservice.service;
+
+import com.example.flightservice.config.FareProperties;
+import com.example.flightservice.dtos.FareQuoteDTO;
+import com.example.flightservice.dtos.FlightDTO;
+import com.example.flightservice.models.Schedule;
+import com.example.flightservice.repositories.ScheduleRepository;
+import com.example.flightservice.security.FareQuoteSigner;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@Service
+@AllArgsConstructor
+public class FareQuoteService {
+    private final ScheduleRepository scheduleRepository;
+    private final FlightService flightService;
+    private final FareEngine fareEngine;
+    private final FareQuoteSigner fareQuoteSigner;
+    private final FareProperties fareProperties;
+
+    @Transactional(readOnly = true)
+    public FareQuoteDTO quote(Long scheduleId) {
+        Schedule schedule = scheduleRepository.findById(scheduleId)
+                .filter(found -> found.getFlight() != null && found.getFlight().getDeletedAt() == null)
+                .orElseThrow(() -> new RuntimeException("Schedule not found with id: " + scheduleId));
+        if (schedule.getDepartureTime() == null || schedule.getDepartureTime().isBefore(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Schedule " + scheduleId + " has already departed");
+        }
+        FlightDTO flight = flightService.getFlightById(schedule.getFlight().getId());
+        if (flight.getAvailableSeats() == null || flight.getAvailableSeats() <= 0) {
+            throw new InsufficientSeatsException(flight.getId(), 1);
+        }
+        FareEngine.Fare fare = fareEngine.fareFor(scheduleId, schedule.getDepartureTime(), flight.getId(),
+                flight.getPrice(), flight.getCapacity(), flight.getAvailableSeats());
+        Instant expiresAt = Instant.now().plus(fareProperties.getQuoteTtl()).truncatedTo(ChronoUnit.SECONDS);
+        return fareQuoteSigner.sign(new FareQuoteDTO(flight.getId(), scheduleId, fare.amount(), fare.bucket(),
+                expiresAt, null, null));
+    }
+}
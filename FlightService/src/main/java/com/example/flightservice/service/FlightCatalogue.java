@@ -0,0 +1,279 @@
+package com.example.flightservice.service;
+
+import com.example.flightservice.dtos.FlightDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * In-process copy of the flight catalogue. The catalogue itself is an immutable snapshot that
+ * writers replace as a whole, so readers never lock; seat availability changes far more often
+ * than the rest of a flight and is kept in separate counters. ETags follow seat changes without a
+ * catalogue version bump through a {@link #contentHash() hash} of what is served, which every
+ * instance serving the same flights and seats agrees on; an epoch that moves whenever a counter
+ * does tells when the hash must be recomputed.
+ * <p>
+ * A flight found in the database after a lookup missed is {@link #remember remembered} beside the
+ * snapshot rather than copied into it, so a read never rebuilds the catalogue; lists pick it up
+ * with the next reload. Removed flights are tombstoned with the catalogue version of their
+ * removal until a reload at least that new, so a lookup that read a flight just before it was
+ * deleted cannot bring it back.
+ */
+@Component
+public class FlightCatalogue {
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final Map<Long, AtomicInteger> availableSeats = new ConcurrentHashMap<>();
+    private final AtomicLong seatEpoch = new AtomicLong();
+    private volatile ContentHash contentHash;
+    // Flights found by point lookups since the snapshot was loaded
+    private final Map<Long, FlightDTO> remembered = new ConcurrentHashMap<>();
+    // Removed flight id -> catalogue version of the removal
+    private final Map<Long, Long> tombstones = new ConcurrentHashMap<>();
+
+    public boolean isLoaded() {
+        return snapshot.get() != null;
+    }
+
+    /**
+     * @return the catalogue-wide version the current snapshot reflects
+     */
+    public long version() {
+        return snapshot().version();
+    }
+
+    /**
+     * @return a counter that changes whenever any flight's available seats change on this instance
+     */
+    public long seatEpoch() {
+        return seatEpoch.get();
+    }
+
+    /**
+     * @return a hash of the id, version and available seats of every listed flight; unlike
+     * {@link #seatEpoch()} it depends only on those values, not on this instance's history
+     */
+    public long contentHash() {
+        Snapshot current = snapshot();
+        // Read before the counters, so a change made while hashing moves it past the cached value
+        long epoch = seatEpoch.get();
+        ContentHash cached = contentHash;
+        if (cached != null && cached.snapshot() == current && cached.seatEpoch() == epoch) {
+            return cached.value();
+        }
+        long hash = current.version();
+        for (FlightDTO flight : current.byIdOrder()) {
+            AtomicInteger seats = availableSeats.get(flight.getId());
+            Integer available = seats != null ? Integer.valueOf(seats.get()) : flight.getAvailableSeats();
+            hash = mix(hash, flight.getId());
+            hash = mix(hash, flight.getVersion() != null ? flight.getVersion() : -1);
+            hash = mix(hash, available != null ? available : -1);
+        }
+        contentHash = new ContentHash(current, epoch, hash);
+        return hash;
+    }
+
+    public void replaceAll(Collection<FlightDTO> flights, long version) {
+        // A reload read before a removal committed (or from a lagging replica) may still include the flight
+        List<FlightDTO> live = flights.stream().filter(flight -> !removedAfter(flight.getId(), version)).toList();
+        snapshot.set(Snapshot.of(live, version));
+        remembered.clear();
+        tombstones.values().removeIf(removedAt -> removedAt <= version);
+        availableSeats.keySet().retainAll(live.stream().map(FlightDTO::getId).collect(Collectors.toSet()));
+        live.forEach(flight -> setAvailableSeats(flight.getId(), flight.getAvailableSeats()));
+    }
+
+    /**
+     * Adds a flight read from the database after a lookup missed, e.g. one created on another
+     * instance, for lookups by id and flight number. Does nothing for a removed flight.
+     */
+    public void remember(FlightDTO flight) {
+        Long id = flight.getId();
+        remembered.putIfAbsent(id, copyOf(flight, flight.getAvailableSeats()));
+        // Checked after adding, so a removal running concurrently is never undone
+        if (tombstones.containsKey(id)) {
+            remembered.remove(id);
+        }
+    }
+
+    public void put(FlightDTO flight, long version) {
+        if (tombstones.containsKey(flight.getId())) {
+            return;
+        }
+        FlightDTO stored = copyOf(flight, flight.getAvailableSeats());
+        remembered.remove(flight.getId());
+        snapshot.updateAndGet(current -> {
+            Map<Long, FlightDTO> flights = current == null ? new HashMap<>() : new HashMap<>(current.byId());
+            flights.put(stored.getId(), stored);
+            return Snapshot.of(flights.values(), current == null ? version : Math.max(version, current.version()));
+        });
+        setAvailableSeats(flight.getId(), flight.getAvailableSeats());
+    }
+
+    public void remove(Long id, long version) {
+        tombstones.merge(id, version, Math::max);
+        remembered.remove(id);
+        snapshot.updateAndGet(current -> {
+            if (current == null) {
+                return null;
+            }
+            Map<Long, FlightDTO> flights = new HashMap<>(current.byId());
+            flights.remove(id);
+            return Snapshot.of(flights.values(), Math.max(version, current.version()));
+        });
+        availableSeats.remove(id);
+    }
+
+    public List<FlightDTO> findAll(String sort) {
+        Snapshot current = snapshot();
+        List<FlightDTO> flights = switch (sort) {
+            case "asc" -> current.byPriceAsc();
+            case "desc" -> current.byPriceDesc();
+            default -> current.byIdOrder();
+        };
+        return copiesOf(flights);
+    }
+
+    public List<FlightDTO> findByRoute(String departureCity, String arrivalCity) {
+        return copiesOf(snapshot().byRoute().getOrDefault(routeKey(departureCity, arrivalCity), List.of()));
+    }
+
+    public Optional<FlightDTO> findById(Long id) {
+        return lookup(id).map(this::withLiveSeats);
+    }
+
+    public Optional<Long> findVersion(Long id) {
+        return lookup(id).map(FlightDTO::getVersion);
+    }
+
+    public Optional<Integer> findAvailableSeats(Long id) {
+        return lookup(id).map(this::withLiveSeats).map(FlightDTO::getAvailableSeats);
+    }
+
+    public Optional<FlightDTO> findByFlightNumber(String flightNumber) {
+        FlightDTO flight = snapshot().byFlightNumber().get(flightNumber);
+        if (flight == null) {
+            flight = remembered.values().stream()
+                    .filter(candidate -> flightNumber.equals(candidate.getFlightNumber()))
+                    .findFirst().orElse(null);
+        }
+        return Optional.ofNullable(flight).map(this::withLiveSeats);
+    }
+
+    /**
+     * @return true if the flight's count changed; an unchanged one is left alone
+     */
+    public boolean setAvailableSeats(Long flightId, Integer seats) {
+        if (seats == null) {
+            return false;
+        }
+        AtomicInteger current = availableSeats.computeIfAbsent(flightId, id -> new AtomicInteger(seats));
+        if (current.get() == seats || current.getAndSet(seats) == seats) {
+            return false;
+        }
+        seatEpoch.incrementAndGet();
+        return true;
+    }
+
+    public void adjustAvailableSeats(Long flightId, int delta) {
+        AtomicInteger seats = availableSeats.get(flightId);
+        if (seats != null && delta != 0) {
+            seats.addAndGet(delta);
+            seatEpoch.incrementAndGet();
+        }
+    }
+
+    private Optional<FlightDTO> lookup(Long id) {
+        FlightDTO flight = snapshot().byId().get(id);
+        return Optional.ofNullable(flight != null ? flight : remembered.get(id));
+    }
+
+    private boolean removedAfter(Long id, long version) {
+        Long removedAt = tombstones.get(id);
+        return removedAt != null && removedAt > version;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            throw new IllegalStateException("Flight catalogue has not been loaded");
+        }
+        return current;
+    }
+
+    private List<FlightDTO> copiesOf(List<FlightDTO> flights) {
+        List<FlightDTO> copies = new ArrayList<>(flights.size());
+        for (FlightDTO flight : flights) {
+            copies.add(withLiveSeats(flight));
+        }
+        return copies;
+    }
+
+    private FlightDTO withLiveSeats(FlightDTO flight) {
+        AtomicInteger seats = availableSeats.get(flight.getId());
+        return copyOf(flight, seats != null ? seats.get() : flight.getAvailableSeats());
+    }
+
+    private static FlightDTO copyOf(FlightDTO flight, Integer seats) {
+        return new FlightDTO(flight.getId(), flight.getFlightNumber(), flight.getAirlineName(),
+                flight.getDepartureCity(), flight.getArrivalCity(), flight.getPrice(), flight.getCapacity(), seats,
+                flight.getVersion());
+    }
+
+    // MurmurHash3's 64-bit finalizer over the running hash and the next value
+    private static long mix(long hash, long value) {
+        long h = hash * 31 + value;
+        h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+        h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    private static String routeKey(String departureCity, String arrivalCity) {
+        return (departureCity + "->" + arrivalCity).toLowerCase();
+    }
+
+    private record ContentHash(Snapshot snapshot, long seatEpoch, long value) {
+    }
+
+    private record Snapshot(
+            Map<Long, FlightDTO> byId,
+            Map<String, FlightDTO> byFlightNumber,
+            Map<String, List<FlightDTO>> byRoute,
+            List<FlightDTO> byIdOrder,
+            List<FlightDTO> byPriceAsc,
+            List<FlightDTO> byPriceDesc,
+            long version) {
+
+        static Snapshot of(Collection<FlightDTO> flights, long version) {
+            List<FlightDTO> byIdOrder = flights.stream()
+                    .sorted(Comparator.comparing(FlightDTO::getId))
+                    .toList();
+            Comparator<FlightDTO> byPrice = Comparator.comparing(FlightDTO::getPrice,
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+            List<FlightDTO> byPriceAsc = byIdOrder.stream().sorted(byPrice).toList();
+            List<FlightDTO> byPriceDesc = byIdOrder.stream().sorted(byPrice.reversed()).toList();
+            Map<Long, FlightDTO> byId = byIdOrder.stream()
+                    .collect(Collectors.toUnmodifiableMap(FlightDTO::getId, flight -> flight));
+            Map<String, FlightDTO> byFlightNumber = byIdOrder.stream()
+                    .filter(flight -> flight.getFlightNumber() != null)
+                    .collect(Collectors.toUnmodifiableMap(FlightDTO::getFlightNumber, flight -> flight,
+                            (first, second) -> first));
+            Map<String, List<FlightDTO>> byRoute = byPriceAsc.stream()
+                    .collect(Collectors.collectingAndThen(
+                            Collectors.groupingBy(flight -> routeKey(flight.getDepartureCity(), flight.getArrivalCity()),
+                                    Collectors.toUnmodifiableList()),
+                            Map::copyOf));
+            return new Snapshot(byId, byFlightNumber, byRoute, byIdOrder, byPriceAsc, byPriceDesc, version);
+        }
+    }
+}
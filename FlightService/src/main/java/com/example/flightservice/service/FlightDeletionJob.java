@@ -0,0 +1,197 @@
+package com.example.flightservice.service;
+
+import com.example.flightservice.dtos.DisruptionDTO;
+import com.example.flightservice.models.DeletionState;
+import com.example.flightservice.models.FlightDeletion;
+import com.example.flightservice.models.FlightStatus;
+import com.example.flightservice.repositories.FlightDeletionRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Removes tombstoned flights in the background. Each chunk of {@code app.deletions.chunk-size}
+ * schedules first has its tickets cancelled by TicketService, then is deleted in its own short
+ * transaction together with the progress update, and the worker pauses between chunks so a big
+ * flight never holds locks on a large range or saturates the database. The flight row goes last.
+ * <p>
+ * Jobs live in {@code flight_deletions}, so a restart resumes where the last committed chunk left
+ * off; an instance holds a job through a lease it renews per chunk, and another instance takes
+ * the job over if the lease lapses. An instance that finds its lease taken over stops without
+ * writing. Cancelling tickets is idempotent, so a chunk interrupted after that step is simply
+ * repeated.
+ */
+@Slf4j
+@Component
+public class FlightDeletionJob {
+    private final FlightDeletionRepository flightDeletionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TicketServiceClient ticketServiceClient;
+    private final FareEngine fareEngine;
+    private final String owner = UUID.randomUUID().toString();
+    private final int chunkSize;
+    private final Duration chunkPause;
+    private final Duration pollInterval;
+    private final Duration lease;
+    private Thread worker;
+    private volatile boolean running;
+
+    public FlightDeletionJob(FlightDeletionRepository flightDeletionRepository, JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager, TicketServiceClient ticketServiceClient,
+                             FareEngine fareEngine,
+                             @Value("${app.deletions.chunk-size:500}") int chunkSize,
+                             @Value("${app.deletions.chunk-pause:200ms}") Duration chunkPause,
+                             @Value("${app.deletions.poll-interval:5s}") Duration pollInterval,
+                             @Value("${app.deletions.lease:2m}") Duration lease) {
+        this.flightDeletionRepository = flightDeletionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ticketServiceClient = ticketServiceClient;
+        this.fareEngine = fareEngine;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.chunkPause = chunkPause;
+        this.pollInterval = pollInterval;
+        this.lease = lease;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = Thread.ofPlatform().name("flight-deletion-worker").daemon().start(this::work);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(10_000);
+    }
+
+    /**
+     * Queues the deletion of a flight that was just tombstoned; runs in the caller's transaction.
+     */
+    public FlightDeletion enqueue(Long flightId) {
+        Integer schedules = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM schedules WHERE flight_id = ?", Integer.class, flightId);
+        LocalDateTime now = LocalDateTime.now();
+        return flightDeletionRepository.save(new FlightDeletion(flightId, DeletionState.PENDING,
+                schedules == null ? 0 : schedules, 0, 0, now, now, null, null, null, null));
+    }
+
+    private void work() {
+        while (running) {
+            try {
+                List<Long> claimable = flightDeletionRepository.findClaimable(LocalDateTime.now(), PageRequest.of(0, 10));
+                for (Long flightId : claimable) {
+                    if (running && claim(flightId)) {
+                        process(flightId);
+                    }
+                }
+                Thread.sleep(pollInterval.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Flight deletion worker failed: {}", e.getMessage(), e);
+                sleepQuietly(pollInterval);
+            }
+        }
+    }
+
+    private boolean claim(Long flightId) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer claimed = transactionTemplate.execute(status ->
+                flightDeletionRepository.claim(flightId, owner, now, now.plus(lease)));
+        return claimed != null && claimed == 1;
+    }
+
+    private void process(Long flightId) throws InterruptedException {
+        while (running) {
+            List<Long> scheduleIds = jdbcTemplate.queryForList(
+                    "SELECT id FROM schedules WHERE flight_id = ? ORDER BY id LIMIT ?", Long.class, flightId, chunkSize);
+            if (scheduleIds.isEmpty()) {
+                finish(flightId);
+                return;
+            }
+            int ticketsCancelled;
+            try {
+                JsonNode result = ticketServiceClient.applyDisruption(new DisruptionDTO(scheduleIds,
+                        FlightStatus.CANCELLED, null, "Flight withdrawn", false, null), null);
+                ticketsCancelled = result == null ? 0 : result.path("ticketsCancelled").asInt();
+            } catch (Exception e) {
+                // Keep the schedules so their tickets are cancelled on the next attempt
+                recordError(flightId, "Cancelling tickets failed: " + e.getMessage());
+                return;
+            }
+            String in = String.join(", ", Collections.nCopies(scheduleIds.size(), "?"));
+            Boolean renewed = transactionTemplate.execute(status -> {
+                int deleted = jdbcTemplate.update("DELETE FROM schedules WHERE id IN (" + in + ")", scheduleIds.toArray());
+                LocalDateTime now = LocalDateTime.now();
+                int updated = jdbcTemplate.update("UPDATE flight_deletions SET state = ?, " +
+                                "schedules_deleted = schedules_deleted + ?, tickets_cancelled = tickets_cancelled + ?, " +
+                                "updated_at = ?, last_error = NULL, lease_until = ? WHERE flight_id = ? AND lease_owner = ?",
+                        DeletionState.IN_PROGRESS.name(), deleted, ticketsCancelled, now, now.plus(lease), flightId, owner);
+                if (updated == 0) {
+                    status.setRollbackOnly();
+                }
+                return updated > 0;
+            });
+            if (!Boolean.TRUE.equals(renewed)) {
+                log.warn("Lease on the deletion of flight {} was taken over; leaving it to the new owner", flightId);
+                return;
+            }
+            scheduleIds.forEach(fareEngine::evictSchedule);
+            Thread.sleep(chunkPause.toMillis());
+        }
+    }
+
+    private void finish(Long flightId) {
+        Boolean finished = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            int updated = jdbcTemplate.update("UPDATE flight_deletions SET state = ?, updated_at = ?, completed_at = ?, " +
+                            "last_error = NULL, lease_owner = NULL, lease_until = NULL WHERE flight_id = ? AND lease_owner = ?",
+                    DeletionState.COMPLETED.name(), now, now, flightId, owner);
+            if (updated == 0) {
+                return false;
+            }
+            jdbcTemplate.update("DELETE FROM flights WHERE id = ? AND deleted_at IS NOT NULL", flightId);
+            return true;
+        });
+        if (Boolean.TRUE.equals(finished)) {
+            log.info("Flight {} deleted", flightId);
+        } else {
+            log.warn("Lease on the deletion of flight {} was taken over; leaving it to the new owner", flightId);
+        }
+    }
+
+    private void recordError(Long flightId, String error) {
+        log.warn("Deletion of flight {} paused: {}", flightId, error);
+        String message = error != null && error.length() > 1024 ? error.substring(0, 1024) : error;
+        // Let the lease run out so the job is retried after it rather than immediately
+        jdbcTemplate.update("UPDATE flight_deletions SET last_error = ?, updated_at = ? " +
+                        "WHERE flight_id = ? AND lease_owner = ?",
+                message, LocalDateTime.now(), flightId, owner);
+    }
+
+    private static void sleepQuietly(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,13 +1,31 @@
 package com.example.flightservice.service;
 
+import com.example.flightservice.config.ReplicaGuard;
+import com.example.flightservice.dtos.CalendarDayDTO;
 import com.example.flightservice.dtos.FlightDTO;
+import com.example.flightservice.dtos.FlightDeletionDTO;
+import com.example.flightservice.models.CatalogueVersion;
 import com.example.flightservice.models.Flight;
+import com.example.flightservice.models.FlightDeletion;
+import com.example.flightservice.repositories.CatalogueVersionRepository;
+import com.example.flightservice.repositories.FlightDeletionRepository;
 import com.example.flightservice.repositories.FlightRepository;
 import lombok.AllArgsConstructor;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -15,29 +33,156 @@ import java.util.stream.Collectors;
 
 public class FlightService {
     private final FlightRepository flightRepository;
+    private final ReplicaGuard replicaGuard;
+    private final FlightCatalogue flightCatalogue;
+    private final CatalogueVersionRepository catalogueVersionRepository;
+    private final SeatInventory seatInventory;
+    private final FareEngine fareEngine;
+    private final FareCalendar fareCalendar;
+    private final FlightDeletionJob flightDeletionJob;
+    private final FlightDeletionRepository flightDeletionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    // Catalogue reads are served from memory and need no transaction; repository fallbacks run read-only
     public List<FlightDTO> getAllFlights(String sort) {
-        List<Flight> flights;
-        if (sort.equals("asc")) {
-            flights = flightRepository.findAllByOrderByPriceAsc();
-        } else if (sort.equals("desc")) {
-            flights = flightRepository.findAllByOrderByPriceDesc();
-        } else {
-            flights = flightRepository.findAll();
-        }
-        return flights.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return catalogue().findAll(sort);
+    }
+    public List<FlightDTO> getFlightsByRoute(String departureCity, String arrivalCity) {
+        return catalogue().findByRoute(departureCity, arrivalCity);
     }
     public FlightDTO getFlightById(Long id) {
-        Flight flight = flightRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Flight not found with flight id: " + id));
-        return convertToDTO(flight);
+        return catalogue().findById(id).orElseGet(() -> {
+            // Created on another instance since our last refresh
+            Flight flight = flightRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Flight not found with flight id: " + id));
+            FlightDTO flightDTO = convertToDTO(flight);
+            flightDTO.setAvailableSeats(seatInventory.availableSeats(id));
+            flightCatalogue.remember(flightDTO);
+            return flightDTO;
+        });
     }
     public FlightDTO getFlightByFlightNumber(String flightNumber) {
-        Flight flight = flightRepository.findByFlightNumber(flightNumber)
-                .orElseThrow(() -> new RuntimeException("Flight not found with flight number: " + flightNumber));
-        return convertToDTO(flight);
+        return catalogue().findByFlightNumber(flightNumber).orElseGet(() -> {
+            Flight flight = flightRepository.findByFlightNumber(flightNumber)
+                    .orElseThrow(() -> new RuntimeException("Flight not found with flight number: " + flightNumber));
+            FlightDTO flightDTO = convertToDTO(flight);
+            flightDTO.setAvailableSeats(seatInventory.availableSeats(flight.getId()));
+            flightCatalogue.remember(flightDTO);
+            return flightDTO;
+        });
+    }
+    // Empty until the calendar's first build, which runs in the background, has finished
+    public Optional<List<CalendarDayDTO>> getFareCalendar(String departureCity, String arrivalCity, YearMonth month) {
+        catalogue();
+        if (!fareCalendar.isBuilt()) {
+            fareCalendar.requestRebuild();
+        }
+        return Optional.ofNullable(fareCalendar.days(departureCity, arrivalCity, month));
+    }
+    // ETags come from the in-memory catalogue only, so a 304 never touches the flight rows. They hash the versions
+    // and seat counts served rather than anything local to this instance, so all instances agree on them
+    public String getFlightsETag(String sort, String from, String to) {
+        FlightCatalogue current = catalogue();
+        return "flights-" + current.version() + "-" + Long.toHexString(current.contentHash()) + "-"
+                + Integer.toHexString(Objects.hash(sort, from, to));
+    }
+    public String getFlightETag(Long id) {
+        FlightCatalogue current = catalogue();
+        return current.findVersion(id)
+                .map(version -> "flight-" + id + "-" + version + "-" + current.findAvailableSeats(id).orElse(null))
+                .orElse(null);
+    }
+    /**
+     * Runs its own read-only transaction, as it is also called from within this class where
+     * {@code @Transactional} would not apply; version and flights are then read from one snapshot.
+     */
+    public void reloadCatalogue() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            long version = catalogueVersionRepository.findVersion(CatalogueVersion.FLIGHTS).orElse(0L);
+            flightCatalogue.replaceAll(flightRepository.findAll().stream()
+                    .map(this::convertToDTO)
+                    .collect(Collectors.toList()), version);
+            if (seatInventory.isStriped()) {
+                seatInventory.availableSeats().forEach(flightCatalogue::setAvailableSeats);
+            }
+        });
+        fareCalendar.catalogueReloaded();
+    }
+    /**
+     * Copies seat counts changed through other instances into the catalogue. Seat changes do not
+     * bump the catalogue version, so cached flights are not reloaded for every booking.
+     * <p>
+     * Not read-only on purpose: the counts are read from the primary, as a lagging replica would
+     * undo the adjustments this instance has just made and quotes would be priced on stale seats.
+     */
+    @Scheduled(fixedDelayString = "${app.seats.sync-interval-ms:1000}")
+    public void refreshAvailableSeats() {
+        if (flightCatalogue.isLoaded()) {
+            seatInventory.availableSeats().forEach((flightId, seats) -> {
+                if (flightCatalogue.setAvailableSeats(flightId, seats)) {
+                    seatsChanged(flightId);
+                }
+            });
+        }
+    }
+    public void reserveSeats(Long flightId, int seats) {
+        // Seat counters outlive a deleted flight until its deletion job finishes
+        getFlightById(flightId);
+        seatInventory.reserve(flightId, seats);
+        flightCatalogue.adjustAvailableSeats(flightId, -seats);
+        seatsChanged(flightId);
+    }
+    public void releaseSeats(Long flightId, int seats) {
+        seatInventory.release(flightId, seats);
+        flightCatalogue.adjustAvailableSeats(flightId, seats);
+        seatsChanged(flightId);
+    }
+    // Keeps the flight's fare bucket, and with it the fare calendar, in step with its load factor
+    private void seatsChanged(Long flightId) {
+        if (flightCatalogue.isLoaded()) {
+            flightCatalogue.findById(flightId).ifPresent(flight ->
+                    fareEngine.seatsChanged(flightId, flight.getCapacity(), flight.getAvailableSeats()));
+            fareCalendar.flightChanged(flightId);
+        }
+    }
+    /**
+     * Picks up catalogue changes made through other instances by polling the catalogue version.
+     */
+    @Scheduled(fixedDelayString = "${app.catalogue.version-check-interval-ms:2000}")
+    public void refreshCatalogueIfStale() {
+        if (!flightCatalogue.isLoaded()) {
+            return;
+        }
+        long version = catalogueVersionRepository.findVersion(CatalogueVersion.FLIGHTS).orElse(0L);
+        if (version != flightCatalogue.version()) {
+            reloadCatalogue();
+        }
     }
+    private long bumpCatalogueVersion() {
+        catalogueVersionRepository.increment(CatalogueVersion.FLIGHTS);
+        return catalogueVersionRepository.findVersion(CatalogueVersion.FLIGHTS).orElse(0L);
+    }
+    private FlightCatalogue catalogue() {
+        if (!flightCatalogue.isLoaded()) {
+            reloadCatalogue();
+        }
+        return flightCatalogue;
+    }
+    static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+    @Transactional
     public FlightDTO createFlight(FlightDTO flightDTO){
         if(flightRepository.findByFlightNumber(flightDTO.getFlightNumber()).isPresent()){
             throw new DuplicateKeyException("Flight already exists with flight number: " + flightDTO.getFlightNumber());
@@ -45,7 +190,12 @@ public class FlightService {
         flightDTO.setAvailableSeats(flightDTO.getCapacity());
         Flight flight = convertToEntity(flightDTO);
         Flight savedFlight = flightRepository.save(flight);
-        return convertToDTO(savedFlight);
+        seatInventory.initialize(savedFlight.getId(), savedFlight.getAvailableSeats());
+        long catalogueVersion = bumpCatalogueVersion();
+        replicaGuard.stickToPrimary();
+        FlightDTO createdFlight = convertToDTO(savedFlight);
+        afterCommit(() -> flightCatalogue.put(createdFlight, catalogueVersion));
+        return createdFlight;
     }
     private Flight convertToEntity(FlightDTO flightDTO){
         Flight flight = new Flight();
@@ -70,15 +220,39 @@ public class FlightService {
         flightDTO.setArrivalCity(flight.getArrivalCity());
         flightDTO.setDepartureCity(flight.getDepartureCity());
         flightDTO.setPrice(flight.getPrice());
+        flightDTO.setVersion(flight.getVersion());
         return flightDTO;
 
     }
-    public void deleteFlight(Long id){
-        if(!flightRepository.existsById(id)){
+    @Transactional
+    public FlightDeletionDTO deleteFlight(Long id){
+        // Tombstoned flights drop out of every read at once; FlightDeletionJob removes the rest in chunks
+        int tombstoned = jdbcTemplate.update("UPDATE flights SET deleted_at = ?, version = version + 1 " +
+                "WHERE id = ? AND deleted_at IS NULL", LocalDateTime.now(), id);
+        if(tombstoned == 0){
             throw new RuntimeException("Flight not found with flight id: " + id);
         }
-        flightRepository.deleteById(id);
+        FlightDeletion deletion = flightDeletionJob.enqueue(id);
+        long catalogueVersion = bumpCatalogueVersion();
+        replicaGuard.stickToPrimary();
+        afterCommit(() -> {
+            flightCatalogue.remove(id, catalogueVersion);
+            fareCalendar.flightRemoved(id);
+        });
+        return convertToDTO(deletion);
+    }
+    @Transactional(readOnly = true)
+    public FlightDeletionDTO getFlightDeletion(Long id){
+        return flightDeletionRepository.findById(id)
+                .map(this::convertToDTO)
+                .orElseThrow(() -> new RuntimeException("No deletion found for flight id: " + id));
+    }
+    private FlightDeletionDTO convertToDTO(FlightDeletion deletion){
+        return new FlightDeletionDTO(deletion.getFlightId(), deletion.getState(), deletion.getSchedulesTotal(),
+                deletion.getSchedulesDeleted(), deletion.getTicketsCancelled(), deletion.getRequestedAt(),
+                deletion.getUpdatedAt(), deletion.getCompletedAt(), deletion.getLastError());
     }
+    @Transactional
     public FlightDTO updateFlight(Long id, FlightDTO flightDTO){
         Flight flight = flightRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Flight not found with flight id: " + id));
@@ -90,12 +264,28 @@ public class FlightService {
         flight.setArrivalCity(flightDTO.getArrivalCity());
         flight.setDepartureCity(flightDTO.getDepartureCity());
         flight.setPrice(flightDTO.getPrice());
-        if(flightDTO.getCapacity() < flight.getCapacity() - flight.getAvailableSeats())
+        int availableSeats = seatInventory.availableSeats(id);
+        if(flightDTO.getCapacity() < flight.getCapacity() - availableSeats)
             throw new RuntimeException("Capacity cannot be reduced as there are already booked seats");
-        int bookedSeats = flight.getCapacity() - flight.getAvailableSeats();
+        int capacityChange = flightDTO.getCapacity() - flight.getCapacity();
+        try {
+            seatInventory.adjust(id, capacityChange);
+        } catch (InsufficientSeatsException e) {
+            // Seats were booked since availability was read above
+            throw new RuntimeException("Capacity cannot be reduced as there are already booked seats");
+        }
         flight.setCapacity(flightDTO.getCapacity());
-        flight.setAvailableSeats(flightDTO.getCapacity() - bookedSeats);
-        Flight savedFlight = flightRepository.save(flight);
-        return convertToDTO(savedFlight);
+        // Flush so the entity version (and with it the ETag) is already incremented
+        Flight savedFlight = flightRepository.saveAndFlush(flight);
+        long catalogueVersion = bumpCatalogueVersion();
+        // Admin reads right after an update must not be served by a lagging replica
+        replicaGuard.stickToPrimary();
+        FlightDTO updatedFlight = convertToDTO(savedFlight);
+        updatedFlight.setAvailableSeats(availableSeats + capacityChange);
+        afterCommit(() -> {
+            flightCatalogue.put(updatedFlight, catalogueVersion);
+            seatsChanged(id);
+        });
+        return updatedFlight;
     }
 }
@@ -0,0 +1,11 @@
+package com.example.flightservice.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class InsufficientSeatsException extends RuntimeException {
+    public InsufficientSeatsException(Long flightId, int seats) {
+        super("Not enough seats left on flight " + flightId + " for " + seats + " passenger(s)");
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.flightservice.service;
+
+import com.example.flightservice.config.ReplicaGuard;
+import com.example.flightservice.dtos.RecurringScheduleDTO;
+import com.example.flightservice.dtos.RecurringScheduleResultDTO;
+import com.example.flightservice.models.CatalogueVersion;
+import com.example.flightservice.models.FlightStatus;
+import com.example.flightservice.repositories.CatalogueVersionRepository;
+import com.example.flightservice.repositories.FlightRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Expands a weekly pattern into departures and inserts them as multi-row INSERTs of up to
+ * {@code batch-size} rows. Departures that already exist hit the unique key on (flight_id,
+ * departure_time) and are left as they are, so the same pattern can be submitted again safely;
+ * any other error still fails the request.
+ */
+@Slf4j
+@Service
+public class ScheduleGenerator {
+    private static final String INSERT_SQL = "INSERT INTO schedules " +
+            "(flight_id, departure_time, arrival_time, flight_status, version) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, 0)";
+    private static final String ON_DUPLICATE = " ON DUPLICATE KEY UPDATE id = id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FlightRepository flightRepository;
+    private final CatalogueVersionRepository catalogueVersionRepository;
+    private final ReplicaGuard replicaGuard;
+    private final FareCalendar fareCalendar;
+    private final int batchSize;
+    private final int maxDays;
+
+    public ScheduleGenerator(JdbcTemplate jdbcTemplate, FlightRepository flightRepository,
+                             CatalogueVersionRepository catalogueVersionRepository, ReplicaGuard replicaGuard,
+                             FareCalendar fareCalendar,
+                             @Value("${app.schedules.recurring.batch-size:1000}") int batchSize,
+                             @Value("${app.schedules.recurring.max-days:400}") int maxDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.flightRepository = flightRepository;
+        this.catalogueVersionRepository = catalogueVersionRepository;
+        this.replicaGuard = replicaGuard;
+        this.fareCalendar = fareCalendar;
+        // One statement carries four placeholders per row, and MySQL allows 65535
+        this.batchSize = Math.max(1, Math.min(batchSize, 16_000));
+        this.maxDays = maxDays;
+    }
+
+    @Transactional
+    public RecurringScheduleResultDTO generate(RecurringScheduleDTO pattern) {
+        Long flightId = pattern.getFlightId();
+        if (!flightRepository.existsById(flightId)) {
+            throw new RuntimeException("Flight not found with flight id: " + flightId);
+        }
+        if (pattern.getEndDate().isBefore(pattern.getStartDate())) {
+            throw new IllegalArgumentException("Start date should be before end date");
+        }
+        if (ChronoUnit.DAYS.between(pattern.getStartDate(), pattern.getEndDate()) >= maxDays) {
+            throw new IllegalArgumentException("A recurring schedule can span at most " + maxDays + " days");
+        }
+        String status = (pattern.getFlightStatus() == null ? FlightStatus.SCHEDULED : pattern.getFlightStatus()).name();
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        int requested = 0;
+        int created = 0;
+        for (LocalDate date = pattern.getStartDate(); !date.isAfter(pattern.getEndDate()); date = date.plusDays(1)) {
+            if (!pattern.getDaysOfWeek().contains(date.getDayOfWeek())) {
+                continue;
+            }
+            LocalDateTime departure = date.atTime(pattern.getDepartureTime());
+            if (!departure.isAfter(now)) {
+                continue;
+            }
+            LocalDateTime arrival = departure.plusMinutes(pattern.getDurationMinutes());
+            batch.add(new Object[]{flightId, Timestamp.valueOf(departure), Timestamp.valueOf(arrival), status});
+            requested++;
+            if (batch.size() == batchSize) {
+                created += insert(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            created += insert(batch);
+        }
+
+        if (created > 0) {
+            catalogueVersionRepository.increment(CatalogueVersion.schedulesOf(flightId));
+            replicaGuard.stickToPrimary();
+            FlightService.afterCommit(() -> fareCalendar.reloadFlight(flightId));
+        }
+        log.info("Recurring schedule for flight {}: {} departures, {} created", flightId, requested, created);
+        return new RecurringScheduleResultDTO(flightId, requested, created);
+    }
+
+    /**
+     * @return departures inserted; with useAffectedRows on, rows left alone by the duplicate-key
+     * clause count as 0
+     */
+    private int insert(List<Object[]> rows) {
+        String sql = INSERT_SQL + String.join(", ", Collections.nCopies(rows.size(), ROW)) + ON_DUPLICATE;
+        Object[] args = new Object[rows.size() * 4];
+        for (int i = 0; i < rows.size(); i++) {
+            System.arraycopy(rows.get(i), 0, args, i * 4, 4);
+        }
+        return jdbcTemplate.update(sql, args);
+    }
+}
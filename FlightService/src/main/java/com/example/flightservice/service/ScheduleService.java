@@ -1,18 +1,25 @@
 package com.example.flightservice.service;
 
+import com.example.flightservice.config.ReplicaGuard;
 import com.example.flightservice.dtos.ScheduleDTO;
+import com.example.flightservice.dtos.ScheduleStatusDTO;
+import com.example.flightservice.models.CatalogueVersion;
 import com.example.flightservice.models.Flight;
 import com.example.flightservice.models.FlightStatus;
 import com.example.flightservice.models.Schedule;
+import com.example.flightservice.repositories.CatalogueVersionRepository;
 import com.example.flightservice.repositories.FlightRepository;
 import com.example.flightservice.repositories.ScheduleRepository;
 import lombok.AllArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Objects;
 
 @Service
 @AllArgsConstructor
@@ -20,6 +27,12 @@ public class ScheduleService {
     private final ScheduleRepository scheduleRepository;
     private final FlightService flightService;
     private final FlightRepository flightRepository;
+    private final ReplicaGuard replicaGuard;
+    private final CatalogueVersionRepository catalogueVersionRepository;
+    private final FareEngine fareEngine;
+    private final FareCalendar fareCalendar;
+    private final ScheduleStatusHub scheduleStatusHub;
+    @Transactional(readOnly = true)
     public List<ScheduleDTO> getScheduleByFlightId(Long flightId , LocalDate startDate , LocalDate endDate) {
         if(!flightRepository.existsById(flightId)){
             throw new RuntimeException("Flight not found with flight id: " + flightId);
@@ -40,14 +53,36 @@ public class ScheduleService {
                 .map(this::convertToDTO)
                 .collect(java.util.stream.Collectors.toList());
     }
+    @Transactional(readOnly = true)
+    public String getSchedulesETag(Long flightId, LocalDate startDate, LocalDate endDate) {
+        String flightETag = flightService.getFlightETag(flightId);
+        if (flightETag == null) {
+            return null;
+        }
+        long schedulesVersion = catalogueVersionRepository.findVersion(CatalogueVersion.schedulesOf(flightId)).orElse(0L);
+        return "schedules-" + schedulesVersion + "-" + flightETag + "-" + Integer.toHexString(Objects.hash(startDate, endDate));
+    }
+    @Transactional(readOnly = true)
+    public String getScheduleETag(Long id) {
+        return scheduleRepository.findVersionById(id)
+                .map(schedule -> {
+                    String flightETag = flightService.getFlightETag(schedule.getFlightId());
+                    return flightETag == null ? null : "schedule-" + id + "-" + schedule.getVersion() + "-" + flightETag;
+                })
+                .orElse(null);
+    }
+    @Transactional(readOnly = true)
     public ScheduleDTO getScheduleById(Long id){
+        // Schedules of a deleted flight linger until its deletion job reaches them
         Schedule schedule = scheduleRepository.findById(id)
+                .filter(found -> found.getFlight() != null && found.getFlight().getDeletedAt() == null)
                 .orElseThrow(() -> new RuntimeException("Schedule not found with id: " + id));
         return convertToDTO(schedule);
     }
+    @Transactional
     public ScheduleDTO createSchedule(ScheduleDTO scheduleDTO){
-        Flight flight = flightRepository.findById(scheduleDTO.getId())
-                .orElseThrow(() -> new RuntimeException("Flight not found with flight id: " + scheduleDTO.getId()));
+        Flight flight = flightRepository.findById(scheduleDTO.getFlightId())
+                .orElseThrow(() -> new RuntimeException("Flight not found with flight id: " + scheduleDTO.getFlightId()));
         if(scheduleDTO.getDepartureTime().isAfter(scheduleDTO.getArrivalTime())){
             throw new RuntimeException("Departure time should be before arrival time");
         }
@@ -55,12 +90,19 @@ public class ScheduleService {
             scheduleDTO.setFlightStatus(FlightStatus.SCHEDULED);
         Schedule schedule = convertToEntity(scheduleDTO);
         schedule.setFlight(flight);
-        return convertToDTO(scheduleRepository.save(schedule));
+        Schedule savedSchedule = saveUnique(schedule);
+        catalogueVersionRepository.increment(CatalogueVersion.schedulesOf(flight.getId()));
+        replicaGuard.stickToPrimary();
+        scheduleChanged(savedSchedule);
+        return convertToDTO(savedSchedule);
     }
+    @Transactional
     public ScheduleDTO updateSchedule(Long id, ScheduleDTO scheduleDTO) {
         Schedule existingSchedule = scheduleRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Schedule not found with id: " + id));
-        if (!existingSchedule.getFlight().getId().equals(scheduleDTO.getFlightId())) {
+        Long previousFlightId = existingSchedule.getFlight().getId();
+        if (!previousFlightId.equals(scheduleDTO.getFlightId())) {
+            catalogueVersionRepository.increment(CatalogueVersion.schedulesOf(previousFlightId));
             Flight flight = flightRepository.findById(scheduleDTO.getFlightId())
                     .orElseThrow(() -> new IllegalArgumentException("Flight not found with id: " + scheduleDTO.getFlightId()));
             existingSchedule.setFlight(flight);
@@ -73,14 +115,40 @@ public class ScheduleService {
         existingSchedule.setArrivalTime(scheduleDTO.getArrivalTime());
         existingSchedule.setFlightStatus(scheduleDTO.getFlightStatus());
 
-        Schedule updatedSchedule = scheduleRepository.save(existingSchedule);
+        Schedule updatedSchedule = saveUnique(existingSchedule);
+        catalogueVersionRepository.increment(CatalogueVersion.schedulesOf(updatedSchedule.getFlight().getId()));
+        replicaGuard.stickToPrimary();
+        scheduleChanged(updatedSchedule);
         return convertToDTO(updatedSchedule);
     }
+    @Transactional
     public void deleteSchedule(Long id) {
-        if (!scheduleRepository.existsById(id)) {
-            throw new IllegalArgumentException("Schedule not found with id: " + id);
+        Schedule schedule = scheduleRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Schedule not found with id: " + id));
+        scheduleRepository.delete(schedule);
+        fareEngine.evictSchedule(id);
+        catalogueVersionRepository.increment(CatalogueVersion.schedulesOf(schedule.getFlight().getId()));
+        replicaGuard.stickToPrimary();
+        FlightService.afterCommit(() -> fareCalendar.scheduleRemoved(id));
+    }
+    private Schedule saveUnique(Schedule schedule) {
+        try {
+            // Flushed here so a clash with another departure surfaces as a 409, not as a failed commit
+            return scheduleRepository.saveAndFlush(schedule);
+        } catch (DataIntegrityViolationException e) {
+            throw new DuplicateDepartureException(schedule.getFlight().getId(), schedule.getDepartureTime());
         }
-        scheduleRepository.deleteById(id);
+    }
+    private void scheduleChanged(Schedule schedule) {
+        Long id = schedule.getId();
+        Long flightId = schedule.getFlight().getId();
+        LocalDateTime departureTime = schedule.getDepartureTime();
+        FlightStatus status = schedule.getFlightStatus();
+        long version = schedule.getVersion() == null ? 0 : schedule.getVersion();
+        FlightService.afterCommit(() -> {
+            fareCalendar.scheduleChanged(id, flightId, departureTime, status);
+            scheduleStatusHub.publish(new ScheduleStatusDTO(id, flightId, status, departureTime), version);
+        });
     }
     private ScheduleDTO convertToDTO(Schedule schedule){
         ScheduleDTO scheduleDTO = new ScheduleDTO();
@@ -0,0 +1,366 @@
+package com.example.flightservice.service;
+
+import com.example.flightservice.dtos.ScheduleStatusDTO;
+import com.example.flightservice.models.FlightStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fans schedule status changes out to Server-Sent Events subscribers. An idle subscriber is just
+ * an open async response, so it costs no thread. Each subscriber has a mailbox that events and
+ * heartbeats are queued on in sequence order, drained by one virtual thread at a time, so a slow
+ * client only ever holds up its own stream and never gets events out of order. A client more
+ * than {@code replay-buffer} events behind is disconnected and resumes with {@code Last-Event-ID}.
+ * <p>
+ * Changes made on this instance are pushed as they commit. Changes made on other instances are
+ * picked up by polling the versions of the watched schedules (only those), every
+ * {@code app.schedule-events.sync-interval-ms}.
+ * <p>
+ * Event ids are {@code <boot>-<sequence>}. A client that reconnects with {@code Last-Event-ID}
+ * gets the events it missed from a buffer of the most recent ones. If the id is from another
+ * instance or process, or is older than the buffer, the client gets the current status of each
+ * of its schedules instead, which is also what a new subscriber starts with.
+ */
+@Slf4j
+@Component
+public class ScheduleStatusHub {
+    private static final String EVENT_NAME = "status";
+    private static final int SYNC_CHUNK = 1000;
+
+    private record Event(long sequence, ScheduleStatusDTO status) {
+    }
+
+    // Queued like an event, so it is never written to the stream in the middle of one
+    private static final Event HEARTBEAT = new Event(0, null);
+
+    private record Current(ScheduleStatusDTO status, long version) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String boot = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final ReentrantLock recentLock = new ReentrantLock();
+    private final ArrayDeque<Event> recent = new ArrayDeque<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Set<Subscriber>> subscribersBySchedule = new ConcurrentHashMap<>();
+    // Last version pushed per watched schedule, so the poll and local pushes never repeat a change
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+    private final int maxSubscribers;
+    private final int maxSchedulesPerSubscriber;
+    private final int replayBuffer;
+    private final Duration timeout;
+
+    public ScheduleStatusHub(JdbcTemplate jdbcTemplate,
+                             @Value("${app.schedule-events.max-subscribers:50000}") int maxSubscribers,
+                             @Value("${app.schedule-events.max-schedules-per-subscriber:100}") int maxSchedulesPerSubscriber,
+                             @Value("${app.schedule-events.replay-buffer:10000}") int replayBuffer,
+                             @Value("${app.schedule-events.timeout:30m}") Duration timeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxSubscribers = maxSubscribers;
+        this.maxSchedulesPerSubscriber = maxSchedulesPerSubscriber;
+        this.replayBuffer = Math.max(0, replayBuffer);
+        this.timeout = timeout;
+    }
+
+    public SseEmitter subscribe(Collection<Long> scheduleIds, String lastEventId) {
+        Set<Long> ids = new LinkedHashSet<>(scheduleIds);
+        ids.remove(null);
+        if (ids.isEmpty() || ids.size() > maxSchedulesPerSubscriber) {
+            throw new IllegalArgumentException("Subscribe to between 1 and " + maxSchedulesPerSubscriber + " schedules");
+        }
+        if (subscribers.size() >= maxSubscribers) {
+            throw new SubscriberLimitException(maxSubscribers);
+        }
+        SseEmitter emitter = createEmitter();
+        Subscriber subscriber = new Subscriber(emitter, ids);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+
+        // The mailbox is not drained until the catch-up is sent, so live events queue behind it
+        try {
+            subscribers.add(subscriber);
+            for (Long id : ids) {
+                subscribersBySchedule.compute(id, (key, watching) -> {
+                    Set<Subscriber> set = watching == null ? ConcurrentHashMap.newKeySet() : watching;
+                    set.add(subscriber);
+                    return set;
+                });
+            }
+            // Registered first: anything published from here on is either live or in what we read next
+            long registeredAt = sequence.get();
+            List<Current> current = load(ids);
+            current.forEach(row -> versions.putIfAbsent(row.status().getScheduleId(), row.version()));
+            List<Event> missed = missedSince(lastEventId);
+            long covered = registeredAt;
+            if (missed != null) {
+                for (Event event : missed) {
+                    if (ids.contains(event.status().getScheduleId())) {
+                        subscriber.send(event.sequence(), event.status());
+                    }
+                    covered = Math.max(covered, event.sequence());
+                }
+            } else {
+                for (Current row : current) {
+                    subscriber.send(registeredAt, row.status());
+                }
+            }
+            // Events up to here may also be in the mailbox; the catch-up already had them
+            subscriber.coveredUpTo = covered;
+        } finally {
+            subscriber.startDraining();
+        }
+        return emitter;
+    }
+
+    SseEmitter createEmitter() {
+        return new SseEmitter(timeout.toMillis());
+    }
+
+    /**
+     * Pushes a committed change to a schedule's subscribers; call after the transaction commits.
+     */
+    public void publish(ScheduleStatusDTO status, long version) {
+        Set<Subscriber> watching = subscribersBySchedule.get(status.getScheduleId());
+        if (watching != null && !advance(status.getScheduleId(), version)) {
+            return;
+        }
+        recentLock.lock();
+        try {
+            Event event = new Event(sequence.incrementAndGet(), status);
+            recent.addLast(event);
+            if (recent.size() > replayBuffer) {
+                recent.removeFirst();
+            }
+            // Queued under the lock, so every mailbox receives events in sequence order
+            watching = subscribersBySchedule.get(status.getScheduleId());
+            if (watching != null) {
+                for (Subscriber subscriber : watching) {
+                    subscriber.enqueue(event);
+                }
+            }
+        } finally {
+            recentLock.unlock();
+        }
+    }
+
+    // Picks up changes made on other instances
+    @Scheduled(fixedDelayString = "${app.schedule-events.sync-interval-ms:2000}")
+    public void syncWatched() {
+        List<Long> watched = new ArrayList<>(subscribersBySchedule.keySet());
+        for (int from = 0; from < watched.size(); from += SYNC_CHUNK) {
+            for (Current row : load(watched.subList(from, Math.min(watched.size(), from + SYNC_CHUNK)))) {
+                Long known = versions.get(row.status().getScheduleId());
+                if (known == null || known < row.version()) {
+                    publish(row.status(), row.version());
+                }
+            }
+        }
+    }
+
+    // Keeps idle connections from being closed by proxies and finds clients that went away
+    @Scheduled(fixedDelayString = "${app.schedule-events.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.enqueue(HEARTBEAT);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        sender.shutdown();
+    }
+
+    private boolean advance(Long scheduleId, long version) {
+        boolean[] advanced = {false};
+        versions.compute(scheduleId, (id, known) -> {
+            if (known != null && known >= version) {
+                return known;
+            }
+            advanced[0] = true;
+            return version;
+        });
+        return advanced[0];
+    }
+
+    // Null when the client has to start over from the current statuses
+    private List<Event> missedSince(String lastEventId) {
+        if (lastEventId == null || !lastEventId.startsWith(boot + "-")) {
+            return null;
+        }
+        long last;
+        try {
+            last = Long.parseLong(lastEventId.substring(boot.length() + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        recentLock.lock();
+        try {
+            long oldest = recent.isEmpty() ? sequence.get() + 1 : recent.peekFirst().sequence();
+            if (last > sequence.get() || last + 1 < oldest) {
+                return null;
+            }
+            List<Event> missed = new ArrayList<>();
+            for (Event event : recent) {
+                if (event.sequence() > last) {
+                    missed.add(event);
+                }
+            }
+            return missed;
+        } finally {
+            recentLock.unlock();
+        }
+    }
+
+    private List<Current> load(Collection<Long> scheduleIds) {
+        if (scheduleIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query("SELECT s.id, s.flight_id, s.flight_status, s.departure_time, s.version " +
+                        "FROM schedules s JOIN flights f ON f.id = s.flight_id " +
+                        "WHERE f.deleted_at IS NULL AND s.id IN (" +
+                        String.join(", ", Collections.nCopies(scheduleIds.size(), "?")) + ")",
+                (rs, rowNum) -> new Current(new ScheduleStatusDTO(rs.getLong(1), rs.getLong(2),
+                        rs.getString(3) == null ? null : FlightStatus.valueOf(rs.getString(3)),
+                        rs.getTimestamp(4) == null ? null : rs.getTimestamp(4).toLocalDateTime()),
+                        rs.getLong(5)),
+                scheduleIds.toArray());
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscriber.closed = true;
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        for (Long id : subscriber.scheduleIds) {
+            subscribersBySchedule.computeIfPresent(id, (key, watching) -> {
+                watching.remove(subscriber);
+                if (watching.isEmpty()) {
+                    versions.remove(id);
+                    return null;
+                }
+                return watching;
+            });
+        }
+    }
+
+    private final class Subscriber {
+        final SseEmitter emitter;
+        final Set<Long> scheduleIds;
+        final ConcurrentLinkedQueue<Event> mailbox = new ConcurrentLinkedQueue<>();
+        final AtomicInteger queued = new AtomicInteger();
+        // Set while the mailbox is being drained, and during the catch-up; one drainer at a time
+        final AtomicBoolean draining = new AtomicBoolean(true);
+        // Written before draining starts, read only by the drainer
+        long coveredUpTo;
+        volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, Set<Long> scheduleIds) {
+            this.emitter = emitter;
+            this.scheduleIds = scheduleIds;
+        }
+
+        void enqueue(Event event) {
+            if (closed) {
+                return;
+            }
+            if (queued.incrementAndGet() > Math.max(1, replayBuffer)) {
+                fail(new IllegalStateException("Subscriber fell more than " + replayBuffer + " events behind"));
+                return;
+            }
+            mailbox.add(event);
+            if (draining.compareAndSet(false, true)) {
+                drainLater();
+            }
+        }
+
+        // Called once the catch-up is sent
+        void startDraining() {
+            draining.set(false);
+            if (!mailbox.isEmpty() && draining.compareAndSet(false, true)) {
+                drainLater();
+            }
+        }
+
+        private void drainLater() {
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                draining.set(false);
+            }
+        }
+
+        private void drain() {
+            do {
+                Event event;
+                while ((event = mailbox.poll()) != null) {
+                    queued.decrementAndGet();
+                    if (event == HEARTBEAT) {
+                        heartbeat();
+                    } else if (event.sequence() > coveredUpTo) {
+                        send(event.sequence(), event.status());
+                    }
+                }
+                draining.set(false);
+                // An event queued after the last poll but before the flag was cleared
+            } while (!mailbox.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private void heartbeat() {
+            if (closed) {
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } catch (IOException | IllegalStateException e) {
+                fail(e);
+            }
+        }
+
+        // Only from the catch-up or the drainer, never both at once
+        void send(long eventSequence, ScheduleStatusDTO status) {
+            if (closed) {
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event().id(boot + "-" + eventSequence).name(EVENT_NAME).data(status));
+            } catch (IOException | IllegalStateException e) {
+                fail(e);
+            }
+        }
+
+        private void fail(Exception e) {
+            log.debug("Dropping status subscriber: {}", e.getMessage());
+            remove(this);
+            emitter.completeWithError(e);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.example.flightservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Authoritative seat counts, changed only through guarded UPDATEs so two bookings can never take
+ * the same seat.
+ * <p>
+ * With {@code app.seats.stripes=1} the count is {@code flights.available_seats}, which makes every
+ * booking on a flight queue for that one row lock. With more stripes the seats are split over
+ * rows of {@code seat_stripes}: a booking claims from a random stripe and only falls back to the
+ * others (possibly taking from several) when that one runs short, so concurrent bookings on a hot
+ * flight mostly lock different rows. Availability is then the sum over the stripes.
+ * <p>
+ * The mode is switched with all instances stopped; on startup, flights are moved into or out of
+ * the stripes table to match it.
+ */
+@Slf4j
+@Component
+public class SeatInventory {
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int stripes;
+
+    public SeatInventory(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                         @Value("${app.seats.stripes:1}") int stripes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.stripes = Math.max(1, stripes);
+    }
+
+    public boolean isStriped() {
+        return stripes > 1;
+    }
+
+    /**
+     * Sets up the stripes of a flight whose row was just inserted with {@code seats} available.
+     */
+    public void initialize(Long flightId, int seats) {
+        if (isStriped()) {
+            insertStripes(List.<Object[]>of(new Object[]{flightId, seats}));
+        }
+    }
+
+    /**
+     * Sets up the stripes of the named flights that have none yet, e.g. after a bulk import
+     * inserted them with their full capacity available.
+     */
+    public void initializeByFlightNumber(Collection<String> flightNumbers) {
+        if (isStriped() && !flightNumbers.isEmpty()) {
+            List<Object[]> unstriped = unstriped("AND f.flight_number IN ("
+                    + String.join(", ", Collections.nCopies(flightNumbers.size(), "?")) + ")", flightNumbers.toArray());
+            if (!unstriped.isEmpty()) {
+                insertStripes(unstriped);
+            }
+        }
+    }
+
+    /**
+     * Takes {@code seats} seats, all or nothing.
+     *
+     * @throws InsufficientSeatsException if the flight has fewer left
+     */
+    public void reserve(Long flightId, int seats) {
+        if (!isStriped()) {
+            int updated = jdbcTemplate.update(
+                    "UPDATE flights SET available_seats = available_seats - ? WHERE id = ? AND available_seats >= ?",
+                    seats, flightId, seats);
+            if (updated == 0) {
+                throw new InsufficientSeatsException(flightId, seats);
+            }
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (claim(flightId, ThreadLocalRandom.current().nextInt(stripes), seats)) {
+                return;
+            }
+            // The chosen stripe ran short: take what is left from the fullest stripes first
+            List<int[]> candidates = jdbcTemplate.query(
+                    "SELECT stripe, available FROM seat_stripes WHERE flight_id = ? AND available > 0 ORDER BY available DESC",
+                    (rs, rowNum) -> new int[]{rs.getInt(1), rs.getInt(2)}, flightId);
+            int remaining = seats;
+            for (int[] candidate : candidates) {
+                int take = Math.min(remaining, candidate[1]);
+                if (claim(flightId, candidate[0], take)) {
+                    remaining -= take;
+                    if (remaining == 0) {
+                        return;
+                    }
+                }
+            }
+            // Rolls back the partial claims above
+            throw new InsufficientSeatsException(flightId, seats);
+        });
+    }
+
+    /**
+     * Returns {@code seats} seats, e.g. of a cancelled booking. Availability never goes above the
+     * flight's capacity; seats beyond it are dropped.
+     */
+    public void release(Long flightId, int seats) {
+        if (!isStriped()) {
+            int updated = jdbcTemplate.update(
+                    "UPDATE flights SET available_seats = LEAST(capacity, available_seats + ?) WHERE id = ?",
+                    seats, flightId);
+            // A flight already at capacity is left unchanged, which counts as no rows updated
+            if (updated == 0 && !exists(flightId)) {
+                throw new RuntimeException("Flight not found with flight id: " + flightId);
+            }
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            // The flight row lock serializes releases, so two of them cannot both fit under the cap
+            Integer capacity = jdbcTemplate.query("SELECT capacity FROM flights WHERE id = ? FOR UPDATE",
+                    rs -> rs.next() ? rs.getInt(1) : null, flightId);
+            if (capacity == null) {
+                throw new RuntimeException("Flight not found with flight id: " + flightId);
+            }
+            int room = capacity - availableSeats(flightId);
+            if (room < seats) {
+                log.warn("Releasing {} seats on flight {} would exceed its capacity, releasing {}", seats, flightId,
+                        Math.max(0, room));
+            }
+            if (room > 0) {
+                addToStripe(flightId, Math.min(seats, room));
+            }
+        });
+    }
+
+    private boolean exists(Long flightId) {
+        Integer flights = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM flights WHERE id = ?", Integer.class, flightId);
+        return flights != null && flights > 0;
+    }
+
+    private void add(Long flightId, int seats) {
+        if (!isStriped()) {
+            int updated = jdbcTemplate.update(
+                    "UPDATE flights SET available_seats = available_seats + ? WHERE id = ?", seats, flightId);
+            if (updated == 0) {
+                throw new RuntimeException("Flight not found with flight id: " + flightId);
+            }
+            return;
+        }
+        addToStripe(flightId, seats);
+    }
+
+    private void addToStripe(Long flightId, int seats) {
+        String sql = "UPDATE seat_stripes SET available = available + ? WHERE flight_id = ? AND stripe = ?";
+        if (jdbcTemplate.update(sql, seats, flightId, ThreadLocalRandom.current().nextInt(stripes)) == 0) {
+            // Striped before the stripe count was raised
+            Integer stripe = jdbcTemplate.queryForObject(
+                    "SELECT MIN(stripe) FROM seat_stripes WHERE flight_id = ?", Integer.class, flightId);
+            if (stripe == null || jdbcTemplate.update(sql, seats, flightId, stripe) == 0) {
+                throw new RuntimeException("Flight not found with flight id: " + flightId);
+            }
+        }
+    }
+
+    /**
+     * Adds (or, when negative, removes) seats for a capacity change, before the new capacity is
+     * saved.
+     *
+     * @throws InsufficientSeatsException if fewer seats are left than are being removed
+     */
+    public void adjust(Long flightId, int delta) {
+        if (delta > 0) {
+            add(flightId, delta);
+        } else if (delta < 0) {
+            reserve(flightId, -delta);
+        }
+    }
+
+    public int availableSeats(Long flightId) {
+        Integer seats = isStriped()
+                ? jdbcTemplate.queryForObject(
+                        "SELECT SUM(available) FROM seat_stripes WHERE flight_id = ?", Integer.class, flightId)
+                : jdbcTemplate.queryForObject(
+                        "SELECT MAX(available_seats) FROM flights WHERE id = ?", Integer.class, flightId);
+        return seats != null ? seats : 0;
+    }
+
+    /**
+     * @return available seats of every flight, one aggregate query
+     */
+    public Map<Long, Integer> availableSeats() {
+        String sql = isStriped()
+                ? "SELECT flight_id, SUM(available) FROM seat_stripes GROUP BY flight_id"
+                : "SELECT id, available_seats FROM flights";
+        Map<Long, Integer> seats = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            seats.put(rs.getLong(1), rs.getInt(2));
+        });
+        return seats;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateFlights() {
+        if (isStriped()) {
+            List<Object[]> unstriped = unstriped("");
+            if (!unstriped.isEmpty()) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insertStripes(unstriped));
+                    log.info("Split the seats of {} flights into {} stripes", unstriped.size(), stripes);
+                } catch (DuplicateKeyException e) {
+                    log.info("Seat stripes were created concurrently by another instance");
+                }
+            }
+            return;
+        }
+        Integer striped = transactionTemplate.execute(status -> {
+            int flights = jdbcTemplate.update("UPDATE flights SET available_seats = " +
+                    "(SELECT SUM(s.available) FROM seat_stripes s WHERE s.flight_id = flights.id) " +
+                    "WHERE id IN (SELECT flight_id FROM seat_stripes)");
+            jdbcTemplate.update("DELETE FROM seat_stripes");
+            return flights;
+        });
+        if (striped != null && striped > 0) {
+            log.info("Merged the seat stripes of {} flights back into flights.available_seats", striped);
+        }
+    }
+
+    private List<Object[]> unstriped(String condition, Object... args) {
+        return jdbcTemplate.query(
+                "SELECT f.id, f.available_seats FROM flights f WHERE NOT EXISTS " +
+                        "(SELECT 1 FROM seat_stripes s WHERE s.flight_id = f.id) " + condition,
+                (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getInt(2)}, args);
+    }
+
+    private boolean claim(Long flightId, int stripe, int seats) {
+        return jdbcTemplate.update(
+                "UPDATE seat_stripes SET available = available - ? WHERE flight_id = ? AND stripe = ? AND available >= ?",
+                seats, flightId, stripe, seats) == 1;
+    }
+
+    private void insertStripes(List<Object[]> flights) {
+        List<Object[]> rows = new ArrayList<>(flights.size() * stripes);
+        for (Object[] flight : flights) {
+            int seats = flight[1] != null ? (Integer) flight[1] : 0;
+            for (int stripe = 0; stripe < stripes; stripe++) {
+                // Remainder goes to the lowest stripes
+                rows.add(new Object[]{flight[0], stripe, seats / stripes + (stripe < seats % stripes ? 1 : 0)});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO seat_stripes (flight_id, stripe, available) VALUES (?, ?, ?)", rows);
+    }
+}
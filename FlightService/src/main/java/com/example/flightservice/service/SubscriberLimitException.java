@@ -0,0 +1,11 @@
+package com.example.flightservice.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class SubscriberLimitException extends RuntimeException {
+    public SubscriberLimitException(int limit) {
+        super("Too many status subscribers (" + limit + "), try again later");
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.flightservice.service;
+
+import com.example.flightservice.dtos.DisruptionDTO;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+/**
+ * Calls into TicketService. Requests made for an admin carry the admin's token; background jobs
+ * have none and identify as an internal admin with the gateway's shared secret, which
+ * TicketService trusts the same way.
+ */
+@Component
+public class TicketServiceClient {
+    private final RestTemplate restTemplate;
+    private final String ticketServiceUrl;
+    private final String sharedSecret;
+
+    public TicketServiceClient(RestTemplateBuilder restTemplateBuilder,
+                               @Value("${ticket.service.url}") String ticketServiceUrl,
+                               @Value("${app.security.gateway.secret:}") String sharedSecret) {
+        this.restTemplate = restTemplateBuilder
+                .connectTimeout(Duration.ofSeconds(2))
+                .readTimeout(Duration.ofSeconds(60))
+                .build();
+        this.ticketServiceUrl = ticketServiceUrl;
+        this.sharedSecret = sharedSecret;
+    }
+
+    /**
+     * @param authorization the admin's Authorization header, or null to call as the service itself
+     * @return TicketService's result ({@code data} of its response)
+     */
+    public JsonNode applyDisruption(DisruptionDTO disruption, String authorization) {
+        HttpHeaders headers = new HttpHeaders();
+        if (authorization != null) {
+            headers.set(HttpHeaders.AUTHORIZATION, authorization);
+        } else {
+            if (!StringUtils.hasText(sharedSecret)) {
+                throw new IllegalStateException("GATEWAY_SHARED_SECRET must be set for background calls to TicketService");
+            }
+            headers.set("X-Gateway-Secret", sharedSecret);
+            headers.set("X-User-Id", "0");
+            headers.set("X-User-Name", "flight-service");
+            headers.set("X-User-Roles", "ROLE_ADMIN");
+        }
+        JsonNode response = restTemplate.postForObject(ticketServiceUrl + "/tickets/admin/disruptions",
+                new HttpEntity<>(disruption, headers), JsonNode.class);
+        return response == null ? null : response.get("data");
+    }
+}
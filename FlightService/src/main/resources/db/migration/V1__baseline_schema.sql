@@ -0,0 +1,23 @@
+-- Tables as previously generated by spring.jpa.hibernate.ddl-auto=update.
+-- IF NOT EXISTS lets this baseline run against databases that already have them.
+CREATE TABLE IF NOT EXISTS flights (
+    id              BIGINT       NOT NULL AUTO_INCREMENT,
+    flight_number   VARCHAR(255),
+    airline_name    VARCHAR(255),
+    departure_city  VARCHAR(255),
+    arrival_city    VARCHAR(255),
+    price           INT,
+    capacity        INT,
+    available_seats INT,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS schedules (
+    id             BIGINT      NOT NULL AUTO_INCREMENT,
+    flight_id      BIGINT,
+    departure_time DATETIME(6),
+    arrival_time   DATETIME(6),
+    flight_status  VARCHAR(32),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_schedules_flight FOREIGN KEY (flight_id) REFERENCES flights (id)
+) ENGINE = InnoDB;
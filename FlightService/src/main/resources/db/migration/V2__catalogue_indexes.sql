@@ -0,0 +1,7 @@
+-- FlightRepository.findByFlightNumber; flight numbers are unique per FlightService.createFlight
+CREATE UNIQUE INDEX uk_flights_flight_number ON flights (flight_number);
+-- Route searches and price-sorted listings
+CREATE INDEX idx_flights_route ON flights (departure_city, arrival_city);
+CREATE INDEX idx_flights_price ON flights (price);
+-- ScheduleRepository.findByFlightId and findByFlightIdAndDepartureTimeBetween
+CREATE INDEX idx_schedules_flight_departure ON schedules (flight_id, departure_time);
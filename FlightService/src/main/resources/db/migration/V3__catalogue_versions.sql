@@ -0,0 +1,12 @@
+-- Optimistic-lock / ETag versions per row
+ALTER TABLE flights ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE schedules ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- Catalogue-wide change counters used for list ETags and cache refresh
+CREATE TABLE catalogue_versions (
+    name    VARCHAR(64) NOT NULL,
+    version BIGINT      NOT NULL,
+    PRIMARY KEY (name)
+) ENGINE = InnoDB;
+
+INSERT INTO catalogue_versions (name, version) VALUES ('flights', 0);
@@ -0,0 +1,9 @@
+-- Partitioned seat inventory (app.seats.stripes > 1): a flight's remaining seats are split over
+-- several rows so concurrent bookings lock different rows. Availability is the sum over stripes.
+CREATE TABLE seat_stripes (
+    flight_id BIGINT NOT NULL,
+    stripe    INT    NOT NULL,
+    available INT    NOT NULL,
+    PRIMARY KEY (flight_id, stripe),
+    CONSTRAINT fk_seat_stripes_flight FOREIGN KEY (flight_id) REFERENCES flights (id) ON DELETE CASCADE
+) ENGINE = InnoDB;
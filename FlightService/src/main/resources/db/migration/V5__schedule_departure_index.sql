@@ -0,0 +1,2 @@
+-- The fare calendar is rebuilt from all future schedules, which needs a range scan on departure_time
+CREATE INDEX idx_schedules_departure ON schedules (departure_time);
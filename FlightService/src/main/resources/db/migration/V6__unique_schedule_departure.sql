@@ -0,0 +1,21 @@
+-- A flight departs at most once at a given time; recurring schedule generation relies on this to
+-- skip departures that already exist. Replaces the non-unique index on the same columns.
+-- Duplicates created before the key existed would make it fail, so keep the oldest of each and
+-- record the schedule each removed one was merged into. TicketService still refers to the removed
+-- ids until scripts/repoint_merged_schedules.sql moves its tickets and waitlist entries across.
+CREATE TABLE schedule_merges (
+    duplicate_id BIGINT      NOT NULL,
+    kept_id      BIGINT      NOT NULL,
+    merged_at    DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    PRIMARY KEY (duplicate_id)
+) ENGINE = InnoDB;
+INSERT INTO schedule_merges (duplicate_id, kept_id)
+SELECT duplicate.id, MIN(original.id)
+FROM schedules duplicate
+    JOIN schedules original ON original.flight_id = duplicate.flight_id
+        AND original.departure_time = duplicate.departure_time AND original.id < duplicate.id
+GROUP BY duplicate.id;
+DELETE duplicate FROM schedules duplicate
+    JOIN schedule_merges m ON m.duplicate_id = duplicate.id;
+CREATE UNIQUE INDEX uk_schedules_flight_departure ON schedules (flight_id, departure_time);
+DROP INDEX idx_schedules_flight_departure ON schedules;
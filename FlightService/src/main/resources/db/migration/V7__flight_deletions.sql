@@ -0,0 +1,19 @@
+-- Deleting a flight tombstones it (deleted_at) and queues a background job that removes its
+-- schedules and cancels their tickets in chunks; the job's progress survives restarts.
+ALTER TABLE flights ADD COLUMN deleted_at DATETIME(6) NULL;
+
+CREATE TABLE flight_deletions (
+    flight_id         BIGINT        NOT NULL,
+    state             VARCHAR(16)   NOT NULL,
+    schedules_total   INT           NOT NULL DEFAULT 0,
+    schedules_deleted INT           NOT NULL DEFAULT 0,
+    tickets_cancelled INT           NOT NULL DEFAULT 0,
+    requested_at      DATETIME(6)   NOT NULL,
+    updated_at        DATETIME(6)   NOT NULL,
+    completed_at      DATETIME(6)   NULL,
+    last_error        VARCHAR(1024) NULL,
+    lease_owner       VARCHAR(64)   NULL,
+    lease_until       DATETIME(6)   NULL,
+    PRIMARY KEY (flight_id),
+    INDEX idx_flight_deletions_state (state)
+) ENGINE = InnoDB;
@@ -0,0 +1,9 @@
+-- Applied disruptions by client-chosen id: sending one again retries only its ticket step
+-- instead of shifting the departures a second time.
+CREATE TABLE disruptions (
+    disruption_id VARCHAR(64)  NOT NULL,
+    flight_status VARCHAR(16)  NOT NULL,
+    delay_minutes INT          NOT NULL,
+    applied_at    DATETIME(6)  NOT NULL,
+    PRIMARY KEY (disruption_id)
+) ENGINE = InnoDB;
@@ -0,0 +1,122 @@
+package com.example.flightservice.config;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ReplicaRoutingDataSourceTests {
+
+	private ReplicaGuard replicaGuard;
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate readOnlyTx;
+	private TransactionTemplate readWriteTx;
+
+	@BeforeEach
+	void setUp() {
+		DataSource primary = embeddedDatabase("primary");
+		DataSource replica = embeddedDatabase("replica");
+		replicaGuard = new ReplicaGuard(true, 5, 60_000);
+		DataSource routing = new LazyConnectionDataSourceProxy(
+				new ReplicaRoutingDataSource(primary, replica, replicaGuard));
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+		jdbcTemplate = new JdbcTemplate(routing);
+		readOnlyTx = new TransactionTemplate(transactionManager);
+		readOnlyTx.setReadOnly(true);
+		readWriteTx = new TransactionTemplate(transactionManager);
+	}
+
+	@AfterEach
+	void tearDown() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	void readOnlyTransactionsGoToReplica() {
+		assertEquals("replica", currentNode(readOnlyTx));
+		assertEquals("primary", currentNode(readWriteTx));
+	}
+
+	@Test
+	void readsOfTheWritingClientStickToPrimaryAfterCommit() {
+		MockHttpServletResponse response = request(null);
+		readWriteTx.executeWithoutResult(status -> {
+			replicaGuard.stickToPrimary();
+			// Not before the write is visible
+			assertNull(response.getHeader(HttpHeaders.SET_COOKIE));
+		});
+		assertEquals("primary", currentNode(readOnlyTx));
+
+		Cookie cookie = response.getCookie(ReplicaGuard.STICKY_COOKIE);
+		request(cookie);
+		assertEquals("primary", currentNode(readOnlyTx));
+		request(null);
+		assertEquals("replica", currentNode(readOnlyTx));
+	}
+
+	@Test
+	void rolledBackWriteDoesNotStick() {
+		MockHttpServletResponse response = request(null);
+		readWriteTx.executeWithoutResult(status -> {
+			replicaGuard.stickToPrimary();
+			status.setRollbackOnly();
+		});
+		assertNull(response.getCookie(ReplicaGuard.STICKY_COOKIE));
+		assertEquals("replica", currentNode(readOnlyTx));
+	}
+
+	@Test
+	void cookieBeyondTheStickyWindowIsIgnored() {
+		request(new Cookie(ReplicaGuard.STICKY_COOKIE, Long.toString(System.currentTimeMillis() + 3_600_000)));
+		assertEquals("replica", currentNode(readOnlyTx));
+	}
+
+	private static MockHttpServletResponse request(Cookie cookie) {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		if (cookie != null) {
+			request.setCookies(cookie);
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+		return response;
+	}
+
+	@Test
+	void laggingOrUnknownReplicaIsBypassed() {
+		replicaGuard.recordLag(30L);
+		assertEquals("primary", currentNode(readOnlyTx));
+		replicaGuard.recordLag(null);
+		assertEquals("primary", currentNode(readOnlyTx));
+		replicaGuard.recordLag(1L);
+		assertEquals("replica", currentNode(readOnlyTx));
+	}
+
+	private String currentNode(TransactionTemplate tx) {
+		return tx.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+	}
+
+	private static DataSource embeddedDatabase(String name) {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		jdbc.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(16))");
+		jdbc.execute("DELETE FROM node");
+		jdbc.update("INSERT INTO node (name) VALUES (?)", name);
+		return dataSource;
+	}
+}
@@ -0,0 +1,97 @@
+package com.example.flightservice.service;
+
+import com.example.flightservice.dtos.ImportResultDTO;
+import com.example.flightservice.dtos.ScheduleStatusDTO;
+import com.example.flightservice.models.FlightStatus;
+import com.example.flightservice.repositories.CatalogueVersionRepository;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CatalogueImporterTests {
+	private final List<ScheduleStatusDTO> published = new ArrayList<>();
+	private JdbcTemplate jdbcTemplate;
+	private CatalogueImporter importer;
+
+	@BeforeEach
+	void setUp() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:catalogue_import;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("DROP TABLE IF EXISTS schedules");
+		jdbcTemplate.execute("DROP TABLE IF EXISTS flights");
+		jdbcTemplate.execute("CREATE TABLE flights (id BIGINT PRIMARY KEY, flight_number VARCHAR(32), " +
+				"deleted_at TIMESTAMP NULL)");
+		jdbcTemplate.execute("CREATE TABLE schedules (id BIGINT AUTO_INCREMENT PRIMARY KEY, flight_id BIGINT, " +
+				"departure_time TIMESTAMP, arrival_time TIMESTAMP, flight_status VARCHAR(32), version BIGINT, " +
+				"CONSTRAINT uk_schedules_flight_departure UNIQUE (flight_id, departure_time))");
+		jdbcTemplate.update("INSERT INTO flights (id, flight_number) VALUES (1, 'AI101')");
+
+		ScheduleStatusHub hub = new ScheduleStatusHub(jdbcTemplate, 10, 10, 10, Duration.ofMinutes(1)) {
+			@Override
+			public void publish(ScheduleStatusDTO status, long version) {
+				published.add(status);
+			}
+		};
+		CatalogueVersionRepository versions = (CatalogueVersionRepository) Proxy.newProxyInstance(
+				CatalogueVersionRepository.class.getClassLoader(), new Class<?>[]{CatalogueVersionRepository.class},
+				(proxy, method, args) -> null);
+		// Nothing is built, so the calendar is left alone
+		FareCalendar fareCalendar = new FareCalendar(jdbcTemplate, null, null);
+		importer = new CatalogueImporter(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+				JsonMapper.builder().findAndAddModules().build(), null, versions, null, fareCalendar, hub, 100, 100);
+	}
+
+	@Test
+	void reimportKeepsCancelledSchedulesAndPublishesStatusChanges() throws Exception {
+		importSchedules(row("2030-01-01T08:00", "SCHEDULED"), row("2030-01-02T08:00", "SCHEDULED"));
+		assertEquals(List.of(), published);
+		jdbcTemplate.update("UPDATE schedules SET flight_status = 'CANCELLED', version = version + 1 " +
+				"WHERE departure_time = '2030-01-01 08:00:00'");
+
+		ImportResultDTO result = importSchedules(row("2030-01-01T08:00", "SCHEDULED"),
+				row("2030-01-02T08:00", "DELAYED"));
+
+		assertEquals(2, result.getImported());
+		assertEquals("CANCELLED", status("2030-01-01 08:00:00"));
+		assertEquals("DELAYED", status("2030-01-02 08:00:00"));
+		assertEquals(1, published.size());
+		assertEquals(FlightStatus.DELAYED, published.get(0).getFlightStatus());
+	}
+
+	@Test
+	void unchangedRowsKeepTheirVersion() throws Exception {
+		importSchedules(row("2030-01-01T08:00", "SCHEDULED"));
+		importSchedules(row("2030-01-01T08:00", "SCHEDULED"));
+
+		assertEquals(0L, jdbcTemplate.queryForObject("SELECT version FROM schedules", Long.class));
+		assertEquals(List.of(), published);
+	}
+
+	private ImportResultDTO importSchedules(String... rows) throws Exception {
+		byte[] input = String.join("\n", rows).getBytes(StandardCharsets.UTF_8);
+		return importer.importSchedules(new ByteArrayInputStream(input), BulkFormat.NDJSON);
+	}
+
+	private String status(String departure) {
+		return jdbcTemplate.queryForObject("SELECT flight_status FROM schedules WHERE departure_time = ?",
+				String.class, departure);
+	}
+
+	private static String row(String departure, String status) {
+		return "{\"flightNumber\":\"AI101\",\"departureTime\":\"" + departure + "\",\"arrivalTime\":\"" +
+				departure.replace("T08", "T10") + "\",\"flightStatus\":\"" + status + "\"}";
+	}
+}
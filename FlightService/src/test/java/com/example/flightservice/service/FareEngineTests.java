@@ -0,0 +1,47 @@
+package com.example.flightservice.service;
+
+import com.example.flightservice.config.FareProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FareEngineTests {
+
+	private final FareEngine engine = new FareEngine(fareProperties());
+
+	@Test
+	void bucketFollowsTheLoadFactor() {
+		LocalDateTime departure = LocalDateTime.now().plusDays(3);
+		assertEquals(new FareEngine.Fare(100, "LOW"), engine.fareFor(1L, departure, 10L, 100, 100, 100));
+
+		engine.seatsChanged(10L, 100, 10);
+		assertEquals(new FareEngine.Fare(200, "HIGH"), engine.fareFor(1L, departure, 10L, 100, 100, 10));
+	}
+
+	@Test
+	void tablesOfDepartedSchedulesAreEvicted() {
+		LocalDateTime now = LocalDateTime.now();
+		engine.fareFor(1L, now.minusHours(1), 10L, 100, 100, 100);
+		engine.fareFor(2L, now.plusDays(1), 10L, 100, 100, 100);
+
+		assertEquals(1, engine.evictDeparted(now));
+		assertEquals(0, engine.evictDeparted(now));
+		assertEquals(1, engine.evictDeparted(now.plusDays(2)));
+	}
+
+	private static FareProperties fareProperties() {
+		FareProperties.Bucket low = new FareProperties.Bucket();
+		low.setName("LOW");
+		low.setUpToLoadFactor(0.5);
+		FareProperties.Bucket high = new FareProperties.Bucket();
+		high.setName("HIGH");
+		high.setUpToLoadFactor(1.0);
+		high.setMultiplier(2.0);
+		FareProperties properties = new FareProperties();
+		properties.setBuckets(List.of(low, high));
+		return properties;
+	}
+}
@@ -0,0 +1,102 @@
+package com.example.flightservice.service;
+
+import com.example.flightservice.dtos.FlightDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlightCatalogueTests {
+
+	private FlightCatalogue catalogue;
+
+	@BeforeEach
+	void setUp() {
+		catalogue = new FlightCatalogue();
+		catalogue.replaceAll(List.of(flight(1L, 100), flight(2L, 50)), 1);
+	}
+
+	@Test
+	void seatEpochMovesWithSeatChangesOnly() {
+		long epoch = catalogue.seatEpoch();
+		// The periodic refresh re-applies unchanged counts
+		assertFalse(catalogue.setAvailableSeats(1L, 100));
+		assertEquals(epoch, catalogue.seatEpoch());
+
+		catalogue.adjustAvailableSeats(1L, -2);
+		assertNotEquals(epoch, catalogue.seatEpoch());
+		assertEquals(98, catalogue.findAvailableSeats(1L).orElseThrow());
+
+		epoch = catalogue.seatEpoch();
+		assertTrue(catalogue.setAvailableSeats(2L, 49));
+		assertNotEquals(epoch, catalogue.seatEpoch());
+	}
+
+	@Test
+	void contentHashFollowsSeatsAndNotHistory() {
+		long hash = catalogue.contentHash();
+		catalogue.adjustAvailableSeats(1L, -1);
+		long booked = catalogue.contentHash();
+		assertNotEquals(hash, booked);
+		catalogue.adjustAvailableSeats(1L, 1);
+		assertEquals(hash, catalogue.contentHash());
+
+		// Another instance, or this one after a restart: same version, its own epoch
+		FlightCatalogue other = new FlightCatalogue();
+		other.replaceAll(List.of(flight(1L, 100), flight(2L, 50)), 1);
+		assertEquals(hash, other.contentHash());
+		other.setAvailableSeats(2L, 49);
+		assertNotEquals(hash, other.contentHash());
+		assertNotEquals(booked, other.contentHash());
+	}
+
+	@Test
+	void cataloguesWithDifferentSeatsNeverShareAHash() {
+		Set<Long> hashes = new HashSet<>();
+		for (int first = 0; first <= 50; first++) {
+			for (int second = 0; second <= 50; second++) {
+				FlightCatalogue other = new FlightCatalogue();
+				other.replaceAll(List.of(flight(1L, first), flight(2L, second)), 1);
+				assertTrue(hashes.add(other.contentHash()), first + "/" + second);
+			}
+		}
+	}
+
+	@Test
+	void rememberedFlightIsFoundWithoutJoiningTheLists() {
+		catalogue.remember(flight(3L, 10));
+
+		assertTrue(catalogue.findById(3L).isPresent());
+		assertTrue(catalogue.findByFlightNumber("FL3").isPresent());
+		assertEquals(2, catalogue.findAll("").size());
+		assertEquals(1, catalogue.version());
+	}
+
+	@Test
+	void removedFlightIsNotBroughtBack() {
+		// Read from the database just before the deletion committed
+		FlightDTO stale = flight(2L, 50);
+		catalogue.remove(2L, 2);
+
+		catalogue.remember(stale);
+		catalogue.put(stale, 2);
+		assertFalse(catalogue.findById(2L).isPresent());
+
+		// A reload older than the removal still has the flight, a newer one does not
+		catalogue.replaceAll(List.of(flight(1L, 100), stale), 1);
+		assertFalse(catalogue.findById(2L).isPresent());
+		catalogue.replaceAll(List.of(flight(1L, 100)), 2);
+		assertFalse(catalogue.findById(2L).isPresent());
+	}
+
+	private static FlightDTO flight(Long id, int seats) {
+		return new FlightDTO(id, "FL" + id, "Airline", "A", "B", 100, seats, seats, 0L);
+	}
+}
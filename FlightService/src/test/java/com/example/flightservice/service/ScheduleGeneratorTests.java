@@ -0,0 +1,121 @@
+package com.example.flightservice.service;
+
+import com.example.flightservice.config.ReplicaGuard;
+import com.example.flightservice.dtos.RecurringScheduleDTO;
+import com.example.flightservice.dtos.RecurringScheduleResultDTO;
+import com.example.flightservice.repositories.CatalogueVersionRepository;
+import com.example.flightservice.repositories.FlightRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.lang.reflect.Proxy;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ScheduleGeneratorTests {
+	private static final long FLIGHT = 1L;
+	// Three departures a week, the first on a Monday
+	private static final LocalDate MONDAY = LocalDate.now().plusWeeks(1).with(DayOfWeek.MONDAY);
+	private static final Set<DayOfWeek> DAYS = Set.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY);
+
+	private final List<String> statements = new ArrayList<>();
+	private final List<String> versionBumps = new ArrayList<>();
+	private JdbcTemplate jdbcTemplate;
+	private ScheduleGenerator generator;
+
+	@BeforeEach
+	void setUp() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:schedule_generator;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+		// Counts the statements sent, to check the departures go out several rows at a time
+		jdbcTemplate = new JdbcTemplate(dataSource) {
+			@Override
+			public int update(String sql, Object... args) {
+				statements.add(sql);
+				return super.update(sql, args);
+			}
+		};
+		jdbcTemplate.execute("DROP TABLE IF EXISTS schedules");
+		jdbcTemplate.execute("CREATE TABLE schedules (id BIGINT AUTO_INCREMENT PRIMARY KEY, flight_id BIGINT, " +
+				"departure_time TIMESTAMP, arrival_time TIMESTAMP, flight_status VARCHAR(32), version BIGINT, " +
+				"CONSTRAINT uk_schedules_flight_departure UNIQUE (flight_id, departure_time))");
+		statements.clear();
+
+		FlightRepository flights = stub(FlightRepository.class, "existsById", args -> FLIGHT == (Long) args[0]);
+		CatalogueVersionRepository versions = stub(CatalogueVersionRepository.class, "increment",
+				args -> versionBumps.add((String) args[0]));
+		// Nothing is built, so reloading the calendar is a no-op
+		FareCalendar fareCalendar = new FareCalendar(jdbcTemplate, null, null);
+		generator = new ScheduleGenerator(jdbcTemplate, flights, versions, new ReplicaGuard(false, 5, 5000),
+				fareCalendar, 4, 400);
+	}
+
+	@Test
+	void insertsEveryDepartureInMultiRowStatements() {
+		RecurringScheduleResultDTO result = generator.generate(pattern(MONDAY, MONDAY.plusWeeks(4).minusDays(1)));
+
+		assertEquals(12, result.getRequested());
+		assertEquals(12, result.getCreated());
+		assertEquals(12, count());
+		assertEquals(3, statements.size());
+		assertEquals(1, versionBumps.size());
+	}
+
+	@Test
+	void skipsDeparturesThatAlreadyExist() {
+		generator.generate(pattern(MONDAY, MONDAY.plusWeeks(2).minusDays(1)));
+		statements.clear();
+
+		RecurringScheduleResultDTO again = generator.generate(pattern(MONDAY, MONDAY.plusWeeks(2).minusDays(1)));
+		assertEquals(6, again.getRequested());
+		assertEquals(0, again.getCreated());
+		assertEquals(6, count());
+		assertEquals(2, statements.size());
+		// Nothing changed, so caches keep their version
+		assertEquals(1, versionBumps.size());
+
+		RecurringScheduleResultDTO extended = generator.generate(pattern(MONDAY, MONDAY.plusWeeks(3).minusDays(1)));
+		assertEquals(9, extended.getRequested());
+		assertEquals(3, extended.getCreated());
+		assertEquals(9, count());
+		assertEquals(2, versionBumps.size());
+	}
+
+	@Test
+	void rejectsUnknownFlightsAndLongRanges() {
+		RecurringScheduleDTO unknown = pattern(MONDAY, MONDAY.plusDays(6));
+		unknown.setFlightId(2L);
+		assertThrows(RuntimeException.class, () -> generator.generate(unknown));
+		assertThrows(IllegalArgumentException.class, () -> generator.generate(pattern(MONDAY, MONDAY.plusDays(400))));
+		assertEquals(0, statements.size());
+	}
+
+	private int count() {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM schedules WHERE flight_id = ?", Integer.class, FLIGHT);
+	}
+
+	private static RecurringScheduleDTO pattern(LocalDate from, LocalDate to) {
+		return new RecurringScheduleDTO(FLIGHT, DAYS, LocalTime.of(9, 30), 90, from, to, null);
+	}
+
+	// Repository stand-in answering only the given method
+	@SuppressWarnings("unchecked")
+	private static <T> T stub(Class<T> type, String name, Function<Object[], Object> body) {
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+			if (!method.getName().equals(name)) {
+				throw new UnsupportedOperationException(method.getName());
+			}
+			return body.apply(args);
+		});
+	}
+}
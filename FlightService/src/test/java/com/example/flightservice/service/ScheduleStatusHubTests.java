@@ -0,0 +1,149 @@
+package com.example.flightservice.service;
+
+import com.example.flightservice.dtos.ScheduleStatusDTO;
+import com.example.flightservice.models.FlightStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScheduleStatusHubTests {
+	private static final LocalDateTime DEPARTURE = LocalDateTime.of(2026, 6, 1, 8, 0);
+	private static final Pattern EVENT_ID = Pattern.compile("id:(\\S+)");
+
+	// Records what the hub writes to the stream
+	private static class RecordingEmitter extends SseEmitter {
+		final List<String> ids = Collections.synchronizedList(new ArrayList<>());
+		final List<ScheduleStatusDTO> statuses = Collections.synchronizedList(new ArrayList<>());
+
+		@Override
+		public void send(SseEventBuilder builder) {
+			for (ResponseBodyEmitter.DataWithMediaType data : builder.build()) {
+				if (data.getData() instanceof ScheduleStatusDTO status) {
+					statuses.add(status);
+				} else {
+					Matcher id = EVENT_ID.matcher(data.getData().toString());
+					if (id.find()) {
+						ids.add(id.group(1));
+					}
+				}
+			}
+		}
+	}
+
+	private final List<RecordingEmitter> emitters = new ArrayList<>();
+	private JdbcTemplate jdbcTemplate;
+	private ScheduleStatusHub hub;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+				"jdbc:h2:mem:schedule_events;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", ""));
+		jdbcTemplate.execute("DROP TABLE IF EXISTS schedules");
+		jdbcTemplate.execute("DROP TABLE IF EXISTS flights");
+		jdbcTemplate.execute("CREATE TABLE flights (id BIGINT PRIMARY KEY, deleted_at TIMESTAMP NULL)");
+		jdbcTemplate.execute("CREATE TABLE schedules (id BIGINT PRIMARY KEY, flight_id BIGINT, " +
+				"flight_status VARCHAR(16), departure_time TIMESTAMP, version BIGINT)");
+		jdbcTemplate.update("INSERT INTO flights (id) VALUES (1)");
+		for (long id = 1; id <= 4; id++) {
+			jdbcTemplate.update("INSERT INTO schedules VALUES (?, 1, 'SCHEDULED', ?, 0)", id, DEPARTURE);
+		}
+		hub = new ScheduleStatusHub(jdbcTemplate, 100, 10, 10_000, Duration.ofMinutes(1)) {
+			@Override
+			SseEmitter createEmitter() {
+				RecordingEmitter emitter = new RecordingEmitter();
+				emitters.add(emitter);
+				return emitter;
+			}
+		};
+	}
+
+	@AfterEach
+	void stop() {
+		hub.stop();
+	}
+
+	@Test
+	void concurrentChangesReachASubscriberInOrderAndNoneIsLost() throws Exception {
+		hub.subscribe(List.of(1L, 2L, 3L, 4L), null);
+		RecordingEmitter emitter = emitters.get(0);
+		// The catch-up: one current status per schedule
+		assertEquals(4, emitter.statuses.size());
+
+		int perSchedule = 500;
+		ExecutorService publishers = Executors.newFixedThreadPool(4);
+		for (long scheduleId = 1; scheduleId <= 4; scheduleId++) {
+			long id = scheduleId;
+			publishers.execute(() -> LongStream.rangeClosed(1, perSchedule)
+					.forEach(version -> hub.publish(status(id, FlightStatus.DELAYED), version)));
+		}
+		publishers.shutdown();
+		assertTrue(publishers.awaitTermination(10, TimeUnit.SECONDS));
+
+		awaitSize(emitter.ids, 4 + 4 * perSchedule);
+		List<Long> sequences = emitter.ids.subList(4, emitter.ids.size()).stream().map(ScheduleStatusHubTests::sequence).toList();
+		for (int i = 1; i < sequences.size(); i++) {
+			assertTrue(sequences.get(i - 1) < sequences.get(i), "event " + sequences.get(i) + " after " + sequences.get(i - 1));
+		}
+	}
+
+	@Test
+	void reconnectWithLastEventIdResumesAfterIt() throws Exception {
+		hub.subscribe(List.of(1L, 2L), null);
+		RecordingEmitter first = emitters.get(0);
+		hub.publish(status(1L, FlightStatus.DELAYED), 1);
+		hub.publish(status(3L, FlightStatus.DELAYED), 1);
+		hub.publish(status(2L, FlightStatus.CANCELLED), 1);
+		awaitSize(first.ids, 4);
+		String lastSeen = first.ids.get(2);
+
+		// The client saw the catch-up and schedule 1's change before reconnecting
+		hub.publish(status(1L, FlightStatus.ON_TIME), 2);
+		hub.subscribe(List.of(1L, 2L), lastSeen);
+		RecordingEmitter resumed = emitters.get(1);
+
+		awaitSize(resumed.statuses, 2);
+		assertEquals(List.of(FlightStatus.CANCELLED, FlightStatus.ON_TIME),
+				resumed.statuses.stream().map(ScheduleStatusDTO::getFlightStatus).toList());
+		assertEquals(first.ids.get(3), resumed.ids.get(0));
+
+		// An id from another process: start over from the current statuses
+		hub.subscribe(List.of(1L), "elsewhere-7");
+		awaitSize(emitters.get(2).statuses, 1);
+		assertEquals(FlightStatus.SCHEDULED, emitters.get(2).statuses.get(0).getFlightStatus());
+	}
+
+	private static ScheduleStatusDTO status(Long scheduleId, FlightStatus flightStatus) {
+		return new ScheduleStatusDTO(scheduleId, 1L, flightStatus, DEPARTURE);
+	}
+
+	private static long sequence(String eventId) {
+		return Long.parseLong(eventId.substring(eventId.indexOf('-') + 1));
+	}
+
+	private static void awaitSize(List<?> list, int size) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (list.size() < size && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(size, list.size());
+	}
+}
@@ -0,0 +1,144 @@
+package com.example.flightservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SeatInventoryTests {
+	private static final long FLIGHT_ID = 1L;
+
+	@Test
+	void concurrentBookingsNeverOversell() throws Exception {
+		for (int stripes : new int[]{1, 8}) {
+			Fixture fixture = new Fixture("oversell" + stripes, stripes, 100);
+			int booked = run(16, 20, () -> {
+				try {
+					fixture.inventory.reserve(FLIGHT_ID, 1);
+					return true;
+				} catch (InsufficientSeatsException e) {
+					return false;
+				}
+			});
+			assertEquals(100, booked, "bookings with " + stripes + " stripes");
+			assertEquals(0, fixture.inventory.availableSeats(FLIGHT_ID));
+		}
+	}
+
+	@Test
+	void bookingSpanningStripesIsAllOrNothing() {
+		Fixture fixture = new Fixture("span", 4, 6);
+		// 2, 2, 1, 1 seats per stripe: five seats only fit by taking from several stripes
+		fixture.inventory.reserve(FLIGHT_ID, 5);
+		assertEquals(1, fixture.inventory.availableSeats(FLIGHT_ID));
+		assertThrows(InsufficientSeatsException.class, () -> fixture.inventory.reserve(FLIGHT_ID, 2));
+		assertEquals(1, fixture.inventory.availableSeats(FLIGHT_ID));
+		fixture.inventory.release(FLIGHT_ID, 5);
+		assertEquals(6, fixture.inventory.availableSeats(FLIGHT_ID));
+	}
+
+	@Test
+	void releaseNeverExceedsCapacity() {
+		for (int stripes : new int[]{1, 4}) {
+			Fixture fixture = new Fixture("cap" + stripes, stripes, 10);
+			fixture.inventory.reserve(FLIGHT_ID, 3);
+			fixture.inventory.release(FLIGHT_ID, 1000);
+			assertEquals(10, fixture.inventory.availableSeats(FLIGHT_ID), "seats with " + stripes + " stripes");
+			// Capacity changes add seats before the new capacity is saved
+			fixture.inventory.adjust(FLIGHT_ID, 5);
+			assertEquals(15, fixture.inventory.availableSeats(FLIGHT_ID), "seats with " + stripes + " stripes");
+		}
+	}
+
+	/**
+	 * Bookings on one flight from many threads, each holding its transaction open for a moment as
+	 * a real booking does. Run with -Dseat-benchmark=true.
+	 */
+	@Test
+	@EnabledIfSystemProperty(named = "seat-benchmark", matches = "true")
+	void stripedInventoryScalesUnderContention() throws Exception {
+		double singleRow = throughput(new Fixture("bench1", 1, 1_000_000));
+		double striped = throughput(new Fixture("bench16", 16, 1_000_000));
+		System.out.printf("Bookings/s on one flight, 32 threads: single row %.0f, 16 stripes %.0f (%.1fx)%n",
+				singleRow, striped, striped / singleRow);
+		assertTrue(striped > singleRow * 2, "striped inventory should relieve row contention");
+	}
+
+	private static double throughput(Fixture fixture) throws Exception {
+		long start = System.nanoTime();
+		int booked = run(32, 100, () -> {
+			fixture.transactionTemplate.executeWithoutResult(status -> {
+				fixture.inventory.reserve(FLIGHT_ID, 1);
+				// Rest of the booking transaction, with the seat row still locked
+				sleep();
+			});
+			return true;
+		});
+		return booked / ((System.nanoTime() - start) / 1e9);
+	}
+
+	private static int run(int threads, int attemptsPerThread, Callable<Boolean> booking)
+			throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<Integer>> results = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			results.add(executor.submit(() -> {
+				int succeeded = 0;
+				for (int attempt = 0; attempt < attemptsPerThread; attempt++) {
+					if (booking.call()) {
+						succeeded++;
+					}
+				}
+				return succeeded;
+			}));
+		}
+		int total = 0;
+		for (Future<Integer> result : results) {
+			total += result.get();
+		}
+		executor.shutdown();
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+		return total;
+	}
+
+	private static void sleep() {
+		try {
+			Thread.sleep(1);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static class Fixture {
+		final SeatInventory inventory;
+		final TransactionTemplate transactionTemplate;
+
+		Fixture(String name, int stripes, int seats) {
+			DriverManagerDataSource dataSource = new DriverManagerDataSource(
+					"jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000", "sa", "");
+			JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+			jdbc.execute("CREATE TABLE flights (id BIGINT PRIMARY KEY, capacity INT, available_seats INT)");
+			jdbc.execute("CREATE TABLE seat_stripes (flight_id BIGINT NOT NULL, stripe INT NOT NULL, "
+					+ "available INT NOT NULL, PRIMARY KEY (flight_id, stripe))");
+			jdbc.update("INSERT INTO flights (id, capacity, available_seats) VALUES (?, ?, ?)", FLIGHT_ID, seats, seats);
+			DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+			inventory = new SeatInventory(jdbc, transactionManager, stripes);
+			inventory.initialize(FLIGHT_ID, seats);
+			transactionTemplate = new TransactionTemplate(transactionManager);
+		}
+	}
+}
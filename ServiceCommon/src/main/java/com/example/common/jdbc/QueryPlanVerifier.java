@@ -0,0 +1,56 @@
+package com.example.common.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs EXPLAIN on the SQL behind each keyed repository lookup once the application is up
+ * and reports any plan that falls back to a full table scan (access type ALL). Each service
+ * registers one as a bean with its own queries, behind {@code app.query-plan-check.enabled}.
+ */
+public class QueryPlanVerifier {
+    private static final Logger log = LoggerFactory.getLogger(QueryPlanVerifier.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, String> queries;
+    private final boolean failOnFullScan;
+
+    /**
+     * @param queries        SQL to EXPLAIN, by the repository method it stands for
+     * @param failOnFullScan whether a full scan fails startup rather than only being logged
+     */
+    public QueryPlanVerifier(JdbcTemplate jdbcTemplate, Map<String, String> queries, boolean failOnFullScan) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queries = queries;
+        this.failOnFullScan = failOnFullScan;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifyQueryPlans() {
+        int fullScans = 0;
+        for (Map.Entry<String, String> query : queries.entrySet()) {
+            try {
+                List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + query.getValue());
+                for (Map<String, Object> row : plan) {
+                    if ("ALL".equalsIgnoreCase(String.valueOf(row.get("type")))) {
+                        fullScans++;
+                        log.warn("Full table scan on '{}' for {}: {}", row.get("table"), query.getKey(), query.getValue());
+                    }
+                }
+            } catch (DataAccessException e) {
+                log.warn("Could not EXPLAIN {}: {}", query.getKey(), e.getMessage());
+            }
+        }
+        if (fullScans > 0 && failOnFullScan) {
+            throw new IllegalStateException(fullScans + " repository queries use a full table scan");
+        }
+        log.info("Checked query plans for {} repository queries, {} full scans", queries.size(), fullScans);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.common.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The rate limiter's beans, for a service to {@code @Import} and then add {@link RateLimitFilter}
+ * to its security filter chain after its authentication filter.
+ */
+@Configuration
+public class RateLimitConfiguration {
+
+    @Bean
+    @ConfigurationProperties(prefix = "app.rate-limit")
+    public RateLimitProperties rateLimitProperties() {
+        return new RateLimitProperties();
+    }
+
+    @Bean
+    public TokenBucketRateLimiter tokenBucketRateLimiter(RateLimitProperties rateLimitProperties,
+                                                         MeterRegistry meterRegistry) {
+        return new TokenBucketRateLimiter(rateLimitProperties, meterRegistry);
+    }
+
+    @Bean
+    public RateLimitFilter rateLimitFilter(RateLimitProperties rateLimitProperties, TokenBucketRateLimiter limiter,
+                                           MeterRegistry meterRegistry) {
+        return new RateLimitFilter(rateLimitProperties, limiter, meterRegistry);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.common.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the configured per-route quotas. Runs in the security filter chain after the JWT
+ * filter, so USER-keyed rules can see who is calling; rejected requests get 429 with Retry-After.
+ */
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final String REJECTED_BODY = "{\"error\":\"Too many requests, please retry later\"}";
+
+    private final RateLimitProperties properties;
+    private final TokenBucketRateLimiter limiter;
+    private final List<Route> routes;
+
+    public RateLimitFilter(RateLimitProperties properties, TokenBucketRateLimiter limiter, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.limiter = limiter;
+        this.routes = properties.getRules().stream()
+                .map(rule -> new Route(rule,
+                        new AntPathRequestMatcher(rule.getPath(), StringUtils.hasText(rule.getMethod()) ? rule.getMethod() : null),
+                        rule.getPeriod().toNanos() / rule.getLimit(),
+                        rule.getBurst() > 0 ? rule.getBurst() : rule.getLimit(),
+                        Counter.builder("rate_limit.rejected")
+                                .description("Requests rejected by the rate limiter")
+                                .tag("rule", rule.getName())
+                                .register(meterRegistry)))
+                .toList();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (properties.isEnabled() && !properties.getTrustedAddresses().contains(request.getRemoteAddr())) {
+            for (Route route : routes) {
+                if (route.matcher().matches(request)) {
+                    long waitNanos = limiter.tryAcquire(route.rule().getName() + "|" + key(route.rule(), request),
+                            route.intervalNanos(), route.burst());
+                    if (waitNanos > 0) {
+                        route.rejected().increment();
+                        log.debug("Rate limited {} {} by rule {}", request.getMethod(), request.getRequestURI(), route.rule().getName());
+                        reject(response, waitNanos);
+                        return;
+                    }
+                    break;
+                }
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static String key(RateLimitProperties.Rule rule, HttpServletRequest request) {
+        if (rule.getKey() == RateLimitProperties.Key.USER) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.isAuthenticated()
+                    && !(authentication instanceof AnonymousAuthenticationToken)) {
+                return "user:" + authentication.getName();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999))));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write(REJECTED_BODY);
+    }
+
+    private record Route(RateLimitProperties.Rule rule, AntPathRequestMatcher matcher, long intervalNanos, long burst,
+                         Counter rejected) {
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.common.ratelimit;
+
+import lombok.Data;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-route request quotas, bound from {@code app.rate-limit.*} by {@link RateLimitConfiguration}.
+ * The first rule whose method and path match a request applies; requests matching no rule are
+ * not limited.
+ * <p>
+ * The binder validates the rules through {@link #validate} as they are bound, so a rule with a
+ * zero limit or no path fails startup instead of the first request it would have matched. (The
+ * services carry the Bean Validation API but no provider, so {@code @Validated} is not an option.)
+ */
+@Data
+public class RateLimitProperties implements Validator {
+    private boolean enabled = true;
+    // Upper bound on tracked buckets; idle (fully refilled) buckets are evicted first
+    private int maxKeys = 100_000;
+    private Duration evictionInterval = Duration.ofMinutes(1);
+    // Callers that are never limited, e.g. the other services calling in
+    private List<String> trustedAddresses = new ArrayList<>();
+    private List<Rule> rules = new ArrayList<>();
+
+    @Data
+    public static class Rule {
+        private String name;
+        // HTTP method to match, or empty for any
+        private String method;
+        private String path;
+        // Sustained requests allowed per period, and how many may arrive at once
+        private long limit;
+        private Duration period = Duration.ofMinutes(1);
+        private long burst;
+        private Key key = Key.IP;
+    }
+
+    public enum Key {
+        IP,
+        // The authenticated user, falling back to the client address for anonymous requests
+        USER
+    }
+
+    @Override
+    public boolean supports(Class<?> type) {
+        return RateLimitProperties.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        List<Rule> rules = ((RateLimitProperties) target).getRules();
+        for (int i = 0; i < rules.size(); i++) {
+            Rule rule = rules.get(i);
+            String field = "rules[" + i + "]";
+            if (rule.getName() == null || rule.getName().isBlank()) {
+                errors.rejectValue(field + ".name", "NotBlank", "must not be blank");
+            }
+            if (rule.getPath() == null || rule.getPath().isBlank()) {
+                errors.rejectValue(field + ".path", "NotBlank", "must not be blank");
+            }
+            if (rule.getLimit() < 1) {
+                errors.rejectValue(field + ".limit", "Min", "must be at least 1");
+            }
+            if (rule.getBurst() < 0) {
+                errors.rejectValue(field + ".burst", "Min", "must not be negative");
+            }
+            if (rule.getPeriod() == null || rule.getPeriod().isNegative() || rule.getPeriod().isZero()) {
+                errors.rejectValue(field + ".period", "Positive", "must be positive");
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.common.ratelimit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets kept in their "theoretical arrival time" form (GCRA): each bucket is a single
+ * {@link AtomicLong} holding the instant at which it would be completely full again, updated by
+ * CAS, so acquiring never locks. A bucket whose instant has passed is full and therefore
+ * indistinguishable from a missing one, which makes idle eviction free of side effects.
+ * <p>
+ * Once {@code max-keys} buckets exist, a new key first triggers an eviction of idle buckets, at
+ * most once per {@link #INLINE_EVICTION_GAP_NANOS}; between those, and while the map is still
+ * full, new keys share an overflow bucket per rule. A flood of new keys therefore costs one scan
+ * a second, not one per request.
+ */
+public class TokenBucketRateLimiter {
+    private static final String OVERFLOW_KEY = "\u0000overflow";
+    static final long INLINE_EVICTION_GAP_NANOS = 1_000_000_000L;
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final RateLimitProperties properties;
+    private final LongSupplier nanoTime;
+    private final AtomicLong lastInlineEviction;
+
+    public TokenBucketRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry, LongSupplier nanoTime) {
+        this.properties = properties;
+        this.nanoTime = nanoTime;
+        this.lastInlineEviction = new AtomicLong(nanoTime.getAsLong() - INLINE_EVICTION_GAP_NANOS);
+        Gauge.builder("rate_limit.buckets", buckets, Map::size)
+                .description("Rate limit buckets currently tracked")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes one token from the bucket for {@code key}.
+     *
+     * @param intervalNanos time for one token to refill, i.e. period / limit
+     * @param burst         bucket capacity
+     * @return 0 if the request may proceed, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(String key, long intervalNanos, long burst) {
+        long now = nanoTime.getAsLong();
+        AtomicLong bucket = bucket(key, now);
+        long tolerance = intervalNanos * (burst - 1);
+        while (true) {
+            long fullAt = bucket.get();
+            long start = fullAt - now > 0 ? fullAt : now;
+            long wait = start - now - tolerance;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(fullAt, start + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "#{@rateLimitProperties.evictionInterval.toMillis()}")
+    public void evictIdle() {
+        long now = nanoTime.getAsLong();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    private AtomicLong bucket(String key, long now) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= properties.getMaxKeys()) {
+            long last = lastInlineEviction.get();
+            if (now - last >= INLINE_EVICTION_GAP_NANOS && lastInlineEviction.compareAndSet(last, now)) {
+                evictIdle();
+            }
+            if (buckets.size() >= properties.getMaxKeys()) {
+                // Still full of active callers: new keys share one bucket per rule rather than grow the map
+                int rule = key.indexOf('|');
+                return buckets.computeIfAbsent(key.substring(0, rule + 1) + OVERFLOW_KEY, k -> new AtomicLong(now));
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.common.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size bloom filter over strings. Lookups are a handful of bit tests, so the common
+ * "not revoked" answer costs no allocation and no map probe.
+ */
+public final class BloomFilter {
+    private static final int HASHES = 4;
+
+    private final AtomicLongArray bits;
+    private final int size;
+
+    private BloomFilter(int expectedEntries) {
+        this.size = Math.max(64, expectedEntries * 10);
+        this.bits = new AtomicLongArray((size + 63) / 64);
+    }
+
+    public static BloomFilter of(Collection<String> keys, int minimumCapacity) {
+        BloomFilter filter = new BloomFilter(Math.max(minimumCapacity, keys.size() * 2));
+        keys.forEach(filter::put);
+        return filter;
+    }
+
+    public void put(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < HASHES; i++) {
+            int bit = Math.floorMod(h1 + i * h2, size);
+            int word = bit >>> 6;
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    public boolean mightContain(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < HASHES; i++) {
+            int bit = Math.floorMod(h1 + i * h2, size);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 64-bit FNV-1a followed by a murmur finaliser, split into two 32-bit hashes by the caller
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash | 1L << 32;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.common.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory set of revoked session ids, checked on every request without I/O. A service
+ * registers one as a bean with the {@link Source} of its revocations (UserService reads its
+ * table, the others poll UserService), and it syncs every {@code app.security.denylist.sync-interval-ms}.
+ * <p>
+ * Syncs go by time, not by id: each asks for the revocations made since the previous sync's
+ * as-of time, and the source widens that window by an overlap. A revocation whose transaction
+ * commits late, or that was stamped by a clock running behind, is still picked up by a later
+ * sync; reading a revocation twice is harmless.
+ */
+public class TokenDenylist {
+    private static final Logger log = LoggerFactory.getLogger(TokenDenylist.class);
+    private static final int MINIMUM_CAPACITY = 1024;
+
+    public record Revocation(String sessionId, Instant expiresAt) {
+    }
+
+    /**
+     * @param asOf when the source was read, by the source's clock; the next sync starts from it
+     */
+    public record Revocations(Instant asOf, List<Revocation> revocations) {
+    }
+
+    @FunctionalInterface
+    public interface Source {
+        /**
+         * @return unexpired revocations made at or after {@code since}, less the source's overlap
+         */
+        Revocations since(Instant since) throws Exception;
+    }
+
+    private final Source source;
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    // Held by add() and the rebuild, so nothing added while the filter is rebuilt is left out of it
+    private final Object filterLock = new Object();
+    private volatile BloomFilter filter = BloomFilter.of(List.of(), MINIMUM_CAPACITY);
+    private volatile Instant syncedUntil = Instant.EPOCH;
+
+    public TokenDenylist(Source source) {
+        this.source = source;
+    }
+
+    public boolean isRevoked(String sessionId) {
+        if (sessionId == null || !filter.mightContain(sessionId)) {
+            return false;
+        }
+        Instant expiresAt = revoked.get(sessionId);
+        return expiresAt != null && expiresAt.isAfter(Instant.now());
+    }
+
+    /**
+     * @param expiresAt when the last access token issued for the session expires
+     */
+    public void add(String sessionId, Instant expiresAt) {
+        synchronized (filterLock) {
+            revoked.merge(sessionId, expiresAt, (current, next) -> next.isAfter(current) ? next : current);
+            filter.put(sessionId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.denylist.sync-interval-ms:2000}")
+    public void sync() {
+        try {
+            Revocations revocations = source.since(syncedUntil);
+            if (revocations != null) {
+                revocations.revocations().forEach(revocation -> add(revocation.sessionId(), revocation.expiresAt()));
+                syncedUntil = revocations.asOf();
+            }
+            Instant now = Instant.now();
+            if (revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now))) {
+                synchronized (filterLock) {
+                    filter = BloomFilter.of(revoked.keySet(), MINIMUM_CAPACITY);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Could not sync token denylist: {}", e.getMessage());
+        }
+    }
+}
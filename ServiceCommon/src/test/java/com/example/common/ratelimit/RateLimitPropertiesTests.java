@@ -0,0 +1,49 @@
+package com.example.common.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.BindException;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.bind.handler.IgnoreTopLevelConverterNotFoundBindHandler;
+import org.springframework.boot.context.properties.bind.validation.ValidationBindHandler;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RateLimitPropertiesTests {
+
+	private static RateLimitProperties bind(Map<String, String> values) {
+		RateLimitProperties properties = new RateLimitProperties();
+		new Binder(new MapConfigurationPropertySource(values)).bind("app.rate-limit",
+				Bindable.ofInstance(properties),
+				new ValidationBindHandler(new IgnoreTopLevelConverterNotFoundBindHandler(), properties));
+		return properties;
+	}
+
+	@Test
+	void validRuleBinds() {
+		RateLimitProperties properties = bind(Map.of(
+				"app.rate-limit.rules[0].name", "login",
+				"app.rate-limit.rules[0].path", "/api/auth/login",
+				"app.rate-limit.rules[0].limit", "10"));
+		assertEquals(10, properties.getRules().get(0).getLimit());
+	}
+
+	@Test
+	void zeroLimitFailsAtBindTime() {
+		assertThrows(BindException.class, () -> bind(Map.of(
+				"app.rate-limit.rules[0].name", "login",
+				"app.rate-limit.rules[0].path", "/api/auth/login",
+				"app.rate-limit.rules[0].limit", "0")));
+	}
+
+	@Test
+	void ruleWithoutPathFailsAtBindTime() {
+		assertThrows(BindException.class, () -> bind(Map.of(
+				"app.rate-limit.rules[0].name", "login",
+				"app.rate-limit.rules[0].limit", "10")));
+	}
+}
@@ -0,0 +1,83 @@
+package com.example.common.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketRateLimiterTests {
+	private static final long SECOND = 1_000_000_000L;
+
+	private long now = 1_000 * SECOND;
+
+	private TokenBucketRateLimiter limiter(int maxKeys) {
+		RateLimitProperties properties = new RateLimitProperties();
+		properties.setMaxKeys(maxKeys);
+		return new TokenBucketRateLimiter(properties, new SimpleMeterRegistry(), () -> now);
+	}
+
+	@Test
+	void burstIsAllowedAtOnceAndThenOneTokenPerInterval() {
+		TokenBucketRateLimiter limiter = limiter(100);
+		// 3 tokens, one more per second
+		for (int i = 0; i < 3; i++) {
+			assertEquals(0, limiter.tryAcquire("rule|a", SECOND, 3));
+		}
+		assertEquals(SECOND, limiter.tryAcquire("rule|a", SECOND, 3));
+
+		now += SECOND / 2;
+		assertEquals(SECOND / 2, limiter.tryAcquire("rule|a", SECOND, 3));
+		now += SECOND / 2;
+		assertEquals(0, limiter.tryAcquire("rule|a", SECOND, 3));
+		assertTrue(limiter.tryAcquire("rule|a", SECOND, 3) > 0);
+
+		// Idle long enough to refill completely, but never beyond the burst
+		now += 10 * SECOND;
+		for (int i = 0; i < 3; i++) {
+			assertEquals(0, limiter.tryAcquire("rule|a", SECOND, 3));
+		}
+		assertTrue(limiter.tryAcquire("rule|a", SECOND, 3) > 0);
+		// Other keys have buckets of their own
+		assertEquals(0, limiter.tryAcquire("rule|b", SECOND, 3));
+	}
+
+	@Test
+	void newKeysShareTheOverflowBucketOnceTheMapIsFull() {
+		TokenBucketRateLimiter limiter = limiter(2);
+		assertEquals(0, limiter.tryAcquire("rule|a", SECOND, 1));
+		assertEquals(0, limiter.tryAcquire("rule|b", SECOND, 1));
+
+		// Both buckets are still active, so new keys land on one shared bucket for the rule
+		assertEquals(0, limiter.tryAcquire("rule|c", SECOND, 1));
+		assertTrue(limiter.tryAcquire("rule|d", SECOND, 1) > 0);
+		assertEquals(3, limiter.size());
+	}
+
+	@Test
+	void idleBucketsAreEvictedInlineAtMostOncePerGap() {
+		TokenBucketRateLimiter limiter = limiter(2);
+		limiter.tryAcquire("rule|a", SECOND, 1);
+		limiter.tryAcquire("rule|b", SECOND, 1);
+
+		// Both idle now: the first new key evicts them and gets a bucket of its own
+		now += 2 * SECOND;
+		limiter.tryAcquire("rule|c", SECOND / 10, 1);
+		assertEquals(1, limiter.size());
+		limiter.tryAcquire("rule|d", SECOND / 10, 1);
+		assertEquals(2, limiter.size());
+
+		// Full again with c and d idle, but the last inline eviction was too recent: e overflows
+		now += TokenBucketRateLimiter.INLINE_EVICTION_GAP_NANOS / 2;
+		limiter.tryAcquire("rule|e", SECOND / 10, 1);
+		assertEquals(3, limiter.size());
+
+		now += TokenBucketRateLimiter.INLINE_EVICTION_GAP_NANOS / 2;
+		limiter.tryAcquire("rule|f", SECOND, 1);
+		assertEquals(1, limiter.size());
+
+		now += 5 * SECOND;
+		limiter.evictIdle();
+		assertEquals(0, limiter.size());
+	}
+}
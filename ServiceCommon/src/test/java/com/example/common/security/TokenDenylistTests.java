@@ -0,0 +1,87 @@
+package com.example.common.security;
+
+import com.example.common.security.TokenDenylist.Revocation;
+import com.example.common.security.TokenDenylist.Revocations;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenDenylistTests {
+	private static final Duration OVERLAP = Duration.ofMinutes(1);
+
+	private record Row(String sessionId, Instant revokedAt) {
+	}
+
+	// Stands in for token_revocations: rows only become visible once "committed"
+	private final List<Row> committed = new ArrayList<>();
+	private Instant now = Instant.parse("2026-01-01T12:00:00Z");
+
+	private final TokenDenylist denylist = new TokenDenylist(since -> new Revocations(now, committed.stream()
+			.filter(row -> !row.revokedAt().isBefore(since.minus(OVERLAP)))
+			.map(row -> new Revocation(row.sessionId(), Instant.now().plus(Duration.ofMinutes(15))))
+			.toList()));
+
+	@Test
+	void revocationCommittedAfterALaterSyncIsStillPickedUp() {
+		committed.add(new Row("early", now.minusSeconds(5)));
+		// Stamped now, but its transaction has not committed yet
+		Row late = new Row("late", now);
+		now = now.plusSeconds(2);
+		denylist.sync();
+		assertTrue(denylist.isRevoked("early"));
+		assertFalse(denylist.isRevoked("late"));
+
+		committed.add(late);
+		now = now.plusSeconds(2);
+		denylist.sync();
+		assertTrue(denylist.isRevoked("late"));
+	}
+
+	@Test
+	void sessionsAddedWhileTheFilterIsRebuiltAreKept() throws Exception {
+		// Every sync brings expired revocations, so every sync rebuilds the filter
+		AtomicInteger syncs = new AtomicInteger();
+		TokenDenylist rebuilding = new TokenDenylist(since -> new Revocations(Instant.now(),
+				IntStream.range(0, 500).mapToObj(i -> new Revocation("expired-" + syncs.get() + "-" + i,
+						Instant.now().minusSeconds(1))).toList()));
+		AtomicInteger added = new AtomicInteger();
+		AtomicInteger missed = new AtomicInteger();
+		Thread syncer = Thread.ofPlatform().start(() -> {
+			for (int i = 0; i < 100; i++) {
+				syncs.incrementAndGet();
+				int before = added.get();
+				rebuilding.sync();
+				// A later rebuild would put back what this one lost, so look right away
+				for (int id = before; id < added.get(); id++) {
+					if (!rebuilding.isRevoked("live-" + id)) {
+						missed.incrementAndGet();
+					}
+				}
+			}
+		});
+		Instant expiresAt = Instant.now().plus(Duration.ofMinutes(15));
+		while (syncer.isAlive() && added.get() < 100_000) {
+			rebuilding.add("live-" + added.get(), expiresAt);
+			added.incrementAndGet();
+		}
+		syncer.join();
+		assertEquals(0, missed.get());
+	}
+
+	@Test
+	void unknownAndMissingSessionsAreNotRevoked() {
+		committed.add(new Row("revoked", now));
+		denylist.sync();
+		assertFalse(denylist.isRevoked("other"));
+		assertFalse(denylist.isRevoked(null));
+	}
+}
@@ -0,0 +1,40 @@
+package com.example.ticketservice.config;
+
+import com.example.common.jdbc.QueryPlanVerifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+
+/**
+ * The keyed repository lookups whose plans {@link QueryPlanVerifier} checks at startup.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.query-plan-check.enabled", havingValue = "true")
+public class QueryPlanConfig {
+    private static final Map<String, String> REPOSITORY_QUERIES = Map.of(
+            "TicketRepository.findByUserId",
+            "SELECT * FROM tickets WHERE user_id = 1",
+            "TicketRepository.findByScheduleId",
+            "SELECT * FROM tickets WHERE schedule_id = 1",
+            "TicketRepository.findByFlightId",
+            "SELECT * FROM tickets WHERE flight_id = 1",
+            "TicketRepository.findByScheduleIdInAndStatus",
+            "SELECT id, user_id, flight_id, schedule_id FROM tickets WHERE schedule_id IN (1, 2) AND status = 0",
+            "WaitlistRepository.findFirstByScheduleIdAndStateOrderByIdAsc",
+            "SELECT * FROM waitlist_entries WHERE schedule_id = 1 AND state = 'WAITING' ORDER BY id LIMIT 1",
+            "WaitlistRepository.findByUserIdOrderByIdDesc",
+            "SELECT * FROM waitlist_entries WHERE user_id = 1 ORDER BY id DESC",
+            "ArchivedTicketRepository.findByUserId",
+            "SELECT * FROM tickets_archive WHERE user_id = 1"
+    );
+
+    @Bean
+    public QueryPlanVerifier queryPlanVerifier(JdbcTemplate jdbcTemplate,
+                                               @Value("${app.query-plan-check.fail-on-full-scan:false}") boolean failOnFullScan) {
+        return new QueryPlanVerifier(jdbcTemplate, REPOSITORY_QUERIES, failOnFullScan);
+    }
+}
@@ -1,16 +1,37 @@
 package com.example.ticketservice.config;
 
-import lombok.AllArgsConstructor;
-import lombok.RequiredArgsConstructor;
+import com.example.ticketservice.discovery.DiscoveryProperties;
+import com.example.ticketservice.discovery.LoadBalancingInterceptor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.List;
+
 @Configuration
 public class RestTemplateConfig {
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(@Value("${app.downstream.binary:false}") boolean binary,
+                                     DiscoveryProperties discoveryProperties,
+                                     LoadBalancingInterceptor loadBalancingInterceptor) {
+        // Timeouts bound how long a dead instance can hold a request before it is retried elsewhere
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(discoveryProperties.getConnectTimeout());
+        requestFactory.setReadTimeout(discoveryProperties.getReadTimeout());
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        if (binary) {
+            // Ask FlightService/UserService for CBOR; JSON stays acceptable for error bodies
+            restTemplate.getInterceptors().add((request, body, execution) -> {
+                request.getHeaders().setAccept(List.of(MediaType.APPLICATION_CBOR, MediaType.APPLICATION_JSON));
+                return execution.execute(request, body);
+            });
+        }
+        // Last, so that retries only repeat the request itself
+        restTemplate.getInterceptors().add(loadBalancingInterceptor);
+        return restTemplate;
     }
-}
\ No newline at end of file
+}
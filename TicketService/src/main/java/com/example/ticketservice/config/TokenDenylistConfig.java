@@ -0,0 +1,23 @@
+package com.example.ticketservice.config;
+
+import com.example.common.security.TokenDenylist;
+import com.example.common.security.TokenDenylist.Revocations;
+import com.example.ticketservice.security.ServiceCredentials;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestTemplate;
+
+@Configuration
+public class TokenDenylistConfig {
+    // Local copy of UserService's revoked sessions, so checking an access token's sid never leaves the process
+    @Bean
+    public TokenDenylist tokenDenylist(RestTemplate restTemplate, ServiceCredentials serviceCredentials,
+                                       @Value("${user.service.url}") String userServiceUrl) {
+        return new TokenDenylist(since -> restTemplate.exchange(
+                userServiceUrl + "/api/auth/revocations?since={since}", HttpMethod.GET,
+                new HttpEntity<>(serviceCredentials.headers()), Revocations.class, since.toEpochMilli()).getBody());
+    }
+}
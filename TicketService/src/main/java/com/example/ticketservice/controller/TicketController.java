@@ -1,16 +1,32 @@
 package com.example.ticketservice.controller;
 
+import com.example.ticketservice.dtos.BookingStatusDTO;
+import com.example.ticketservice.dtos.CompactTicketsDTO;
+import com.example.ticketservice.dtos.DisruptionDTO;
+import com.example.ticketservice.dtos.DisruptionResultDTO;
 import com.example.ticketservice.dtos.TicketDTO;
+import com.example.ticketservice.dtos.TicketFilterDTO;
+import com.example.ticketservice.dtos.TicketPageDTO;
+import com.example.ticketservice.dtos.TicketStatsDTO;
+import com.example.ticketservice.dtos.WaitlistEntryDTO;
 import com.example.ticketservice.model.ApiResponse;
+import com.example.ticketservice.service.BookingQueue;
+import com.example.ticketservice.service.BookingQueueFullException;
+import com.example.ticketservice.service.DisruptionService;
+import com.example.ticketservice.service.TicketQueryService;
 import com.example.ticketservice.service.TicketService;
+import com.example.ticketservice.service.WaitlistService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.util.List;
 
 @RestController
@@ -18,6 +34,10 @@ import java.util.List;
 @RequiredArgsConstructor
 public class TicketController {
     private final TicketService ticketService;
+    private final BookingQueue bookingQueue;
+    private final DisruptionService disruptionService;
+    private final WaitlistService waitlistService;
+    private final TicketQueryService ticketQueryService;
 
     private Long getCurrentUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -36,6 +56,40 @@ public class TicketController {
         }
     }
 
+    // Asynchronous booking: accepted at once with a status URL, the ticket is created by a background worker
+    @PostMapping("/bookings")
+    public ResponseEntity<ApiResponse<BookingStatusDTO>> submitBooking(@Valid @RequestBody TicketDTO ticketDTO) {
+        try {
+            ticketDTO.setUserId(getCurrentUserId());
+            BookingStatusDTO booking = bookingQueue.submit(ticketDTO);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/tickets/bookings/" + booking.getBookingId()))
+                    .body(new ApiResponse<>("SUCCESS", "Booking queued", booking));
+        } catch (BookingQueueFullException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new ApiResponse<>("ERROR", e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>("ERROR", e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/bookings/{bookingId}")
+    public ResponseEntity<ApiResponse<BookingStatusDTO>> getBookingStatus(@PathVariable String bookingId) {
+        try {
+            Long userId = getCurrentUserId();
+            return bookingQueue.getStatus(bookingId)
+                    .filter(booking -> booking.getUserId().equals(userId))
+                    .map(booking -> ResponseEntity.ok(new ApiResponse<>("SUCCESS", "Booking " + booking.getState(), booking)))
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                            .body(new ApiResponse<>("ERROR", "Booking not found", null)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>("ERROR", e.getMessage(), null));
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<TicketDTO>> getTicket(@PathVariable Long id) {
         try {
@@ -70,9 +124,10 @@ public class TicketController {
     }
 
     @GetMapping("/my-tickets")
-    public ResponseEntity<ApiResponse<List<TicketDTO>>> getMyTickets() {
+    public ResponseEntity<ApiResponse<List<TicketDTO>>> getMyTickets(
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
         try {
-            List<TicketDTO> tickets = ticketService.getTicketsByUserId(getCurrentUserId());
+            List<TicketDTO> tickets = ticketService.getTicketsByUserId(getCurrentUserId(), includeArchived);
             return ResponseEntity.ok(new ApiResponse<>("SUCCESS", "Tickets retrieved successfully", tickets));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -80,11 +135,98 @@ public class TicketController {
         }
     }
 
+    // Sold-out departures: queue once and get the next cancelled seat, instead of retrying bookings
+    @PostMapping("/waitlist")
+    public ResponseEntity<ApiResponse<WaitlistEntryDTO>> joinWaitlist(@Valid @RequestBody WaitlistEntryDTO request) {
+        try {
+            WaitlistEntryDTO entry = waitlistService.join(request, getCurrentUserId());
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(new ApiResponse<>("SUCCESS", "Added to the waitlist", entry));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>("ERROR", e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/waitlist")
+    public ResponseEntity<ApiResponse<List<WaitlistEntryDTO>>> getMyWaitlist() {
+        try {
+            List<WaitlistEntryDTO> entries = waitlistService.getEntriesByUserId(getCurrentUserId());
+            return ResponseEntity.ok(new ApiResponse<>("SUCCESS", "Waitlist entries retrieved successfully", entries));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>("ERROR", e.getMessage(), null));
+        }
+    }
+
+    @DeleteMapping("/waitlist/{id}")
+    public ResponseEntity<ApiResponse<Void>> leaveWaitlist(@PathVariable Long id) {
+        try {
+            waitlistService.withdraw(id, getCurrentUserId());
+            return ResponseEntity.ok(new ApiResponse<>("SUCCESS", "Removed from the waitlist", null));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>("ERROR", e.getMessage(), null));
+        }
+    }
+
+    // Called by FlightService after a bulk schedule disruption, with the admin's token
+    @PostMapping("/admin/disruptions")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<DisruptionResultDTO>> applyDisruption(
+            @Valid @RequestBody DisruptionDTO disruption) {
+        try {
+            DisruptionResultDTO result = disruptionService.applyDisruption(disruption);
+            return ResponseEntity.ok(new ApiResponse<>("SUCCESS", "Disruption applied to tickets", result));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>("ERROR", e.getMessage(), null));
+        }
+    }
+
+    // Filtered, sorted and keyset-paged in SQL; tickets come without flight, schedule and user details
+    @GetMapping("/admin/query")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<TicketPageDTO>> queryTickets(
+            @ModelAttribute TicketFilterDTO filter,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after) {
+        try {
+            TicketPageDTO page = ticketQueryService.query(filter, sort, direction, limit, after);
+            return ResponseEntity.ok(new ApiResponse<>("SUCCESS", "Tickets retrieved successfully", page));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>("ERROR", e.getMessage(), null));
+        }
+    }
+
+    // Ticket counts and revenue per flight, booking day or status, aggregated by the database
+    @GetMapping("/admin/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<TicketStatsDTO>>> getTicketStats(
+            @ModelAttribute TicketFilterDTO filter,
+            @RequestParam(defaultValue = "flight") String groupBy) {
+        try {
+            List<TicketStatsDTO> stats = ticketQueryService.stats(filter, groupBy);
+            return ResponseEntity.ok(new ApiResponse<>("SUCCESS", "Ticket statistics retrieved successfully", stats));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>("ERROR", e.getMessage(), null));
+        }
+    }
+
     @GetMapping("/admin/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<List<TicketDTO>>> getAllTickets() {
+    public ResponseEntity<ApiResponse<?>> getAllTickets(@RequestParam(defaultValue = "full") String view,
+                                                        @RequestParam(defaultValue = "false") boolean includeArchived) {
         try {
-            List<TicketDTO> tickets = ticketService.getAllTickets();
+            if ("compact".equals(view)) {
+                CompactTicketsDTO tickets = ticketService.getAllTicketsCompact(includeArchived);
+                return ResponseEntity.ok(new ApiResponse<>("SUCCESS", "All tickets retrieved successfully", tickets));
+            }
+            List<TicketDTO> tickets = ticketService.getAllTickets(includeArchived);
             return ResponseEntity.ok(new ApiResponse<>("SUCCESS", "All tickets retrieved successfully", tickets));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -0,0 +1,63 @@
+package com.example.ticketservice.discovery;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Downstream services and where their instances come from, bound from {@code app.discovery.*}.
+ * A request URL whose host is one of the service names here is sent to one of that service's
+ * instances; any other URL is sent as is.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.discovery")
+public class DiscoveryProperties {
+    private Duration refreshInterval = Duration.ofSeconds(30);
+    private Duration connectTimeout = Duration.ofSeconds(1);
+    private Duration readTimeout = Duration.ofSeconds(5);
+    private Map<String, Service> services = new LinkedHashMap<>();
+    private Ejection ejection = new Ejection();
+    private Retry retry = new Retry();
+
+    /**
+     * Exactly one source is used, in this order: a DNS SRV name, a file, the static list.
+     */
+    @Data
+    public static class Service {
+        // Base URLs, e.g. http://10.0.0.5:8081
+        private List<String> instances = new ArrayList<>();
+        // File with one base URL per line, re-read on every refresh; # starts a comment
+        private String file;
+        // SRV record name, e.g. _http._tcp.flight-service.internal; targets are reached over scheme
+        private String dnsSrv;
+        private String scheme = "http";
+    }
+
+    @Data
+    public static class Ejection {
+        // Connection errors or 502/503/504 responses in a row before an instance is taken out of rotation
+        private int consecutiveFailures = 3;
+        // Doubled on every ejection in a row, up to max-time
+        private Duration baseTime = Duration.ofSeconds(10);
+        private Duration maxTime = Duration.ofMinutes(5);
+        // Never eject more than this share of a service's instances
+        private int maxEjectedPercent = 50;
+    }
+
+    @Data
+    public static class Retry {
+        // Further attempts, each on another instance where possible; only GET and HEAD are retried
+        private int maxRetries = 2;
+        // Retries allowed per request sent, so retries cannot multiply load during an outage
+        private double budgetRatio = 0.2;
+        // Retries always available, so a quiet service can still retry
+        private int minBudget = 10;
+    }
+}
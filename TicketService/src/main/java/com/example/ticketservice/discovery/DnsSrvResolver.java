@@ -0,0 +1,52 @@
+package com.example.ticketservice.discovery;
+
+import javax.naming.Context;
+import javax.naming.NamingException;
+import javax.naming.directory.Attribute;
+import javax.naming.directory.DirContext;
+import javax.naming.directory.InitialDirContext;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.List;
+
+/**
+ * Looks up SRV records through the JDK's JNDI DNS provider. Only the records with the lowest
+ * priority value are returned; the others are fallbacks that DNS publishes for its own failover.
+ */
+final class DnsSrvResolver {
+
+    private DnsSrvResolver() {
+    }
+
+    static List<URI> resolve(String name, String scheme) throws NamingException {
+        Hashtable<String, String> env = new Hashtable<>();
+        env.put(Context.INITIAL_CONTEXT_FACTORY, "com.sun.jndi.dns.DnsContextFactory");
+        DirContext context = new InitialDirContext(env);
+        try {
+            Attribute records = context.getAttributes(name, new String[]{"SRV"}).get("SRV");
+            List<URI> instances = new ArrayList<>();
+            if (records == null) {
+                return instances;
+            }
+            int bestPriority = Integer.MAX_VALUE;
+            for (int i = 0; i < records.size(); i++) {
+                // "priority weight port target."
+                String[] fields = records.get(i).toString().trim().split("\\s+");
+                int priority = Integer.parseInt(fields[0]);
+                if (priority > bestPriority) {
+                    continue;
+                }
+                if (priority < bestPriority) {
+                    bestPriority = priority;
+                    instances.clear();
+                }
+                String target = fields[3].endsWith(".") ? fields[3].substring(0, fields[3].length() - 1) : fields[3];
+                instances.add(URI.create(scheme + "://" + target + ":" + fields[2]));
+            }
+            return instances;
+        } finally {
+            context.close();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.ticketservice.discovery;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Where the instances of one service are listed. Resolved again on every registry refresh.
+ */
+@FunctionalInterface
+public interface InstanceSource {
+
+    List<URI> resolve() throws Exception;
+
+    static InstanceSource of(DiscoveryProperties.Service service) {
+        if (service.getDnsSrv() != null && !service.getDnsSrv().isBlank()) {
+            return () -> DnsSrvResolver.resolve(service.getDnsSrv(), service.getScheme());
+        }
+        if (service.getFile() != null && !service.getFile().isBlank()) {
+            Path file = Path.of(service.getFile());
+            return () -> parse(readLines(file));
+        }
+        List<URI> instances = parse(service.getInstances());
+        return () -> instances;
+    }
+
+    private static List<String> readLines(Path file) throws IOException {
+        return Files.readAllLines(file).stream()
+                .map(line -> line.replaceFirst("#.*", ""))
+                .toList();
+    }
+
+    private static List<URI> parse(List<String> urls) {
+        return urls.stream()
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .map(url -> URI.create(url.endsWith("/") ? url.substring(0, url.length() - 1) : url))
+                .toList();
+    }
+}
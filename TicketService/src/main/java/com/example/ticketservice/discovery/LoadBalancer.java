@@ -0,0 +1,91 @@
+package com.example.ticketservice.discovery;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks an instance by the power of two choices: two random healthy instances are compared and
+ * the one with fewer requests in flight wins. That tracks the least loaded instance almost as well
+ * as a full scan, without every caller converging on the same one.
+ * <p>
+ * Health is passive: a run of connection errors or 502/503/504 responses ejects an instance for a while,
+ * doubling with each ejection in a row. When too many instances are ejected, or all that remain
+ * have already been tried, ejected ones are used again rather than failing the request outright.
+ */
+@Slf4j
+@Component
+public class LoadBalancer {
+    private final ServiceRegistry registry;
+    private final DiscoveryProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public LoadBalancer(ServiceRegistry registry, DiscoveryProperties properties, MeterRegistry meterRegistry) {
+        this.registry = registry;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param tried instances already used for this request, avoided where there is a choice
+     * @return the instance to send to, or null if the service has no instances
+     */
+    public ServiceInstance choose(String service, Set<ServiceInstance> tried) {
+        List<ServiceInstance> all = registry.instancesOf(service);
+        if (all.isEmpty()) {
+            return null;
+        }
+        long now = System.nanoTime();
+        List<ServiceInstance> candidates = new ArrayList<>(all.size());
+        for (ServiceInstance instance : all) {
+            if (!instance.isEjected(now) && !tried.contains(instance)) {
+                candidates.add(instance);
+            }
+        }
+        if (candidates.isEmpty()) {
+            candidates.addAll(all);
+            candidates.removeAll(tried);
+            if (candidates.isEmpty()) {
+                candidates.addAll(all);
+            }
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = candidates.get(first);
+        ServiceInstance b = candidates.get(second);
+        return a.outstanding() <= b.outstanding() ? a : b;
+    }
+
+    public void recordSuccess(ServiceInstance instance) {
+        instance.succeeded();
+    }
+
+    public void recordFailure(String service, ServiceInstance instance) {
+        DiscoveryProperties.Ejection ejection = properties.getEjection();
+        if (!instance.failed(ejection.getConsecutiveFailures())) {
+            return;
+        }
+        List<ServiceInstance> all = registry.instancesOf(service);
+        long now = System.nanoTime();
+        long ejected = all.stream().filter(other -> other.isEjected(now)).count();
+        if ((ejected + 1) * 100 > (long) all.size() * ejection.getMaxEjectedPercent()) {
+            return;
+        }
+        instance.eject(now, ejection.getBaseTime().toNanos(), ejection.getMaxTime().toNanos());
+        meterRegistry.counter("downstream.ejections", "service", service).increment();
+        log.warn("Ejected {} instance {} after {} consecutive failures", service, instance,
+                ejection.getConsecutiveFailures());
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.ticketservice.discovery;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.support.HttpRequestWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends requests addressed to a service name (e.g. {@code http://flight-service/flights/1}) to
+ * one of its instances. GET and HEAD requests that fail with a connection error or 502/503/504
+ * are retried on another instance while the service's retry budget allows; other methods are
+ * never retried, since the first attempt may have been applied. Only those failures count
+ * against the instance's health: any other status, a 500 included, is the service answering,
+ * e.g. FlightService reporting an unknown flight.
+ * <p>
+ * Must be the last interceptor: retries re-run only the actual request execution.
+ */
+@Slf4j
+@Component
+public class LoadBalancingInterceptor implements ClientHttpRequestInterceptor {
+    private final ServiceRegistry registry;
+    private final LoadBalancer loadBalancer;
+    private final DiscoveryProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RetryBudget> budgets = new ConcurrentHashMap<>();
+
+    public LoadBalancingInterceptor(ServiceRegistry registry, LoadBalancer loadBalancer,
+                                    DiscoveryProperties properties, MeterRegistry meterRegistry) {
+        this.registry = registry;
+        this.loadBalancer = loadBalancer;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String service = request.getURI().getHost();
+        if (!registry.isRegistered(service)) {
+            return execution.execute(request, body);
+        }
+        boolean idempotent = request.getMethod() == HttpMethod.GET || request.getMethod() == HttpMethod.HEAD;
+        RetryBudget budget = budgets.computeIfAbsent(service, name -> new RetryBudget(
+                properties.getRetry().getBudgetRatio(), properties.getRetry().getMinBudget()));
+        budget.requestSent();
+
+        Set<ServiceInstance> tried = new HashSet<>();
+        for (int attempt = 0; ; attempt++) {
+            ServiceInstance instance = loadBalancer.choose(service, tried);
+            if (instance == null) {
+                throw new IOException("No instances available for " + service);
+            }
+            tried.add(instance);
+            boolean mayRetry = idempotent && attempt < properties.getRetry().getMaxRetries();
+            instance.started();
+            try {
+                ClientHttpResponse response = execution.execute(routed(request, instance), body);
+                int status = response.getStatusCode().value();
+                if (status != 502 && status != 503 && status != 504) {
+                    loadBalancer.recordSuccess(instance);
+                    return response;
+                }
+                loadBalancer.recordFailure(service, instance);
+                if (mayRetry && retry(service, budget)) {
+                    log.debug("Retrying {} {} after {} from {}", request.getMethod(), request.getURI(), status, instance);
+                    response.close();
+                    continue;
+                }
+                return response;
+            } catch (IOException e) {
+                loadBalancer.recordFailure(service, instance);
+                if (mayRetry && retry(service, budget)) {
+                    log.debug("Retrying {} {} after error from {}: {}", request.getMethod(), request.getURI(),
+                            instance, e.getMessage());
+                    continue;
+                }
+                throw e;
+            } finally {
+                instance.finished();
+            }
+        }
+    }
+
+    private boolean retry(String service, RetryBudget budget) {
+        if (!budget.tryRetry()) {
+            meterRegistry.counter("downstream.retries", "service", service, "outcome", "budget_exhausted").increment();
+            return false;
+        }
+        meterRegistry.counter("downstream.retries", "service", service, "outcome", "retried").increment();
+        return true;
+    }
+
+    private static HttpRequest routed(HttpRequest request, ServiceInstance instance) {
+        URI base = instance.getBaseUri();
+        URI uri = UriComponentsBuilder.fromUri(request.getURI())
+                .scheme(base.getScheme())
+                .host(base.getHost())
+                .port(base.getPort())
+                .build(true)
+                .toUri();
+        return new HttpRequestWrapper(request) {
+            @Override
+            public URI getURI() {
+                return uri;
+            }
+        };
+    }
+}
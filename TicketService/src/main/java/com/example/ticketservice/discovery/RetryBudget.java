@@ -0,0 +1,36 @@
+package com.example.ticketservice.discovery;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps retries to a fraction of the requests sent. Every request deposits {@code ratio} of a
+ * token and every retry spends a whole one. The balance starts at {@code minBudget} and is capped
+ * at twice that, so a quiet period cannot bank a large burst of retries. Kept in thousandths.
+ */
+class RetryBudget {
+    private final long deposit;
+    private final long cap;
+    private final AtomicLong balance;
+
+    RetryBudget(double ratio, int minBudget) {
+        this.deposit = Math.round(ratio * 1000);
+        this.cap = Math.max(1, minBudget) * 1000L * 2;
+        this.balance = new AtomicLong(Math.max(1, minBudget) * 1000L);
+    }
+
+    void requestSent() {
+        balance.accumulateAndGet(deposit, (current, amount) -> Math.min(cap, current + amount));
+    }
+
+    boolean tryRetry() {
+        while (true) {
+            long current = balance.get();
+            if (current < 1000) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - 1000)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.ticketservice.discovery;
+
+import lombok.Getter;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One instance of a downstream service together with the state the load balancer keeps about it.
+ * The state survives registry refreshes as long as the instance stays listed.
+ */
+public class ServiceInstance {
+    @Getter
+    private final URI baseUri;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile int ejections;
+    private volatile long ejectedUntil;
+
+    public ServiceInstance(URI baseUri) {
+        this.baseUri = baseUri;
+    }
+
+    public int outstanding() {
+        return outstanding.get();
+    }
+
+    void started() {
+        outstanding.incrementAndGet();
+    }
+
+    void finished() {
+        outstanding.decrementAndGet();
+    }
+
+    boolean isEjected(long now) {
+        return ejectedUntil - now > 0;
+    }
+
+    /**
+     * @return true if this failure completed a run long enough to eject the instance
+     */
+    boolean failed(int threshold) {
+        return consecutiveFailures.incrementAndGet() >= threshold;
+    }
+
+    void succeeded() {
+        consecutiveFailures.set(0);
+        ejections = 0;
+    }
+
+    void eject(long now, long baseNanos, long maxNanos) {
+        long duration = Math.min(maxNanos, baseNanos << Math.min(ejections, 20));
+        ejections++;
+        ejectedUntil = now + duration;
+        consecutiveFailures.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return baseUri.toString();
+    }
+}
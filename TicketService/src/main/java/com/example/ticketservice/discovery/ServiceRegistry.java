@@ -0,0 +1,63 @@
+package com.example.ticketservice.discovery;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The current instances of every configured downstream service. Lists are replaced wholesale on
+ * refresh; an instance that is still listed keeps its load and health state. A failed lookup keeps
+ * the previous list rather than dropping a service from rotation.
+ */
+@Slf4j
+@Component
+public class ServiceRegistry {
+    private final Map<String, InstanceSource> sources = new LinkedHashMap<>();
+    private final Map<String, List<ServiceInstance>> instances = new ConcurrentHashMap<>();
+
+    public ServiceRegistry(DiscoveryProperties properties) {
+        properties.getServices().forEach((name, service) -> sources.put(name, InstanceSource.of(service)));
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "#{@discoveryProperties.refreshInterval.toMillis()}",
+            initialDelayString = "#{@discoveryProperties.refreshInterval.toMillis()}")
+    public void refresh() {
+        sources.forEach((name, source) -> {
+            try {
+                List<URI> resolved = source.resolve();
+                List<ServiceInstance> current = instances.getOrDefault(name, List.of());
+                List<ServiceInstance> updated = new ArrayList<>(resolved.size());
+                for (URI uri : resolved) {
+                    updated.add(current.stream()
+                            .filter(instance -> instance.getBaseUri().equals(uri))
+                            .findFirst()
+                            .orElseGet(() -> new ServiceInstance(uri)));
+                }
+                if (!updated.equals(current)) {
+                    log.info("Instances of {}: {}", name, updated);
+                }
+                instances.put(name, List.copyOf(updated));
+            } catch (Exception e) {
+                log.warn("Could not resolve instances of {}, keeping {}: {}", name,
+                        instances.getOrDefault(name, List.of()), e.getMessage());
+            }
+        });
+    }
+
+    public boolean isRegistered(String service) {
+        return service != null && sources.containsKey(service);
+    }
+
+    public List<ServiceInstance> instancesOf(String service) {
+        return instances.getOrDefault(service, List.of());
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.ticketservice.dtos;
+
+import com.example.ticketservice.model.BookingState;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingStatusDTO {
+    private String bookingId;
+    @JsonIgnore
+    private Long userId;
+    private BookingState state;
+    // Set once CONFIRMED
+    private Long ticketId;
+    // Reason, once REJECTED
+    private String message;
+    private Instant submittedAt;
+    private Instant completedAt;
+}
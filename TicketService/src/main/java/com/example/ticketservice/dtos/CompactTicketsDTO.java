@@ -0,0 +1,26 @@
+package com.example.ticketservice.dtos;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ticket listing with every referenced flight, schedule and user serialized once and looked up
+ * by the ids carried on each ticket, instead of being embedded in every ticket.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CompactTicketsDTO {
+    @JsonIgnoreProperties({"flight", "schedule", "user"})
+    private List<TicketDTO> tickets;
+    private Map<Long, FlightDTO> flights;
+    @JsonIgnoreProperties({"flightDTO"})
+    private Map<Long, ScheduleDTO> schedules;
+    @JsonIgnoreProperties({"password"})
+    private Map<Long, UserDTO> users;
+}
@@ -0,0 +1,25 @@
+package com.example.ticketservice.dtos;
+
+import com.example.ticketservice.model.FlightStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DisruptionDTO {
+    @NotEmpty(message = "Schedule ids are required")
+    private List<Long> scheduleIds;
+    // DELAYED or CANCELLED
+    @NotNull(message = "Flight status is required")
+    private FlightStatus flightStatus;
+    private Integer delayMinutes;
+    private String reason;
+    // False when the flight is being deleted and has no seats to give back to
+    private Boolean releaseSeats;
+}
@@ -0,0 +1,17 @@
+package com.example.ticketservice.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DisruptionResultDTO {
+    private Integer ticketsUpdated;
+    private Integer ticketsCancelled;
+    private Integer seatsReleased;
+    // Seats of cancelled tickets FlightService did not take yet; they are retried in the background
+    private Integer seatsPending;
+    private Integer usersNotified;
+}
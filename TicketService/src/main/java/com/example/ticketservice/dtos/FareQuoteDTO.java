@@ -0,0 +1,20 @@
+package com.example.ticketservice.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FareQuoteDTO {
+    private Long flightId;
+    private Long scheduleId;
+    private Integer fare;
+    private String fareBucket;
+    private Instant expiresAt;
+    private String nonce;
+    private String signature;
+}
@@ -22,6 +22,11 @@ public class TicketDTO {
     private String status;
     private LocalDateTime bookingTime;
     private LocalDateTime lastUpdated;
+    private String disruption;
+    // Moved to the archive after departure; read-only
+    private boolean archived;
+    // Signed fare from FlightService; the price is taken from here at booking time
+    private FareQuoteDTO quote;
 
     private FlightDTO flight;
     private ScheduleDTO schedule;
@@ -0,0 +1,27 @@
+package com.example.ticketservice.dtos;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Query parameters shared by the admin ticket query and statistics; every filter is optional.
+ */
+@Data
+@NoArgsConstructor
+public class TicketFilterDTO {
+    // BOOKED, CANCELLED or COMPLETED
+    private String status;
+    private Long flightId;
+    private Long scheduleId;
+    // Booking time range, from inclusive and to exclusive
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime bookedFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime bookedTo;
+    // Start of the passenger name, case as stored
+    private String passenger;
+    private boolean includeArchived;
+}
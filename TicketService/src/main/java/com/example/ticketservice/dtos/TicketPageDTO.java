@@ -0,0 +1,18 @@
+package com.example.ticketservice.dtos;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TicketPageDTO {
+    @JsonIgnoreProperties({"flight", "schedule", "user", "quote"})
+    private List<TicketDTO> tickets;
+    // Pass as after= for the next page; null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,17 @@
+package com.example.ticketservice.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TicketStatsDTO {
+    // Flight id, day (yyyy-MM-dd) or status, depending on groupBy
+    private String key;
+    private Long tickets;
+    private Long cancelled;
+    // Sum of the prices of tickets that were not cancelled
+    private Double revenue;
+}
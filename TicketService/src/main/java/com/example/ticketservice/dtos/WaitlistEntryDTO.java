@@ -0,0 +1,28 @@
+package com.example.ticketservice.dtos;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WaitlistEntryDTO {
+    private Long id;
+    @NotNull(message = "Schedule id is required")
+    private Long scheduleId;
+    @NotNull(message = "Flight id is required")
+    private Long flightId;
+    @NotBlank(message = "Passenger name is required")
+    private String passengerName;
+    private String state;
+    // 1 for the next passenger to get a seat; set while WAITING
+    private Long position;
+    // Set once PROMOTED
+    private Long ticketId;
+    private LocalDateTime createdAt;
+}
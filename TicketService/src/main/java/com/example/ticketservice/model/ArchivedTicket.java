@@ -0,0 +1,34 @@
+package com.example.ticketservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A ticket moved out of {@code tickets} by TicketArchiver, keeping its id; read-only.
+ */
+@Entity
+@Table(name = "tickets_archive")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArchivedTicket {
+    @Id
+    private Long id;
+    private Long userId;
+    private Long flightId;
+    private Long scheduleId;
+    private String passengerName;
+    private String seatNumber;
+    private Double price;
+    private TicketStatus status;
+    private LocalDateTime bookingTime;
+    private LocalDateTime lastUpdated;
+    @Enumerated(EnumType.STRING)
+    private FlightStatus disruption;
+    private LocalDateTime departureTime;
+    private LocalDateTime archivedAt;
+}
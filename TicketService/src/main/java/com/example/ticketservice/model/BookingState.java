@@ -0,0 +1,7 @@
+package com.example.ticketservice.model;
+
+public enum BookingState {
+    QUEUED,
+    CONFIRMED,
+    REJECTED
+}
@@ -25,4 +25,7 @@ public class Ticket {
     private TicketStatus status;
     private LocalDateTime bookingTime;
     private LocalDateTime lastUpdated;
+    // DELAYED or CANCELLED once the departure is disrupted; null otherwise
+    @Enumerated(EnumType.STRING)
+    private FlightStatus disruption;
 }
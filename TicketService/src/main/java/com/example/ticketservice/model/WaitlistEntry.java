@@ -0,0 +1,29 @@
+package com.example.ticketservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "waitlist_entries")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WaitlistEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Long scheduleId;
+    private Long flightId;
+    private Long userId;
+    private String passengerName;
+    @Enumerated(EnumType.STRING)
+    private WaitlistState state;
+    // The ticket it was promoted to
+    private Long ticketId;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
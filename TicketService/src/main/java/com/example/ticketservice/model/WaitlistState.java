@@ -0,0 +1,10 @@
+package com.example.ticketservice.model;
+
+public enum WaitlistState {
+    WAITING,
+    // Holds a ticket now
+    PROMOTED,
+    WITHDRAWN,
+    // The departure was cancelled
+    CANCELLED
+}
@@ -0,0 +1,10 @@
+package com.example.ticketservice.repository;
+
+import com.example.ticketservice.model.ArchivedTicket;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ArchivedTicketRepository extends JpaRepository<ArchivedTicket, Long> {
+    List<ArchivedTicket> findByUserId(Long userId);
+}
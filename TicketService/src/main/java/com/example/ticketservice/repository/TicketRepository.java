@@ -1,9 +1,19 @@
 package com.example.ticketservice.repository;
 
+import com.example.ticketservice.model.FlightStatus;
 import com.example.ticketservice.model.Ticket;
+import com.example.ticketservice.model.TicketStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface TicketRepository extends JpaRepository<Ticket , Long> {
     List<Ticket> findByUserId(Long userId);
@@ -11,4 +21,27 @@ public interface TicketRepository extends JpaRepository<Ticket , Long> {
 
     List<Ticket> findByFlightId(Long flightId);
 
+    // For a cancellation: a concurrent disruption of the same ticket waits for it, and then sees it cancelled
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Ticket t WHERE t.id = :id")
+    Optional<Ticket> findByIdForUpdate(@Param("id") Long id);
+
+    // Same index as findByScheduleId, many schedules per round trip, and only the columns a disruption needs.
+    // Locked, so a cancellation cannot slip in between this read and the UPDATE and free the same seat again
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<AffectedTicket> findByScheduleIdInAndStatus(Collection<Long> scheduleIds, TicketStatus status);
+
+    @Modifying
+    @Query("UPDATE Ticket t SET t.status = :status, t.disruption = :disruption, t.lastUpdated = :now " +
+            "WHERE t.id IN :ids AND t.status = com.example.ticketservice.model.TicketStatus.BOOKED")
+    int applyDisruption(@Param("ids") Collection<Long> ids, @Param("status") TicketStatus status,
+                        @Param("disruption") FlightStatus disruption, @Param("now") LocalDateTime now);
+
+    interface AffectedTicket {
+        Long getId();
+        Long getUserId();
+        Long getFlightId();
+        Long getScheduleId();
+    }
+
 }
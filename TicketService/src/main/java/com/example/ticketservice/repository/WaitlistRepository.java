@@ -0,0 +1,43 @@
+package com.example.ticketservice.repository;
+
+import com.example.ticketservice.model.WaitlistEntry;
+import com.example.ticketservice.model.WaitlistState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface WaitlistRepository extends JpaRepository<WaitlistEntry, Long> {
+    // Head of the queue, read off idx_waitlist_schedule_state
+    Optional<WaitlistEntry> findFirstByScheduleIdAndStateOrderByIdAsc(Long scheduleId, WaitlistState state);
+
+    List<WaitlistEntry> findByUserIdOrderByIdDesc(Long userId);
+
+    boolean existsByScheduleIdAndUserIdAndState(Long scheduleId, Long userId, WaitlistState state);
+
+    long countByScheduleIdAndStateAndIdLessThan(Long scheduleId, WaitlistState state, Long id);
+
+    // Conditional, so an entry is promoted or withdrawn once however many instances try
+    @Modifying
+    @Query("UPDATE WaitlistEntry e SET e.state = com.example.ticketservice.model.WaitlistState.PROMOTED, " +
+            "e.ticketId = :ticketId, e.updatedAt = :now " +
+            "WHERE e.id = :id AND e.state = com.example.ticketservice.model.WaitlistState.WAITING")
+    int promote(@Param("id") Long id, @Param("ticketId") Long ticketId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE WaitlistEntry e SET e.state = com.example.ticketservice.model.WaitlistState.WITHDRAWN, " +
+            "e.updatedAt = :now " +
+            "WHERE e.id = :id AND e.userId = :userId AND e.state = com.example.ticketservice.model.WaitlistState.WAITING")
+    int withdraw(@Param("id") Long id, @Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE WaitlistEntry e SET e.state = com.example.ticketservice.model.WaitlistState.CANCELLED, " +
+            "e.updatedAt = :now " +
+            "WHERE e.scheduleId IN :scheduleIds AND e.state = com.example.ticketservice.model.WaitlistState.WAITING")
+    int cancelForSchedules(@Param("scheduleIds") Collection<Long> scheduleIds, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,98 @@
+package com.example.ticketservice.security;
+
+import com.example.ticketservice.dtos.FareQuoteDTO;
+import com.example.ticketservice.dtos.TicketDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Checks the fare quote a booking carries, locally: the HMAC FlightService signed it with (over
+ * {@code flightId:scheduleId:fare:expiresAt(epoch seconds):nonce}), its expiry, and that it is for
+ * the booked flight and schedule. The ticket price is then taken from the quote, never from the
+ * client. Each quote's nonce is redeemed in {@code fare_quote_redemptions}, so a quote cannot be
+ * replayed for more bookings within its lifetime.
+ */
+@Component
+public class FareQuoteVerifier {
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private final SecretKeySpec key;
+    private final JdbcTemplate jdbcTemplate;
+
+    public FareQuoteVerifier(JdbcTemplate jdbcTemplate, @Value("${app.fares.quote-secret:}") String quoteSecret) {
+        if (!StringUtils.hasText(quoteSecret) || quoteSecret.getBytes(StandardCharsets.UTF_8).length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("FARE_QUOTE_SECRET (app.fares.quote-secret) must be set to at least "
+                    + MIN_SECRET_BYTES + " bytes");
+        }
+        this.key = new SecretKeySpec(quoteSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Sets the ticket's price from its quote and uses the quote up. Called inside the booking's
+     * transaction, a booking that fails leaves the quote usable again.
+     *
+     * @throws IllegalArgumentException if the quote is missing, expired, for another booking, forged
+     *                                  or already used
+     */
+    public void applyQuote(TicketDTO ticket) {
+        FareQuoteDTO quote = ticket.getQuote();
+        if (quote == null || quote.getFare() == null || quote.getExpiresAt() == null || quote.getNonce() == null
+                || quote.getSignature() == null) {
+            throw new IllegalArgumentException("A fare quote is required to book");
+        }
+        if (!ticket.getFlightId().equals(quote.getFlightId()) || !ticket.getScheduleId().equals(quote.getScheduleId())) {
+            throw new IllegalArgumentException("Fare quote is for a different flight or schedule");
+        }
+        if (quote.getExpiresAt().isBefore(Instant.now())) {
+            throw new IllegalArgumentException("Fare quote has expired, please request a new one");
+        }
+        byte[] expected = sign(quote.getFlightId() + ":" + quote.getScheduleId() + ":" + quote.getFare() + ":"
+                + quote.getExpiresAt().getEpochSecond() + ":" + quote.getNonce());
+        byte[] actual;
+        try {
+            actual = Base64.getUrlDecoder().decode(quote.getSignature());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid fare quote");
+        }
+        if (!MessageDigest.isEqual(expected, actual)) {
+            throw new IllegalArgumentException("Invalid fare quote");
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO fare_quote_redemptions (nonce, expires_at) VALUES (?, ?)",
+                    quote.getNonce(), Timestamp.from(quote.getExpiresAt()));
+        } catch (DuplicateKeyException e) {
+            throw new IllegalArgumentException("Fare quote has already been used, please request a new one");
+        }
+        ticket.setPrice(quote.getFare().doubleValue());
+    }
+
+    // Expired quotes are refused before their nonce is looked at, so their redemptions can go
+    @Scheduled(fixedDelayString = "${app.fares.redemption-purge-interval-ms:600000}")
+    public void purgeRedemptions() {
+        jdbcTemplate.update("DELETE FROM fare_quote_redemptions WHERE expires_at < ?", Timestamp.from(Instant.now()));
+    }
+
+    private byte[] sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not verify fare quote", e);
+        }
+    }
+}
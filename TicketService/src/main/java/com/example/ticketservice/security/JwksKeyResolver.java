@@ -0,0 +1,81 @@
+package com.example.ticketservice.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigInteger;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves token signing keys from UserService's JWKS endpoint. Keys are held in memory and
+ * refreshed in the background; a token with an unknown kid (a freshly rotated key) triggers an
+ * immediate refetch, rate-limited so bogus kids cannot hammer UserService.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JwksKeyResolver extends SigningKeyResolverAdapter {
+    private static final long MIN_REFETCH_INTERVAL_MS = 30_000;
+
+    private final RestTemplate restTemplate;
+    private volatile Map<String, Key> keys = Map.of();
+    private volatile long lastFetch;
+
+    @Value("${user.service.url}")
+    private String userServiceUrl;
+
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        String keyId = header.getKeyId();
+        Key key = keys.get(keyId);
+        if (key == null && System.currentTimeMillis() - lastFetch > MIN_REFETCH_INTERVAL_MS) {
+            refresh();
+            key = keys.get(keyId);
+        }
+        if (key == null) {
+            throw new JwtException("Unknown signing key: " + keyId);
+        }
+        return key;
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.jwks.refresh-interval-ms:300000}")
+    public synchronized void refresh() {
+        lastFetch = System.currentTimeMillis();
+        try {
+            JwkSet jwkSet = restTemplate.getForObject(userServiceUrl + "/.well-known/jwks.json", JwkSet.class);
+            if (jwkSet == null || jwkSet.keys() == null) {
+                return;
+            }
+            Map<String, Key> fetched = new HashMap<>();
+            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+            for (Map<String, String> jwk : jwkSet.keys()) {
+                if ("RSA".equals(jwk.get("kty"))) {
+                    fetched.put(jwk.get("kid"), keyFactory.generatePublic(new RSAPublicKeySpec(
+                            new BigInteger(1, Base64.getUrlDecoder().decode(jwk.get("n"))),
+                            new BigInteger(1, Base64.getUrlDecoder().decode(jwk.get("e"))))));
+                }
+            }
+            keys = Map.copyOf(fetched);
+            log.debug("Loaded {} token verification keys", fetched.size());
+        } catch (Exception e) {
+            log.warn("Could not refresh token verification keys from UserService: {}", e.getMessage());
+        }
+    }
+
+    private record JwkSet(List<Map<String, String>> keys) {
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.ticketservice.security;
 
+import com.example.common.security.TokenDenylist;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,15 +9,19 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Component
@@ -25,25 +31,48 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
+    // Shared with the API gateway; empty means identity headers are never trusted
+    @Value("${app.security.gateway.secret:}")
+    private String gatewaySecret;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         
         try {
+            if (authenticateFromGateway(request)) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+
             String jwt = extractJwtFromRequest(request);
             log.debug("Extracted JWT token: {}", jwt != null ? "present" : "null");
 
             if (StringUtils.hasText(jwt)) {
                 try {
-                    Long userId = jwtUtil.extractUserId(jwt);
-                    String role = jwtUtil.extractRole(jwt);
+                    Claims claims = jwtUtil.extractAllClaims(jwt);
+                    if (tokenDenylist.isRevoked(jwtUtil.extractSessionId(claims))) {
+                        log.debug("Rejected token for revoked session");
+                        filterChain.doFilter(request, response);
+                        return;
+                    }
+                    Long userId = jwtUtil.extractUserId(claims);
+                    String role = jwtUtil.extractRole(claims);
                     log.debug("Extracted userId: {}, role: {}", userId, role);
 
                     if (userId != null && StringUtils.hasText(role)) {
                         UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userId,
                             null,
-                            List.of(new SimpleGrantedAuthority("ROLE_" + role))
+                            // extractRole strips the prefixes: "USER,ADMIN" for a user with both roles
+                            AuthorityUtils.commaSeparatedStringToAuthorityList(Arrays.stream(role.split(","))
+                                    .map(String::trim)
+                                    .filter(StringUtils::hasText)
+                                    .map(name -> "ROLE_" + name)
+                                    .collect(Collectors.joining(",")))
                         );
 
                         SecurityContextHolder.getContext().setAuthentication(authToken);
@@ -60,6 +89,30 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Takes the identity the gateway already verified (token signature and revocation) from its
+     * headers, so the token is not parsed a second time. Only honoured with the shared secret.
+     */
+    private boolean authenticateFromGateway(HttpServletRequest request) {
+        String secret = request.getHeader("X-Gateway-Secret");
+        String userId = request.getHeader("X-User-Id");
+        if (!StringUtils.hasText(gatewaySecret) || secret == null || !StringUtils.hasText(userId)
+                || !MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8),
+                        gatewaySecret.getBytes(StandardCharsets.UTF_8))) {
+            return false;
+        }
+        // Comma-separated authorities as in the token, e.g. ROLE_USER,ROLE_ADMIN
+        String roles = request.getHeader("X-User-Roles");
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+            Long.valueOf(userId),
+            null,
+            AuthorityUtils.commaSeparatedStringToAuthorityList(StringUtils.hasText(roles) ? roles : "ROLE_USER")
+        );
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+        log.debug("Authentication set from gateway headers for user: {}", userId);
+        return true;
+    }
+
     private String extractJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
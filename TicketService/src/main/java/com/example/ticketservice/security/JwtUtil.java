@@ -3,7 +3,6 @@ package com.example.ticketservice.security;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
 import lombok.AllArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,8 +13,6 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.client.RestTemplate;
 import com.example.ticketservice.dtos.UserDTO;
 
-import java.security.Key;
-import java.util.Base64;
 import java.util.function.Function;
 
 @RequiredArgsConstructor
@@ -23,37 +20,33 @@ import java.util.function.Function;
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
-
     @Value("${user.service.url}")
     private String userServiceUrl;
 
     private final RestTemplate restTemplate;
 
-
-
-    private Key getSigningKey() {
-        if (!StringUtils.hasText(secret)) {
-            throw new IllegalStateException("JWT secret is not configured");
-        }
-        try {
-            byte[] keyBytes = Base64.getDecoder().decode(secret);
-            return Keys.hmacShaKeyFor(keyBytes);
-        } catch (IllegalArgumentException e) {
-            log.error("Error decoding JWT secret: {}", e.getMessage());
-            throw new IllegalStateException("Invalid JWT secret configuration", e);
-        }
-    }
+    private final JwksKeyResolver jwksKeyResolver;
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
 
     public Long extractUserId(String token) {
+        return extractUserId(extractAllClaims(token));
+    }
+
+    /**
+     * Reads the {@code uid} claim; tokens issued before UserService added it fall back to
+     * looking the user up by name.
+     */
+    public Long extractUserId(Claims claims) {
+        Number userId = claims.get("uid", Number.class);
+        if (userId != null) {
+            return userId.longValue();
+        }
         try {
             // First try to get the username from the token
-            String username = extractUsername(token);
+            String username = claims.getSubject();
             if (!StringUtils.hasText(username)) {
                 throw new JwtException("No username found in token");
             }
@@ -84,10 +77,17 @@ public class JwtUtil {
 
     public String extractRole(String token) {
         try {
-            Claims claims = extractAllClaims(token);
-            
-            // Try to get role from authorities claim
-            Object authoritiesObj = claims.get("authorities");
+            return extractRole(extractAllClaims(token));
+        } catch (Exception e) {
+            log.error("Error extracting role: {}", e.getMessage());
+            return "USER"; // Default to USER role on error
+        }
+    }
+
+    public String extractRole(Claims claims) {
+        try {
+            // Try to get role from the roles claim UserService signs, then the older authorities claim
+            Object authoritiesObj = claims.get("roles") != null ? claims.get("roles") : claims.get("authorities");
             if (authoritiesObj != null) {
                 String authorities = authoritiesObj.toString();
                 if (authorities.contains("ROLE_")) {
@@ -118,10 +118,14 @@ public class JwtUtil {
         }
     }
 
-    private Claims extractAllClaims(String token) {
+    public String extractSessionId(Claims claims) {
+        return claims.get("sid", String.class);
+    }
+
+    public Claims extractAllClaims(String token) {
         try {
             return Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
+                    .setSigningKeyResolver(jwksKeyResolver)
                     .build()
                     .parseClaimsJws(token)
                     .getBody();
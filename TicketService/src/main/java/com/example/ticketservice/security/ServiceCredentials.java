@@ -0,0 +1,32 @@
+package com.example.ticketservice.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Headers for calls TicketService makes as itself rather than for a user: the gateway's shared
+ * secret and the ROLE_SERVICE identity, which FlightService and UserService require for their
+ * service-only endpoints.
+ */
+@Component
+public class ServiceCredentials {
+    private final String sharedSecret;
+
+    public ServiceCredentials(@Value("${app.security.gateway.secret:}") String sharedSecret) {
+        this.sharedSecret = sharedSecret;
+    }
+
+    public HttpHeaders headers() {
+        if (!StringUtils.hasText(sharedSecret)) {
+            throw new IllegalStateException("GATEWAY_SHARED_SECRET must be set for service calls");
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Gateway-Secret", sharedSecret);
+        headers.set("X-User-Id", "0");
+        headers.set("X-User-Name", "ticket-service");
+        headers.set("X-User-Roles", "ROLE_SERVICE");
+        return headers;
+    }
+}
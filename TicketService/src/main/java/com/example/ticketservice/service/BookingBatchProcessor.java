@@ -0,0 +1,174 @@
+package com.example.ticketservice.service;
+
+import com.example.ticketservice.dtos.TicketDTO;
+import com.example.ticketservice.model.TicketStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns a batch of queued bookings into tickets with as few round trips as possible: one seat
+ * reservation per flight and one batched INSERT for all tickets of the batch. Flight, schedule
+ * and price were already vouched for by the fare quote checked on admission. If the tickets
+ * cannot be stored, their seats are given back through the {@link SeatReleaseOutbox}.
+ */
+@Slf4j
+@Component
+public class BookingBatchProcessor {
+    private static final String INSERT_TICKET = "INSERT INTO tickets " +
+            "(user_id, flight_id, schedule_id, passenger_name, price, status, booking_time, last_updated) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final FlightSeatClient flightSeatClient;
+    private final SeatReleaseOutbox seatReleaseOutbox;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public BookingBatchProcessor(FlightSeatClient flightSeatClient, SeatReleaseOutbox seatReleaseOutbox,
+                                 JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.flightSeatClient = flightSeatClient;
+        this.seatReleaseOutbox = seatReleaseOutbox;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public record PendingBooking(String bookingId, TicketDTO ticket) {
+    }
+
+    /**
+     * Exactly one of ticketId and error is set.
+     */
+    public record Result(Long ticketId, String error) {
+        static Result rejected(String error) {
+            return new Result(null, error);
+        }
+    }
+
+    /**
+     * @return the outcome of every booking in the batch, by booking id
+     */
+    public Map<String, Result> process(List<PendingBooking> batch) {
+        Map<String, Result> results = new HashMap<>();
+
+        // Group by flight, in arrival order
+        Map<Long, List<PendingBooking>> byFlight = new LinkedHashMap<>();
+        for (PendingBooking booking : batch) {
+            byFlight.computeIfAbsent(booking.ticket().getFlightId(), id -> new ArrayList<>()).add(booking);
+        }
+
+        Map<Long, List<PendingBooking>> reserved = new LinkedHashMap<>();
+        byFlight.forEach((flightId, bookings) -> {
+            List<PendingBooking> seated = reserveSeats(flightId, bookings, results);
+            if (!seated.isEmpty()) {
+                reserved.put(flightId, seated);
+            }
+        });
+        if (reserved.isEmpty()) {
+            return results;
+        }
+
+        List<PendingBooking> toInsert = reserved.values().stream().flatMap(List::stream).toList();
+        try {
+            List<Long> ticketIds = transactionTemplate.execute(status -> insertTickets(toInsert));
+            for (int i = 0; i < toInsert.size(); i++) {
+                results.put(toInsert.get(i).bookingId(), new Result(ticketIds.get(i), null));
+            }
+        } catch (Exception e) {
+            log.error("Could not store {} tickets, releasing their seats: {}", toInsert.size(), e.getMessage());
+            reserved.forEach((flightId, bookings) -> seatReleaseOutbox.releaseUncommitted(flightId, bookings.size()));
+            toInsert.forEach(booking -> results.put(booking.bookingId(), Result.rejected("Booking could not be stored")));
+        }
+        return results;
+    }
+
+    /**
+     * One reservation for the whole group; if the flight cannot seat them all, bookings are seated
+     * one by one in arrival order until it is full.
+     */
+    private List<PendingBooking> reserveSeats(Long flightId, List<PendingBooking> bookings, Map<String, Result> results) {
+        try {
+            flightSeatClient.reserve(flightId, bookings.size());
+            return bookings;
+        } catch (HttpClientErrorException.Conflict e) {
+            List<PendingBooking> seated = new ArrayList<>();
+            boolean full = false;
+            for (PendingBooking booking : bookings) {
+                if (!full && seatOne(flightId, booking)) {
+                    seated.add(booking);
+                } else {
+                    full = true;
+                    results.put(booking.bookingId(), Result.rejected("No seats left on this flight"));
+                }
+            }
+            return seated;
+        } catch (Exception e) {
+            log.error("Could not reserve {} seats on flight {}: {}", bookings.size(), flightId, e.getMessage());
+            bookings.forEach(booking -> results.put(booking.bookingId(), Result.rejected("Flight service unavailable")));
+            return List.of();
+        }
+    }
+
+    private boolean seatOne(Long flightId, PendingBooking booking) {
+        try {
+            flightSeatClient.reserve(flightId, 1);
+            return true;
+        } catch (HttpClientErrorException.Conflict e) {
+            return false;
+        } catch (Exception e) {
+            log.error("Could not reserve a seat on flight {}: {}", flightId, e.getMessage());
+            return false;
+        }
+    }
+
+    private List<Long> insertTickets(List<PendingBooking> bookings) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_TICKET, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        TicketDTO ticket = bookings.get(i).ticket();
+                        ps.setLong(1, ticket.getUserId());
+                        ps.setLong(2, ticket.getFlightId());
+                        ps.setLong(3, ticket.getScheduleId());
+                        ps.setString(4, ticket.getPassengerName());
+                        if (ticket.getPrice() != null) {
+                            ps.setDouble(5, ticket.getPrice());
+                        } else {
+                            ps.setNull(5, Types.DOUBLE);
+                        }
+                        ps.setInt(6, TicketStatus.BOOKED.ordinal());
+                        ps.setTimestamp(7, now);
+                        ps.setTimestamp(8, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return bookings.size();
+                    }
+                },
+                keyHolder);
+        return keyHolder.getKeyList().stream()
+                .map(keys -> ((Number) keys.values().iterator().next()).longValue())
+                .toList();
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.ticketservice.service;
+
+import com.example.ticketservice.dtos.BookingStatusDTO;
+import com.example.ticketservice.dtos.TicketDTO;
+import com.example.ticketservice.model.BookingState;
+import com.example.ticketservice.security.FareQuoteVerifier;
+import com.example.ticketservice.service.BookingBatchProcessor.PendingBooking;
+import com.example.ticketservice.service.BookingBatchProcessor.Result;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission for asynchronous bookings. A booking is accepted into a bounded queue and answered
+ * with its id straight away; a few worker threads drain the queue in micro-batches for
+ * {@link BookingBatchProcessor}, so request threads never wait on FlightService or MySQL. When the
+ * queue is full, {@link #submit} refuses rather than letting the backlog grow.
+ * <p>
+ * Statuses are kept in memory on the instance that accepted the booking, until status-ttl after
+ * it completed.
+ */
+@Slf4j
+@Component
+public class BookingQueue {
+    private final BookingBatchProcessor processor;
+    private final FareQuoteVerifier fareQuoteVerifier;
+    private final BlockingQueue<PendingBooking> queue;
+    private final Map<String, BookingStatusDTO> bookings = new ConcurrentHashMap<>();
+    private final int workers;
+    private final int batchSize;
+    private final Duration statusTtl;
+    private final Counter rejected;
+    private ExecutorService executor;
+    private volatile boolean running;
+
+    public BookingQueue(BookingBatchProcessor processor, FareQuoteVerifier fareQuoteVerifier, MeterRegistry meterRegistry,
+                        @Value("${app.bookings.async.queue-capacity:10000}") int queueCapacity,
+                        @Value("${app.bookings.async.workers:4}") int workers,
+                        @Value("${app.bookings.async.batch-size:100}") int batchSize,
+                        @Value("${app.bookings.async.status-ttl:10m}") Duration statusTtl) {
+        this.processor = processor;
+        this.fareQuoteVerifier = fareQuoteVerifier;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.statusTtl = statusTtl;
+        Gauge.builder("bookings.queue.size", queue, BlockingQueue::size)
+                .description("Bookings accepted but not yet processed")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("bookings.queue.rejected")
+                .description("Bookings refused because the queue was full")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        executor = Executors.newFixedThreadPool(workers, Thread.ofPlatform().name("booking-worker-", 0).factory());
+        for (int i = 0; i < workers; i++) {
+            executor.submit(this::work);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @throws IllegalArgumentException  if the booking's fare quote does not check out
+     * @throws BookingQueueFullException if the booking cannot be accepted now
+     */
+    public BookingStatusDTO submit(TicketDTO ticket) {
+        // Uses the quote up on admission; a booking that later fails needs a new quote
+        fareQuoteVerifier.applyQuote(ticket);
+        String bookingId = UUID.randomUUID().toString();
+        BookingStatusDTO status = new BookingStatusDTO(bookingId, ticket.getUserId(), BookingState.QUEUED,
+                null, null, Instant.now(), null);
+        bookings.put(bookingId, status);
+        if (!queue.offer(new PendingBooking(bookingId, ticket))) {
+            bookings.remove(bookingId);
+            rejected.increment();
+            throw new BookingQueueFullException();
+        }
+        return status;
+    }
+
+    public Optional<BookingStatusDTO> getStatus(String bookingId) {
+        return Optional.ofNullable(bookings.get(bookingId));
+    }
+
+    private void work() {
+        while (running) {
+            List<PendingBooking> batch = new ArrayList<>(batchSize);
+            try {
+                PendingBooking first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                processor.process(batch).forEach(this::complete);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Booking batch of {} failed: {}", batch.size(), e.getMessage(), e);
+            } finally {
+                // Anything the processor did not report on stays visible as failed, not queued forever
+                for (PendingBooking booking : batch) {
+                    BookingStatusDTO status = bookings.get(booking.bookingId());
+                    if (status != null && status.getState() == BookingState.QUEUED) {
+                        complete(booking.bookingId(), Result.rejected("Booking could not be processed"));
+                    }
+                }
+            }
+        }
+    }
+
+    private void complete(String bookingId, Result result) {
+        bookings.computeIfPresent(bookingId, (id, status) -> new BookingStatusDTO(id, status.getUserId(),
+                result.ticketId() != null ? BookingState.CONFIRMED : BookingState.REJECTED,
+                result.ticketId(), result.error(), status.getSubmittedAt(), Instant.now()));
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictCompleted() {
+        Instant cutoff = Instant.now().minus(statusTtl);
+        bookings.values().removeIf(status -> status.getCompletedAt() != null && status.getCompletedAt().isBefore(cutoff));
+    }
+}
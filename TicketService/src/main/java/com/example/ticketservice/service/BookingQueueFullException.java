@@ -0,0 +1,7 @@
+package com.example.ticketservice.service;
+
+public class BookingQueueFullException extends RuntimeException {
+    public BookingQueueFullException() {
+        super("Too many bookings in progress, please retry shortly");
+    }
+}
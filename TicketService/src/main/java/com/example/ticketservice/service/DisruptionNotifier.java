@@ -0,0 +1,70 @@
+package com.example.ticketservice.service;
+
+import com.example.ticketservice.model.FlightStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tells passengers about disrupted departures off the request thread: one message per user,
+ * covering all of that user's affected tickets. Delivery is a log line for now, the hook for a
+ * mail or push channel. The backlog is bounded; messages beyond it are dropped and counted.
+ */
+@Slf4j
+@Component
+public class DisruptionNotifier {
+    private final ThreadPoolExecutor executor;
+    private final Counter sent;
+    private final Counter dropped;
+
+    public DisruptionNotifier(MeterRegistry meterRegistry,
+                              @Value("${app.disruptions.notifications.workers:2}") int workers,
+                              @Value("${app.disruptions.notifications.queue-capacity:100000}") int queueCapacity) {
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), Thread.ofPlatform().name("disruption-notifier-", 0).factory());
+        this.sent = Counter.builder("tickets.disruption.notifications")
+                .description("Disruption notifications sent to passengers")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("tickets.disruption.notifications.dropped")
+                .description("Disruption notifications dropped because the backlog was full")
+                .register(meterRegistry);
+    }
+
+    public record Notification(Long userId, List<Long> ticketIds, FlightStatus flightStatus, Integer delayMinutes,
+                               String reason) {
+    }
+
+    public void notifyAll(List<Notification> notifications) {
+        for (Notification notification : notifications) {
+            try {
+                executor.execute(() -> deliver(notification));
+            } catch (RejectedExecutionException e) {
+                dropped.increment();
+            }
+        }
+    }
+
+    private void deliver(Notification notification) {
+        String change = notification.flightStatus() == FlightStatus.CANCELLED
+                ? "cancelled; the booking has been cancelled"
+                : "delayed by " + notification.delayMinutes() + " minutes";
+        log.info("Notify user {}: departure of tickets {} {}{}", notification.userId(), notification.ticketIds(), change,
+                notification.reason() == null ? "" : " (" + notification.reason() + ")");
+        sent.increment();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
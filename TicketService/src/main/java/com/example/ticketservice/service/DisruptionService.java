@@ -0,0 +1,116 @@
+package com.example.ticketservice.service;
+
+import com.example.ticketservice.dtos.DisruptionDTO;
+import com.example.ticketservice.dtos.DisruptionResultDTO;
+import com.example.ticketservice.model.FlightStatus;
+import com.example.ticketservice.model.TicketStatus;
+import com.example.ticketservice.repository.TicketRepository;
+import com.example.ticketservice.repository.TicketRepository.AffectedTicket;
+import com.example.ticketservice.repository.WaitlistRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Carries a bulk schedule disruption, already applied in FlightService, over to the tickets:
+ * finds the booked tickets of all the schedules, marks them (DELAYED) or cancels them (CANCELLED)
+ * in batched UPDATEs, gives the seats of cancelled tickets back with one release per flight, and
+ * queues one notification per passenger. The booked tickets are read with row locks held until
+ * the UPDATEs commit, and a cancellation locks its ticket the same way, so whichever comes second
+ * finds the ticket no longer booked and leaves it alone: neither a repeated disruption nor a
+ * cancellation racing one cancels or releases anything twice. The releases are recorded in
+ * the {@link SeatReleaseOutbox} along with the cancellations, so a release that fails is retried
+ * rather than leaving the flight short.
+ */
+@Slf4j
+@Service
+public class DisruptionService {
+    private final TicketRepository ticketRepository;
+    private final WaitlistRepository waitlistRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SeatReleaseOutbox seatReleaseOutbox;
+    private final DisruptionNotifier notifier;
+    private final int batchSize;
+
+    public DisruptionService(TicketRepository ticketRepository, WaitlistRepository waitlistRepository,
+                             PlatformTransactionManager transactionManager,
+                             SeatReleaseOutbox seatReleaseOutbox, DisruptionNotifier notifier,
+                             @Value("${app.disruptions.batch-size:1000}") int batchSize) {
+        this.ticketRepository = ticketRepository;
+        this.waitlistRepository = waitlistRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.seatReleaseOutbox = seatReleaseOutbox;
+        this.notifier = notifier;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public DisruptionResultDTO applyDisruption(DisruptionDTO disruption) {
+        FlightStatus flightStatus = disruption.getFlightStatus();
+        if (flightStatus != FlightStatus.DELAYED && flightStatus != FlightStatus.CANCELLED) {
+            throw new IllegalArgumentException("A disruption is either DELAYED or CANCELLED");
+        }
+        boolean cancel = flightStatus == FlightStatus.CANCELLED;
+        boolean releaseSeats = cancel && !Boolean.FALSE.equals(disruption.getReleaseSeats());
+        List<Long> scheduleIds = disruption.getScheduleIds().stream().distinct().toList();
+
+        List<AffectedTicket> affected = new ArrayList<>();
+        List<Long> releases = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            // Locked until commit, so these are exactly the tickets the UPDATEs below change
+            for (List<Long> schedules : chunks(scheduleIds)) {
+                affected.addAll(ticketRepository.findByScheduleIdInAndStatus(schedules, TicketStatus.BOOKED));
+            }
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> ticketIds = affected.stream().map(AffectedTicket::getId).toList();
+            for (List<Long> ids : chunks(ticketIds)) {
+                ticketRepository.applyDisruption(ids, cancel ? TicketStatus.CANCELLED : TicketStatus.BOOKED,
+                        flightStatus, now);
+            }
+            if (cancel) {
+                // Nobody will be flying these departures, so nobody is waiting for them either
+                for (List<Long> schedules : chunks(scheduleIds)) {
+                    waitlistRepository.cancelForSchedules(schedules, now);
+                }
+            }
+            if (releaseSeats) {
+                affected.stream()
+                        .collect(Collectors.groupingBy(AffectedTicket::getFlightId, Collectors.counting()))
+                        .forEach((flightId, seats) -> releases.addAll(seatReleaseOutbox.add(flightId, seats.intValue())));
+            }
+        });
+
+        int seatsReleased = seatReleaseOutbox.release(releases);
+        int seatsPending = releaseSeats ? affected.size() - seatsReleased : 0;
+
+        Map<Long, List<Long>> ticketsByUser = new LinkedHashMap<>();
+        for (AffectedTicket ticket : affected) {
+            ticketsByUser.computeIfAbsent(ticket.getUserId(), id -> new ArrayList<>()).add(ticket.getId());
+        }
+        notifier.notifyAll(ticketsByUser.entrySet().stream()
+                .map(user -> new DisruptionNotifier.Notification(user.getKey(), user.getValue(), flightStatus,
+                        disruption.getDelayMinutes(), disruption.getReason()))
+                .toList());
+
+        log.info("Disruption {} on {} schedules: {} tickets, {} seats released, {} pending, {} users notified",
+                flightStatus, scheduleIds.size(), affected.size(), seatsReleased, seatsPending, ticketsByUser.size());
+        return new DisruptionResultDTO(cancel ? 0 : affected.size(), cancel ? affected.size() : 0, seatsReleased,
+                seatsPending, ticketsByUser.size());
+    }
+
+    private <T> List<List<T>> chunks(List<T> values) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += batchSize) {
+            chunks.add(values.subList(from, Math.min(values.size(), from + batchSize)));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.ticketservice.service;
+
+import com.example.ticketservice.security.ServiceCredentials;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+
+/**
+ * Takes and returns seats in FlightService. Only services may change seat counts there, so these
+ * calls identify as TicketService with the gateway's shared secret instead of carrying the
+ * booking user's token, which may have expired by the time a queued booking or a release runs.
+ */
+@Component
+public class FlightSeatClient {
+    private final RestTemplate restTemplate;
+    private final ServiceCredentials serviceCredentials;
+    private final String flightServiceUrl;
+
+    public FlightSeatClient(RestTemplate restTemplate, ServiceCredentials serviceCredentials,
+                            @Value("${flight.service.url}") String flightServiceUrl) {
+        this.restTemplate = restTemplate;
+        this.serviceCredentials = serviceCredentials;
+        this.flightServiceUrl = flightServiceUrl;
+    }
+
+    /**
+     * Takes {@code seats} seats, all or nothing.
+     *
+     * @throws org.springframework.web.client.HttpClientErrorException.Conflict if the flight has fewer left
+     */
+    public void reserve(Long flightId, int seats) {
+        post(flightId, "reserve", seats);
+    }
+
+    public void release(Long flightId, int seats) {
+        post(flightId, "release", seats);
+    }
+
+    private void post(Long flightId, String action, int seats) {
+        restTemplate.postForObject(flightServiceUrl + "/flights/" + flightId + "/seats/" + action,
+                new HttpEntity<>(Map.of("seats", seats), serviceCredentials.headers()), Void.class);
+    }
+}
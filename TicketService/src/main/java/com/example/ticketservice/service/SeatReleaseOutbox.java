@@ -0,0 +1,177 @@
+package com.example.ticketservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Seats to give back to FlightService, recorded in {@code pending_seat_releases} inside the
+ * transaction that frees them. A release row is deleted in the same transaction that claims it
+ * once FlightService has accepted it; one that fails stays and is retried every
+ * {@code app.seats.release-retry-interval-ms}. Rows are claimed with SKIP LOCKED, so instances
+ * never send the same release twice.
+ * <p>
+ * The retry leaves rows younger than {@code app.seats.release-retry-delay} to whoever recorded
+ * them, which may still hand the seat to someone else and {@link #cancel(List) cancel} the
+ * release; if that never happens, say because the instance went down, the retry sends it.
+ */
+@Slf4j
+@Component
+public class SeatReleaseOutbox {
+    // FlightService accepts at most this many seats per release
+    private static final int MAX_SEATS_PER_RELEASE = 1000;
+    private static final int RETRY_BATCH_SIZE = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransactionTemplate;
+    private final FlightSeatClient flightSeatClient;
+    private final Duration retryDelay;
+
+    public SeatReleaseOutbox(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             FlightSeatClient flightSeatClient,
+                             @Value("${app.seats.release-retry-delay:30s}") Duration retryDelay) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.flightSeatClient = flightSeatClient;
+        this.retryDelay = retryDelay;
+    }
+
+    private record PendingRelease(Long id, Long flightId, int seats) {
+    }
+
+    /**
+     * Records seats to release; call inside the transaction that frees them.
+     *
+     * @return ids of the recorded releases, for {@link #release(List)} once that transaction has committed
+     */
+    public List<Long> add(Long flightId, int seats) {
+        List<Long> ids = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int remaining = seats; remaining > 0; remaining -= MAX_SEATS_PER_RELEASE) {
+            int count = Math.min(MAX_SEATS_PER_RELEASE, remaining);
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(
+                        "INSERT INTO pending_seat_releases (flight_id, seats, created_at) VALUES (?, ?, ?)",
+                        Statement.RETURN_GENERATED_KEYS);
+                ps.setLong(1, flightId);
+                ps.setInt(2, count);
+                ps.setTimestamp(3, now);
+                return ps;
+            }, keyHolder);
+            ids.add(keyHolder.getKey().longValue());
+        }
+        return ids;
+    }
+
+    /**
+     * Drops releases that are no longer owed because the seats went to someone else; call inside
+     * the transaction that hands them over, which must roll back unless all of them were dropped.
+     *
+     * @return how many of the releases were still pending; the others have been sent already
+     */
+    public int cancel(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String in = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        return jdbcTemplate.update("DELETE FROM pending_seat_releases WHERE id IN (" + in + ")", ids.toArray());
+    }
+
+    /**
+     * Gives back seats taken for work that did not commit: records the release in a transaction
+     * of its own, so it also works from a rollback hook, and sends it. If even the record cannot
+     * be written the seats are sent without one, and only a failure of that is lost.
+     */
+    public void releaseUncommitted(Long flightId, int seats) {
+        List<Long> ids;
+        try {
+            ids = newTransactionTemplate.execute(status -> add(flightId, seats));
+        } catch (Exception e) {
+            log.warn("Could not record the release of {} seats on flight {}, sending it directly: {}", seats,
+                    flightId, e.getMessage());
+            try {
+                flightSeatClient.release(flightId, seats);
+            } catch (Exception releaseFailure) {
+                log.error("Could not release {} seats on flight {}: {}", seats, flightId, releaseFailure.getMessage());
+            }
+            return;
+        }
+        try {
+            release(ids);
+        } catch (Exception e) {
+            log.warn("Could not release {} seats on flight {} now, will retry: {}", seats, flightId, e.getMessage());
+        }
+    }
+
+    /**
+     * Sends the given releases now; any that fail, or that another instance is sending, are left
+     * for the retry.
+     *
+     * @return seats FlightService accepted
+     */
+    public int release(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String in = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        return send("SELECT id, flight_id, seats FROM pending_seat_releases WHERE id IN (" + in + ") " +
+                "FOR UPDATE SKIP LOCKED", ids.toArray());
+    }
+
+    @Scheduled(fixedDelayString = "${app.seats.release-retry-interval-ms:30000}")
+    public void retryPending() {
+        try {
+            Timestamp recordedBefore = Timestamp.valueOf(LocalDateTime.now().minus(retryDelay));
+            int released = send("SELECT id, flight_id, seats FROM pending_seat_releases WHERE created_at < ? " +
+                    "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED", recordedBefore, RETRY_BATCH_SIZE);
+            if (released > 0) {
+                log.info("Released {} pending seats", released);
+            }
+        } catch (Exception e) {
+            log.warn("Could not retry pending seat releases: {}", e.getMessage());
+        }
+    }
+
+    private int send(String claimSql, Object... args) {
+        Integer released = transactionTemplate.execute(status -> {
+            List<PendingRelease> claimed = jdbcTemplate.query(claimSql,
+                    (rs, rowNum) -> new PendingRelease(rs.getLong(1), rs.getLong(2), rs.getInt(3)), args);
+            int seats = 0;
+            for (PendingRelease release : claimed) {
+                try {
+                    flightSeatClient.release(release.flightId(), release.seats());
+                    jdbcTemplate.update("DELETE FROM pending_seat_releases WHERE id = ?", release.id());
+                    seats += release.seats();
+                } catch (Exception e) {
+                    log.warn("Could not release {} seats on flight {}, will retry: {}", release.seats(),
+                            release.flightId(), e.getMessage());
+                    String error = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+                    jdbcTemplate.update("UPDATE pending_seat_releases SET attempts = attempts + 1, last_error = ? " +
+                            "WHERE id = ?", error.substring(0, Math.min(1024, error.length())), release.id());
+                }
+            }
+            return seats;
+        });
+        return released == null ? 0 : released;
+    }
+}
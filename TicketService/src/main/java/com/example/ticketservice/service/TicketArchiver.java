@@ -0,0 +1,166 @@
+package com.example.ticketservice.service;
+
+import com.example.ticketservice.dtos.ScheduleDTO;
+import com.example.ticketservice.model.TicketStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps {@code tickets} down to the tickets people still look at. Tickets whose departure is more
+ * than {@code app.archive.after-days} in the past are moved to {@code tickets_archive}, as are
+ * cancelled tickets of departures that no longer exist once they have been untouched that long.
+ * Ticket reads use the hot table unless archived tickets are asked for.
+ * <p>
+ * Tickets do not carry their departure when booked, so each run first copies it from FlightService
+ * onto tickets that lack it, one call per schedule. Then it moves eligible tickets in batches of
+ * {@code app.archive.batch-size}. Each batch is copied and deleted in its own short transaction,
+ * and the run pauses between batches. Runs happen on their own thread, never on the shared
+ * scheduler. Copies use INSERT IGNORE, so two instances archiving at once do no harm.
+ */
+@Slf4j
+@Component
+public class TicketArchiver {
+    private static final String COLUMNS = "id, user_id, flight_id, schedule_id, passenger_name, seat_number, price, " +
+            "status, booking_time, last_updated, disruption, departure_time";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RestTemplate restTemplate;
+    private final String flightServiceUrl;
+    private final boolean enabled;
+    private final Duration archiveAfter;
+    private final int batchSize;
+    private final Duration batchPause;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("ticket-archiver").daemon().factory());
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public TicketArchiver(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                          RestTemplate restTemplate,
+                          @Value("${flight.service.url}") String flightServiceUrl,
+                          @Value("${app.archive.enabled:true}") boolean enabled,
+                          @Value("${app.archive.after-days:90}") int afterDays,
+                          @Value("${app.archive.batch-size:1000}") int batchSize,
+                          @Value("${app.archive.batch-pause:100ms}") Duration batchPause) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.restTemplate = restTemplate;
+        this.flightServiceUrl = flightServiceUrl;
+        this.enabled = enabled;
+        this.archiveAfter = Duration.ofDays(afterDays);
+        this.batchSize = Math.max(1, batchSize);
+        this.batchPause = batchPause;
+    }
+
+    @Scheduled(fixedDelayString = "${app.archive.interval-ms:3600000}", initialDelayString = "${app.archive.initial-delay-ms:60000}")
+    public void trigger() {
+        if (enabled && running.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                try {
+                    run();
+                } finally {
+                    running.set(false);
+                }
+            });
+        }
+    }
+
+    private void run() {
+        try {
+            int schedules = recordDepartures();
+            LocalDateTime cutoff = LocalDateTime.now().minus(archiveAfter);
+            int departed = archive("departure_time < ?", Timestamp.valueOf(cutoff));
+            int orphaned = archive("departure_time IS NULL AND status = ? AND last_updated < ?",
+                    TicketStatus.CANCELLED.ordinal(), Timestamp.valueOf(cutoff));
+            log.info("Ticket archival: departures recorded for {} schedules, {} tickets archived", schedules,
+                    departed + orphaned);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Ticket archival failed: {}", e.getMessage(), e);
+        }
+    }
+
+    // Walks the schedules of tickets without a departure in id order, so unknown schedules are tried once per run
+    private int recordDepartures() throws InterruptedException {
+        long after = 0;
+        int recorded = 0;
+        while (true) {
+            List<Long> scheduleIds = jdbcTemplate.queryForList("SELECT DISTINCT schedule_id FROM tickets " +
+                    "WHERE departure_time IS NULL AND schedule_id > ? ORDER BY schedule_id LIMIT ?",
+                    Long.class, after, batchSize);
+            if (scheduleIds.isEmpty()) {
+                return recorded;
+            }
+            for (Long scheduleId : scheduleIds) {
+                LocalDateTime departure = departureOf(scheduleId);
+                if (departure != null) {
+                    jdbcTemplate.update("UPDATE tickets SET departure_time = ? WHERE schedule_id = ? AND departure_time IS NULL",
+                            Timestamp.valueOf(departure), scheduleId);
+                    recorded++;
+                }
+            }
+            after = scheduleIds.get(scheduleIds.size() - 1);
+            Thread.sleep(batchPause.toMillis());
+        }
+    }
+
+    private LocalDateTime departureOf(Long scheduleId) {
+        try {
+            ScheduleDTO schedule = restTemplate.getForObject(flightServiceUrl + "/flights/schedules/" + scheduleId,
+                    ScheduleDTO.class);
+            return schedule == null ? null : schedule.getDepartureTime();
+        } catch (Exception e) {
+            log.debug("No departure for schedule {}: {}", scheduleId, e.getMessage());
+            return null;
+        }
+    }
+
+    private int archive(String condition, Object... args) throws InterruptedException {
+        int archived = 0;
+        while (true) {
+            List<Object> selectArgs = new ArrayList<>(List.of(args));
+            selectArgs.add(batchSize);
+            List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM tickets WHERE " + condition + " LIMIT ?",
+                    Long.class, selectArgs.toArray());
+            if (ids.isEmpty()) {
+                return archived;
+            }
+            String in = String.join(", ", Collections.nCopies(ids.size(), "?"));
+            List<Object> copyArgs = new ArrayList<>(ids.size() + 1);
+            copyArgs.add(Timestamp.valueOf(LocalDateTime.now()));
+            copyArgs.addAll(ids);
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("INSERT IGNORE INTO tickets_archive (" + COLUMNS + ", archived_at) SELECT " + COLUMNS +
+                        ", ? FROM tickets WHERE id IN (" + in + ")", copyArgs.toArray());
+                jdbcTemplate.update("DELETE FROM tickets WHERE id IN (" + in + ")", ids.toArray());
+            });
+            archived += ids.size();
+            Thread.sleep(batchPause.toMillis());
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.ticketservice.service;
+
+import com.example.ticketservice.dtos.TicketDTO;
+import com.example.ticketservice.dtos.TicketFilterDTO;
+import com.example.ticketservice.dtos.TicketPageDTO;
+import com.example.ticketservice.dtos.TicketStatsDTO;
+import com.example.ticketservice.model.TicketStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin ticket queries answered by the database: filters become a WHERE clause, pages are read
+ * by keyset (sort value and id of the last row, carried in an opaque cursor) so every page costs
+ * the same, and statistics are GROUP BY aggregates. Rows go straight from the result set into
+ * plain ticket DTOs, without loading entities or calling other services.
+ * <p>
+ * With archived tickets included, tickets and tickets_archive are each paged by keyset on their
+ * own index and the two pages merged, rather than paging over a UNION of both tables. Sorting by
+ * booking time leaves out tickets that have none, as they have no place in that order.
+ */
+@Service
+public class TicketQueryService {
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 500;
+    private static final int MAX_GROUPS = 10000;
+    private static final String COLUMNS = "id, user_id, flight_id, schedule_id, passenger_name, price, status, " +
+            "booking_time, last_updated, disruption";
+    // Sort key -> SQL expression; price has no index and may be null, so it is sorted as 0
+    private static final Map<String, String> SORTS = Map.of(
+            "id", "t.id",
+            "bookingTime", "t.booking_time",
+            "price", "COALESCE(t.price, 0)");
+    private static final Map<String, String> GROUPS = Map.of(
+            "flight", "t.flight_id",
+            "day", "DATE(t.booking_time)",
+            "status", "t.status");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TicketQueryService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    private record Where(String sql, List<Object> args) {
+    }
+
+    @Transactional(readOnly = true)
+    public TicketPageDTO query(TicketFilterDTO filter, String sort, String direction, Integer limit, String after) {
+        String sortColumn = SORTS.get(sort);
+        if (sortColumn == null) {
+            throw new IllegalArgumentException("Sort by one of " + SORTS.keySet());
+        }
+        boolean descending = "desc".equalsIgnoreCase(direction);
+        if (!descending && !"asc".equalsIgnoreCase(direction)) {
+            throw new IllegalArgumentException("Direction is asc or desc");
+        }
+        int pageSize = limit == null ? DEFAULT_LIMIT : limit;
+        if (pageSize < 1 || pageSize > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit should be between 1 and " + MAX_LIMIT);
+        }
+
+        Where where = where(filter);
+        Object[] cursor = after != null && !after.isBlank() ? decodeCursor(after, sort, descending) : null;
+        // One extra row tells whether there is a next page
+        List<TicketDTO> tickets = page("tickets", false, where, sort, descending, cursor, pageSize + 1);
+        if (filter.isIncludeArchived()) {
+            // Both tables are read in one snapshot, so a ticket being archived shows up exactly once
+            List<TicketDTO> archived = page("tickets_archive", true, where, sort, descending, cursor, pageSize + 1);
+            tickets = merge(tickets, archived, order(sort, descending), pageSize + 1);
+        }
+        String nextCursor = null;
+        if (tickets.size() > pageSize) {
+            tickets = tickets.subList(0, pageSize);
+            nextCursor = encodeCursor(tickets.get(pageSize - 1), sort, descending);
+        }
+        return new TicketPageDTO(new ArrayList<>(tickets), nextCursor);
+    }
+
+    private List<TicketDTO> page(String table, boolean archived, Where where, String sort, boolean descending,
+                                 Object[] cursor, int limit) {
+        String sortColumn = SORTS.get(sort);
+        StringBuilder sql = new StringBuilder("SELECT t.id, t.user_id, t.flight_id, t.schedule_id, t.passenger_name, " +
+                "t.price, t.status, t.booking_time, t.last_updated, t.disruption, ")
+                .append(archived ? "1" : "0")
+                .append(" FROM ").append(table).append(" t WHERE ").append(where.sql());
+        List<Object> args = new ArrayList<>(where.args());
+        if (sort.equals("bookingTime")) {
+            sql.append(" AND t.booking_time IS NOT NULL");
+        }
+        String comparison = descending ? "<" : ">";
+        if (cursor != null) {
+            if (sort.equals("id")) {
+                sql.append(" AND t.id ").append(comparison).append(" ?");
+                args.add(cursor[1]);
+            } else {
+                sql.append(" AND (").append(sortColumn).append(' ').append(comparison).append(" ? OR (")
+                        .append(sortColumn).append(" = ? AND t.id ").append(comparison).append(" ?))");
+                args.add(cursor[0]);
+                args.add(cursor[0]);
+                args.add(cursor[1]);
+            }
+        }
+        String order = descending ? " DESC" : " ASC";
+        sql.append(" ORDER BY ").append(sortColumn).append(order);
+        if (!sort.equals("id")) {
+            sql.append(", t.id").append(order);
+        }
+        sql.append(" LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> toTicket(rs), args.toArray());
+    }
+
+    // The same order as the ORDER BY of page()
+    private static Comparator<TicketDTO> order(String sort, boolean descending) {
+        Comparator<TicketDTO> byId = Comparator.comparing(TicketDTO::getId);
+        Comparator<TicketDTO> order = switch (sort) {
+            case "bookingTime" -> Comparator.comparing(TicketDTO::getBookingTime).thenComparing(byId);
+            case "price" -> Comparator.comparing((TicketDTO ticket) -> ticket.getPrice() == null ? 0.0 : ticket.getPrice())
+                    .thenComparing(byId);
+            default -> byId;
+        };
+        return descending ? order.reversed() : order;
+    }
+
+    private static List<TicketDTO> merge(List<TicketDTO> first, List<TicketDTO> second, Comparator<TicketDTO> order,
+                                         int limit) {
+        List<TicketDTO> merged = new ArrayList<>(Math.min(limit, first.size() + second.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < first.size() || j < second.size())) {
+            if (j >= second.size() || (i < first.size() && order.compare(first.get(i), second.get(j)) <= 0)) {
+                merged.add(first.get(i++));
+            } else {
+                merged.add(second.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    public List<TicketStatsDTO> stats(TicketFilterDTO filter, String groupBy) {
+        String group = GROUPS.get(groupBy);
+        if (group == null) {
+            throw new IllegalArgumentException("Group by one of " + GROUPS.keySet());
+        }
+        Where where = where(filter);
+        List<Object> args = new ArrayList<>();
+        args.add(TicketStatus.CANCELLED.ordinal());
+        args.add(TicketStatus.CANCELLED.ordinal());
+        args.addAll(where.args());
+        args.add(MAX_GROUPS);
+        return jdbcTemplate.query("SELECT " + group + ", COUNT(*), " +
+                        "SUM(CASE WHEN t.status = ? THEN 1 ELSE 0 END), " +
+                        "SUM(CASE WHEN t.status <> ? THEN COALESCE(t.price, 0) ELSE 0 END) " +
+                        "FROM " + source(filter) + " WHERE " + where.sql() +
+                        " GROUP BY " + group + " ORDER BY " + group + " LIMIT ?",
+                (rs, rowNum) -> new TicketStatsDTO(groupKey(groupBy, rs), rs.getLong(2), rs.getLong(3), rs.getDouble(4)),
+                args.toArray());
+    }
+
+    private static String source(TicketFilterDTO filter) {
+        return filter.isIncludeArchived()
+                ? "(SELECT " + COLUMNS + ", 0 AS archived FROM tickets UNION ALL " +
+                "SELECT " + COLUMNS + ", 1 AS archived FROM tickets_archive) t"
+                : "tickets t";
+    }
+
+    private static Where where(TicketFilterDTO filter) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        conditions.add("1 = 1");
+        if (filter.getStatus() != null && !filter.getStatus().isBlank()) {
+            conditions.add("t.status = ?");
+            args.add(parseStatus(filter.getStatus()).ordinal());
+        }
+        if (filter.getFlightId() != null) {
+            conditions.add("t.flight_id = ?");
+            args.add(filter.getFlightId());
+        }
+        if (filter.getScheduleId() != null) {
+            conditions.add("t.schedule_id = ?");
+            args.add(filter.getScheduleId());
+        }
+        if (filter.getBookedFrom() != null) {
+            conditions.add("t.booking_time >= ?");
+            args.add(Timestamp.valueOf(filter.getBookedFrom()));
+        }
+        if (filter.getBookedTo() != null) {
+            conditions.add("t.booking_time < ?");
+            args.add(Timestamp.valueOf(filter.getBookedTo()));
+        }
+        if (filter.getPassenger() != null && !filter.getPassenger().isBlank()) {
+            conditions.add("t.passenger_name LIKE ?");
+            args.add(filter.getPassenger().trim().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+        }
+        return new Where(String.join(" AND ", conditions), args);
+    }
+
+    private static TicketStatus parseStatus(String status) {
+        try {
+            return TicketStatus.valueOf(status.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown ticket status: " + status);
+        }
+    }
+
+    private static String groupKey(String groupBy, ResultSet rs) throws SQLException {
+        return switch (groupBy) {
+            case "status" -> TicketStatus.values()[rs.getInt(1)].name();
+            case "day" -> rs.getDate(1) == null ? null : rs.getDate(1).toLocalDate().toString();
+            default -> rs.getObject(1) == null ? null : String.valueOf(rs.getLong(1));
+        };
+    }
+
+    private static TicketDTO toTicket(ResultSet rs) throws SQLException {
+        TicketDTO ticket = new TicketDTO();
+        ticket.setId(rs.getLong(1));
+        ticket.setUserId(rs.getObject(2, Long.class));
+        ticket.setFlightId(rs.getObject(3, Long.class));
+        ticket.setScheduleId(rs.getObject(4, Long.class));
+        ticket.setPassengerName(rs.getString(5));
+        ticket.setPrice(rs.getObject(6, Double.class));
+        ticket.setStatus(TicketStatus.values()[rs.getInt(7)].name());
+        ticket.setBookingTime(toLocalDateTime(rs.getTimestamp(8)));
+        ticket.setLastUpdated(toLocalDateTime(rs.getTimestamp(9)));
+        ticket.setDisruption(rs.getString(10));
+        ticket.setArchived(rs.getInt(11) == 1);
+        return ticket;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    // sort|direction|value|id, so a cursor cannot be replayed against a different order
+    private static String encodeCursor(TicketDTO last, String sort, boolean descending) {
+        String value = switch (sort) {
+            case "bookingTime" -> String.valueOf(last.getBookingTime());
+            case "price" -> String.valueOf(last.getPrice() == null ? 0.0 : last.getPrice());
+            default -> "";
+        };
+        String cursor = sort + "|" + (descending ? "desc" : "asc") + "|" + value + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Object[] decodeCursor(String cursor, String sort, boolean descending) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+            if (parts.length != 4 || !parts[0].equals(sort) || !parts[1].equals(descending ? "desc" : "asc")) {
+                throw new IllegalArgumentException("Cursor belongs to a different sort order");
+            }
+            Object value = switch (sort) {
+                case "bookingTime" -> Timestamp.valueOf(LocalDateTime.parse(parts[2]));
+                case "price" -> Double.valueOf(parts[2]);
+                default -> null;
+            };
+            return new Object[]{value, Long.valueOf(parts[3])};
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + e.getMessage());
+        }
+    }
+}
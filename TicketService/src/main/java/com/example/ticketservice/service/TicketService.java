@@ -1,5 +1,6 @@
 package com.example.ticketservice.service;
 
+import com.example.ticketservice.dtos.CompactTicketsDTO;
 import com.example.ticketservice.dtos.TicketDTO;
 import com.example.ticketservice.model.Ticket;
 
@@ -8,7 +9,8 @@ import java.util.List;
 public interface TicketService {
     TicketDTO createTicket(TicketDTO ticketDTO);
     TicketDTO getTicketById(Long id);
-    List<TicketDTO> getTicketsByUserId(Long userId);
+    List<TicketDTO> getTicketsByUserId(Long userId, boolean includeArchived);
     void cancelTicket(Long id);
-    List<TicketDTO> getAllTickets();
+    List<TicketDTO> getAllTickets(boolean includeArchived);
+    CompactTicketsDTO getAllTicketsCompact(boolean includeArchived);
 }
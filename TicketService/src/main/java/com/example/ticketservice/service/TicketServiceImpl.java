@@ -1,28 +1,41 @@
 package com.example.ticketservice.service;
 
+import com.example.ticketservice.dtos.CompactTicketsDTO;
 import com.example.ticketservice.dtos.FlightDTO;
 import com.example.ticketservice.dtos.ScheduleDTO;
 import com.example.ticketservice.dtos.TicketDTO;
 import com.example.ticketservice.dtos.UserDTO;
+import com.example.ticketservice.model.ArchivedTicket;
 import com.example.ticketservice.model.Ticket;
 import com.example.ticketservice.model.TicketStatus;
+import com.example.ticketservice.repository.ArchivedTicketRepository;
 import com.example.ticketservice.repository.TicketRepository;
+import com.example.ticketservice.security.FareQuoteVerifier;
+import com.example.ticketservice.security.ServiceCredentials;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
+@Slf4j
 @NoArgsConstructor
 @Service
 @EnableAutoConfiguration
@@ -31,40 +44,50 @@ public class TicketServiceImpl implements TicketService {
     @Autowired
     private TicketRepository ticketRepository;
     @Autowired
+    private ArchivedTicketRepository archivedTicketRepository;
+    @Autowired
     private RestTemplate restTemplate;
+    @Autowired
+    private FareQuoteVerifier fareQuoteVerifier;
+    @Autowired
+    private WaitlistService waitlistService;
+    @Autowired
+    private FlightSeatClient flightSeatClient;
+    @Autowired
+    private SeatReleaseOutbox seatReleaseOutbox;
+    @Autowired
+    private ServiceCredentials serviceCredentials;
     @Value("${flight.service.url}")
     private String flightServiceUrl;
     @Value("${user.service.url}")
     private String userServiceUrl;
+    @Value("${user.service.batch-size:500}")
+    private int userBatchSize;
 
-    private HttpHeaders createHeaders() {
-        HttpHeaders headers = new HttpHeaders();
-        if (SecurityContextHolder.getContext().getAuthentication() != null) {
-            String token = (String) SecurityContextHolder.getContext().getAuthentication().getCredentials();
-            if (token != null) {
-                headers.set("Authorization", "Bearer " + token);
-            }
+    private void reserveSeat(Long flightId) {
+        try {
+            flightSeatClient.reserve(flightId, 1);
+        } catch (HttpClientErrorException.Conflict e) {
+            throw new IllegalArgumentException("No seats left on this flight; join the waitlist at POST /tickets/waitlist");
         }
-        return headers;
     }
 
     @Override
     @Transactional
     public TicketDTO createTicket(TicketDTO ticketDTO) {
-        FlightDTO flightDTO = restTemplate.getForObject(
-                flightServiceUrl + "/flights/" + ticketDTO.getFlightId(),
-                FlightDTO.class
-        );
-        if (flightDTO == null) {
-            throw new IllegalArgumentException("Flight not found");
-        }
-        ScheduleDTO scheduleDTO = restTemplate.getForObject(
-                flightServiceUrl + "/flights/schedules/" + ticketDTO.getScheduleId(),
-                ScheduleDTO.class
-        );
-        if (scheduleDTO == null)
-            throw new IllegalArgumentException("Schedule not found");
+        // The signed quote vouches for the flight, the schedule and the fare; no lookups needed
+        fareQuoteVerifier.applyQuote(ticketDTO);
 
+        reserveSeat(ticketDTO.getFlightId());
+        // The seat is taken in FlightService before the ticket exists; give it back if the ticket is never committed
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    seatReleaseOutbox.releaseUncommitted(ticketDTO.getFlightId(), 1);
+                }
+            }
+        });
         Ticket ticket = new Ticket();
         ticket.setUserId(ticketDTO.getUserId());
         ticket.setFlightId(ticketDTO.getFlightId());
@@ -80,23 +103,28 @@ public class TicketServiceImpl implements TicketService {
 
     @Override
     public TicketDTO getTicketById(Long id) {
-        Ticket ticket = ticketRepository.findById(id)
+        // A lookup by id is cheap enough to fall back to the archive
+        TicketDTO ticket = ticketRepository.findById(id).map(this::convertToDTO)
+                .or(() -> archivedTicketRepository.findById(id).map(this::convertToDTO))
                 .orElseThrow(() -> new IllegalArgumentException("Ticket not found"));
-        return enrichTicketDTO(convertToDTO(ticket));
+        return enrichTicketDTO(ticket);
     }
 
     @Override
-    public List<TicketDTO> getTicketsByUserId(Long userId) {
-        return ticketRepository.findByUserId(userId).stream()
+    public List<TicketDTO> getTicketsByUserId(Long userId, boolean includeArchived) {
+        List<TicketDTO> tickets = ticketRepository.findByUserId(userId).stream()
                 .map(this::convertToDTO)
-                .map(this::enrichTicketDTO)
                 .collect(Collectors.toList());
+        if (includeArchived) {
+            archivedTicketRepository.findByUserId(userId).forEach(ticket -> tickets.add(convertToDTO(ticket)));
+        }
+        return enrichTicketDTOs(tickets);
     }
 
     @Override
     @Transactional
     public void cancelTicket(Long id) {
-        Ticket ticket = ticketRepository.findById(id)
+        Ticket ticket = ticketRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new IllegalArgumentException("Ticket not found"));
         if (ticket.getStatus() == TicketStatus.CANCELLED) {
             throw new IllegalArgumentException("Ticket is already cancelled");
@@ -104,14 +132,125 @@ public class TicketServiceImpl implements TicketService {
         ticket.setStatus(TicketStatus.CANCELLED);
         ticket.setLastUpdated(LocalDateTime.now());
         ticketRepository.save(ticket);
+        Long flightId = ticket.getFlightId();
+        Long scheduleId = ticket.getScheduleId();
+        Double price = ticket.getPrice();
+        // Recorded with the cancellation, so the seat comes back even if nothing after the commit runs
+        List<Long> releaseIds = seatReleaseOutbox.add(flightId, 1);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                // Someone on the waitlist gets the seat if anyone is waiting; otherwise it goes back on sale
+                if (!waitlistService.offerSeat(flightId, scheduleId, price, releaseIds)) {
+                    try {
+                        seatReleaseOutbox.release(releaseIds);
+                    } catch (Exception e) {
+                        log.warn("Could not release a seat on flight {} now, will retry: {}", flightId, e.getMessage());
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public List<TicketDTO> getAllTickets(boolean includeArchived) {
+        return enrichTicketDTOs(findAll(includeArchived));
     }
 
     @Override
-    public List<TicketDTO> getAllTickets() {
-        return ticketRepository.findAll().stream()
+    public CompactTicketsDTO getAllTicketsCompact(boolean includeArchived) {
+        List<TicketDTO> tickets = findAll(includeArchived);
+        Map<Long, FlightDTO> flights = new HashMap<>();
+        Map<Long, ScheduleDTO> schedules = new HashMap<>();
+        Map<Long, UserDTO> users = fetchUsers(tickets.stream().map(TicketDTO::getUserId).toList());
+        // Each referenced entity is fetched once, however many tickets point at it
+        for (TicketDTO ticket : tickets) {
+            if (!schedules.containsKey(ticket.getScheduleId())) {
+                ScheduleDTO schedule = fetch(flightServiceUrl + "/flights/schedules/" + ticket.getScheduleId(), ScheduleDTO.class);
+                if (schedule != null && schedule.getFlightDTO() != null) {
+                    flights.putIfAbsent(schedule.getFlightId(), schedule.getFlightDTO());
+                    schedule.setFlightDTO(null);
+                }
+                schedules.put(ticket.getScheduleId(), schedule);
+            }
+            if (!flights.containsKey(ticket.getFlightId())) {
+                flights.put(ticket.getFlightId(), fetch(flightServiceUrl + "/flights/" + ticket.getFlightId(), FlightDTO.class));
+            }
+        }
+        flights.values().removeIf(Objects::isNull);
+        schedules.values().removeIf(Objects::isNull);
+        users.values().removeIf(Objects::isNull);
+        return new CompactTicketsDTO(tickets, flights, schedules, users);
+    }
+
+    /**
+     * Resolves users through UserService's batch endpoint, {@code user.service.batch-size} ids per
+     * call; users that cannot be fetched are simply absent from the result. The endpoint is for
+     * services only, so the calls carry TicketService's own credentials.
+     */
+    private Map<Long, UserDTO> fetchUsers(Collection<Long> userIds) {
+        List<Long> ids = userIds.stream().filter(Objects::nonNull).distinct().toList();
+        Map<Long, UserDTO> users = new HashMap<>();
+        if (ids.isEmpty()) {
+            return users;
+        }
+        HttpHeaders headers;
+        try {
+            headers = serviceCredentials.headers();
+        } catch (IllegalStateException e) {
+            log.warn("Could not fetch users: {}", e.getMessage());
+            return users;
+        }
+        for (int from = 0; from < ids.size(); from += userBatchSize) {
+            List<Long> batch = ids.subList(from, Math.min(ids.size(), from + userBatchSize));
+            try {
+                UserDTO[] found = restTemplate.postForObject(userServiceUrl + "/api/users/batch",
+                        new HttpEntity<>(Map.of("ids", batch), headers), UserDTO[].class);
+                if (found != null) {
+                    for (UserDTO user : found) {
+                        users.put(user.getId(), user);
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("Could not fetch {} users: {}", batch.size(), e.getMessage());
+            }
+        }
+        return users;
+    }
+
+    private <T> T fetch(String url, Class<T> type) {
+        try {
+            return restTemplate.getForObject(url, type);
+        } catch (Exception e) {
+            log.warn("Could not fetch {}: {}", url, e.getMessage());
+            return null;
+        }
+    }
+
+    private List<TicketDTO> findAll(boolean includeArchived) {
+        List<TicketDTO> tickets = ticketRepository.findAll().stream()
                 .map(this::convertToDTO)
-                .map(this::enrichTicketDTO)
                 .collect(Collectors.toList());
+        if (includeArchived) {
+            archivedTicketRepository.findAll().forEach(ticket -> tickets.add(convertToDTO(ticket)));
+        }
+        return tickets;
+    }
+
+    private TicketDTO convertToDTO(ArchivedTicket ticket) {
+        TicketDTO ticketDTO = new TicketDTO();
+        ticketDTO.setId(ticket.getId());
+        ticketDTO.setUserId(ticket.getUserId());
+        ticketDTO.setFlightId(ticket.getFlightId());
+        ticketDTO.setScheduleId(ticket.getScheduleId());
+        ticketDTO.setPassengerName(ticket.getPassengerName());
+        ticketDTO.setPrice(ticket.getPrice());
+        ticketDTO.setStatus(ticket.getStatus().name());
+        ticketDTO.setBookingTime(ticket.getBookingTime());
+        ticketDTO.setLastUpdated(ticket.getLastUpdated());
+        ticketDTO.setDisruption(ticket.getDisruption() == null ? null : ticket.getDisruption().name());
+        ticketDTO.setArchived(true);
+        return ticketDTO;
     }
 
     private TicketDTO convertToDTO(Ticket ticket) {
@@ -125,10 +264,21 @@ public class TicketServiceImpl implements TicketService {
         ticketDTO.setStatus(ticket.getStatus().name());
         ticketDTO.setBookingTime(ticket.getBookingTime());
         ticketDTO.setLastUpdated(ticket.getLastUpdated());
+        ticketDTO.setDisruption(ticket.getDisruption() == null ? null : ticket.getDisruption().name());
         return ticketDTO;
     }
 
+    private List<TicketDTO> enrichTicketDTOs(List<TicketDTO> tickets) {
+        Map<Long, UserDTO> users = fetchUsers(tickets.stream().map(TicketDTO::getUserId).toList());
+        tickets.forEach(ticket -> enrichTicketDTO(ticket, users));
+        return tickets;
+    }
+
     private TicketDTO enrichTicketDTO(TicketDTO ticketDTO) {
+        return enrichTicketDTO(ticketDTO, fetchUsers(Collections.singletonList(ticketDTO.getUserId())));
+    }
+
+    private TicketDTO enrichTicketDTO(TicketDTO ticketDTO, Map<Long, UserDTO> users) {
         try {
             // Flight service calls (no JWT needed)
             ticketDTO.setFlight(restTemplate.getForObject(
@@ -140,24 +290,10 @@ public class TicketServiceImpl implements TicketService {
                     ScheduleDTO.class
             ));
 
-            // User service call (with JWT)
-            HttpHeaders headers = createHeaders();
-            HttpEntity<?> entity = new HttpEntity<>(headers);
-            try {
-                UserDTO userDTO = restTemplate.exchange(
-                        userServiceUrl + "/api/users/" + ticketDTO.getUserId(),
-                        HttpMethod.GET,
-                        entity,
-                        UserDTO.class
-                ).getBody();
-                ticketDTO.setUser(userDTO);
-            } catch (Exception e) {
-                System.err.println("Error fetching user data: " + e.getMessage());
-                // Continue even if user data fetch fails
-            }
+            // Users are resolved up front in one batch call; a missing user leaves the field empty
+            ticketDTO.setUser(users.get(ticketDTO.getUserId()));
         } catch (Exception e) {
-            System.err.println("Error while enriching ticket DTO: " + e.getMessage());
-            e.printStackTrace();
+            log.warn("Could not enrich ticket {}: {}", ticketDTO.getId(), e.getMessage(), e);
         }
         return ticketDTO;
     }
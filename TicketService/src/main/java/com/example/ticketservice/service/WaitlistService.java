@@ -0,0 +1,258 @@
+package com.example.ticketservice.service;
+
+import com.example.ticketservice.dtos.FlightDTO;
+import com.example.ticketservice.dtos.ScheduleDTO;
+import com.example.ticketservice.dtos.WaitlistEntryDTO;
+import com.example.ticketservice.model.Ticket;
+import com.example.ticketservice.model.TicketStatus;
+import com.example.ticketservice.model.WaitlistEntry;
+import com.example.ticketservice.model.WaitlistState;
+import com.example.ticketservice.repository.TicketRepository;
+import com.example.ticketservice.repository.WaitlistRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Waitlist for sold-out departures, so passengers queue once instead of retrying bookings. Each
+ * schedule has a FIFO queue in {@code waitlist_entries}; the id of its head is cached in memory
+ * for {@code app.waitlist.head-cache-ttl}, so a cancellation can tell whether anyone is waiting
+ * without a query.
+ * <p>
+ * A cancellation records the release of its seat in the {@link SeatReleaseOutbox}. When
+ * someone is waiting, the head of the queue is then promoted in the background: in one
+ * transaction the entry is claimed, a BOOKED ticket is created for it at the price of the
+ * cancelled ticket and the recorded release is cancelled, and the passenger is notified. The
+ * claim is conditional, so an entry is never promoted twice, and a seat the outbox has already
+ * given back is never given away as well. If nobody can be promoted, or the promotion is lost
+ * with this instance, the seat is released from the outbox as usual.
+ */
+@Slf4j
+@Service
+public class WaitlistService {
+    private static final int MAX_CLAIM_ATTEMPTS = 5;
+
+    private record Head(Long entryId, long loadedAt) {
+    }
+
+    private final WaitlistRepository waitlistRepository;
+    private final TicketRepository ticketRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final RestTemplate restTemplate;
+    private final SeatReleaseOutbox seatReleaseOutbox;
+    private final String flightServiceUrl;
+    private final long headTtlNanos;
+    private final Map<Long, Head> heads = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+    private final Counter promoted;
+    private final Counter released;
+
+    public WaitlistService(WaitlistRepository waitlistRepository, TicketRepository ticketRepository,
+                           PlatformTransactionManager transactionManager, RestTemplate restTemplate,
+                           SeatReleaseOutbox seatReleaseOutbox, MeterRegistry meterRegistry,
+                           @Value("${flight.service.url}") String flightServiceUrl,
+                           @Value("${app.waitlist.head-cache-ttl:5s}") Duration headCacheTtl,
+                           @Value("${app.waitlist.workers:2}") int workers,
+                           @Value("${app.waitlist.queue-capacity:10000}") int queueCapacity) {
+        this.waitlistRepository = waitlistRepository;
+        this.ticketRepository = ticketRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.restTemplate = restTemplate;
+        this.seatReleaseOutbox = seatReleaseOutbox;
+        this.flightServiceUrl = flightServiceUrl;
+        this.headTtlNanos = headCacheTtl.toNanos();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), Thread.ofPlatform().name("waitlist-promoter-", 0).factory());
+        this.promoted = Counter.builder("tickets.waitlist.promotions")
+                .description("Waitlisted passengers given a cancelled seat")
+                .register(meterRegistry);
+        this.released = Counter.builder("tickets.waitlist.seats.released")
+                .description("Cancelled seats released because nobody on the waitlist could take them")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Only a flight with no seats left can be joined; one waiting entry per user and schedule.
+     */
+    public WaitlistEntryDTO join(WaitlistEntryDTO request, Long userId) {
+        ScheduleDTO schedule = restTemplate.getForObject(
+                flightServiceUrl + "/flights/schedules/" + request.getScheduleId(), ScheduleDTO.class);
+        if (schedule == null || !request.getFlightId().equals(schedule.getFlightId())) {
+            throw new IllegalArgumentException("Schedule " + request.getScheduleId() + " is not a departure of flight "
+                    + request.getFlightId());
+        }
+        FlightDTO flight = restTemplate.getForObject(flightServiceUrl + "/flights/" + request.getFlightId(), FlightDTO.class);
+        if (flight != null && flight.getAvailableSeats() != null && flight.getAvailableSeats() > 0) {
+            throw new IllegalArgumentException("Seats are still available on this flight; book one instead");
+        }
+        if (waitlistRepository.existsByScheduleIdAndUserIdAndState(request.getScheduleId(), userId, WaitlistState.WAITING)) {
+            throw new IllegalArgumentException("You are already on the waitlist for this departure");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        WaitlistEntry entry = waitlistRepository.save(new WaitlistEntry(null, request.getScheduleId(),
+                request.getFlightId(), userId, request.getPassengerName().trim(), WaitlistState.WAITING, null, now, now));
+        // An empty queue now has this entry as its head
+        heads.computeIfPresent(entry.getScheduleId(),
+                (id, head) -> head.entryId() == null ? new Head(entry.getId(), System.nanoTime()) : head);
+        return convertToDTO(entry);
+    }
+
+    public List<WaitlistEntryDTO> getEntriesByUserId(Long userId) {
+        return waitlistRepository.findByUserIdOrderByIdDesc(userId).stream()
+                .map(this::convertToDTO)
+                .toList();
+    }
+
+    public void withdraw(Long id, Long userId) {
+        WaitlistEntry entry = waitlistRepository.findById(id)
+                .filter(found -> found.getUserId().equals(userId))
+                .orElseThrow(() -> new IllegalArgumentException("Waitlist entry not found"));
+        Integer withdrawn = transactionTemplate.execute(status ->
+                waitlistRepository.withdraw(id, userId, LocalDateTime.now()));
+        if (withdrawn == null || withdrawn == 0) {
+            throw new IllegalArgumentException("Waitlist entry is no longer waiting");
+        }
+        heads.computeIfPresent(entry.getScheduleId(), (scheduleId, head) -> id.equals(head.entryId()) ? null : head);
+    }
+
+    /**
+     * Offers the seat of a cancelled ticket to the schedule's waitlist; call after the
+     * cancellation commits.
+     *
+     * @param releaseIds the seat's release, recorded in the {@link SeatReleaseOutbox} with the cancellation
+     * @return true if the waitlist took the seat over and will release it itself if nobody
+     * can be promoted; false if the caller should release it
+     */
+    public boolean offerSeat(Long flightId, Long scheduleId, Double price, List<Long> releaseIds) {
+        try {
+            if (head(scheduleId) == null) {
+                return false;
+            }
+            executor.execute(() -> promote(flightId, scheduleId, price, releaseIds));
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.warn("Waitlist promotion backlog full, releasing the seat on flight {}", flightId);
+            return false;
+        } catch (Exception e) {
+            log.warn("Could not check the waitlist of schedule {}: {}", scheduleId, e.getMessage());
+            return false;
+        }
+    }
+
+    private void promote(Long flightId, Long scheduleId, Double price, List<Long> releaseIds) {
+        try {
+            for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+                Long entryId = head(scheduleId);
+                if (entryId == null) {
+                    break;
+                }
+                WaitlistEntry entry = transactionTemplate.execute(status -> claim(entryId, price, releaseIds, status));
+                // Either way the cached head is used up
+                heads.remove(scheduleId);
+                if (entry != null) {
+                    promoted.increment();
+                    notifyPromoted(entry);
+                    return;
+                }
+            }
+        } catch (SeatAlreadyReleasedException e) {
+            log.info("Seat on flight {} was released before schedule {}'s waitlist could take it", flightId, scheduleId);
+            return;
+        } catch (Exception e) {
+            log.error("Waitlist promotion on schedule {} failed: {}", scheduleId, e.getMessage(), e);
+        }
+        releaseSeat(flightId, releaseIds);
+    }
+
+    // Null if the entry was promoted or withdrawn meanwhile; the ticket insert is then rolled back
+    private WaitlistEntry claim(Long entryId, Double price, List<Long> releaseIds, TransactionStatus status) {
+        WaitlistEntry entry = waitlistRepository.findById(entryId).orElse(null);
+        if (entry == null || entry.getState() != WaitlistState.WAITING) {
+            return null;
+        }
+        // Locks the release, so the outbox cannot send it while the seat is being handed over
+        if (seatReleaseOutbox.cancel(releaseIds) < releaseIds.size()) {
+            throw new SeatAlreadyReleasedException();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Ticket ticket = ticketRepository.save(new Ticket(null, entry.getUserId(), entry.getFlightId(),
+                entry.getScheduleId(), entry.getPassengerName(), null, price, TicketStatus.BOOKED, now, now, null));
+        if (waitlistRepository.promote(entryId, ticket.getId(), now) == 0) {
+            status.setRollbackOnly();
+            return null;
+        }
+        entry.setState(WaitlistState.PROMOTED);
+        entry.setTicketId(ticket.getId());
+        return entry;
+    }
+
+    private void notifyPromoted(WaitlistEntry entry) {
+        // Delivery is a log line for now, like disruption notices
+        log.info("Notify user {}: waitlist entry {} for schedule {} is now booked as ticket {}", entry.getUserId(),
+                entry.getId(), entry.getScheduleId(), entry.getTicketId());
+    }
+
+    private void releaseSeat(Long flightId, List<Long> releaseIds) {
+        try {
+            released.increment(seatReleaseOutbox.release(releaseIds));
+        } catch (Exception e) {
+            log.warn("Could not release a seat on flight {} now, will retry: {}", flightId, e.getMessage());
+        }
+    }
+
+    private Long head(Long scheduleId) {
+        Head cached = heads.get(scheduleId);
+        if (cached != null && System.nanoTime() - cached.loadedAt() < headTtlNanos) {
+            return cached.entryId();
+        }
+        Long entryId = waitlistRepository.findFirstByScheduleIdAndStateOrderByIdAsc(scheduleId, WaitlistState.WAITING)
+                .map(WaitlistEntry::getId)
+                .orElse(null);
+        heads.put(scheduleId, new Head(entryId, System.nanoTime()));
+        return entryId;
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictStaleHeads() {
+        long now = System.nanoTime();
+        heads.values().removeIf(head -> now - head.loadedAt() >= headTtlNanos);
+    }
+
+    private WaitlistEntryDTO convertToDTO(WaitlistEntry entry) {
+        Long position = entry.getState() == WaitlistState.WAITING
+                ? waitlistRepository.countByScheduleIdAndStateAndIdLessThan(entry.getScheduleId(),
+                WaitlistState.WAITING, entry.getId()) + 1
+                : null;
+        return new WaitlistEntryDTO(entry.getId(), entry.getScheduleId(), entry.getFlightId(), entry.getPassengerName(),
+                entry.getState().name(), position, entry.getTicketId(), entry.getCreatedAt());
+    }
+
+    // Promotions still queued when this times out keep their release in the outbox, which sends it later
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    // Rolls the claim back: the outbox sent the seat's release before the waitlist could cancel it
+    private static class SeatAlreadyReleasedException extends RuntimeException {
+    }
+}
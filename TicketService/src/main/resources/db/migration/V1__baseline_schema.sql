@@ -0,0 +1,15 @@
+-- Table as previously generated by spring.jpa.hibernate.ddl-auto=update.
+-- IF NOT EXISTS lets this baseline run against databases that already have it.
+CREATE TABLE IF NOT EXISTS tickets (
+    id             BIGINT       NOT NULL AUTO_INCREMENT,
+    user_id        BIGINT,
+    flight_id      BIGINT,
+    schedule_id    BIGINT,
+    passenger_name VARCHAR(255),
+    seat_number    VARCHAR(255),
+    price          DOUBLE,
+    status         TINYINT,
+    booking_time   DATETIME(6),
+    last_updated   DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,4 @@
+-- TicketRepository.findByUserId / findByScheduleId / findByFlightId
+CREATE INDEX idx_tickets_user ON tickets (user_id);
+CREATE INDEX idx_tickets_schedule ON tickets (schedule_id);
+CREATE INDEX idx_tickets_flight ON tickets (flight_id);
@@ -0,0 +1,2 @@
+-- Set when the ticket's departure is delayed or cancelled through a bulk disruption
+ALTER TABLE tickets ADD COLUMN disruption VARCHAR(32);
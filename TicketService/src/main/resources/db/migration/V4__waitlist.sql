@@ -0,0 +1,16 @@
+-- Per-schedule FIFO waitlist for sold-out departures; the oldest WAITING entry is promoted when a seat is freed
+CREATE TABLE waitlist_entries (
+    id             BIGINT       NOT NULL AUTO_INCREMENT,
+    schedule_id    BIGINT       NOT NULL,
+    flight_id      BIGINT       NOT NULL,
+    user_id        BIGINT       NOT NULL,
+    passenger_name VARCHAR(255) NOT NULL,
+    state          VARCHAR(16)  NOT NULL,
+    ticket_id      BIGINT       NULL,
+    created_at     DATETIME(6)  NOT NULL,
+    updated_at     DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    -- Head of a schedule's queue, and positions within it
+    INDEX idx_waitlist_schedule_state (schedule_id, state, id),
+    INDEX idx_waitlist_user (user_id)
+) ENGINE = InnoDB;
@@ -0,0 +1,22 @@
+-- Departure of the ticket's schedule, copied from FlightService by TicketArchiver; tickets that departed
+-- more than app.archive.after-days ago move to tickets_archive
+ALTER TABLE tickets ADD COLUMN departure_time DATETIME(6) NULL;
+CREATE INDEX idx_tickets_departure ON tickets (departure_time);
+
+CREATE TABLE tickets_archive (
+    id             BIGINT       NOT NULL,
+    user_id        BIGINT,
+    flight_id      BIGINT,
+    schedule_id    BIGINT,
+    passenger_name VARCHAR(255),
+    seat_number    VARCHAR(255),
+    price          DOUBLE,
+    status         TINYINT,
+    booking_time   DATETIME(6),
+    last_updated   DATETIME(6),
+    disruption     VARCHAR(32),
+    departure_time DATETIME(6),
+    archived_at    DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_tickets_archive_user (user_id)
+) ENGINE = InnoDB;
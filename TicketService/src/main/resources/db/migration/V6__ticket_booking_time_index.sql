@@ -0,0 +1,2 @@
+-- Admin ticket query: booking-time ranges, and keyset paging in booking-time order
+CREATE INDEX idx_tickets_booking_time ON tickets (booking_time, id);
@@ -0,0 +1,7 @@
+-- Nonces of fare quotes already used for a booking, so a quote books once; rows go once the quote has expired
+CREATE TABLE fare_quote_redemptions (
+    nonce      VARCHAR(32) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (nonce),
+    INDEX idx_fare_quote_redemptions_expiry (expires_at)
+) ENGINE = InnoDB;
@@ -0,0 +1,11 @@
+-- Seats owed back to FlightService, written in the same transaction that cancels the tickets and
+-- deleted once FlightService has taken them, so a failed release is retried instead of lost.
+CREATE TABLE pending_seat_releases (
+    id         BIGINT        NOT NULL AUTO_INCREMENT,
+    flight_id  BIGINT        NOT NULL,
+    seats      INT           NOT NULL,
+    created_at DATETIME(6)   NOT NULL,
+    attempts   INT           NOT NULL DEFAULT 0,
+    last_error VARCHAR(1024) NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,2 @@
+-- Admin ticket query with archived tickets: tickets_archive is paged by keyset on its own, like tickets (V6)
+CREATE INDEX idx_tickets_archive_booking_time ON tickets_archive (booking_time, id);
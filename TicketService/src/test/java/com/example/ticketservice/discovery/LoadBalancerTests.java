@@ -0,0 +1,92 @@
+package com.example.ticketservice.discovery;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadBalancerTests {
+
+	private static final String SERVICE = "flight-service";
+
+	private ServiceRegistry registry;
+	private LoadBalancer loadBalancer;
+
+	@BeforeEach
+	void setUp() {
+		DiscoveryProperties properties = new DiscoveryProperties();
+		DiscoveryProperties.Service service = new DiscoveryProperties.Service();
+		service.setInstances(List.of("http://a:8081", "http://b:8081", "http://c:8081", "http://d:8081"));
+		properties.getServices().put(SERVICE, service);
+		registry = new ServiceRegistry(properties);
+		registry.refresh();
+		loadBalancer = new LoadBalancer(registry, properties, new SimpleMeterRegistry());
+	}
+
+	@Test
+	void ejectedInstanceIsNotChosen() {
+		ServiceInstance failing = instance(0);
+		for (int i = 0; i < 3; i++) {
+			loadBalancer.recordFailure(SERVICE, failing);
+		}
+		assertTrue(failing.isEjected(System.nanoTime()));
+		for (int i = 0; i < 100; i++) {
+			assertNotEquals(failing, loadBalancer.choose(SERVICE, Set.of()));
+		}
+	}
+
+	@Test
+	void successEndsTheRunOfFailures() {
+		ServiceInstance flaky = instance(0);
+		loadBalancer.recordFailure(SERVICE, flaky);
+		loadBalancer.recordFailure(SERVICE, flaky);
+		loadBalancer.recordSuccess(flaky);
+		loadBalancer.recordFailure(SERVICE, flaky);
+		loadBalancer.recordFailure(SERVICE, flaky);
+		assertFalse(flaky.isEjected(System.nanoTime()));
+	}
+
+	@Test
+	void neverEjectsMoreThanTheConfiguredShare() {
+		for (int index = 0; index < 3; index++) {
+			for (int i = 0; i < 3; i++) {
+				loadBalancer.recordFailure(SERVICE, instance(index));
+			}
+		}
+		long now = System.nanoTime();
+		assertTrue(instance(0).isEjected(now));
+		assertTrue(instance(1).isEjected(now));
+		// A third of four would be 75%, over the default 50%
+		assertFalse(instance(2).isEjected(now));
+	}
+
+	@Test
+	void lessLoadedOfTwoChoicesWins() {
+		Set<ServiceInstance> tried = Set.of(instance(2), instance(3));
+		instance(0).started();
+		instance(0).started();
+		for (int i = 0; i < 100; i++) {
+			assertEquals(instance(1), loadBalancer.choose(SERVICE, tried));
+		}
+	}
+
+	@Test
+	void triedInstancesAreAvoidedUntilNoneAreLeft() {
+		Set<ServiceInstance> tried = new HashSet<>(List.of(instance(0), instance(1), instance(2)));
+		assertEquals(instance(3), loadBalancer.choose(SERVICE, tried));
+		tried.add(instance(3));
+		assertTrue(registry.instancesOf(SERVICE).contains(loadBalancer.choose(SERVICE, tried)));
+	}
+
+	private ServiceInstance instance(int index) {
+		return registry.instancesOf(SERVICE).get(index);
+	}
+}
@@ -0,0 +1,77 @@
+package com.example.ticketservice.discovery;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.net.URI;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadBalancingInterceptorTests {
+
+	private ServiceRegistry registry;
+	private LoadBalancingInterceptor interceptor;
+
+	@BeforeEach
+	void setUp() {
+		DiscoveryProperties properties = new DiscoveryProperties();
+		DiscoveryProperties.Service service = new DiscoveryProperties.Service();
+		service.setInstances(List.of("http://a:8081", "http://b:8081"));
+		properties.getServices().put("flight-service", service);
+		properties.getEjection().setConsecutiveFailures(1);
+		registry = new ServiceRegistry(properties);
+		registry.refresh();
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		interceptor = new LoadBalancingInterceptor(registry, new LoadBalancer(registry, properties, meterRegistry),
+				properties, meterRegistry);
+	}
+
+	@Test
+	void applicationErrorDoesNotCountAgainstTheInstance() throws Exception {
+		MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.POST, URI.create("http://flight-service/flights/1/seats/reserve"));
+		int status = interceptor.intercept(request, new byte[0],
+				(routed, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.INTERNAL_SERVER_ERROR))
+				.getStatusCode().value();
+
+		assertEquals(500, status);
+		assertTrue(registry.instancesOf("flight-service").stream().noneMatch(this::ejected));
+	}
+
+	@Test
+	void unavailableInstanceIsEjectedAndTheGetRetriedElsewhere() throws Exception {
+		MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("http://flight-service/flights/1"));
+		int[] attempts = new int[1];
+		int status = interceptor.intercept(request, new byte[0], (routed, body) -> new MockClientHttpResponse(new byte[0],
+				attempts[0]++ == 0 ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.OK)).getStatusCode().value();
+
+		assertEquals(200, status);
+		assertEquals(2, attempts[0]);
+		assertEquals(1, registry.instancesOf("flight-service").stream().filter(this::ejected).count());
+	}
+
+	@Test
+	void postIsNotRetried() throws Exception {
+		MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.POST, URI.create("http://flight-service/flights/1/seats/reserve"));
+		int[] attempts = new int[1];
+		int status = interceptor.intercept(request, new byte[0], (routed, body) -> {
+			attempts[0]++;
+			return new MockClientHttpResponse(new byte[0], HttpStatus.BAD_GATEWAY);
+		}).getStatusCode().value();
+
+		assertEquals(502, status);
+		assertEquals(1, attempts[0]);
+		assertFalse(registry.instancesOf("flight-service").stream().allMatch(this::ejected));
+	}
+
+	private boolean ejected(ServiceInstance instance) {
+		return instance.isEjected(System.nanoTime());
+	}
+}
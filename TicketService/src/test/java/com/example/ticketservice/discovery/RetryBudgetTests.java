@@ -0,0 +1,35 @@
+package com.example.ticketservice.discovery;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryBudgetTests {
+
+	@Test
+	void retriesStopWhenTheBudgetIsSpent() {
+		RetryBudget budget = new RetryBudget(0.5, 2);
+		assertTrue(budget.tryRetry());
+		assertTrue(budget.tryRetry());
+		assertFalse(budget.tryRetry());
+
+		// Two requests at a ratio of 0.5 earn one retry
+		budget.requestSent();
+		budget.requestSent();
+		assertTrue(budget.tryRetry());
+		assertFalse(budget.tryRetry());
+	}
+
+	@Test
+	void quietPeriodCannotBankMoreThanTwiceTheMinimum() {
+		RetryBudget budget = new RetryBudget(1.0, 2);
+		for (int i = 0; i < 100; i++) {
+			budget.requestSent();
+		}
+		for (int i = 0; i < 4; i++) {
+			assertTrue(budget.tryRetry());
+		}
+		assertFalse(budget.tryRetry());
+	}
+}
@@ -0,0 +1,59 @@
+package com.example.ticketservice.discovery;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ServiceRegistryTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void refreshKeepsTheStateOfInstancesStillListed() throws Exception {
+		Path file = directory.resolve("flight-service.txt");
+		Files.writeString(file, "http://a:8081\nhttp://b:8081/ # trailing slash and comment\n");
+		ServiceRegistry registry = registry(file);
+		registry.refresh();
+		ServiceInstance a = registry.instancesOf("flight-service").get(0);
+		a.started();
+		assertEquals(List.of(URI.create("http://a:8081"), URI.create("http://b:8081")), uris(registry));
+
+		Files.writeString(file, "http://a:8081\nhttp://c:8081\n");
+		registry.refresh();
+		assertEquals(List.of(URI.create("http://a:8081"), URI.create("http://c:8081")), uris(registry));
+		assertSame(a, registry.instancesOf("flight-service").get(0));
+		assertEquals(1, a.outstanding());
+	}
+
+	@Test
+	void failedLookupKeepsThePreviousInstances() throws Exception {
+		Path file = directory.resolve("flight-service.txt");
+		Files.writeString(file, "http://a:8081\n");
+		ServiceRegistry registry = registry(file);
+		registry.refresh();
+
+		Files.delete(file);
+		registry.refresh();
+		assertEquals(List.of(URI.create("http://a:8081")), uris(registry));
+	}
+
+	private static ServiceRegistry registry(Path file) {
+		DiscoveryProperties properties = new DiscoveryProperties();
+		DiscoveryProperties.Service service = new DiscoveryProperties.Service();
+		service.setFile(file.toString());
+		properties.getServices().put("flight-service", service);
+		return new ServiceRegistry(properties);
+	}
+
+	private static List<URI> uris(ServiceRegistry registry) {
+		return registry.instancesOf("flight-service").stream().map(ServiceInstance::getBaseUri).toList();
+	}
+}
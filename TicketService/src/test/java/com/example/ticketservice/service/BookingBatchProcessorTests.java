@@ -0,0 +1,141 @@
+package com.example.ticketservice.service;
+
+import com.example.ticketservice.dtos.TicketDTO;
+import com.example.ticketservice.service.BookingBatchProcessor.PendingBooking;
+import com.example.ticketservice.service.BookingBatchProcessor.Result;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BookingBatchProcessorTests {
+
+	// Seats left per flight, and every reserve/release call as "flight:seats"
+	private static class FakeFlightSeatClient extends FlightSeatClient {
+		final Map<Long, Integer> seats = new HashMap<>();
+		final List<String> reserved = new ArrayList<>();
+		final List<String> released = new ArrayList<>();
+		boolean releaseFails;
+
+		FakeFlightSeatClient() {
+			super(null, null, "http://flight-service");
+		}
+
+		@Override
+		public void reserve(Long flightId, int count) {
+			int left = seats.getOrDefault(flightId, 0);
+			if (left < count) {
+				throw HttpClientErrorException.create(HttpStatus.CONFLICT, "Conflict", null, null, null);
+			}
+			seats.put(flightId, left - count);
+			reserved.add(flightId + ":" + count);
+		}
+
+		@Override
+		public void release(Long flightId, int count) {
+			if (releaseFails) {
+				throw new IllegalStateException("FlightService unavailable");
+			}
+			seats.merge(flightId, count, Integer::sum);
+			released.add(flightId + ":" + count);
+		}
+	}
+
+	// Hands out ticket ids from 100 for each batched INSERT, or fails it
+	private static class FakeJdbcTemplate extends JdbcTemplate {
+		boolean fail;
+		long nextId = 100;
+
+		@Override
+		public int[] batchUpdate(PreparedStatementCreator psc, BatchPreparedStatementSetter pss, KeyHolder keyHolder) {
+			if (fail) {
+				throw new IllegalStateException("Database unavailable");
+			}
+			for (int i = 0; i < pss.getBatchSize(); i++) {
+				keyHolder.getKeyList().add(Map.of("GENERATED_KEY", nextId++));
+			}
+			return new int[pss.getBatchSize()];
+		}
+	}
+
+	private final FakeFlightSeatClient flights = new FakeFlightSeatClient();
+	private final FakeSeatReleaseOutbox outbox = new FakeSeatReleaseOutbox(flights);
+	private final FakeJdbcTemplate jdbcTemplate = new FakeJdbcTemplate();
+	private final BookingBatchProcessor processor = new BookingBatchProcessor(flights, outbox, jdbcTemplate,
+			FakeSeatReleaseOutbox.TRANSACTIONS);
+
+	private static PendingBooking booking(String id, long flightId) {
+		TicketDTO ticket = new TicketDTO();
+		ticket.setUserId(1L);
+		ticket.setFlightId(flightId);
+		ticket.setScheduleId(10L);
+		ticket.setPassengerName("Passenger " + id);
+		ticket.setPrice(100.0);
+		return new PendingBooking(id, ticket);
+	}
+
+	@Test
+	void reservesOncePerFlightAndInsertsEveryTicket() {
+		flights.seats.put(1L, 10);
+		flights.seats.put(2L, 10);
+
+		Map<String, Result> results = processor.process(List.of(booking("a", 1), booking("b", 2), booking("c", 1)));
+
+		assertEquals(List.of("1:2", "2:1"), flights.reserved);
+		assertEquals(3, results.size());
+		results.values().forEach(result -> {
+			assertNotNull(result.ticketId());
+			assertNull(result.error());
+		});
+	}
+
+	@Test
+	void fullFlightSeatsBookingsInArrivalOrderUntilItRunsOut() {
+		flights.seats.put(1L, 2);
+
+		Map<String, Result> results = processor.process(List.of(booking("a", 1), booking("b", 1), booking("c", 1)));
+
+		assertNotNull(results.get("a").ticketId());
+		assertNotNull(results.get("b").ticketId());
+		assertNull(results.get("c").ticketId());
+		assertEquals("No seats left on this flight", results.get("c").error());
+		assertEquals(0, flights.seats.get(1L));
+	}
+
+	@Test
+	void failedInsertReleasesTheSeatsAndRejectsTheBatch() {
+		flights.seats.put(1L, 10);
+		jdbcTemplate.fail = true;
+
+		Map<String, Result> results = processor.process(List.of(booking("a", 1), booking("b", 1)));
+
+		assertEquals(List.of("1:2"), flights.released);
+		assertEquals(10, flights.seats.get(1L));
+		results.values().forEach(result -> assertEquals("Booking could not be stored", result.error()));
+	}
+
+	@Test
+	void failedReleaseIsLeftInTheOutboxAndTheBatchIsStillAnswered() {
+		flights.seats.put(1L, 10);
+		flights.seats.put(2L, 10);
+		jdbcTemplate.fail = true;
+		flights.releaseFails = true;
+
+		Map<String, Result> results = processor.process(List.of(booking("a", 1), booking("b", 2)));
+
+		assertEquals(2, outbox.pending.size());
+		results.values().forEach(result -> assertEquals("Booking could not be stored", result.error()));
+	}
+}
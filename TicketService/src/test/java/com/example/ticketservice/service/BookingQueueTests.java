@@ -0,0 +1,136 @@
+package com.example.ticketservice.service;
+
+import com.example.ticketservice.dtos.BookingStatusDTO;
+import com.example.ticketservice.dtos.TicketDTO;
+import com.example.ticketservice.model.BookingState;
+import com.example.ticketservice.security.FareQuoteVerifier;
+import com.example.ticketservice.service.BookingBatchProcessor.PendingBooking;
+import com.example.ticketservice.service.BookingBatchProcessor.Result;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookingQueueTests {
+	private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+	// Accepts a quote unless the passenger is called "forged"
+	private static class FakeFareQuoteVerifier extends FareQuoteVerifier {
+		FakeFareQuoteVerifier() {
+			super(null, SECRET);
+		}
+
+		@Override
+		public void applyQuote(TicketDTO ticket) {
+			if ("forged".equals(ticket.getPassengerName())) {
+				throw new IllegalArgumentException("Fare quote signature is invalid");
+			}
+			ticket.setPrice(100.0);
+		}
+	}
+
+	private static class FakeProcessor extends BookingBatchProcessor {
+		private final Function<List<PendingBooking>, Map<String, Result>> outcome;
+
+		FakeProcessor(Function<List<PendingBooking>, Map<String, Result>> outcome) {
+			super(null, null, null, null);
+			this.outcome = outcome;
+		}
+
+		@Override
+		public Map<String, Result> process(List<PendingBooking> batch) {
+			return outcome.apply(batch);
+		}
+	}
+
+	private BookingQueue queue;
+	private boolean started;
+
+	private BookingQueue queue(int capacity, Function<List<PendingBooking>, Map<String, Result>> outcome) {
+		queue = new BookingQueue(new FakeProcessor(outcome), new FakeFareQuoteVerifier(), new SimpleMeterRegistry(),
+				capacity, 1, 10, Duration.ofMinutes(10));
+		return queue;
+	}
+
+	private static TicketDTO ticket(String passengerName) {
+		TicketDTO ticket = new TicketDTO();
+		ticket.setUserId(1L);
+		ticket.setFlightId(1L);
+		ticket.setScheduleId(10L);
+		ticket.setPassengerName(passengerName);
+		return ticket;
+	}
+
+	private BookingStatusDTO awaitCompletion(String bookingId) throws InterruptedException {
+		for (int i = 0; i < 500; i++) {
+			BookingStatusDTO status = queue.getStatus(bookingId).orElseThrow();
+			if (status.getCompletedAt() != null) {
+				return status;
+			}
+			Thread.sleep(10);
+		}
+		throw new AssertionError("Booking " + bookingId + " was not processed");
+	}
+
+	@AfterEach
+	void stop() throws InterruptedException {
+		if (started) {
+			queue.stop();
+		}
+	}
+
+	@Test
+	void acceptedBookingIsQueuedThenConfirmed() throws InterruptedException {
+		queue(10, batch -> batch.stream().collect(Collectors.toMap(PendingBooking::bookingId,
+				booking -> new Result(42L, null))));
+		queue.start();
+		started = true;
+
+		BookingStatusDTO submitted = queue.submit(ticket("Ada"));
+		assertEquals(BookingState.QUEUED, submitted.getState());
+
+		BookingStatusDTO completed = awaitCompletion(submitted.getBookingId());
+		assertEquals(BookingState.CONFIRMED, completed.getState());
+		assertEquals(42L, completed.getTicketId());
+	}
+
+	@Test
+	void bookingTheProcessorFailsOnIsRejectedNotLeftQueued() throws InterruptedException {
+		queue(10, batch -> {
+			throw new IllegalStateException("FlightService unavailable");
+		});
+		queue.start();
+		started = true;
+
+		BookingStatusDTO completed = awaitCompletion(queue.submit(ticket("Ada")).getBookingId());
+		assertEquals(BookingState.REJECTED, completed.getState());
+		assertEquals("Booking could not be processed", completed.getMessage());
+	}
+
+	@Test
+	void fullQueueRefusesTheBooking() {
+		// Workers not started, so nothing drains the queue
+		queue(1, batch -> Map.of());
+		queue.submit(ticket("Ada"));
+
+		assertThrows(BookingQueueFullException.class, () -> queue.submit(ticket("Grace")));
+	}
+
+	@Test
+	void invalidQuoteIsRefusedOnAdmission() {
+		queue(1, batch -> Map.of());
+
+		assertThrows(IllegalArgumentException.class, () -> queue.submit(ticket("forged")));
+		// The refused booking took no room in the queue
+		assertTrue(queue.submit(ticket("Ada")).getBookingId() != null);
+	}
+}
@@ -0,0 +1,72 @@
+package com.example.ticketservice.service;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Keeps pending_seat_releases in memory and sends releases through the given seat client; failed ones stay pending
+class FakeSeatReleaseOutbox extends SeatReleaseOutbox {
+	static final PlatformTransactionManager TRANSACTIONS = new PlatformTransactionManager() {
+		@Override
+		public TransactionStatus getTransaction(TransactionDefinition definition) {
+			return new SimpleTransactionStatus();
+		}
+
+		@Override
+		public void commit(TransactionStatus status) {
+		}
+
+		@Override
+		public void rollback(TransactionStatus status) {
+		}
+	};
+
+	record Pending(Long flightId, int seats) {
+	}
+
+	final Map<Long, Pending> pending = new LinkedHashMap<>();
+	private final FlightSeatClient flightSeatClient;
+	private long nextId = 1;
+
+	FakeSeatReleaseOutbox(FlightSeatClient flightSeatClient) {
+		super(null, TRANSACTIONS, flightSeatClient, Duration.ZERO);
+		this.flightSeatClient = flightSeatClient;
+	}
+
+	@Override
+	public List<Long> add(Long flightId, int seats) {
+		long id = nextId++;
+		pending.put(id, new Pending(flightId, seats));
+		return List.of(id);
+	}
+
+	@Override
+	public int cancel(List<Long> ids) {
+		return (int) ids.stream().filter(id -> pending.remove(id) != null).count();
+	}
+
+	@Override
+	public int release(List<Long> ids) {
+		int seats = 0;
+		for (Long id : ids) {
+			Pending release = pending.get(id);
+			if (release == null) {
+				continue;
+			}
+			try {
+				flightSeatClient.release(release.flightId(), release.seats());
+				pending.remove(id);
+				seats += release.seats();
+			} catch (RuntimeException e) {
+				// Stays pending for the retry
+			}
+		}
+		return seats;
+	}
+}
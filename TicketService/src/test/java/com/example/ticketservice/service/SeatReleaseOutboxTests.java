@@ -0,0 +1,93 @@
+package com.example.ticketservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SeatReleaseOutboxTests {
+
+	// Every release call as "flight:seats"; fails while down
+	private static class FakeFlightSeatClient extends FlightSeatClient {
+		final List<String> released = new ArrayList<>();
+		boolean down;
+
+		FakeFlightSeatClient() {
+			super(null, null, "http://flight-service");
+		}
+
+		@Override
+		public void release(Long flightId, int seats) {
+			if (down) {
+				throw new IllegalStateException("FlightService unavailable");
+			}
+			released.add(flightId + ":" + seats);
+		}
+	}
+
+	private final FakeFlightSeatClient flights = new FakeFlightSeatClient();
+	private JdbcTemplate jdbcTemplate;
+	private SeatReleaseOutbox outbox;
+
+	@BeforeEach
+	void setUp() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:seat_releases;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("DROP TABLE IF EXISTS pending_seat_releases");
+		jdbcTemplate.execute("CREATE TABLE pending_seat_releases (id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, " +
+				"flight_id BIGINT NOT NULL, seats INT NOT NULL, created_at TIMESTAMP(6) NOT NULL, " +
+				"attempts INT NOT NULL DEFAULT 0, last_error VARCHAR(1024) NULL)");
+		outbox = new SeatReleaseOutbox(jdbcTemplate, new DataSourceTransactionManager(dataSource), flights, Duration.ZERO);
+	}
+
+	@Test
+	void failedReleaseStaysPendingUntilTheRetrySendsIt() {
+		flights.down = true;
+		List<Long> ids = outbox.add(1L, 2);
+
+		assertEquals(0, outbox.release(ids));
+		assertEquals(1, pending());
+
+		flights.down = false;
+		outbox.retryPending();
+		assertEquals(List.of("1:2"), flights.released);
+		assertEquals(0, pending());
+	}
+
+	@Test
+	void cancelledReleaseIsNeverSent() {
+		List<Long> ids = outbox.add(1L, 1);
+
+		assertEquals(1, outbox.cancel(ids));
+		assertEquals(0, outbox.release(ids));
+		// Already gone, so whoever cancels it second must not take the seat
+		assertEquals(0, outbox.cancel(ids));
+		assertEquals(List.of(), flights.released);
+	}
+
+	@Test
+	void seatsOfWorkThatDidNotCommitAreReleasedOrLeftForTheRetry() {
+		outbox.releaseUncommitted(1L, 1);
+		assertEquals(List.of("1:1"), flights.released);
+
+		flights.down = true;
+		outbox.releaseUncommitted(2L, 3);
+		assertEquals(1, pending());
+
+		flights.down = false;
+		outbox.retryPending();
+		assertEquals(List.of("1:1", "2:3"), flights.released);
+	}
+
+	private int pending() {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pending_seat_releases", Integer.class);
+	}
+}
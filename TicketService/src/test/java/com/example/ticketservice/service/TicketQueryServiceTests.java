@@ -0,0 +1,85 @@
+package com.example.ticketservice.service;
+
+import com.example.ticketservice.dtos.TicketDTO;
+import com.example.ticketservice.dtos.TicketFilterDTO;
+import com.example.ticketservice.dtos.TicketPageDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TicketQueryServiceTests {
+	private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+	private JdbcTemplate jdbcTemplate;
+	private TicketQueryService queryService;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+				"jdbc:h2:mem:tickets;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", ""));
+		for (String table : List.of("tickets", "tickets_archive")) {
+			jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+			jdbcTemplate.execute("CREATE TABLE " + table + " (id BIGINT PRIMARY KEY, user_id BIGINT, flight_id BIGINT, " +
+					"schedule_id BIGINT, passenger_name VARCHAR(255), price DOUBLE, status TINYINT, " +
+					"booking_time TIMESTAMP(6), last_updated TIMESTAMP(6), disruption VARCHAR(32))");
+		}
+		// Odd ids are live, even ids archived; booked an hour apart in id order
+		for (long id = 1; id <= 5; id++) {
+			insert(id % 2 == 1 ? "tickets" : "tickets_archive", id, START.plusHours(id));
+		}
+		insert("tickets", 6L, null);
+		queryService = new TicketQueryService(jdbcTemplate);
+	}
+
+	@Test
+	void archivedTicketsArePagedTogetherWithLiveOnes() {
+		assertEquals(List.of(1L, 2L, 3L, 4L, 5L), allPages("bookingTime", "asc", true));
+		assertEquals(List.of(5L, 4L, 3L, 2L, 1L), allPages("bookingTime", "desc", true));
+		assertEquals(List.of(6L, 5L, 4L, 3L, 2L, 1L), allPages("id", "desc", true));
+		assertEquals(List.of(1L, 3L, 5L, 6L), allPages("id", "asc", false));
+	}
+
+	@Test
+	void ticketsWithoutBookingTimeAreLeftOutOfBookingTimeOrder() {
+		TicketPageDTO page = queryService.query(filter(false), "bookingTime", "asc", 3, null);
+		assertEquals(List.of(1L, 3L, 5L), ids(page.getTickets()));
+		assertNull(page.getNextCursor());
+	}
+
+	private List<Long> allPages(String sort, String direction, boolean includeArchived) {
+		List<Long> ids = new ArrayList<>();
+		String after = null;
+		do {
+			TicketPageDTO page = queryService.query(filter(includeArchived), sort, direction, 2, after);
+			ids.addAll(ids(page.getTickets()));
+			after = page.getNextCursor();
+		} while (after != null);
+		return ids;
+	}
+
+	private static TicketFilterDTO filter(boolean includeArchived) {
+		TicketFilterDTO filter = new TicketFilterDTO();
+		filter.setIncludeArchived(includeArchived);
+		return filter;
+	}
+
+	private static List<Long> ids(List<TicketDTO> tickets) {
+		return tickets.stream().map(TicketDTO::getId).toList();
+	}
+
+	private void insert(String table, Long id, LocalDateTime bookingTime) {
+		jdbcTemplate.update("INSERT INTO " + table + " (id, user_id, flight_id, schedule_id, passenger_name, price, " +
+						"status, booking_time, last_updated) VALUES (?, 1, 1, 1, ?, 100, 0, ?, ?)",
+				id, "Passenger " + id, bookingTime == null ? null : Timestamp.valueOf(bookingTime),
+				Timestamp.valueOf(START));
+	}
+}
@@ -0,0 +1,166 @@
+package com.example.ticketservice.service;
+
+import com.example.ticketservice.model.Ticket;
+import com.example.ticketservice.model.TicketStatus;
+import com.example.ticketservice.model.WaitlistEntry;
+import com.example.ticketservice.model.WaitlistState;
+import com.example.ticketservice.repository.TicketRepository;
+import com.example.ticketservice.repository.WaitlistRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WaitlistServiceTests {
+	private static final long FLIGHT = 1L;
+	private static final long SCHEDULE = 10L;
+
+	// Every release call as "flight:seats"
+	private static class RecordingFlightSeatClient extends FlightSeatClient {
+		final List<String> released = new ArrayList<>();
+
+		RecordingFlightSeatClient() {
+			super(null, null, "http://flight-service");
+		}
+
+		@Override
+		public synchronized void release(Long flightId, int seats) {
+			released.add(flightId + ":" + seats);
+		}
+	}
+
+	private final Map<Long, Ticket> tickets = new ConcurrentHashMap<>();
+	private final Map<Long, WaitlistEntry> entries = new ConcurrentHashMap<>();
+	private final RecordingFlightSeatClient flights = new RecordingFlightSeatClient();
+	private final FakeSeatReleaseOutbox outbox = new FakeSeatReleaseOutbox(flights);
+	private final TicketRepository ticketRepository = repository(TicketRepository.class, Map.of(
+			"findByIdForUpdate", args -> Optional.ofNullable(tickets.get((Long) args[0])),
+			"save", args -> {
+				Ticket ticket = (Ticket) args[0];
+				if (ticket.getId() == null) {
+					ticket.setId(100L + tickets.size());
+				}
+				tickets.put(ticket.getId(), ticket);
+				return ticket;
+			}));
+	private final WaitlistRepository waitlistRepository = repository(WaitlistRepository.class, Map.of(
+			"findById", args -> Optional.ofNullable(entries.get((Long) args[0])),
+			"findFirstByScheduleIdAndStateOrderByIdAsc", args -> entries.values().stream()
+					.filter(entry -> entry.getScheduleId().equals(args[0]) && entry.getState() == args[1])
+					.min((a, b) -> a.getId().compareTo(b.getId())),
+			"promote", args -> {
+				WaitlistEntry entry = entries.get((Long) args[0]);
+				if (entry.getState() != WaitlistState.WAITING) {
+					return 0;
+				}
+				entry.setState(WaitlistState.PROMOTED);
+				entry.setTicketId((Long) args[1]);
+				return 1;
+			}));
+	private final WaitlistService waitlistService = new WaitlistService(waitlistRepository, ticketRepository,
+			FakeSeatReleaseOutbox.TRANSACTIONS, null, outbox, new SimpleMeterRegistry(), "http://flight-service",
+			Duration.ofSeconds(5), 1, 10);
+	private final TicketServiceImpl ticketService = new TicketServiceImpl(ticketRepository, null, null, null,
+			waitlistService, flights, outbox, null, "http://flight-service", "http://user-service", 500);
+
+	@AfterEach
+	void stop() throws InterruptedException {
+		waitlistService.stop();
+	}
+
+	@Test
+	void cancelledSeatGoesToTheHeadOfTheWaitlist() throws InterruptedException {
+		tickets.put(1L, ticket(1L));
+		entries.put(7L, waiting(7L));
+
+		cancel(1L);
+		waitlistService.stop();
+
+		assertEquals(WaitlistState.PROMOTED, entries.get(7L).getState());
+		Ticket promoted = tickets.get(entries.get(7L).getTicketId());
+		assertEquals(TicketStatus.BOOKED, promoted.getStatus());
+		assertEquals(SCHEDULE, promoted.getScheduleId());
+		// The seat changed hands inside TicketService; FlightService is never told about it
+		assertEquals(List.of(), flights.released);
+		assertTrue(outbox.pending.isEmpty());
+	}
+
+	@Test
+	void cancelledSeatIsReleasedWhenNobodyIsWaiting() throws InterruptedException {
+		tickets.put(1L, ticket(1L));
+
+		cancel(1L);
+		waitlistService.stop();
+
+		assertEquals(TicketStatus.CANCELLED, tickets.get(1L).getStatus());
+		assertEquals(List.of(FLIGHT + ":1"), flights.released);
+		assertTrue(outbox.pending.isEmpty());
+	}
+
+	@Test
+	void seatAlreadyReleasedByTheOutboxIsNotGivenAwayAsWell() throws InterruptedException {
+		tickets.put(1L, ticket(1L));
+		entries.put(7L, waiting(7L));
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			ticketService.cancelTicket(1L);
+			// The outbox retry sends the release before the promotion runs
+			outbox.release(List.copyOf(outbox.pending.keySet()));
+			TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		waitlistService.stop();
+
+		assertEquals(WaitlistState.WAITING, entries.get(7L).getState());
+		assertEquals(List.of(FLIGHT + ":1"), flights.released);
+	}
+
+	// Runs cancelTicket and then its after-commit hooks, as its transaction would
+	private void cancel(Long ticketId) {
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			ticketService.cancelTicket(ticketId);
+			assertEquals(1, outbox.pending.size());
+			TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	private static Ticket ticket(Long id) {
+		LocalDateTime now = LocalDateTime.now();
+		return new Ticket(id, 1L, FLIGHT, SCHEDULE, "Passenger " + id, null, 120.0, TicketStatus.BOOKED, now, now, null);
+	}
+
+	private static WaitlistEntry waiting(Long id) {
+		LocalDateTime now = LocalDateTime.now();
+		return new WaitlistEntry(id, SCHEDULE, FLIGHT, 2L, "Waiting " + id, WaitlistState.WAITING, null, now, now);
+	}
+
+	// Repository stand-in answering only the given methods, by name
+	@SuppressWarnings("unchecked")
+	private static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+			Function<Object[], Object> body = methods.get(method.getName());
+			if (body == null) {
+				throw new UnsupportedOperationException(method.getName());
+			}
+			return body.apply(args);
+		});
+	}
+}
@@ -1,18 +1,27 @@
 package com.example.userservice.Controller;
 
+import com.example.common.security.TokenDenylist.Revocations;
 import com.example.userservice.dtos.LoginRequest;
+import com.example.userservice.dtos.RefreshTokenRequest;
 import com.example.userservice.dtos.RegisterRequest;
 import com.example.userservice.models.User;
+import com.example.userservice.service.RefreshTokenService;
+import com.example.userservice.service.TokenRevocationService;
 import com.example.userservice.service.UserService;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Instant;
+
 @Getter
 @RestController
 @AllArgsConstructor
@@ -20,6 +29,10 @@ import org.springframework.web.bind.annotation.RestController;
 public class AuthController {
     @Autowired
     private UserService userService;
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
     @PostMapping("/public/register")
     public ResponseEntity<?> registerUser(@RequestBody RegisterRequest registerRequest){
         System.out.print("Register Request: " + registerRequest);
@@ -39,7 +52,24 @@ public class AuthController {
 
     @PostMapping("/public/login")
     public ResponseEntity<?> loginUser(@RequestBody LoginRequest loginRequest){
-        System.out.println("Login request"+ loginRequest.getUsername() + loginRequest.getPassword());
         return ResponseEntity.ok(userService.authenticateUser(loginRequest));
     }
+
+    @PostMapping("/public/refresh")
+    public ResponseEntity<?> refreshToken(@RequestBody RefreshTokenRequest request){
+        return ResponseEntity.ok(refreshTokenService.refresh(request.getRefreshToken()));
+    }
+
+    @PostMapping("/public/logout")
+    public ResponseEntity<?> logout(@RequestBody RefreshTokenRequest request){
+        refreshTokenService.logout(request.getRefreshToken());
+        return ResponseEntity.noContent().build();
+    }
+
+    // Polled by other services to keep their token denylists in sync; pass the asOf of the previous response
+    @GetMapping("/revocations")
+    @PreAuthorize("hasRole('SERVICE')")
+    public ResponseEntity<Revocations> revocations(@RequestParam(defaultValue = "0") long since){
+        return ResponseEntity.ok(tokenRevocationService.revocationsSince(Instant.ofEpochMilli(since)));
+    }
 }
@@ -0,0 +1,26 @@
+package com.example.userservice.Controller;
+
+import com.example.userservice.security.JwtSigningKeys;
+import lombok.AllArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@AllArgsConstructor
+public class JwksController {
+    private final JwtSigningKeys signingKeys;
+
+    // Public keys for verifying access tokens; verifiers cache these and refetch on an unknown kid
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, List<Map<String, Object>>>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(Map.of("keys", signingKeys.jwks()));
+    }
+}
@@ -1,10 +1,17 @@
 package com.example.userservice.Controller;
 
+import com.example.userservice.dtos.UserBatchRequest;
+import com.example.userservice.dtos.UserDTO;
 import com.example.userservice.models.User;
 import com.example.userservice.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/users")
@@ -13,6 +20,9 @@ public class UserController {
 
     private final UserService userService;
 
+    @Value("${app.users.batch.max-ids:1000}")
+    private int maxBatchIds;
+
     @GetMapping("/username/{username}")
     public ResponseEntity<User> getUserByUsername(@PathVariable String username) {
         User user = userService.findByUserName(username);
@@ -22,10 +32,18 @@ public class UserController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
-        User user = userService.findById(id);
-        // Don't send the password in the response
-        user.setPassword(null);
-        return ResponseEntity.ok(user);
+    public ResponseEntity<UserDTO> getUserById(@PathVariable Long id) {
+        return ResponseEntity.ok(userService.findUserById(id));
+    }
+
+    // Resolves up to app.users.batch.max-ids users in one call; unknown ids are left out of the result
+    @PostMapping("/batch")
+    public ResponseEntity<List<UserDTO>> getUsersByIds(@RequestBody UserBatchRequest request) {
+        List<Long> ids = request.getIds() != null ? request.getIds() : List.of();
+        if (ids.size() > maxBatchIds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxBatchIds + " ids per batch, got " + ids.size());
+        }
+        return ResponseEntity.ok(userService.findUsersByIds(ids));
     }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.example.userservice.config;
+
+import com.example.common.jdbc.QueryPlanVerifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+
+/**
+ * The keyed repository lookups whose plans {@link QueryPlanVerifier} checks at startup.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.query-plan-check.enabled", havingValue = "true")
+public class QueryPlanConfig {
+    private static final Map<String, String> REPOSITORY_QUERIES = Map.of(
+            "UserRepository.findByUsername",
+            "SELECT * FROM users WHERE username = 'admin'",
+            "UserRepository.findAllById",
+            "SELECT * FROM users WHERE id IN (1, 2, 3)",
+            "RefreshTokenRepository.findByTokenHash",
+            "SELECT * FROM refresh_tokens WHERE token_hash = REPEAT('0', 64)",
+            "RefreshTokenRepository.revokeSession",
+            "SELECT * FROM refresh_tokens WHERE session_id = 'session' AND revoked = 0",
+            "TokenRevocationRepository.deleteExpired",
+            "SELECT * FROM token_revocations WHERE expires_at < NOW()"
+    );
+
+    @Bean
+    public QueryPlanVerifier queryPlanVerifier(JdbcTemplate jdbcTemplate,
+                                               @Value("${app.query-plan-check.fail-on-full-scan:false}") boolean failOnFullScan) {
+        return new QueryPlanVerifier(jdbcTemplate, REPOSITORY_QUERIES, failOnFullScan);
+    }
+}
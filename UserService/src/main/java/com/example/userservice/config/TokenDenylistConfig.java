@@ -0,0 +1,15 @@
+package com.example.userservice.config;
+
+import com.example.common.security.TokenDenylist;
+import com.example.userservice.service.TokenRevocationService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TokenDenylistConfig {
+    // Each node reads the table itself; revocations made on this node are also added directly
+    @Bean
+    public TokenDenylist tokenDenylist(TokenRevocationService tokenRevocationService) {
+        return new TokenDenylist(tokenRevocationService::revocationsSince);
+    }
+}
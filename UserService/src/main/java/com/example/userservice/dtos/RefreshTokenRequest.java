@@ -0,0 +1,8 @@
+package com.example.userservice.dtos;
+
+import lombok.Data;
+
+@Data
+public class RefreshTokenRequest {
+    private String refreshToken;
+}
@@ -0,0 +1,10 @@
+package com.example.userservice.dtos;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class UserBatchRequest {
+    private List<Long> ids;
+}
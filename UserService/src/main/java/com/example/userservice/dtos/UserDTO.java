@@ -0,0 +1,23 @@
+package com.example.userservice.dtos;
+
+import com.example.userservice.models.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A user as exposed to other services: everything but the password hash.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserDTO {
+    private Long id;
+    private String email;
+    private String username;
+    private String role;
+
+    public static UserDTO from(User user) {
+        return new UserDTO(user.getId(), user.getEmail(), user.getUsername(), user.getRole());
+    }
+}
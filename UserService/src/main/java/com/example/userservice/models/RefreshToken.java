@@ -0,0 +1,21 @@
+package com.example.userservice.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Entity
+@Table(name = "refresh_tokens")
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String tokenHash;
+    private String sessionId;
+    private Long userId;
+    private Instant expiresAt;
+    private boolean revoked;
+    private Instant createdAt;
+}
@@ -0,0 +1,82 @@
+package com.example.userservice.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs the configured encoder on the {@link PasswordHashingExecutor} and remembers recent
+ * successful verifications, so a user logging in again within the TTL skips the slow hash.
+ * Only a keyed MAC of the password is kept, under a key that never leaves this process.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor executor;
+    private final long verifiedTtlMillis;
+    private final int verifiedCacheSize;
+    private final Map<String, VerifiedPassword> verified = new ConcurrentHashMap<>();
+    private final byte[] macKey = new byte[32];
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor executor,
+                                  long verifiedTtlMillis, int verifiedCacheSize) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.verifiedTtlMillis = verifiedTtlMillis;
+        this.verifiedCacheSize = verifiedCacheSize;
+        new SecureRandom().nextBytes(macKey);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executor.run("encode", () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return false;
+        }
+        byte[] mac = mac(rawPassword);
+        long now = System.currentTimeMillis();
+        VerifiedPassword cached = verified.get(encodedPassword);
+        if (cached != null && cached.expiresAt() > now && MessageDigest.isEqual(cached.mac(), mac)) {
+            return true;
+        }
+        boolean matches = executor.run("matches", () -> delegate.matches(rawPassword, encodedPassword));
+        if (matches && verifiedTtlMillis > 0) {
+            if (verified.size() >= verifiedCacheSize) {
+                verified.values().removeIf(entry -> entry.expiresAt() <= now);
+                if (verified.size() >= verifiedCacheSize) {
+                    verified.clear();
+                }
+            }
+            verified.put(encodedPassword, new VerifiedPassword(mac, now + verifiedTtlMillis));
+        }
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private byte[] mac(CharSequence rawPassword) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(macKey, "HmacSHA256"));
+            return mac.doFinal(rawPassword.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+
+    private record VerifiedPassword(byte[] mac, long expiresAt) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.userservice.security;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class HashingCapacityException extends RuntimeException {
+    public HashingCapacityException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
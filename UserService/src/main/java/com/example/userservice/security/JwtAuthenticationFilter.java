@@ -1,34 +1,56 @@
 package com.example.userservice.security;
 
-import jakarta.servlet.FilterChain;
+import com.example.common.security.TokenDenylist;
+import com.example.userservice.service.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtils jwtUtils;
     @Autowired
     private UserDetailsService userDetailsService;
+    @Autowired
+    private TokenDenylist tokenDenylist;
+    // Shared with the gateway and the other services; empty means service callers are never trusted
+    @Value("${app.security.gateway.secret:}")
+    private String serviceSecret;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        if (fromService(request)) {
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                    request.getHeader("X-User-Name"), null, AuthorityUtils.createAuthorityList("ROLE_SERVICE")));
+            filterChain.doFilter(request, response);
+            return;
+        }
         try{
             String jwt = jwtUtils.getJwtFromHeader(request);
-            if(jwt !=null && jwtUtils.validateToken(jwt)){
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            if(jwt !=null){
+                Claims claims = jwtUtils.parseClaims(jwt);
+                UserDetails userDetails = null;
+                if(!tokenDenylist.isRevoked(claims.get("sid", String.class))){
+                    UserDetailsImpl fromClaims = jwtUtils.getUserDetailsFromClaims(claims);
+                    userDetails = fromClaims != null ? fromClaims : userDetailsService.loadUserByUsername(claims.getSubject());
+                }
                 if(userDetails!=null){
                     UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                     authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -43,5 +65,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request , response);
     }
+
+    /**
+     * Other services (e.g. TicketService resolving ticket owners) identify as ROLE_SERVICE with the
+     * shared secret. Users relayed by the gateway keep authenticating with their own token here.
+     */
+    private boolean fromService(HttpServletRequest request) {
+        String secret = request.getHeader("X-Gateway-Secret");
+        return StringUtils.hasText(serviceSecret) && secret != null
+                && "ROLE_SERVICE".equals(request.getHeader("X-User-Roles"))
+                && StringUtils.hasText(request.getHeader("X-User-Name"))
+                && MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8),
+                        serviceSecret.getBytes(StandardCharsets.UTF_8));
+    }
 }
 
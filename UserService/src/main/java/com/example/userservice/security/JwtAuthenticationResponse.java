@@ -9,5 +9,7 @@ import lombok.NoArgsConstructor;
 @Data
 public class JwtAuthenticationResponse {
     private String token;
+    private String refreshToken;
+    private long expiresIn;
 
 }
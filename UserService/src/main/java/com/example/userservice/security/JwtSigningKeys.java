@@ -0,0 +1,135 @@
+package com.example.userservice.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RSA keys for signing access tokens. Only UserService holds the private key; verifiers fetch
+ * the public keys from {@code /.well-known/jwks.json}. To rotate, deploy the new private key and
+ * list the previous public key under {@code retired-public-key-locations} until the tokens it
+ * signed have expired.
+ */
+@Slf4j
+@Component
+public class JwtSigningKeys {
+    private final String activeKeyId;
+    private final PrivateKey signingKey;
+    private final Map<String, RSAPublicKey> verificationKeys;
+
+    public JwtSigningKeys(ResourceLoader resourceLoader,
+                          @Value("${app.security.jwt.private-key-location:}") String privateKeyLocation,
+                          @Value("${app.security.jwt.retired-public-key-locations:}") List<String> retiredKeyLocations)
+            throws IOException, GeneralSecurityException {
+        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+        RSAPublicKey publicKey;
+        if (StringUtils.hasText(privateKeyLocation)) {
+            RSAPrivateCrtKey privateKey = (RSAPrivateCrtKey) keyFactory.generatePrivate(
+                    new PKCS8EncodedKeySpec(readPem(resourceLoader, privateKeyLocation)));
+            publicKey = (RSAPublicKey) keyFactory.generatePublic(
+                    new RSAPublicKeySpec(privateKey.getModulus(), privateKey.getPublicExponent()));
+            this.signingKey = privateKey;
+        } else {
+            log.warn("No app.security.jwt.private-key-location configured, signing with an ephemeral key; "
+                    + "tokens will not survive a restart or verify across UserService instances");
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            KeyPair keyPair = generator.generateKeyPair();
+            publicKey = (RSAPublicKey) keyPair.getPublic();
+            this.signingKey = keyPair.getPrivate();
+        }
+        this.activeKeyId = thumbprint(publicKey);
+
+        Map<String, RSAPublicKey> keys = new LinkedHashMap<>();
+        keys.put(activeKeyId, publicKey);
+        for (String location : retiredKeyLocations) {
+            if (StringUtils.hasText(location)) {
+                RSAPublicKey retired = (RSAPublicKey) keyFactory.generatePublic(
+                        new X509EncodedKeySpec(readPem(resourceLoader, location.trim())));
+                keys.putIfAbsent(thumbprint(retired), retired);
+            }
+        }
+        this.verificationKeys = Collections.unmodifiableMap(keys);
+        log.info("Signing access tokens with key {}, publishing {} verification keys", activeKeyId, keys.size());
+    }
+
+    public String activeKeyId() {
+        return activeKeyId;
+    }
+
+    public PrivateKey signingKey() {
+        return signingKey;
+    }
+
+    public RSAPublicKey verificationKey(String keyId) {
+        return verificationKeys.get(keyId);
+    }
+
+    /**
+     * @return the verification keys as RFC 7517 JWKs, active key first
+     */
+    public List<Map<String, Object>> jwks() {
+        List<Map<String, Object>> jwks = new ArrayList<>();
+        verificationKeys.forEach((keyId, key) -> {
+            Map<String, Object> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "RSA");
+            jwk.put("use", "sig");
+            jwk.put("alg", "RS256");
+            jwk.put("kid", keyId);
+            jwk.put("n", base64Url(key.getModulus()));
+            jwk.put("e", base64Url(key.getPublicExponent()));
+            jwks.add(jwk);
+        });
+        return jwks;
+    }
+
+    // RFC 7638 thumbprint, so the key id is stable for a key no matter which node computes it
+    private static String thumbprint(RSAPublicKey key) throws GeneralSecurityException {
+        String canonical = "{\"e\":\"" + base64Url(key.getPublicExponent())
+                + "\",\"kty\":\"RSA\",\"n\":\"" + base64Url(key.getModulus()) + "\"}";
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+
+    private static String base64Url(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            byte[] unsigned = new byte[bytes.length - 1];
+            System.arraycopy(bytes, 1, unsigned, 0, unsigned.length);
+            bytes = unsigned;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static byte[] readPem(ResourceLoader resourceLoader, String location) throws IOException {
+        try (InputStream in = resourceLoader.getResource(location).getInputStream()) {
+            String pem = new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+            String body = pem.replaceAll("-----(BEGIN|END) [A-Z ]+-----", "").replaceAll("\\s", "");
+            return Base64.getDecoder().decode(body);
+        }
+    }
+}
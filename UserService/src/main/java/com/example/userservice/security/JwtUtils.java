@@ -1,22 +1,26 @@
 package com.example.userservice.security;
 
 import com.example.userservice.service.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.SignatureException;
 import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
 import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 import java.util.stream.Collectors;
 @Component
+@RequiredArgsConstructor
 public class JwtUtils {
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    private final JwtSigningKeys signingKeys;
     @Value("${jwt.expiration}")
     private int jwtExpirationMs;
     public String getJwtFromHeader(HttpServletRequest request){
@@ -25,7 +29,11 @@ public class JwtUtils {
             return bearerToken.substring(7);
         return null;
     }
-    public String generateToken(UserDetailsImpl userDetails){
+    /**
+     * Issues a short-lived access token whose claims are enough to authorise a request on their
+     * own: {@code uid}, {@code roles} and the session id {@code sid} checked against the denylist.
+     */
+    public String generateToken(UserDetailsImpl userDetails, String sessionId){
         String username = userDetails.getUsername();
         String roles = userDetails.getAuthorities()
                 .stream()
@@ -36,32 +44,66 @@ public class JwtUtils {
 
         String token = Jwts.builder()
                 .setSubject(username)
+                .id(UUID.randomUUID().toString())
+                .claim("uid", userDetails.getId())
                 .claim("roles", roles)
+                .claim("sid", sessionId)
                 .issuedAt(new Date())
                 .expiration(new Date((new Date().getTime() + jwtExpirationMs)))
-                .signWith(key())  // Ensure this method is working correctly
+                .header().keyId(signingKeys.activeKeyId()).and()
+                .signWith(signingKeys.signingKey(), Jwts.SIG.RS256)
                 .compact();
 
-        System.out.println("🟢 Token: " + token);
         return token;
     }
     public String getUserNameFromJwtToken(String token){
+        return parseClaims(token).getSubject();
+    }
+    public Claims parseClaims(String token){
         return Jwts.parser()
-                .verifyWith((SecretKey) key())
+                .keyLocator(keyLocator())
                 .build()
                 .parseSignedClaims(token)
-                .getPayload().getSubject();
+                .getPayload();
+    }
+
+    /**
+     * Rebuilds the principal from the token claims; returns null for tokens issued before the
+     * {@code uid} claim existed, which still need a user lookup.
+     */
+    public UserDetailsImpl getUserDetailsFromClaims(Claims claims){
+        Number userId = claims.get("uid", Number.class);
+        if (userId == null) {
+            return null;
+        }
+        String roles = claims.get("roles", String.class);
+        return new UserDetailsImpl(userId.longValue(), claims.getSubject(), null, null,
+                AuthorityUtils.commaSeparatedStringToAuthorityList(roles != null ? roles : ""));
     }
+
+    public long getAccessTokenExpirationMs(){
+        return jwtExpirationMs;
+    }
+
     public boolean validateToken(String authToken){
         try{
-            Jwts.parser().verifyWith((SecretKey) key()).build().parseSignedClaims(authToken);
+            parseClaims(authToken);
             return true;
         }catch (Exception e){
             throw new RuntimeException(e);
         }
     }
-    private Key key(){
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    private LocatorAdapter<Key> keyLocator(){
+        return new LocatorAdapter<>() {
+            @Override
+            protected Key locate(JwsHeader header) {
+                Key key = signingKeys.verificationKey(header.getKeyId());
+                if (key == null) {
+                    throw new SignatureException("Unknown signing key: " + header.getKeyId());
+                }
+                return key;
+            }
+        };
     }
 
 
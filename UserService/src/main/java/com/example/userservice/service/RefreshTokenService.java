@@ -0,0 +1,119 @@
+package com.example.userservice.service;
+
+import com.example.common.security.TokenDenylist;
+import com.example.userservice.Repository.RefreshTokenRepository;
+import com.example.userservice.Repository.UserRepository;
+import com.example.userservice.models.RefreshToken;
+import com.example.userservice.models.User;
+import com.example.userservice.security.InvalidRefreshTokenException;
+import com.example.userservice.security.JwtAuthenticationResponse;
+import com.example.userservice.security.JwtUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Issues access/refresh token pairs. Each login starts a session; every refresh rotates the
+ * refresh token within that session, and presenting an already-rotated token revokes the whole
+ * session, including its outstanding access tokens via the {@link TokenDenylist}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final JwtUtils jwtUtils;
+    private final TokenRevocationService tokenRevocationService;
+    private final TokenDenylist tokenDenylist;
+
+    @Value("${jwt.refresh-expiration:1209600000}")
+    private long refreshExpirationMs;
+
+    @Transactional
+    public JwtAuthenticationResponse startSession(UserDetailsImpl userDetails) {
+        return issue(userDetails, UUID.randomUUID().toString());
+    }
+
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public JwtAuthenticationResponse refresh(String rawToken) {
+        RefreshToken stored = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Unknown refresh token"));
+        if (stored.getExpiresAt().isBefore(Instant.now())) {
+            throw new InvalidRefreshTokenException("Refresh token expired");
+        }
+        if (stored.isRevoked() || refreshTokenRepository.markUsed(stored.getId()) == 0) {
+            log.warn("Refresh token reused for session {}, revoking it", stored.getSessionId());
+            revokeSession(stored.getSessionId());
+            throw new InvalidRefreshTokenException("Refresh token already used");
+        }
+        User user = userRepository.findById(stored.getUserId())
+                .orElseThrow(() -> new InvalidRefreshTokenException("User no longer exists"));
+        return issue(UserDetailsImpl.build(user), stored.getSessionId());
+    }
+
+    @Transactional
+    public void logout(String rawToken) {
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .ifPresent(stored -> revokeSession(stored.getSessionId()));
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${app.security.denylist.cleanup-interval-ms:3600000}")
+    public void deleteExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    private JwtAuthenticationResponse issue(UserDetailsImpl userDetails, String sessionId) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(rawToken));
+        refreshToken.setSessionId(sessionId);
+        refreshToken.setUserId(userDetails.getId());
+        refreshToken.setCreatedAt(Instant.now());
+        refreshToken.setExpiresAt(refreshToken.getCreatedAt().plusMillis(refreshExpirationMs));
+        refreshTokenRepository.save(refreshToken);
+
+        String accessToken = jwtUtils.generateToken(userDetails, sessionId);
+        return new JwtAuthenticationResponse(accessToken, rawToken, jwtUtils.getAccessTokenExpirationMs() / 1000);
+    }
+
+    private void revokeSession(String sessionId) {
+        refreshTokenRepository.revokeSession(sessionId);
+        Instant expiresAt = Instant.now().plusMillis(jwtUtils.getAccessTokenExpirationMs());
+        tokenRevocationService.save(sessionId, expiresAt);
+        tokenDenylist.add(sessionId, expiresAt);
+    }
+
+    private static String hash(String rawToken) {
+        if (rawToken == null) {
+            throw new InvalidRefreshTokenException("Refresh token is required");
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.userservice.service;
+
+import com.example.common.security.TokenDenylist.Revocation;
+import com.example.common.security.TokenDenylist.Revocations;
+import com.example.userservice.Repository.TokenRevocationRepository;
+import com.example.userservice.models.TokenRevocation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * The {@code token_revocations} table, which every UserService node reads directly and the other
+ * services poll through {@code GET /api/auth/revocations}. Reads go back
+ * {@code app.security.denylist.sync-overlap-ms} before the requested time, so a revocation whose
+ * transaction committed after a sync had already read past its timestamp is still returned.
+ */
+@Slf4j
+@Service
+public class TokenRevocationService {
+    private final TokenRevocationRepository revocationRepository;
+    private final Duration overlap;
+
+    public TokenRevocationService(TokenRevocationRepository revocationRepository,
+                                  @Value("${app.security.denylist.sync-overlap-ms:60000}") long overlapMs) {
+        this.revocationRepository = revocationRepository;
+        this.overlap = Duration.ofMillis(overlapMs);
+    }
+
+    /**
+     * @param expiresAt when the last access token issued for the session expires
+     */
+    public void save(String sessionId, Instant expiresAt) {
+        revocationRepository.save(new TokenRevocation(null, sessionId, expiresAt, Instant.now()));
+    }
+
+    @Transactional(readOnly = true)
+    public Revocations revocationsSince(Instant since) {
+        Instant asOf = Instant.now();
+        return new Revocations(asOf, revocationRepository
+                .findByRevokedAtGreaterThanEqualAndExpiresAtAfter(since.minus(overlap), asOf).stream()
+                .map(revocation -> new Revocation(revocation.getSessionId(), revocation.getExpiresAt()))
+                .toList());
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${app.security.denylist.cleanup-interval-ms:3600000}")
+    public void deleteExpired() {
+        int deleted = revocationRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired token revocations", deleted);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dtos.UserDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU of users by id, without password hashes. Entries also expire after a TTL, which
+ * bounds how long another node's update can go unseen; local updates invalidate immediately.
+ */
+@Component
+public class UserCache {
+    private final long ttlMillis;
+    private final Map<Long, Entry> entries;
+
+    public UserCache(@Value("${app.users.cache.max-size:10000}") int maxSize,
+                     @Value("${app.users.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = new LinkedHashMap<>(Math.min(maxSize, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return the cached users among {@code ids}; ids that are missing or expired are left out
+     */
+    public synchronized Map<Long, UserDTO> getAll(Collection<Long> ids) {
+        long now = System.currentTimeMillis();
+        Map<Long, UserDTO> found = new HashMap<>();
+        for (Long id : ids) {
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                if (entry.expiresAt() > now) {
+                    found.put(id, entry.user());
+                } else {
+                    entries.remove(id);
+                }
+            }
+        }
+        return found;
+    }
+
+    public synchronized void putAll(Collection<UserDTO> users) {
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        for (UserDTO user : users) {
+            entries.put(user.getId(), new Entry(user, expiresAt));
+        }
+    }
+
+    public synchronized void invalidate(Long id) {
+        entries.remove(id);
+    }
+
+    private record Entry(UserDTO user, long expiresAt) {
+    }
+}
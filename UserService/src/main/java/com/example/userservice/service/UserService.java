@@ -1,12 +1,15 @@
 package com.example.userservice.service;
 
 import com.example.userservice.dtos.LoginRequest;
+import com.example.userservice.dtos.UserDTO;
 import com.example.userservice.models.User;
 import com.example.userservice.Repository.UserRepository;
+import com.example.userservice.security.HashingCapacityException;
 import com.example.userservice.security.JwtAuthenticationResponse;
 import com.example.userservice.security.JwtUtils;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -16,6 +19,13 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
 @Getter
 @Service
 @AllArgsConstructor
@@ -28,10 +38,16 @@ public class UserService {
     private AuthenticationManager authenticationManager;
     @Autowired
     private JwtUtils jwtUtils;
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    @Autowired
+    private UserCache userCache;
 
     public User registerUser(User user){
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userCache.invalidate(saved.getId());
+        return saved;
     }
 
     public void setPasswordEncoder(PasswordEncoder passwordEncoder) {
@@ -63,11 +79,13 @@ public class UserService {
 
             System.out.println("✅ Authentication successful for: " + userDetails.getUsername());
 
-            // Generate JWT Token
-            String jwt = jwtUtils.generateToken(userDetails);
-            System.out.println("🟢 Generated JWT: " + jwt);
+            // Generate access token and start a refresh-token session
+            JwtAuthenticationResponse tokens = refreshTokenService.startSession(userDetails);
 
-            return new JwtAuthenticationResponse(jwt);
+            return tokens;
+        } catch (HashingCapacityException e) {
+            log.warn("Authentication rejected, hashing pool saturated: {}", e.getMessage());
+            throw e;
         } catch (Exception e) {
             System.err.println("❌ Authentication failed: " + e.getMessage());
             throw new RuntimeException("Invalid credentials. Please check username and password.");
@@ -79,6 +97,38 @@ public class UserService {
                 .orElseThrow(()-> new UsernameNotFoundException("User not found with username: "+name));
     }
 
+    public UserDTO findUserById(Long id) {
+        List<UserDTO> users = findUsersByIds(List.of(id));
+        if (users.isEmpty()) {
+            throw new UsernameNotFoundException("User not found with id: " + id);
+        }
+        return users.get(0);
+    }
+
+    /**
+     * Resolves users from the cache, loading all misses with a single IN query. Unknown ids are
+     * skipped; the result follows the order of {@code ids}.
+     */
+    public List<UserDTO> findUsersByIds(Collection<Long> ids) {
+        LinkedHashSet<Long> distinctIds = new LinkedHashSet<>(ids);
+        distinctIds.remove(null);
+        Map<Long, UserDTO> found = userCache.getAll(distinctIds);
+        List<Long> missing = distinctIds.stream().filter(id -> !found.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            List<UserDTO> loaded = userRepository.findAllById(missing).stream().map(UserDTO::from).toList();
+            userCache.putAll(loaded);
+            loaded.forEach(user -> found.put(user.getId(), user));
+        }
+        List<UserDTO> users = new ArrayList<>(found.size());
+        for (Long id : distinctIds) {
+            UserDTO user = found.get(id);
+            if (user != null) {
+                users.add(user);
+            }
+        }
+        return users;
+    }
+
     public User findById(Long id) {
         return userRepository.findById(id)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + id));
@@ -0,0 +1,10 @@
+-- Table as previously generated by spring.jpa.hibernate.ddl-auto=update.
+-- IF NOT EXISTS lets this baseline run against databases that already have it.
+CREATE TABLE IF NOT EXISTS users (
+    id       BIGINT       NOT NULL AUTO_INCREMENT,
+    email    VARCHAR(255),
+    username VARCHAR(255),
+    password VARCHAR(255),
+    role     VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,2 @@
+-- UserRepository.findByUsername, used on every login and token check
+CREATE UNIQUE INDEX uk_users_username ON users (username);
@@ -0,0 +1,24 @@
+-- Refresh tokens are stored as SHA-256 hashes; a family shares one session id across rotations.
+CREATE TABLE refresh_tokens (
+    id          BIGINT      NOT NULL AUTO_INCREMENT,
+    token_hash  CHAR(64)    NOT NULL,
+    session_id  VARCHAR(36) NOT NULL,
+    user_id     BIGINT      NOT NULL,
+    expires_at  DATETIME(6) NOT NULL,
+    revoked     BIT(1)      NOT NULL DEFAULT 0,
+    created_at  DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_refresh_tokens_hash (token_hash),
+    KEY idx_refresh_tokens_session (session_id),
+    KEY idx_refresh_tokens_expires (expires_at)
+) ENGINE = InnoDB;
+
+-- Revoked sessions, polled by every node (and by other services) into an in-memory denylist.
+-- Rows only need to outlive the access tokens of the session they revoke.
+CREATE TABLE token_revocations (
+    id          BIGINT      NOT NULL AUTO_INCREMENT,
+    session_id  VARCHAR(36) NOT NULL,
+    expires_at  DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    KEY idx_token_revocations_expires (expires_at)
+) ENGINE = InnoDB;
@@ -0,0 +1,5 @@
+-- Denylists sync by revocation time with an overlap rather than by id: an AUTO_INCREMENT id can
+-- commit after a higher one, and a sync that already moved past it would never see it.
+ALTER TABLE token_revocations
+    ADD COLUMN revoked_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    ADD KEY idx_token_revocations_revoked (revoked_at);
@@ -0,0 +1,55 @@
+package com.example.userservice.Controller;
+
+import com.example.userservice.security.PasswordHashingExecutor;
+import com.example.userservice.security.WebSecurityConfig;
+import com.example.userservice.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AuthControllerTests {
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, 5_000, meterRegistry);
+
+	@AfterEach
+	void stop() {
+		release.countDown();
+		executor.shutdown();
+	}
+
+	@Test
+	void loginIsAnsweredWith503WhileHashingIsSaturated() throws Exception {
+		DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+		provider.setPasswordEncoder(new WebSecurityConfig(null).passwordEncoder(executor, "bcrypt", 4, 300, 100));
+		provider.setUserDetailsService(username -> User.withUsername(username)
+				.password("{bcrypt}$2a$04$abcdefghijklmnopqrstuuJ6wz7r3cc1AonDgGn5k4ZhGdT0mR6ya").roles("USER").build());
+		UserService userService = new UserService(null, null, new ProviderManager(provider), null, null, null);
+		MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new AuthController(userService, null, null)).build();
+
+		// Both the hashing thread and its queue are taken
+		for (int i = 0; i < 2; i++) {
+			Thread.ofVirtual().start(() -> executor.run("block", () -> release.await(5, TimeUnit.SECONDS)));
+		}
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (meterRegistry.get("auth.password.hash.queue").gauge().value() < 1 && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+
+		mockMvc.perform(post("/api/auth/public/login").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"username\":\"alice\",\"password\":\"secret\"}"))
+				.andExpect(status().isServiceUnavailable());
+	}
+}
@@ -0,0 +1,98 @@
+package com.example.userservice.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedPasswordEncoderTests {
+	private static final int STRENGTH = 5;
+
+	// Counts the hashes that actually ran
+	private final AtomicInteger hashes = new AtomicInteger();
+	private PasswordHashingExecutor executor;
+	private PasswordEncoder encoder;
+	private String storedPassword;
+	private int upgrades;
+	private DaoAuthenticationProvider provider;
+
+	@BeforeEach
+	void setUp() {
+		executor = new PasswordHashingExecutor(2, 10, 5_000, new SimpleMeterRegistry()) {
+			@Override
+			public <T> T run(String operation, Callable<T> task) {
+				hashes.incrementAndGet();
+				return super.run(operation, task);
+			}
+		};
+		// The encoder the application uses
+		encoder = new WebSecurityConfig(null).passwordEncoder(executor, "bcrypt", STRENGTH, 300, 100);
+		provider = new DaoAuthenticationProvider();
+		provider.setPasswordEncoder(encoder);
+		provider.setUserDetailsService(username -> User.withUsername(username).password(storedPassword)
+				.roles("USER").build());
+		provider.setUserDetailsPasswordService((user, newPassword) -> {
+			upgrades++;
+			storedPassword = newPassword;
+			return User.withUserDetails(user).password(newPassword).build();
+		});
+	}
+
+	@AfterEach
+	void stop() {
+		executor.shutdown();
+	}
+
+	@Test
+	void loginReencodesOutdatedHashesOnce() {
+		// The original plain bcrypt, without an {id} prefix and at a lower cost
+		storedPassword = new BCryptPasswordEncoder(4).encode("secret");
+
+		login("secret");
+		assertEquals(1, upgrades);
+		assertTrue(storedPassword.startsWith("{bcrypt}$2a$0" + STRENGTH + "$"), storedPassword);
+		assertTrue(encoder.matches("secret", storedPassword));
+
+		login("secret");
+		assertEquals(1, upgrades);
+	}
+
+	@Test
+	void wrongPasswordIsRejectedAndNotUpgraded() {
+		storedPassword = new BCryptPasswordEncoder(4).encode("secret");
+
+		assertThrows(BadCredentialsException.class, () -> login("guess"));
+		assertEquals(0, upgrades);
+	}
+
+	@Test
+	void repeatedLoginSkipsTheHashButAWrongPasswordDoesNot() {
+		String hash = encoder.encode("secret");
+		hashes.set(0);
+
+		assertTrue(encoder.matches("secret", hash));
+		assertTrue(encoder.matches("secret", hash));
+		assertEquals(1, hashes.get());
+
+		assertFalse(encoder.matches("guess", hash));
+		assertEquals(2, hashes.get());
+	}
+
+	private void login(String password) {
+		provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("alice", password));
+	}
+}
@@ -0,0 +1,53 @@
+package com.example.userservice.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHashingExecutorTests {
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final CountDownLatch release = new CountDownLatch(1);
+	private PasswordHashingExecutor executor;
+
+	@AfterEach
+	void stop() {
+		release.countDown();
+		executor.shutdown();
+	}
+
+	@Test
+	void rejectsWorkOnceThreadsAndQueueAreFull() throws Exception {
+		executor = new PasswordHashingExecutor(1, 1, 5_000, meterRegistry);
+		// One task running, one queued
+		for (int i = 0; i < 2; i++) {
+			Thread.ofVirtual().start(() -> executor.run("block", () -> release.await(5, TimeUnit.SECONDS)));
+		}
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (meterRegistry.get("auth.password.hash.queue").gauge().value() < 1 && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+
+		HashingCapacityException rejected = assertThrows(HashingCapacityException.class,
+				() -> executor.run("matches", () -> true));
+		assertTrue(rejected.getMessage().startsWith("Too many concurrent logins"));
+		assertEquals(1.0, meterRegistry.get("auth.password.hash.rejected").counter().count());
+	}
+
+	@Test
+	void givesUpOnHashesThatTakeTooLong() {
+		executor = new PasswordHashingExecutor(1, 1, 50, meterRegistry);
+
+		HashingCapacityException timedOut = assertThrows(HashingCapacityException.class,
+				() -> executor.run("matches", () -> release.await(5, TimeUnit.SECONDS)));
+		assertTrue(timedOut.getMessage().startsWith("Password hashing timed out"));
+		// The abandoned hash is interrupted, so the thread is free again
+		assertEquals(Boolean.TRUE, executor.run("matches", () -> true));
+	}
+}
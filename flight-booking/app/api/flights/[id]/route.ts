@@ -1,11 +1,14 @@
 import { NextResponse } from "next/server";
 
+const GATEWAY_URL =
+  process.env.NEXT_PUBLIC_GATEWAY_URL || "http://localhost:8000";
+
 export async function GET(
   request: Request,
   { params }: { params: { id: string } }
 ) {
   try {
-    const response = await fetch(`http://localhost:8081/flights/${params.id}`);
+    const response = await fetch(`${GATEWAY_URL}/flights/${params.id}`);
     if (!response.ok) {
       return NextResponse.json({ error: "Flight not found" }, { status: 404 });
     }
@@ -1,12 +1,15 @@
 import { NextResponse } from "next/server";
 import { headers } from "next/headers";
 
+const GATEWAY_URL =
+  process.env.NEXT_PUBLIC_GATEWAY_URL || "http://localhost:8000";
+
 export async function GET() {
   try {
     const headersList = await headers();
     const token = headersList.get("authorization");
 
-    const response = await fetch("http://localhost:8082/tickets/my-tickets", {
+    const response = await fetch(`${GATEWAY_URL}/tickets/my-tickets`, {
       headers: {
         Authorization: token || "",
       },
@@ -33,7 +36,7 @@ export async function POST(request: Request) {
     const token = headersList.get("authorization");
     const body = await request.json();
 
-    const response = await fetch("http://localhost:8082/tickets", {
+    const response = await fetch(`${GATEWAY_URL}/tickets`, {
       method: "POST",
       headers: {
         "Content-Type": "application/json",
@@ -1,9 +1,11 @@
 import axios from "axios";
 
-const API_URL = process.env.NEXT_PUBLIC_API_URL || "http://localhost:8080";
+const API_URL = process.env.NEXT_PUBLIC_GATEWAY_URL || "http://localhost:8000";
 
 export interface LoginResponse {
   token: string;
+  refreshToken: string;
+  expiresIn: number;
 }
 
 export interface LoginRequest {
@@ -29,4 +31,59 @@ export const authService = {
   register: async (userData: RegisterRequest): Promise<void> => {
     await axios.post(`${API_URL}/api/auth/public/register`, userData);
   },
+
+  logout: async (): Promise<void> => {
+    const refreshToken = localStorage.getItem("refreshToken");
+    clearSession();
+    if (refreshToken) {
+      await axios
+        .post(`${API_URL}/api/auth/public/logout`, { refreshToken })
+        .catch(() => undefined);
+    }
+  },
+};
+
+// Refresh a little before the access token actually expires
+const REFRESH_MARGIN_MS = 30_000;
+let refreshing: Promise<string | null> | null = null;
+
+export const storeSession = (response: LoginResponse) => {
+  localStorage.setItem("token", response.token);
+  localStorage.setItem("refreshToken", response.refreshToken);
+  localStorage.setItem(
+    "tokenExpiresAt",
+    String(Date.now() + response.expiresIn * 1000)
+  );
+};
+
+export const clearSession = () => {
+  localStorage.removeItem("token");
+  localStorage.removeItem("refreshToken");
+  localStorage.removeItem("tokenExpiresAt");
+};
+
+// Returns a usable access token, rotating the refresh token first when the current one is about to expire
+export const getValidToken = async (): Promise<string | null> => {
+  const token = localStorage.getItem("token");
+  const expiresAt = Number(localStorage.getItem("tokenExpiresAt") || 0);
+  const refreshToken = localStorage.getItem("refreshToken");
+  if (!refreshToken || (token && Date.now() < expiresAt - REFRESH_MARGIN_MS)) {
+    return token;
+  }
+  if (!refreshing) {
+    refreshing = axios
+      .post<LoginResponse>(`${API_URL}/api/auth/public/refresh`, { refreshToken })
+      .then((response) => {
+        storeSession(response.data);
+        return response.data.token;
+      })
+      .catch(() => {
+        clearSession();
+        return null;
+      })
+      .finally(() => {
+        refreshing = null;
+      });
+  }
+  return refreshing;
 };
@@ -1,13 +1,14 @@
 import axios from "axios";
+import { clearSession, getValidToken } from "./auth";
 
 const axiosInstance = axios.create({
-  baseURL: process.env.NEXT_PUBLIC_API_URL || "http://localhost:8080",
+  baseURL: process.env.NEXT_PUBLIC_GATEWAY_URL || "http://localhost:8000",
 });
 
 // Add a request interceptor
 axiosInstance.interceptors.request.use(
-  (config) => {
-    const token = localStorage.getItem("token");
+  async (config) => {
+    const token = await getValidToken();
     if (token) {
       config.headers.Authorization = `Bearer ${token}`;
     }
@@ -24,7 +25,7 @@ axiosInstance.interceptors.response.use(
   (error) => {
     if (error.response?.status === 401) {
       // Handle unauthorized access
-      localStorage.removeItem("token");
+      clearSession();
       window.location.href = "/auth?tab=login";
     }
     return Promise.reject(error);
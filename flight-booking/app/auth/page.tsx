@@ -1,7 +1,7 @@
 "use client";
 
 import type React from "react";
-import { authService } from "./auth";
+import { authService, storeSession } from "./auth";
 import { useState, useEffect } from "react";
 import Link from "next/link";
 import { useRouter } from "next/navigation";
@@ -200,7 +200,7 @@ export default function AuthPage() {
       const token = response.token;
       if (token && token.split(".").length === 3) {
         // Verify token format
-        localStorage.setItem("token", token);
+        storeSession(response);
         localStorage.setItem("username", loginUsername); // Store username for avatar display
 
         toast({
@@ -292,7 +292,7 @@ export default function AuthPage() {
       });
 
       // Store both token and username
-      localStorage.setItem("token", loginResponse.token);
+      storeSession(loginResponse);
       localStorage.setItem("username", fullName); // Store username for avatar display
 
       router.push("/");
@@ -21,10 +21,12 @@ import { ChevronLeft, CreditCard, Plane } from "lucide-react";
 import { toast } from "@/hooks/use-toast";
 import {
   flightService,
+  type FareQuote,
   type Flight,
   type Schedule,
 } from "../../flights/flights";
-import { ticketService } from "../../services/ticket";
+import { ticketService, type Ticket } from "../../services/ticket";
+import { bookingService } from "../../services/booking";
 
 export default function BookingPage({
   params,
@@ -35,6 +37,8 @@ export default function BookingPage({
   const { id } = use(params);
   const [flight, setFlight] = useState<Flight | null>(null);
   const [currentSchedule, setCurrentSchedule] = useState<Schedule | null>(null);
+  const [myTickets, setMyTickets] = useState<Ticket[]>([]);
+  const [quote, setQuote] = useState<FareQuote | null>(null);
   const [loading, setLoading] = useState(true);
   const [isSubmitting, setIsSubmitting] = useState(false);
   const [formData, setFormData] = useState({
@@ -51,15 +55,13 @@ export default function BookingPage({
     const fetchFlightDetails = async () => {
       try {
         setLoading(true);
-        const [flightData, scheduleData] = await Promise.all([
-          flightService.getFlightById(id),
-          flightService.getFlightSchedules(id),
-        ]);
+        const page = await bookingService.getBookingPage(id);
 
-        setFlight(flightData);
-        if (scheduleData && scheduleData.length > 0) {
-          setCurrentSchedule(scheduleData[0]); // Get the first available schedule
+        setFlight(page.flight);
+        if (page.schedules && page.schedules.length > 0) {
+          setCurrentSchedule(page.schedules[0]); // Get the first available schedule
         }
+        setMyTickets(page.myTickets ?? []);
       } catch (error) {
         console.error("Error fetching flight details:", error);
         toast({
@@ -75,6 +77,15 @@ export default function BookingPage({
     fetchFlightDetails();
   }, [id]);
 
+  // Quotes expire after a few minutes; a fresh one is fetched again right before booking
+  useEffect(() => {
+    if (!currentSchedule) return;
+    flightService
+      .getFareQuote(currentSchedule.id)
+      .then(setQuote)
+      .catch((error) => console.error("Error fetching fare quote:", error));
+  }, [currentSchedule]);
+
   const handleInputChange = (e: React.ChangeEvent<HTMLInputElement>) => {
     const { id, value } = e.target;
     setFormData((prev) => ({
@@ -102,11 +113,13 @@ export default function BookingPage({
         return;
       }
 
+      const freshQuote = await flightService.getFareQuote(currentSchedule.id);
+      setQuote(freshQuote);
       const ticketData = {
         flightId: flight.id,
         scheduleId: currentSchedule.id,
         passengerName: `${formData.firstName} ${formData.lastName}`,
-        price: flight.price,
+        quote: freshQuote,
       };
 
       await ticketService.createTicket(ticketData);
@@ -187,6 +200,10 @@ export default function BookingPage({
                 <CardTitle>Flight Details</CardTitle>
                 <CardDescription>
                   Review your flight information
+                  {myTickets.length > 0 &&
+                    ` (you already hold ${myTickets.length} ticket${
+                      myTickets.length > 1 ? "s" : ""
+                    } on this flight)`}
                 </CardDescription>
               </CardHeader>
               <CardContent>
@@ -359,7 +376,7 @@ export default function BookingPage({
             <CardContent className="space-y-4">
               <div className="flex justify-between">
                 <span>Base Fare</span>
-                <span>Rs {flight.price}</span>
+                <span>Rs {quote?.fare ?? flight.price}</span>
               </div>
               <div className="flex justify-between">
                 <span>Taxes & Fees</span>
@@ -372,7 +389,7 @@ export default function BookingPage({
               <Separator />
               <div className="flex justify-between font-bold">
                 <span>Total</span>
-                <span>Rs {flight.price + 45 + 15}</span>
+                <span>Rs {(quote?.fare ?? flight.price) + 45 + 15}</span>
               </div>
               <div className="text-center text-xs text-muted-foreground">
                 Price shown is per person
@@ -1,6 +1,6 @@
 import axios from "axios";
 
-const API_URL = process.env.NEXT_PUBLIC_API_URL || "http://localhost:8081";
+const API_URL = process.env.NEXT_PUBLIC_GATEWAY_URL || "http://localhost:8000";
 
 export interface Flight {
   id: number;
@@ -21,6 +21,17 @@ export interface Schedule {
   flightStatus: "ON_TIME" | "DELAYED" | "SCHEDULED" | "CANCELLED";
 }
 
+// Signed by FlightService; pass it back unchanged when booking
+export interface FareQuote {
+  flightId: number;
+  scheduleId: number;
+  fare: number;
+  fareBucket: string;
+  expiresAt: string;
+  nonce: string;
+  signature: string;
+}
+
 export const flightService = {
   getAllFlights: async (sort?: string): Promise<Flight[]> => {
     const response = await axios.get(
@@ -48,6 +59,13 @@ export const flightService = {
     );
     return response.data;
   },
+
+  getFareQuote: async (scheduleId: number): Promise<FareQuote> => {
+    const response = await axios.get(
+      `${API_URL}/flights/schedules/${scheduleId}/quote`
+    );
+    return response.data;
+  },
 };
 
 // Helper function to calculate duration between two dates
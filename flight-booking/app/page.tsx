@@ -34,6 +34,7 @@ import {
   DropdownMenuTrigger,
 } from "@/components/ui/dropdown-menu";
 import { Avatar, AvatarFallback } from "@/components/ui/avatar";
+import { authService } from "./auth/auth";
 
 export default function Home() {
   const [user, setUser] = useState<{ username: string } | null>(null);
@@ -145,8 +146,8 @@ export default function Home() {
                 <DropdownMenuSeparator />
                 <DropdownMenuItem
                   className="flex items-center text-red-500 focus:text-red-500"
-                  onClick={() => {
-                    localStorage.removeItem("token");
+                  onClick={async () => {
+                    await authService.logout();
                     localStorage.removeItem("username");
                     setUser(null);
                     window.location.reload(); // Force a refresh
@@ -0,0 +1,28 @@
+import axios from "axios";
+import { getValidToken } from "../auth/auth";
+import type { Flight, Schedule } from "../flights/flights";
+import type { Ticket } from "./ticket";
+
+const GATEWAY_URL =
+  process.env.NEXT_PUBLIC_GATEWAY_URL || "http://localhost:8000";
+
+export interface BookingPage {
+  flight: Flight;
+  schedules: Schedule[];
+  // Only present when logged in; null if the ticket service could not be reached
+  myTickets: Ticket[] | null;
+}
+
+export const bookingService = {
+  // One gateway round trip instead of separate flight, schedule and ticket calls
+  getBookingPage: async (flightId: string): Promise<BookingPage> => {
+    const token = await getValidToken();
+    const response = await axios.get(
+      `${GATEWAY_URL}/gateway/booking-page/${flightId}`,
+      token
+        ? { headers: { Authorization: `Bearer ${token.replace("Bearer ", "")}` } }
+        : undefined
+    );
+    return response.data;
+  },
+};
@@ -1,10 +1,12 @@
 import axios from "axios";
+import { getValidToken } from "../auth/auth";
+import type { FareQuote } from "../flights/flights";
 
 export interface TicketCreationRequest {
   scheduleId: number;
   flightId: number;
   passengerName: string;
-  price: number;
+  quote: FareQuote;
 }
 
 export interface Ticket {
@@ -18,16 +20,21 @@ export interface Ticket {
   status: string;
   bookingTime: string;
   lastUpdated: string;
+  // DELAYED or CANCELLED after a disruption of the departure
+  disruption?: string | null;
+  // Only in history views (includeArchived)
+  archived?: boolean;
   flight?: any;
   schedule?: any;
   user?: any;
 }
 
 class TicketService {
-  private baseUrl = "http://localhost:8082" + "/tickets";
+  private baseUrl =
+    (process.env.NEXT_PUBLIC_GATEWAY_URL || "http://localhost:8000") + "/tickets";
 
-  private getAuthHeaders() {
-    const token = localStorage.getItem("token");
+  private async getAuthHeaders() {
+    const token = await getValidToken();
     if (!token) {
       throw new Error("No authentication token found. Please log in.");
     }
@@ -39,7 +46,7 @@ class TicketService {
   async createTicket(ticketData: TicketCreationRequest): Promise<Ticket> {
     try {
       const response = await axios.post(this.baseUrl, ticketData, {
-        headers: this.getAuthHeaders(),
+        headers: await this.getAuthHeaders(),
       });
       return response.data.data;
     } catch (error) {
@@ -51,7 +58,7 @@ class TicketService {
   }
 
   async getMyTickets(): Promise<Ticket[]> {
-    const token = localStorage.getItem("token");
+    const token = await getValidToken();
     const response = await axios.get(`${this.baseUrl}/my-tickets`, {
       headers: {
         Authorization: `Bearer ${token}`,
@@ -61,7 +68,7 @@ class TicketService {
   }
 
   async getTicketById(id: string): Promise<Ticket> {
-    const token = localStorage.getItem("token");
+    const token = await getValidToken();
     const response = await axios.get(`${this.baseUrl}/${id}`, {
       headers: {
         Authorization: `Bearer ${token}`,
@@ -71,7 +78,7 @@ class TicketService {
   }
 
   async cancelTicket(id: string): Promise<void> {
-    const token = localStorage.getItem("token");
+    const token = await getValidToken();
     await axios.delete(`${this.baseUrl}/${id}`, {
       headers: {
         Authorization: `Bearer ${token}`,
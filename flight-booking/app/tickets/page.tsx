@@ -38,6 +38,7 @@ interface Ticket {
   status: string;
   bookingTime: string;
   lastUpdated: string;
+  disruption?: string | null;
   flight?: {
     id: number;
     airlineName: string;
@@ -228,20 +229,25 @@ function TicketCard({
               {ticket.flight.departureCity} to {ticket.flight.arrivalCity}
             </CardTitle>
           </div>
-          <Badge
-            variant={
-              ticket.status === "BOOKED"
-                ? "outline"
-                : ticket.status === "COMPLETED"
-                ? "secondary"
-                : "destructive"
-            }
-            className={
-              ticket.status === "BOOKED" ? "border-white text-white" : ""
-            }
-          >
-            {ticket.status}
-          </Badge>
+          <div className="flex gap-2">
+            <Badge
+              variant={
+                ticket.status === "BOOKED"
+                  ? "outline"
+                  : ticket.status === "COMPLETED"
+                  ? "secondary"
+                  : "destructive"
+              }
+              className={
+                ticket.status === "BOOKED" ? "border-white text-white" : ""
+              }
+            >
+              {ticket.status}
+            </Badge>
+            {ticket.disruption === "DELAYED" && ticket.status === "BOOKED" && (
+              <Badge variant="destructive">DELAYED</Badge>
+            )}
+          </div>
         </div>
       </CardHeader>
       <CardContent className="p-6">
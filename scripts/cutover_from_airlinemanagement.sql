@@ -0,0 +1,75 @@
+-- One-off copy of the data in the shared `airlinemanagement` schema into the per-service schemas.
+--
+-- 1. Start UserService, FlightService and TicketService once against their new schemas, so Flyway
+--    creates the tables, then stop all three (and the gateway) for the copy.
+-- 2. Run this script as a user that can read airlinemanagement and write the three new schemas:
+--        mysql -u root -p < scripts/cutover_from_airlinemanagement.sql
+--    All four schemas must be on the same server. If USER_DB_URL, FLIGHT_DB_URL or TICKET_DB_URL
+--    name other schemas, replace airline_users, airline_flights and airline_tickets below.
+-- 3. Start the services again. FlightService splits the copied seat counts into stripes on startup
+--    when seat striping is on.
+--
+-- Ids are kept, because tickets refer to users, flights and schedules in other schemas by id. The
+-- copy refuses to run unless the target tables are empty, so it cannot be applied twice. Of
+-- schedules that share a flight and departure time, only the oldest is copied, as FlightService
+-- allows one departure per flight and time (V6__unique_schedule_departure.sql); tickets of the
+-- others are copied onto the oldest.
+
+DROP PROCEDURE IF EXISTS airline_tickets.cutover_from_airlinemanagement;
+
+DELIMITER //
+CREATE PROCEDURE airline_tickets.cutover_from_airlinemanagement()
+BEGIN
+    DECLARE EXIT HANDLER FOR SQLEXCEPTION
+    BEGIN
+        ROLLBACK;
+        RESIGNAL;
+    END;
+
+    IF (SELECT COUNT(*) FROM airline_users.users) > 0
+        OR (SELECT COUNT(*) FROM airline_flights.flights) > 0
+        OR (SELECT COUNT(*) FROM airline_flights.schedules) > 0
+        OR (SELECT COUNT(*) FROM airline_tickets.tickets) > 0 THEN
+        SIGNAL SQLSTATE '45000'
+            SET MESSAGE_TEXT = 'The per-service schemas already hold data; the cut-over only copies into empty tables';
+    END IF;
+
+    START TRANSACTION;
+
+    INSERT INTO airline_users.users (id, email, username, password, role)
+    SELECT id, email, username, password, role
+    FROM airlinemanagement.users;
+
+    INSERT INTO airline_flights.flights
+        (id, flight_number, airline_name, departure_city, arrival_city, price, capacity, available_seats)
+    SELECT id, flight_number, airline_name, departure_city, arrival_city, price, capacity, available_seats
+    FROM airlinemanagement.flights;
+
+    INSERT INTO airline_flights.schedules (id, flight_id, departure_time, arrival_time, flight_status)
+    SELECT s.id, s.flight_id, s.departure_time, s.arrival_time, s.flight_status
+    FROM airlinemanagement.schedules s
+    WHERE NOT EXISTS (SELECT 1 FROM airlinemanagement.schedules older
+                      WHERE older.flight_id = s.flight_id AND older.departure_time = s.departure_time
+                        AND older.id < s.id);
+
+    INSERT INTO airline_tickets.tickets
+        (id, user_id, flight_id, schedule_id, passenger_name, seat_number, price, status, booking_time, last_updated)
+    SELECT t.id, t.user_id, t.flight_id, COALESCE(kept.id, t.schedule_id), t.passenger_name, t.seat_number,
+           t.price, t.status, t.booking_time, t.last_updated
+    FROM airlinemanagement.tickets t
+        LEFT JOIN airlinemanagement.schedules s ON s.id = t.schedule_id
+        LEFT JOIN airlinemanagement.schedules kept ON kept.id = (
+            SELECT MIN(same.id) FROM airlinemanagement.schedules same
+            WHERE same.flight_id = s.flight_id AND same.departure_time = s.departure_time);
+
+    COMMIT;
+END //
+DELIMITER ;
+
+CALL airline_tickets.cutover_from_airlinemanagement();
+DROP PROCEDURE airline_tickets.cutover_from_airlinemanagement;
+
+SELECT (SELECT COUNT(*) FROM airline_users.users)       AS users,
+       (SELECT COUNT(*) FROM airline_flights.flights)   AS flights,
+       (SELECT COUNT(*) FROM airline_flights.schedules) AS schedules,
+       (SELECT COUNT(*) FROM airline_tickets.tickets)   AS tickets;
@@ -0,0 +1,31 @@
+-- Moves TicketService rows off schedules that FlightService merged into an older duplicate
+-- (V6__unique_schedule_departure.sql records them in schedule_merges).
+--
+-- Run once after FlightService has applied V6, as a user that can read airline_flights and write
+-- airline_tickets; TicketService may keep running:
+--        mysql -u root -p < scripts/repoint_merged_schedules.sql
+-- Both schemas must be on the same server. If FLIGHT_DB_URL or TICKET_DB_URL name other schemas,
+-- replace airline_flights and airline_tickets below. Running it again changes nothing.
+
+START TRANSACTION;
+
+UPDATE airline_tickets.tickets t
+    JOIN airline_flights.schedule_merges m ON m.duplicate_id = t.schedule_id
+SET t.schedule_id = m.kept_id;
+
+UPDATE airline_tickets.tickets_archive t
+    JOIN airline_flights.schedule_merges m ON m.duplicate_id = t.schedule_id
+SET t.schedule_id = m.kept_id;
+
+UPDATE airline_tickets.waitlist_entries w
+    JOIN airline_flights.schedule_merges m ON m.duplicate_id = w.schedule_id
+SET w.schedule_id = m.kept_id;
+
+COMMIT;
+
+-- Rows that still name a schedule FlightService no longer has; expected to be 0
+SELECT (SELECT COUNT(*) FROM airline_tickets.tickets t
+        WHERE t.schedule_id IS NOT NULL
+          AND NOT EXISTS (SELECT 1 FROM airline_flights.schedules s WHERE s.id = t.schedule_id)) AS orphaned_tickets,
+       (SELECT COUNT(*) FROM airline_tickets.waitlist_entries w
+        WHERE NOT EXISTS (SELECT 1 FROM airline_flights.schedules s WHERE s.id = w.schedule_id)) AS orphaned_waitlist;